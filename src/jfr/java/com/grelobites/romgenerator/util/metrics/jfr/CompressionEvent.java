@@ -0,0 +1,29 @@
+package com.grelobites.romgenerator.util.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.grelobites.romgenerator.Compression")
+@Label("Slot Compression")
+@Category({"RomGenerator", "Compression"})
+@StackTrace(false)
+public class CompressionEvent extends jdk.jfr.Event {
+    @Label("Codec")
+    public String codec;
+
+    @Label("Bytes In")
+    @DataAmount
+    public int bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    public int bytesOut;
+
+    @Label("Elapsed")
+    @Timespan
+    public long elapsed;
+}
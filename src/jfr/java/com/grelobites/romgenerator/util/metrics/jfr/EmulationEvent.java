@@ -0,0 +1,37 @@
+package com.grelobites.romgenerator.util.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.grelobites.romgenerator.Emulation")
+@Label("Game Load")
+@Category({"RomGenerator", "Emulation"})
+@StackTrace(false)
+public class EmulationEvent extends jdk.jfr.Event {
+    @Label("Loader")
+    public String loader;
+
+    @Label("T-States")
+    public long tstates;
+
+    @Label("Frames")
+    public long frames;
+
+    @Label("Instructions")
+    public long instructions;
+
+    @Label("FDC Bytes")
+    @DataAmount
+    public long fdcBytes;
+
+    @Label("Stop Condition")
+    public String stopCondition;
+
+    @Label("Elapsed")
+    @Timespan
+    public long elapsed;
+}
@@ -0,0 +1,25 @@
+package com.grelobites.romgenerator.util.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.grelobites.romgenerator.Export")
+@Label("ROM Set Export")
+@Category({"RomGenerator", "Export"})
+@StackTrace(false)
+public class ExportEvent extends jdk.jfr.Event {
+    @Label("Games")
+    public int games;
+
+    @Label("Size")
+    @DataAmount
+    public int size;
+
+    @Label("Elapsed")
+    @Timespan
+    public long elapsed;
+}
@@ -0,0 +1,74 @@
+package com.grelobites.romgenerator.util.metrics.jfr;
+
+import com.grelobites.romgenerator.util.metrics.EventSink;
+
+/*
+ * Turns the measurements into Flight Recorder events. Only built with -Djfr
+ * on JDK 11 or newer, and loaded by name from Metrics when present.
+ * The events are committed once the measured work is done, so their own
+ * duration is meaningless and the measured time goes in the elapsed field.
+ */
+public class JfrEventSink implements EventSink {
+
+    @Override
+    public void onCompression(String codec, int bytesIn, int bytesOut, long nanos) {
+        CompressionEvent event = new CompressionEvent();
+        if (event.shouldCommit()) {
+            event.codec = codec;
+            event.bytesIn = bytesIn;
+            event.bytesOut = bytesOut;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onEmulation(String loader, long tstates, long frames, long instructions,
+                            long fdcBytes, String stopCondition, long nanos) {
+        EmulationEvent event = new EmulationEvent();
+        if (event.shouldCommit()) {
+            event.loader = loader;
+            event.tstates = tstates;
+            event.frames = frames;
+            event.instructions = instructions;
+            event.fdcBytes = fdcBytes;
+            event.stopCondition = stopCondition;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onTask(String type, long queueNanos, long runNanos) {
+        TaskEvent event = new TaskEvent();
+        if (event.shouldCommit()) {
+            event.pool = type;
+            event.queueTime = queueNanos;
+            event.runTime = runNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onSerialTransfer(long bytesWritten, long bytesRead, long retransmits, long nanos) {
+        SerialTransferEvent event = new SerialTransferEvent();
+        if (event.shouldCommit()) {
+            event.bytesWritten = bytesWritten;
+            event.bytesRead = bytesRead;
+            event.retransmits = retransmits;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onExport(int games, int bytes, long nanos) {
+        ExportEvent event = new ExportEvent();
+        if (event.shouldCommit()) {
+            event.games = games;
+            event.size = bytes;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+}
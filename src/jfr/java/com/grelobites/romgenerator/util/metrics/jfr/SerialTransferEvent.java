@@ -0,0 +1,29 @@
+package com.grelobites.romgenerator.util.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.grelobites.romgenerator.SerialTransfer")
+@Label("Serial Transfer")
+@Category({"RomGenerator", "Serial"})
+@StackTrace(false)
+public class SerialTransferEvent extends jdk.jfr.Event {
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytesRead;
+
+    @Label("Retransmits")
+    public long retransmits;
+
+    @Label("Elapsed")
+    @Timespan
+    public long elapsed;
+}
@@ -0,0 +1,24 @@
+package com.grelobites.romgenerator.util.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.grelobites.romgenerator.Task")
+@Label("Background Task")
+@Category({"RomGenerator", "Tasks"})
+@StackTrace(false)
+public class TaskEvent extends jdk.jfr.Event {
+    @Label("Pool")
+    public String pool;
+
+    @Label("Queue Time")
+    @Timespan
+    public long queueTime;
+
+    @Label("Run Time")
+    @Timespan
+    public long runTime;
+}
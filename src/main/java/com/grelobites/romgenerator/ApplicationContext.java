@@ -6,6 +6,8 @@ import com.grelobites.romgenerator.util.GameUtil;
 import com.grelobites.romgenerator.util.LocaleUtil;
 import com.grelobites.romgenerator.util.OperationResult;
 import com.grelobites.romgenerator.util.romsethandler.RomSetHandler;
+import com.grelobites.romgenerator.util.task.TaskGraph;
+import com.grelobites.romgenerator.util.task.TaskType;
 import com.grelobites.romgenerator.view.util.DialogUtil;
 import com.grelobites.romgenerator.view.util.DirectoryAwareFileChooser;
 import javafx.application.Platform;
@@ -29,18 +31,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Map;
+import java.nio.file.Files;
 import java.util.Optional;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 public class ApplicationContext {
     private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationContext.class);
     private static final String APPLICATION_TITLE = "ROM Generator";
-    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
     private static ApplicationContext applicationContextInstance;
 
     Stage applicationStage;
@@ -69,15 +70,8 @@ public class ApplicationContext {
         applicationTitle.set(title.toString());
     }
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5, r -> {
-        Thread t = new Thread(r);
-        t.setDaemon(true);
-        t.setName("RomGenerator executor service");
-        return t;
-    });
-
-    private final Map<Integer, Future<OperationResult>> runningTasks =
-            new ConcurrentHashMap<>();
+    private final TaskGraph taskGraph = new TaskGraph(count ->
+            Platform.runLater(this::updateBackgroundTaskCount));
 
     public static ApplicationContext getInstance() {
         if (applicationContextInstance == null) {
@@ -154,6 +148,11 @@ public class ApplicationContext {
         return backgroundTaskCount;
     }
 
+    //Always read at the time of the update, so late updates never go back in time
+    private void updateBackgroundTaskCount() {
+        backgroundTaskCount.set(taskGraph.getPendingTasks());
+    }
+
     public ImageView getMenuPreview() {
         return menuPreview;
     }
@@ -187,11 +186,31 @@ public class ApplicationContext {
         this.romSetHandlerInfoPane = romSetHandlerInfoPane;
     }
 
-    public Future<OperationResult> addBackgroundTask(Callable<OperationResult> task) {
-        Platform.runLater(() -> backgroundTaskCount.set(backgroundTaskCount.get() + 1));
-        BackgroundTask wrapper = new BackgroundTask(task, backgroundTaskCount);
-        Future<OperationResult> future = executorService.submit(wrapper);
-        runningTasks.put(wrapper.getId(), future);
+    public TaskGraph getTaskGraph() {
+        return taskGraph;
+    }
+
+    public <T> CompletableFuture<T> submitTask(TaskType type, Callable<T> task) {
+        return taskGraph.submit(type, task);
+    }
+
+    /*
+     * Runs an operation whose errors are reported to the user
+     */
+    public CompletableFuture<OperationResult> submitOperation(TaskType type, Callable<OperationResult> task) {
+        CompletableFuture<OperationResult> future = taskGraph.submit(type, task);
+        future.whenComplete((result, failure) -> {
+            if (failure != null) {
+                if (!future.isCancelled()) {
+                    LOGGER.error("Running background operation", failure);
+                }
+            } else if (result.isError()) {
+                Platform.runLater(() -> DialogUtil.buildErrorAlert(result.getContext(),
+                        result.getMessage(),
+                        result.getDetail())
+                        .showAndWait());
+            }
+        });
         return future;
     }
 
@@ -282,62 +301,22 @@ public class ApplicationContext {
 
     public void importRomSet(File romSetFile) throws IOException {
         if (getGameList().isEmpty() || confirmRomSetDeletion()) {
-            try (InputStream is = new FileInputStream(romSetFile)) {
+            //Read in one go, the importers jump around the file
+            try (InputStream is = new ByteArrayInputStream(Files.readAllBytes(romSetFile.toPath()))) {
                 romSetHandler.importRomSet(is);
             }
         }
     }
 
     public void mergeRomSet(File romSetFile) throws IOException {
-        try (InputStream is = new FileInputStream(romSetFile)) {
+        try (InputStream is = new ByteArrayInputStream(Files.readAllBytes(romSetFile.toPath()))) {
             romSetHandler.mergeRomSet(is);
         }
     }
 
     public void shutdownBackgroundTasks() {
-        FutureTask futureTask;
         LOGGER.info("Shutting down background tasks!!");
-        for (Future<OperationResult> future : runningTasks.values()) {
-            LOGGER.debug("Shutting down future {}", future);
-            if (!future.cancel(true)) {
-                LOGGER.debug("Unable to cancel future");
-            }
-            LOGGER.debug("After cancelling, done is {}", future.isDone());
-        }
+        taskGraph.cancelAll();
         LOGGER.info("All running background tasks shut down");
     }
-
-    class BackgroundTask implements Callable<OperationResult> {
-        private IntegerProperty backgroundTaskCount;
-        private Callable<OperationResult> task;
-        private Integer id;
-
-        public BackgroundTask(Callable<OperationResult> task, IntegerProperty backgroundTaskCount) {
-            this.backgroundTaskCount = backgroundTaskCount;
-            this.task = task;
-            this.id = ID_GENERATOR.getAndIncrement();
-        }
-
-        public Integer getId() {
-            return id;
-        }
-
-        @Override
-        public OperationResult call() throws Exception {
-            final OperationResult result = task.call();
-            runningTasks.remove(id);
-            Platform.runLater(() -> {
-                backgroundTaskCount.set(backgroundTaskCount.get() - 1);
-                if (result.isError()) {
-                    DialogUtil.buildErrorAlert(result.getContext(),
-                            result.getMessage(),
-                            result.getDetail())
-                            .showAndWait();
-                }
-            });
-            return result;
-        }
-    }
 }
-
-
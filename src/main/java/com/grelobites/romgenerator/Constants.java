@@ -4,9 +4,11 @@ import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConstants
 import com.grelobites.romgenerator.util.LocaleUtil;
 import com.grelobites.romgenerator.util.PreferencesProvider;
 import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.resource.LazyResource;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.Executor;
 
 public class Constants {
 
@@ -60,13 +62,38 @@ public class Constants {
     public static final int MENU_SCREEN_MODE = 0;
 
 
-    private static byte[] DEFAULT_DANDANATOR_SCREEN;
-    private static byte[] SINCLAIR_SCREEN;
-    private static byte[] DEFAULT_CHARSET;
-    private static byte[] ICONS;
-    private static byte[] RESCUE_LOADER;
-    private static byte[] RESCUE_EEWRITER;
-    private static byte[] USB_LAUNCHCODE_HEADER;
+    private static final LazyResource<byte[]> DEFAULT_DANDANATOR_SCREEN = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(DEFAULT_MENU_SCREEN_RESOURCE),
+                    Constants.CPC_SCREEN_WITH_PALETTE_SIZE));
+    private static final LazyResource<byte[]> SINCLAIR_SCREEN = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(SINCLAIR_SCREEN_RESOURCE),
+                    Constants.CPC_SCREEN_WITH_PALETTE_SIZE));
+    private static final LazyResource<byte[]> DEFAULT_CHARSET = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(DEFAULT_CHARSET_RESOURCE),
+                    CHARSET_SIZE));
+    private static final LazyResource<byte[]> ICONS = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(ICONS_RESOURCE),
+                    ICONS_SIZE));
+    private static final LazyResource<byte[]> RESCUE_LOADER = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(RESCUE_LOADER_RESOURCE)));
+    private static final LazyResource<byte[]> RESCUE_EEWRITER = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(RESCUE_EEWRITER_RESOURCE)));
+    private static final LazyResource<byte[]> USB_LAUNCHCODE_HEADER = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(USB_LAUNCHCODE_HEADER_RESOURCE)));
 
 
     private static String THEME_RESOURCE_URL;
@@ -98,23 +125,11 @@ public class Constants {
     }
 
     public static byte[] getDefaultMenuScreen() throws IOException {
-        if (DEFAULT_DANDANATOR_SCREEN == null) {
-            DEFAULT_DANDANATOR_SCREEN = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(DEFAULT_MENU_SCREEN_RESOURCE),
-                    Constants.CPC_SCREEN_WITH_PALETTE_SIZE);
-        }
-        return DEFAULT_DANDANATOR_SCREEN;
+        return DEFAULT_DANDANATOR_SCREEN.get();
     }
 
     public static byte[] getSinclairScreen() throws IOException {
-        if (SINCLAIR_SCREEN == null) {
-            SINCLAIR_SCREEN = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(SINCLAIR_SCREEN_RESOURCE),
-                    Constants.CPC_SCREEN_WITH_PALETTE_SIZE);
-        }
-        return SINCLAIR_SCREEN;
+        return SINCLAIR_SCREEN.get();
     }
 
     public static InputStream getScreenFromResource(String resource) throws IOException {
@@ -123,50 +138,23 @@ public class Constants {
     }
 
     public static byte[] getDefaultCharset() throws IOException {
-        if (DEFAULT_CHARSET == null) {
-            DEFAULT_CHARSET = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(DEFAULT_CHARSET_RESOURCE),
-                    CHARSET_SIZE);
-        }
-        return DEFAULT_CHARSET;
+        return DEFAULT_CHARSET.get();
     }
 
     public static byte[] getRescueLoader() throws IOException {
-        if (RESCUE_LOADER == null) {
-            RESCUE_LOADER = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(RESCUE_LOADER_RESOURCE));
-        }
-        return RESCUE_LOADER;
+        return RESCUE_LOADER.get();
     }
 
     public static byte[] getUsbLaunchcodeHeader() throws IOException {
-        if (USB_LAUNCHCODE_HEADER == null) {
-            USB_LAUNCHCODE_HEADER = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(USB_LAUNCHCODE_HEADER_RESOURCE));
-        }
-        return USB_LAUNCHCODE_HEADER;
+        return USB_LAUNCHCODE_HEADER.get();
     }
 
     public static byte[] getRescueEewriter() throws IOException {
-        if (RESCUE_EEWRITER == null) {
-            RESCUE_EEWRITER = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(RESCUE_EEWRITER_RESOURCE));
-        }
-        return RESCUE_EEWRITER;
+        return RESCUE_EEWRITER.get();
     }
 
     public static byte[] getIcons() throws IOException {
-        if (ICONS == null) {
-            ICONS = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(ICONS_RESOURCE),
-                    ICONS_SIZE);
-        }
-        return ICONS;
+        return ICONS.get();
     }
 
     public static String getThemeResourceUrl() {
@@ -177,5 +165,13 @@ public class Constants {
         return THEME_RESOURCE_URL;
     }
 
-
+    public static void preload(Executor executor) {
+        DEFAULT_DANDANATOR_SCREEN.preload(executor);
+        SINCLAIR_SCREEN.preload(executor);
+        DEFAULT_CHARSET.preload(executor);
+        ICONS.preload(executor);
+        RESCUE_LOADER.preload(executor);
+        RESCUE_EEWRITER.preload(executor);
+        USB_LAUNCHCODE_HEADER.preload(executor);
+    }
 }
@@ -2,10 +2,17 @@ package com.grelobites.romgenerator;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConstants;
 import com.grelobites.romgenerator.util.LocaleUtil;
 import com.grelobites.romgenerator.util.PreferencesProvider;
+import com.grelobites.romgenerator.util.emulator.resources.Cpc464LoaderResources;
+import com.grelobites.romgenerator.util.emulator.resources.Cpc6128LoaderResources;
+import com.grelobites.romgenerator.util.winape.model.WinApePokeDatabase;
 import com.grelobites.romgenerator.view.CpldProgrammerController;
 import com.grelobites.romgenerator.view.MainAppController;
 import com.grelobites.romgenerator.view.util.DirectoryAwareFileChooser;
@@ -34,6 +41,9 @@ import org.slf4j.LoggerFactory;
 public class MainApp extends Application {
     private static final Logger LOGGER = LoggerFactory.getLogger(MainApp.class);
     private static final String APP_NAME = "CPC ROM Generator";
+    private static final int PRELOAD_THREADS = 2;
+    //Exits as soon as the main window is ready. Used to train class data sharing archives
+    private static final String STARTUP_PROBE_PROPERTY = "romgenerator.startupProbe";
 
 	private Stage primaryStage;
     private Stage preferencesStage;
@@ -160,8 +170,28 @@ public class MainApp extends Application {
 		launch(args);
 	}
 
+    /*
+     * Resources not needed to show the main window are decoded in background
+     * threads meanwhile. Whoever needs one first waits for it, if not ready yet
+     */
+    private static void preloadResources() {
+        ExecutorService executor = Executors.newFixedThreadPool(PRELOAD_THREADS, r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("Resource preloader");
+            return t;
+        });
+        Constants.preload(executor);
+        DandanatorCpcConstants.preload(executor);
+        Cpc464LoaderResources.getInstance().preload(executor);
+        Cpc6128LoaderResources.getInstance().preload(executor);
+        WinApePokeDatabase.preloadDefault(executor);
+        executor.shutdown();
+    }
+
 	@Override
 	public void start(Stage primaryStage) throws Exception {
+        preloadResources();
 		this.primaryStage = primaryStage;
 		this.primaryStage.getIcons()
 			.add(new Image(MainApp.class.getResourceAsStream("/romgenerator-icon.png")));
@@ -341,14 +371,25 @@ public class MainApp extends Application {
             primaryStage.setScene(scene);
             applicationContext.setApplicationStage(primaryStage);
 
-            //Force preference controllers initialization
-            getPreferencesPane();
-
             if (menuToolkit != null) {
                 menuToolkit.setMenuBar(primaryStage, menuBar);
             }
             primaryStage.setResizable(false);
             primaryStage.show();
+            LOGGER.info("Main window shown {} ms after startup",
+                    ManagementFactory.getRuntimeMXBean().getUptime());
+
+            //Force preference controllers initialization, once the main window is up
+            Platform.runLater(() -> {
+                try {
+                    getPreferencesPane();
+                } catch (Exception e) {
+                    LOGGER.error("Initializing preferences", e);
+                }
+                if (Boolean.getBoolean(STARTUP_PROBE_PROPERTY)) {
+                    Platform.exit();
+                }
+            });
 		} catch (IOException ioe) {
 			ioe.printStackTrace();
 		}
@@ -7,8 +7,10 @@ import com.grelobites.romgenerator.model.VirtualGame;
 import com.grelobites.romgenerator.util.LocaleUtil;
 import com.grelobites.romgenerator.util.PreferencesProvider;
 import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.resource.LazyResource;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 public class DandanatorCpcConstants {
     public static final int SLOT_COUNT = 10;
@@ -49,64 +51,60 @@ public class DandanatorCpcConstants {
     public static final int PACKED_SCREEN_SIZE = 16384;
     public static final int PALETTE_SIZE = 17;
 
-    private static byte[] DANDANATOR_ROM;
-    private static byte[] EXTRA_ROM;
-    private static byte[] CPC464_FIRMWARE;
-    private static byte[] CPC464_BASIC;
-    private static byte[] CPC6128_FIRMWARE;
+    private static final LazyResource<byte[]> DANDANATOR_ROM = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(DANDANATOR_ROM_RESOURCE)));
+    private static final LazyResource<byte[]> EXTRA_ROM = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(EXTRA_ROM_RESOURCE),
+                    Constants.SLOT_SIZE));
+    private static final LazyResource<byte[]> CPC464_FIRMWARE = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(CPC464_FIRMWARE_RESOURCE),
+                    Constants.SLOT_SIZE));
+    private static final LazyResource<byte[]> CPC464_BASIC = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(BASIC_1_0_RESOURCE),
+                    Constants.SLOT_SIZE));
+    private static final LazyResource<byte[]> CPC6128_FIRMWARE = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DandanatorCpcConstants.class.getClassLoader()
+                            .getResourceAsStream(CPC6128_FIRMWARE_RESOURCE),
+                    Constants.SLOT_SIZE));
 
     private static PreferencesProvider providerRegister = new PreferencesProvider("Dandanator CPC",
             "/com/grelobites/romgenerator/handlers/dandanatorcpc/view/dandanatorcpcpreferences.fxml",
             PreferencesProvider.PRECEDENCE_HANDLERS);
 
     public static byte[] getDandanatorRom() throws IOException {
-        if (DANDANATOR_ROM == null) {
-            DANDANATOR_ROM = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(DANDANATOR_ROM_RESOURCE));
-        }
-        return DANDANATOR_ROM;
+        return DANDANATOR_ROM.get();
     }
 
     public static byte[] getExtraRom() throws IOException {
-        if (EXTRA_ROM == null) {
-            EXTRA_ROM = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(EXTRA_ROM_RESOURCE),
-                    Constants.SLOT_SIZE);
-        }
-        return EXTRA_ROM;
+        return EXTRA_ROM.get();
     }
 
     public static byte[] getCpc464Firmware() throws IOException {
-        if (CPC464_FIRMWARE == null) {
-            CPC464_FIRMWARE = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(CPC464_FIRMWARE_RESOURCE),
-                    Constants.SLOT_SIZE);
-        }
-        return CPC464_FIRMWARE;
+        return CPC464_FIRMWARE.get();
     }
 
     public static byte[] getCpc464Basic() throws IOException {
-        if (CPC464_BASIC == null) {
-            CPC464_BASIC = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(BASIC_1_0_RESOURCE),
-                    Constants.SLOT_SIZE);
-        }
-        return CPC464_BASIC;
+        return CPC464_BASIC.get();
     }
 
     public static byte[] getCpc6128Firmware() throws IOException {
-        if (CPC6128_FIRMWARE == null) {
-            CPC6128_FIRMWARE = Util.fromInputStream(
-                    DandanatorCpcConstants.class.getClassLoader()
-                            .getResourceAsStream(CPC6128_FIRMWARE_RESOURCE),
-                    Constants.SLOT_SIZE);
-        }
-        return CPC6128_FIRMWARE;
+        return CPC6128_FIRMWARE.get();
     }
 
-
+    public static void preload(Executor executor) {
+        DANDANATOR_ROM.preload(executor);
+        EXTRA_ROM.preload(executor);
+        CPC464_FIRMWARE.preload(executor);
+        CPC464_BASIC.preload(executor);
+        CPC6128_FIRMWARE.preload(executor);
+    }
 }
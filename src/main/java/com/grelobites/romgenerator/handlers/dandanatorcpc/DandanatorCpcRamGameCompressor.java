@@ -2,28 +2,38 @@ package com.grelobites.romgenerator.handlers.dandanatorcpc;
 
 import com.grelobites.romgenerator.Constants;
 import com.grelobites.romgenerator.util.RamGameCompressor;
+import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.compress.Compressor;
-import com.grelobites.romgenerator.util.compress.zx7.Zx7OutputStream;
+import com.grelobites.romgenerator.util.compress.zx7.Zx7InputStream;
+import com.grelobites.romgenerator.util.metrics.Metrics;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 
 public class DandanatorCpcRamGameCompressor implements RamGameCompressor {
     private static final int COMPRESSED_SLOT_THRESHOLD = Constants.SLOT_SIZE;
 
-    private Compressor compressor = DandanatorCpcConfiguration.getInstance().getCompressor();
-    private Integer compressionDelta;
+    private final Compressor compressor;
+
+    public DandanatorCpcRamGameCompressor() {
+        this(DandanatorCpcConfiguration.getInstance().getCompressor());
+    }
+
+    public DandanatorCpcRamGameCompressor(Compressor compressor) {
+        this.compressor = compressor;
+    }
 
     private byte[] compress(byte[] data) throws IOException {
+        long start = Metrics.now();
         ByteArrayOutputStream os = new ByteArrayOutputStream();
         OutputStream compressingStream = compressor.getCompressingOutputStream(os);
         compressingStream.write(data);
         compressingStream.flush();
-        if (compressingStream instanceof Zx7OutputStream) {
-            compressionDelta = ((Zx7OutputStream) compressingStream).getCompressionDelta();
-        }
+        Metrics.compression(compressor.getCompressorType()).onSlot(data.length, os.size(), start);
         return os.toByteArray();
     }
 
@@ -36,7 +46,7 @@ public class DandanatorCpcRamGameCompressor implements RamGameCompressor {
     }
 
     private byte[] filterCompression(byte[] data, byte[] compressedData, int slot) {
-        return compressedData.length > COMPRESSED_SLOT_THRESHOLD ?
+        return compressedData.length >= COMPRESSED_SLOT_THRESHOLD ?
                 data : compressedData;
     }
 
@@ -45,4 +55,29 @@ public class DandanatorCpcRamGameCompressor implements RamGameCompressor {
         return filterCompression(data, compressSlotInternal(data), slot);
     }
 
+    @Override
+    public boolean canUncompress() {
+        return true;
+    }
+
+    @Override
+    public byte[] uncompressSlot(int slot, byte[] compressedData) {
+        //Slots not worth compressing were kept as they were
+        if (compressedData.length >= COMPRESSED_SLOT_THRESHOLD) {
+            return compressedData;
+        }
+        try {
+            InputStream uncompressedStream = compressor.getUncompressingInputStream(
+                    new ByteArrayInputStream(compressedData));
+            if (uncompressedStream instanceof Zx7InputStream) {
+                byte[] slotData = new byte[Constants.SLOT_SIZE];
+                int size = ((Zx7InputStream) uncompressedStream).decompressInto(slotData, 0);
+                return size == slotData.length ? slotData : Arrays.copyOf(slotData, size);
+            }
+            return Util.fromInputStream(uncompressedStream);
+        } catch (Exception e) {
+            throw new RuntimeException("During uncompression of game data", e);
+        }
+    }
+
 }
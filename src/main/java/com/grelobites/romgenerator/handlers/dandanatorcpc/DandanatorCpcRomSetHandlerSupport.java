@@ -16,7 +16,6 @@ import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.pokeimporter.ImportContext;
 import com.grelobites.romgenerator.view.util.DialogUtil;
 import com.grelobites.romgenerator.view.util.DirectoryAwareFileChooser;
-import javafx.scene.image.WritableImage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,13 +41,13 @@ public class DandanatorCpcRomSetHandlerSupport {
         }
     }
 
-    protected static void updateBackgroundImage(WritableImage image) throws IOException {
-        ImageUtil.scrLoader(image, Constants.MENU_SCREEN_MODE,
-                new ByteArrayInputStream(Configuration.getInstance()
-                        .getBackgroundImage()));
+    protected static int[] renderBackgroundImage(int[] framebuffer, byte[] backgroundImage)
+            throws IOException {
+        return ImageUtil.scrRender(framebuffer, Constants.MENU_SCREEN_MODE,
+                new ByteArrayInputStream(backgroundImage));
     }
 
-    protected static byte[] asNullTerminatedByteArray(String name, int arrayLength) {
+    public static byte[] asNullTerminatedByteArray(String name, int arrayLength) {
         String trimmedName =
                 name.length() < arrayLength ?
                         name : name.substring(0, arrayLength - 1);
@@ -58,7 +57,7 @@ public class DandanatorCpcRomSetHandlerSupport {
         return result;
     }
 
-    protected static int getGamePokeCount(Game game) {
+    public static int getGamePokeCount(Game game) {
         if (game instanceof SnapshotGame) {
             return ((SnapshotGame) game).getTrainerList().getChildren().size();
         } else {
@@ -66,7 +65,7 @@ public class DandanatorCpcRomSetHandlerSupport {
         }
     }
 
-    protected static int pokeRequiredSize(Game game) {
+    public static int pokeRequiredSize(Game game) {
         if (game instanceof SnapshotGame) {
             SnapshotGame snapshotGame = (SnapshotGame) game;
             int headerSize = 25; //Fixed size required per trainer (Poke count(1) + name(24))
@@ -79,7 +78,7 @@ public class DandanatorCpcRomSetHandlerSupport {
         }
     }
 
-    protected static void dumpGamePokeData(OutputStream os, Game game) throws IOException {
+    public static void dumpGamePokeData(OutputStream os, Game game) throws IOException {
         if (game instanceof SnapshotGame) {
             SnapshotGame snapshotGame = (SnapshotGame) game;
             int index = 1;
@@ -96,32 +95,33 @@ public class DandanatorCpcRomSetHandlerSupport {
         }
     }
 
-    protected static String getVersionInfo() {
+    public static String getVersionInfo() {
         return String.format("v%s", Util.stripSnapshotVersion(Constants.currentVersion()));
     }
 
-    protected static boolean isGameScreenHold(Game game) {
+    public static boolean isGameScreenHold(Game game) {
         return game instanceof SnapshotGame && ((SnapshotGame) game).getHoldScreen();
     }
 
-    protected static boolean isGameCompressed(Game game) {
+    public static boolean isGameCompressed(Game game) {
         return game instanceof SnapshotGame && ((SnapshotGame) game).getCompressed();
     }
 
-    protected static byte[] asLittleEndianWord(int value) {
+    public static byte[] asLittleEndianWord(int value) {
         return new byte[]{
                 (byte) (value & 0xff),
                 (byte) ((value >> 8) & 0xff)};
     }
 
-    protected static void dumpScreenTexts(OutputStream os, DandanatorCpcConfiguration configuration) throws IOException {
-        os.write(asNullTerminatedByteArray(String.format("R. %s", configuration.getExtraRomMessage()),
+    public static void dumpScreenTexts(OutputStream os, String extraRomMessage, String togglePokesMessage,
+                                       String launchGameMessage, String selectPokesMessage) throws IOException {
+        os.write(asNullTerminatedByteArray(String.format("R. %s", extraRomMessage),
                 DandanatorCpcConstants.GAMENAME_SIZE));
-        os.write(asNullTerminatedByteArray(String.format("P. %s", configuration.getTogglePokesMessage()),
+        os.write(asNullTerminatedByteArray(String.format("P. %s", togglePokesMessage),
                 DandanatorCpcConstants.GAMENAME_SIZE));
-        os.write(asNullTerminatedByteArray(String.format("Space. %s", configuration.getLaunchGameMessage()),
+        os.write(asNullTerminatedByteArray(String.format("Space. %s", launchGameMessage),
                 DandanatorCpcConstants.GAMENAME_SIZE));
-        os.write(asNullTerminatedByteArray(configuration.getSelectPokesMessage(), DandanatorCpcConstants.GAMENAME_SIZE));
+        os.write(asNullTerminatedByteArray(selectPokesMessage, DandanatorCpcConstants.GAMENAME_SIZE));
     }
 
     public void exportCurrentGamePokes() {
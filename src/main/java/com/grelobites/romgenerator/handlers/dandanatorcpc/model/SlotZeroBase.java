@@ -3,14 +3,17 @@ package com.grelobites.romgenerator.handlers.dandanatorcpc.model;
 import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConfiguration;
 import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConstants;
 import com.grelobites.romgenerator.util.PositionAwareInputStream;
+import com.grelobites.romgenerator.util.SlotBufferPool;
 import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.compress.Compressor;
+import com.grelobites.romgenerator.util.compress.zx7.Zx7InputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 public abstract class SlotZeroBase implements SlotZero {
     private static final Logger LOGGER = LoggerFactory.getLogger(SlotZeroBase.class);
@@ -72,6 +75,12 @@ public abstract class SlotZeroBase implements SlotZero {
     protected static byte[] uncompressByteArray(byte[] compressedData) throws IOException {
         InputStream uncompressedStream = getCompressor().getUncompressingInputStream(
                 new ByteArrayInputStream(compressedData));
+        if (uncompressedStream instanceof Zx7InputStream) {
+            try (SlotBufferPool.Lease lease = SlotBufferPool.SLOTS.borrow()) {
+                byte[] buffer = lease.array();
+                return Arrays.copyOf(buffer, ((Zx7InputStream) uncompressedStream).decompressInto(buffer, 0));
+            }
+        }
         return Util.fromInputStream(uncompressedStream);
     }
 
@@ -9,7 +9,6 @@ import com.grelobites.romgenerator.handlers.dandanatorcpc.model.DandanatorCpcImp
 import com.grelobites.romgenerator.handlers.dandanatorcpc.model.SlotZero;
 import com.grelobites.romgenerator.model.Game;
 import com.grelobites.romgenerator.util.ImageUtil;
-import com.grelobites.romgenerator.util.OperationResult;
 import com.grelobites.romgenerator.util.PositionAwareInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,7 +16,6 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
-import java.util.concurrent.Future;
 
 public class DandanatorCpcV1Importer implements DandanatorCpcImporter {
     private static final Logger LOGGER = LoggerFactory.getLogger(DandanatorCpcV1Importer.class);
@@ -36,18 +34,9 @@ public class DandanatorCpcV1Importer implements DandanatorCpcImporter {
             Collection<Game> games = applicationContext.getGameList();
             games.clear();
 
-            applicationContext.addBackgroundTask(() -> {
-                slotZero.getGameMappers().forEach(gameMapper -> {
-                    Future<OperationResult> result = applicationContext.getRomSetHandler()
-                            .addGame(gameMapper.getGame());
-                    try {
-                        result.get();
-                    } catch (Exception e) {
-                        LOGGER.warn("While waiting for background operation result", e);
-                    }
-                });
-                return OperationResult.successResult();
-            });
+            //Games are prepared in parallel and added in ROM set order
+            slotZero.getGameMappers().forEach(gameMapper ->
+                    applicationContext.getRomSetHandler().addGame(gameMapper.getGame()));
 
             is.safeSkip(Constants.SLOT_SIZE * DandanatorCpcConstants.GAME_SLOTS - is.position());
             LOGGER.debug("Getting extraRom with offset {}", is.position());
@@ -86,18 +75,9 @@ public class DandanatorCpcV1Importer implements DandanatorCpcImporter {
             slotZero.parse();
             slotZero.populateGameSlots(new PositionAwareInputStream(payload));
 
-            applicationContext.addBackgroundTask(() -> {
-                slotZero.getGameMappers().forEach(gameMapper -> {
-                    Future<OperationResult> result = applicationContext.getRomSetHandler()
-                            .addGame(gameMapper.getGame());
-                    try {
-                        result.get();
-                    } catch (Exception e) {
-                        LOGGER.warn("While waiting for background operation result", e);
-                    }
-                });
-                return OperationResult.successResult();
-            });
+            //Games are prepared in parallel and added in ROM set order
+            slotZero.getGameMappers().forEach(gameMapper ->
+                    applicationContext.getRomSetHandler().addGame(gameMapper.getGame()));
 
          } catch (Exception e) {
             LOGGER.error("Merging RomSet", e);
@@ -0,0 +1,642 @@
+package com.grelobites.romgenerator.handlers.dandanatorcpc.v2;
+
+import com.grelobites.romgenerator.Configuration;
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.EepromWriterConfiguration;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConfiguration;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConstants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcRamGameCompressor;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.ExtendedCharSet;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.RomSetUtil;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.v1.GameHeaderV1Serializer;
+import com.grelobites.romgenerator.model.Game;
+import com.grelobites.romgenerator.model.GameHeaderOffsets;
+import com.grelobites.romgenerator.model.MLDGame;
+import com.grelobites.romgenerator.model.SnapshotGame;
+import com.grelobites.romgenerator.util.RamGameCompressor;
+import com.grelobites.romgenerator.util.SlotBufferPool;
+import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.Z80Opcode;
+import com.grelobites.romgenerator.util.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcRomSetHandlerSupport.*;
+
+/*
+ * Generates the V2 ROM set image from a list of games and a snapshot of the
+ * settings. Nothing here depends on the application context, so it can be
+ * used from the GUI handler and from headless batch builds alike.
+ */
+public class DandanatorCpcV2RomSetExporter {
+    private static final SlotBufferPool ROM_IMAGES = new SlotBufferPool(
+            Constants.SLOT_SIZE * DandanatorCpcConstants.EEPROM_SLOTS, 8);
+
+    private static class Offsets {
+        public int forwardOffset;
+        public int backwardsOffset;
+        public Offsets(int forwardOffset, int backwardsOffset) {
+            this.forwardOffset = forwardOffset;
+            this.backwardsOffset = backwardsOffset;
+        }
+        @Override
+        public String toString() {
+            return "Offsets{" +
+                    "forwardOffset=" + forwardOffset +
+                    ", backwardsOffset=" + backwardsOffset +
+                    '}';
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DandanatorCpcV2RomSetExporter.class);
+
+    private static final byte[] EMPTY_CBLOCK = new byte[5];
+
+    private List<Game> games = new ArrayList<>();
+    private byte[] dandanatorRom;
+    private byte[] extraRom;
+    private byte[] backgroundImage;
+    private byte[] charSet;
+    private String extraRomMessage = DandanatorCpcConstants.DEFAULT_EXTRAROMKEY_MESSAGE;
+    private String togglePokesMessage = DandanatorCpcConstants.DEFAULT_TOGGLEPOKESKEY_MESSAGE;
+    private String launchGameMessage = DandanatorCpcConstants.DEFAULT_LAUNCHGAME_MESSAGE;
+    private String selectPokesMessage = DandanatorCpcConstants.DEFAULT_SELECTPOKE_MESSAGE;
+    private boolean includeExtraRom = true;
+    private boolean enforceFollowRom = false;
+    private boolean autoboot = false;
+    private RamGameCompressor ramGameCompressor;
+
+    public static class Builder {
+        private DandanatorCpcV2RomSetExporter exporter = new DandanatorCpcV2RomSetExporter();
+
+        public Builder withGames(Collection<? extends Game> games) {
+            exporter.games = new ArrayList<>(games);
+            return this;
+        }
+
+        public Builder withDandanatorRom(byte[] dandanatorRom) {
+            exporter.dandanatorRom = dandanatorRom;
+            return this;
+        }
+
+        public Builder withExtraRom(byte[] extraRom) {
+            exporter.extraRom = extraRom;
+            return this;
+        }
+
+        public Builder withBackgroundImage(byte[] backgroundImage) {
+            exporter.backgroundImage = backgroundImage;
+            return this;
+        }
+
+        public Builder withCharSet(byte[] charSet) {
+            exporter.charSet = charSet;
+            return this;
+        }
+
+        public Builder withExtraRomMessage(String extraRomMessage) {
+            exporter.extraRomMessage = extraRomMessage;
+            return this;
+        }
+
+        public Builder withTogglePokesMessage(String togglePokesMessage) {
+            exporter.togglePokesMessage = togglePokesMessage;
+            return this;
+        }
+
+        public Builder withLaunchGameMessage(String launchGameMessage) {
+            exporter.launchGameMessage = launchGameMessage;
+            return this;
+        }
+
+        public Builder withSelectPokesMessage(String selectPokesMessage) {
+            exporter.selectPokesMessage = selectPokesMessage;
+            return this;
+        }
+
+        public Builder withIncludeExtraRom(boolean includeExtraRom) {
+            exporter.includeExtraRom = includeExtraRom;
+            return this;
+        }
+
+        public Builder withEnforceFollowRom(boolean enforceFollowRom) {
+            exporter.enforceFollowRom = enforceFollowRom;
+            return this;
+        }
+
+        public Builder withAutoboot(boolean autoboot) {
+            exporter.autoboot = autoboot;
+            return this;
+        }
+
+        public Builder withRamGameCompressor(RamGameCompressor ramGameCompressor) {
+            exporter.ramGameCompressor = ramGameCompressor;
+            return this;
+        }
+
+        public Builder withConfiguration(Configuration configuration,
+                                         DandanatorCpcConfiguration dmConfiguration) throws IOException {
+            return withDandanatorRom(dmConfiguration.getDandanatorRom())
+                    .withExtraRom(dmConfiguration.getExtraRom())
+                    .withBackgroundImage(configuration.getBackgroundImage())
+                    .withCharSet(configuration.getCharSet())
+                    .withExtraRomMessage(dmConfiguration.getExtraRomMessage())
+                    .withTogglePokesMessage(dmConfiguration.getTogglePokesMessage())
+                    .withLaunchGameMessage(dmConfiguration.getLaunchGameMessage())
+                    .withSelectPokesMessage(dmConfiguration.getSelectPokesMessage())
+                    .withIncludeExtraRom(configuration.isIncludeExtraRom())
+                    .withEnforceFollowRom(configuration.isEnforceFollowRom())
+                    .withAutoboot(dmConfiguration.isAutoboot());
+        }
+
+        public DandanatorCpcV2RomSetExporter build() throws IOException {
+            if (exporter.dandanatorRom == null) {
+                exporter.dandanatorRom = DandanatorCpcConstants.getDandanatorRom();
+            }
+            if (exporter.extraRom == null) {
+                exporter.extraRom = DandanatorCpcConstants.getExtraRom();
+            }
+            if (exporter.backgroundImage == null) {
+                exporter.backgroundImage = Constants.getDefaultMenuScreen();
+            }
+            if (exporter.charSet == null) {
+                exporter.charSet = Constants.getDefaultCharset();
+            }
+            if (exporter.ramGameCompressor == null) {
+                exporter.ramGameCompressor = new DandanatorCpcRamGameCompressor();
+            }
+            return exporter;
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private DandanatorCpcV2RomSetExporter() {}
+
+    public static int getReservedSlots(boolean includeExtraRom, boolean enforceFollowRom) {
+        int value = includeExtraRom ? 1 : 0;
+        value += enforceFollowRom ? 2 : 0;
+        return value;
+    }
+
+    private int getReservedSlots() {
+        return getReservedSlots(includeExtraRom, enforceFollowRom);
+    }
+
+    //Bytes available for game data, after slot zero and the reserved slots
+    public static int getGameCapacity(boolean includeExtraRom, boolean enforceFollowRom) {
+        return Constants.SLOT_SIZE * (DandanatorCpcConstants.GAME_SLOTS
+                - getReservedSlots(includeExtraRom, enforceFollowRom));
+    }
+
+    //Bytes taken by a game in the ROM set, compressed and uncompressed slots alike
+    public static int getGameRomSize(Game game, RamGameCompressor ramGameCompressor) throws IOException {
+        if (game instanceof MLDGame) {
+            return game.getSlotCount() * Constants.SLOT_SIZE;
+        } else if (isGameCompressed(game)) {
+            int size = 0;
+            for (byte[] block : ((SnapshotGame) game).getCompressedData(ramGameCompressor)) {
+                if (block != null) {
+                    size += Math.min(block.length, Constants.SLOT_SIZE);
+                }
+            }
+            return size;
+        } else {
+            int size = 0;
+            for (int i = 0; i < game.getSlotCount(); i++) {
+                size += game.isSlotZeroed(i) ? 0 : Constants.SLOT_SIZE;
+            }
+            return size;
+        }
+    }
+
+    private static byte[] getEepromLoaderCode() throws IOException {
+        EepromWriterConfiguration configuration = EepromWriterConfiguration.getInstance();
+        byte[] eewriter = Util.fromInputStream(configuration.getRomsetLoaderStream());
+        return Util.compress(eewriter);
+    }
+
+    private static byte[] getEepromLoaderScreen() throws IOException {
+        EepromWriterConfiguration configuration = EepromWriterConfiguration.getInstance();
+        byte[] screen = Util.fromInputStream(configuration.getScreenStream());
+        return RomSetUtil.getCompressedScreen(screen);
+    }
+
+    private static byte[] getPaddedGameHeader(Game game) throws IOException {
+        byte[] paddedHeader = new byte[V2Constants.GAME_HEADER_SIZE];
+        Arrays.fill(paddedHeader, Constants.B_00);
+        if (game instanceof SnapshotGame) {
+            SnapshotGame snapshotGame = (SnapshotGame) game;
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            GameHeaderV1Serializer.serialize(snapshotGame, os);
+            byte[] snaHeader = os.toByteArray();
+            System.arraycopy(snaHeader, 0, paddedHeader, 0, snaHeader.length);
+        }
+        return paddedHeader;
+    }
+
+    private static void dumpGameLaunchCode(OutputStream os, Game game, int index) throws IOException {
+        if (game instanceof SnapshotGame) {
+            SnapshotGame snapshotGame = (SnapshotGame) game;
+
+            int baseAddress = V2Constants.GAME_STRUCT_OFFSET + V2Constants.GAME_STRUCT_SIZE * index;
+            os.write(Z80Opcode.LD_IX__NN(baseAddress + GameHeaderOffsets.IX_OFFSET));
+            os.write(Z80Opcode.LD_HL__NN(baseAddress + GameHeaderOffsets.HL_OFFSET));
+            boolean interruptDisable = snapshotGame.getGameHeader()
+                    .getIff0() == 0;
+
+            os.write(interruptDisable ? Z80Opcode.DI : Z80Opcode.EI);
+            os.write(Z80Opcode.RET);
+        } else {
+            os.write(new byte[V2Constants.GAME_LAUNCHCODE_SIZE]);
+        }
+    }
+
+    private List<byte[]> getGameBlocks(Game game) throws IOException {
+        if (game instanceof SnapshotGame && ((SnapshotGame) game).getCompressed()) {
+            return ((SnapshotGame) game).getCompressedData(ramGameCompressor);
+        } else {
+            return game.getData();
+        }
+    }
+
+    private void dumpGameCBlocks(OutputStream os, Game game, Offsets offsets)
+            throws IOException {
+        LOGGER.debug("Writing CBlocks for game " + game.getName()
+                + ", of type " + game.getType()
+                + ", with offsets " + offsets);
+        ByteArrayOutputStream gameCBlocks = new ByteArrayOutputStream();
+        //For MLD games we encode the number of slots in the first CBlock. The rest set to FF
+        if (game instanceof MLDGame) {
+            int requiredSlots = game.getSlotCount(); //Since game.getSize() includes save space
+            int startOffset = offsets.forwardOffset - (requiredSlots * Constants.SLOT_SIZE);
+            LOGGER.debug("Writing MLD CBlock with offset {}", startOffset);
+            gameCBlocks.write(startOffset / Constants.SLOT_SIZE);
+            gameCBlocks.write(asLittleEndianWord(Constants.B_00));
+            gameCBlocks.write(asLittleEndianWord(requiredSlots));
+            offsets.forwardOffset = startOffset;
+        } else {
+            for (byte[] block : getGameBlocks(game)) {
+                if (block != null) {
+                    if (block.length < Constants.SLOT_SIZE) {
+                        LOGGER.debug("Writing compressed CBlock with offset {} and length {}", offsets.forwardOffset, block.length);
+                        gameCBlocks.write(offsets.forwardOffset / Constants.SLOT_SIZE);
+                        gameCBlocks.write(asLittleEndianWord(offsets.forwardOffset % Constants.SLOT_SIZE));
+                        gameCBlocks.write(asLittleEndianWord(block.length));
+                        offsets.forwardOffset += block.length;
+                    } else if (block.length == Constants.SLOT_SIZE) {
+                        offsets.backwardsOffset -= Constants.SLOT_SIZE;
+                        LOGGER.debug("Writing uncompressed CBlock with offset {} and length {}", offsets.backwardsOffset, block.length);
+                        gameCBlocks.write(offsets.backwardsOffset / Constants.SLOT_SIZE);
+                        gameCBlocks.write(asLittleEndianWord(Constants.B_00)); //Blocks always at offset 0 (uncompressed)
+                        gameCBlocks.write(asLittleEndianWord(Constants.SLOT_SIZE));
+                    } else {
+                        throw new IllegalStateException("Attempt to write a block exceeding " + Constants.SLOT_SIZE);
+                    }
+                } else {
+                    LOGGER.debug("Writing empty CBlock");
+                    gameCBlocks.write(EMPTY_CBLOCK);
+                }
+            }
+        }
+
+        //Fill the remaining space with 0xFF
+        byte[] cBlocksArray = Util.paddedByteArray(gameCBlocks.toByteArray(),
+                5 * 8, (byte) DandanatorCpcConstants.FILLER_BYTE);
+        LOGGER.debug("CBlocks array calculated as " + Util.dumpAsHexString(cBlocksArray));
+        os.write(cBlocksArray);
+    }
+
+    public static int getGameSymbolCode(Game game) {
+        switch (game.getType()) {
+            case ROM:
+                return ExtendedCharSet.SYMBOL_ROM_0_CODE;
+            case RAM64:
+                return ExtendedCharSet.SYMBOL_64K_0_CODE;
+            case RAM128:
+                return ExtendedCharSet.SYMBOL_128K_0_CODE;
+            default:
+                return ExtendedCharSet.SYMBOL_64K_0_CODE;
+        }
+    }
+
+    private static void dumpGameName(OutputStream os, Game game, int index) throws IOException {
+        int gameSymbolCode = getGameSymbolCode(game);
+        String gameName = String.format("%1d%c%c%c%s", (index + 1) % DandanatorCpcConstants.SLOT_COUNT,
+                gameSymbolCode, gameSymbolCode + 1, gameSymbolCode + 2,
+                game.getName());
+        os.write(asNullTerminatedByteArray(gameName, DandanatorCpcConstants.GAMENAME_SIZE));
+    }
+
+    private static int getCurrentRasterInterrupt(Game game) {
+        if (game instanceof SnapshotGame) {
+            return ((SnapshotGame) game).getCurrentRasterInterrupt();
+        } else {
+            return 0;
+        }
+    }
+
+    private void dumpGameHeader(OutputStream os, int index, Game game,
+                                Offsets offsets) throws IOException {
+        os.write(getPaddedGameHeader(game));
+        os.write(game.getType().typeId());
+        os.write(RomSetUtil.getGameChunk(game));
+        os.write(isGameCompressed(game) ? Constants.B_01 : Constants.B_00);
+        os.write(isGameScreenHold(game) ? Constants.B_01 : Constants.B_00);
+        os.write(0); //Upper and lower active roms. Unused in V2
+        os.write(getCurrentRasterInterrupt(game));
+        dumpGameLaunchCode(os, game, index);
+        dumpGameCBlocks(os, game, offsets);
+        dumpGameName(os, game, index);
+    }
+
+    private void dumpGameHeaders(ByteArrayOutputStream os) throws IOException {
+        int index = 0;
+        //forwardOffset after the slot zero
+        //backwardsOffset starts before the test ROM
+        Offsets offsets = new Offsets(Constants.SLOT_SIZE,
+                Constants.SLOT_SIZE * (DandanatorCpcConstants.EEPROM_SLOTS - getReservedSlots()));
+        for (Game game : games) {
+            dumpGameHeader(os, index, game, offsets);
+            LOGGER.debug("Dumped gamestruct for " + game.getName() + ". Offset: " + os.size());
+            index++;
+        }
+        Util.fillWithValue(os, (byte) 0, V2Constants.GAME_STRUCT_SIZE * (DandanatorCpcConstants.MAX_GAMES - index));
+        LOGGER.debug("Filled to end of gamestruct. Offset: " + os.size());
+    }
+
+    private byte[] getScreenTexts() throws IOException {
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            dumpScreenTexts(os, extraRomMessage, togglePokesMessage,
+                    launchGameMessage, selectPokesMessage);
+            return os.toByteArray();
+        }
+    }
+
+    private static byte[] getPokeStructureData(Collection<Game> games) throws IOException {
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            for (Game game : games) {
+                os.write(getGamePokeCount(game));
+            }
+            Util.fillWithValue(os, Constants.B_00, DandanatorCpcConstants.MAX_GAMES - games.size());
+
+            int basePokeAddress = V2Constants.POKE_TARGET_ADDRESS +
+                    DandanatorCpcConstants.MAX_GAMES * 3;
+
+            for (Game game : games) {
+                os.write(asLittleEndianWord(basePokeAddress));
+                basePokeAddress += pokeRequiredSize(game);
+            }
+            Util.fillWithValue(os, Constants.B_00, (DandanatorCpcConstants.MAX_GAMES - games.size()) * 2);
+
+            for (Game game : games) {
+                dumpGamePokeData(os, game);
+            }
+            LOGGER.debug("Poke Structure before compressing: " + Util.dumpAsHexString(os.toByteArray()));
+            return os.toByteArray();
+
+        }
+    }
+
+    private void dumpCompressedGameData(OutputStream os, Game game) throws IOException {
+        if (game instanceof SnapshotGame) {
+            SnapshotGame snapshotGame = (SnapshotGame) game;
+            for (byte[] compressedSlot : snapshotGame.getCompressedData(ramGameCompressor)) {
+                if (compressedSlot != null) {
+                    if (compressedSlot.length < Constants.SLOT_SIZE) {
+                        os.write(compressedSlot);
+                        LOGGER.debug("Dumped compressed slot for game " + snapshotGame.getName()
+                                + " of size: " + compressedSlot.length);
+                    } else {
+                        LOGGER.debug("Skipped uncompressed slot for game {}", snapshotGame.getName());
+                    }
+                } else {
+                    LOGGER.debug("Skipped zeroed slot");
+                }
+            }
+        }
+    }
+
+    private int gameUncompressedSlotCount(Game game) throws IOException {
+        int count = 0;
+        for (byte[] block : getGameBlocks(game)) {
+            if (block != null && block.length == Constants.SLOT_SIZE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int getUncompressedSlotCount() throws IOException {
+        int value = 0;
+        for (Game game : games) {
+            value += gameUncompressedSlotCount(game);
+        }
+        LOGGER.debug("Total Number of uncompressed slots " + value);
+        return value;
+    }
+
+    private void dumpUncompressedGameData(OutputStream os, Game game) throws IOException {
+        if (isGameCompressed(game)) {
+            //Dump only compressed slots with size == 16384
+            SnapshotGame snapshotGame = (SnapshotGame) game;
+            List<byte[]> compressedSlots = snapshotGame.getCompressedData(ramGameCompressor);
+            for (int i = compressedSlots.size() - 1; i >= 0; i--) {
+                byte[] slotData = compressedSlots.get(i);
+                if (slotData != null && slotData.length == Constants.SLOT_SIZE) {
+                    LOGGER.debug("Dumped uncompressed slot {} for compressed game {}", i, game.getName());
+                    os.write(slotData);
+                }
+            }
+        } else {
+            for (int i = game.getSlotCount() - 1; i >= 0; i--) {
+                if (!game.isSlotZeroed(i)) {
+                    os.write(game.getSlot(i));
+                    LOGGER.debug("Dumped uncompressed slot " + i + " for game " + game.getName());
+                } else {
+                    LOGGER.debug("Skipped zeroed slot");
+                }
+            }
+        }
+    }
+
+    private int dumpMLDGameData(OutputStream os, Game game, int lastMldSaveSector,
+                                int currentSlot) throws IOException {
+        MLDGame mldGame = (MLDGame) game;
+        mldGame.reallocate(currentSlot);
+        lastMldSaveSector = mldGame.allocateSaveSpace(lastMldSaveSector);
+
+        for (int i = 0; i < game.getSlotCount(); i++) {
+            os.write(game.getSlot(i));
+        }
+        return lastMldSaveSector;
+    }
+
+    public void exportRomSet(OutputStream stream) throws IOException {
+        if (games.size() > DandanatorCpcConstants.MAX_GAMES) {
+            throw new IllegalArgumentException("Too many games in ROM set: " + games.size());
+        }
+        long start = Metrics.now();
+        //The image is assembled in a pooled buffer of the final ROM set size
+        try (SlotBufferPool.BufferOutputStream os = new SlotBufferPool.BufferOutputStream(ROM_IMAGES);
+             SlotBufferPool.BufferOutputStream uncompressedStream =
+                     new SlotBufferPool.BufferOutputStream(ROM_IMAGES)) {
+            dumpRomSet(os, uncompressedStream);
+            os.writeTo(stream);
+            Metrics.EXPORT.onExport(games.size(), os.size(), start);
+        }
+    }
+
+    private void dumpRomSet(ByteArrayOutputStream os, ByteArrayOutputStream uncompressedStream)
+            throws IOException {
+        os.write(dandanatorRom, 0, V2Constants.BASEROM_SIZE);
+        LOGGER.debug("Dumped base ROM. Offset: " + os.size());
+
+        os.write((byte) games.size());
+        LOGGER.debug("Dumped game count. Offset: " + os.size());
+
+        dumpGameHeaders(os);
+        LOGGER.debug("Dumped game struct. Offset: {}", os.size());
+
+        os.write(getPokeStructureData(games));
+        LOGGER.debug("Dumped poke struct. Offset: {}", os.size());
+
+        int greyAreaOffset = os.size();
+        ByteArrayOutputStream cBlocksTable = new ByteArrayOutputStream();
+        byte[] compressedScreen = RomSetUtil.getCompressedScreen(backgroundImage);
+        cBlocksTable.write(asLittleEndianWord(greyAreaOffset));
+        cBlocksTable.write(asLittleEndianWord(compressedScreen.length));
+        greyAreaOffset += compressedScreen.length;
+
+        byte[] compressedScreenTexts = Util.compress(getScreenTexts());
+        cBlocksTable.write(asLittleEndianWord(greyAreaOffset));
+        cBlocksTable.write(asLittleEndianWord(compressedScreenTexts.length));
+        greyAreaOffset += compressedScreenTexts.length;
+
+        ExtendedCharSet extendedCharset = new ExtendedCharSet(charSet);
+        byte[] compressedCharSet = Util.compress(RomSetUtil.encodeCharset(extendedCharset.getCharSet()));
+        cBlocksTable.write(asLittleEndianWord(greyAreaOffset));
+        cBlocksTable.write(asLittleEndianWord(compressedCharSet.length));
+
+        os.write(compressedScreen);
+        os.write(compressedScreenTexts);
+        os.write(compressedCharSet);
+
+        //loader if enough room
+        int freeSpace = V2Constants.VERSION_OFFSET - os.size();
+        byte[] eepromLoaderCode = getEepromLoaderCode();
+        byte[] eepromLoaderScreen = getEepromLoaderScreen();
+        int requiredEepromLoaderSpace = eepromLoaderCode.length + eepromLoaderScreen.length;
+        int eepromLocation;
+        if (requiredEepromLoaderSpace <= freeSpace) {
+            eepromLocation = os.size();
+            LOGGER.debug("Dumping EEPROM Loader with size {} at offset {}. Free space was {}",
+                    requiredEepromLoaderSpace,
+                    eepromLocation,
+                    freeSpace);
+            cBlocksTable.write(asLittleEndianWord(os.size()));
+            os.write(eepromLoaderScreen);
+            cBlocksTable.write(asLittleEndianWord(os.size()));
+            os.write(eepromLoaderCode);
+        } else {
+            LOGGER.debug("Skipping EEPROM Loader. Not enough free space: {}. Needed {}",
+                    freeSpace, requiredEepromLoaderSpace);
+            cBlocksTable.write(asLittleEndianWord(0));
+            cBlocksTable.write(asLittleEndianWord(0));
+        }
+        //Empty entry in CBlocks table
+        cBlocksTable.write(asLittleEndianWord(0));
+        cBlocksTable.write(asLittleEndianWord(0));
+
+        Util.fillWithValue(os, (byte) 0, V2Constants.EXTRA_ROM_PRESENT_OFFSET - os.size());
+        LOGGER.debug("Dumped grey zone. Offset: {}", os.size());
+
+        os.write((includeExtraRom ? Constants.B_01 : Constants.B_00));
+        os.write((enforceFollowRom ? Constants.B_01: Constants.B_00));
+        if (enforceFollowRom) {
+            int baseSlot = 30; //30
+            if (includeExtraRom) {
+                baseSlot--; //29
+            }
+            os.write((byte) ((baseSlot - 28) * 8));  //464 ROM Slot (base 28, increment 8)
+            baseSlot ++;
+            os.write((byte) baseSlot);  //464 BASIC ROM Slot
+        } else {
+            os.write(Constants.B_FF);
+            os.write(Constants.B_FF);
+        }
+
+        os.write(asNullTerminatedByteArray(getVersionInfo(), V2Constants.VERSION_SIZE));
+        LOGGER.debug("Dumped version info. Offset: {}", os.size());
+
+        os.write(cBlocksTable.toByteArray());
+        LOGGER.debug("Dumped CBlocks table {}. Offset {}",
+                Util.dumpAsHexString(cBlocksTable.toByteArray()), os.size());
+
+        os.write(autoboot ? 1 : 0);
+        LOGGER.debug("Dumped autoboot configuration. Offset: {}", os.size());
+
+        Util.fillWithValue(os, (byte) 0, Constants.SLOT_SIZE - os.size());
+
+        LOGGER.debug("Slot zero completed. Offset: {}", os.size());
+
+        for (Game game : games) {
+            if (isGameCompressed(game)) {
+                dumpCompressedGameData(os, game);
+                LOGGER.debug("Dumped compressed game. Offset: " + os.size());
+            }
+        }
+
+        int currentSlot = DandanatorCpcConstants.GAME_SLOTS + 1
+                - getUncompressedSlotCount();
+
+        int lastMldSaveSector = (4 * currentSlot) - 1;
+
+        for (int i = games.size() - 1; i >= 0; i--) {
+            Game game = games.get(i);
+            if (game instanceof MLDGame) {
+                lastMldSaveSector = dumpMLDGameData(uncompressedStream, game,
+                        lastMldSaveSector, currentSlot);
+            } else {
+                dumpUncompressedGameData(uncompressedStream, game);
+            }
+        }
+
+        //Uncompressed data goes at the end minus the required space for extra ROM and/or
+        //machine firmwares and grows backwards
+        int uncompressedOffset = Constants.SLOT_SIZE * (DandanatorCpcConstants.EEPROM_SLOTS - getReservedSlots())
+                - uncompressedStream.size();
+        int gapSize = uncompressedOffset - os.size();
+        LOGGER.debug("Gap to uncompressed zone: " + gapSize);
+        if (gapSize < 0) {
+            throw new IllegalStateException("Games exceed the ROM set capacity by " + (-gapSize) + " bytes");
+        }
+        Util.fillWithValue(os, Constants.B_FF, gapSize);
+
+        uncompressedStream.writeTo(os);
+        LOGGER.debug("Dumped uncompressed game data. Offset: " + os.size());
+
+        if (enforceFollowRom) {
+            os.write(DandanatorCpcConstants.getCpc464Firmware());
+            LOGGER.debug("Dumped 464 firmware. Offset {}", os.size());
+            os.write(DandanatorCpcConstants.getCpc464Basic());
+            LOGGER.debug("Dumped 464 Basic. Offset {}", os.size());
+        }
+        if (includeExtraRom) {
+            os.write(extraRom);
+            LOGGER.debug("Dumped custom rom. Offset: {}", os.size());
+        }
+
+        LOGGER.debug("All parts dumped. Offset: " + os.size());
+    }
+}
@@ -5,15 +5,17 @@ import com.grelobites.romgenerator.Configuration;
 import com.grelobites.romgenerator.Constants;
 import com.grelobites.romgenerator.EepromWriterConfiguration;
 import com.grelobites.romgenerator.handlers.dandanatorcpc.*;
-import com.grelobites.romgenerator.handlers.dandanatorcpc.v1.GameHeaderV1Serializer;
 import com.grelobites.romgenerator.handlers.dandanatorcpc.view.DandanatorCpcFrameController;
 import com.grelobites.romgenerator.model.*;
 import com.grelobites.romgenerator.util.*;
 import com.grelobites.romgenerator.util.romsethandler.RomSetHandler;
 import com.grelobites.romgenerator.util.romsethandler.RomSetHandlerType;
+import com.grelobites.romgenerator.util.romsethandler.RomUsageLedger;
+import com.grelobites.romgenerator.util.task.TaskType;
 import com.grelobites.romgenerator.view.util.DialogUtil;
 import com.grelobites.romgenerator.view.util.DirectoryAwareFileChooser;
 import javafx.animation.AnimationTimer;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.InvalidationListener;
 import javafx.beans.binding.Bindings;
@@ -26,35 +28,22 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.control.MenuItem;
 import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.Pane;
+import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.Future;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 
 public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupport implements RomSetHandler {
-    private static class Offsets {
-        public int forwardOffset;
-        public int backwardsOffset;
-        public Offsets(int forwardOffset, int backwardsOffset) {
-            this.forwardOffset = forwardOffset;
-            this.backwardsOffset = backwardsOffset;
-        }
-        @Override
-        public String toString() {
-            return "Offsets{" +
-                    "forwardOffset=" + forwardOffset +
-                    ", backwardsOffset=" + backwardsOffset +
-                    '}';
-        }
-    }
-
     private static final Logger LOGGER = LoggerFactory.getLogger(DandanatorCpcV2RomSetHandler.class);
 
-    private static final byte[] EMPTY_CBLOCK = new byte[5];
     private static final int MAX_MENU_PAGES = 3;
 
     private static RamGameCompressor ramGameCompressor = new DandanatorCpcRamGameCompressor();
@@ -74,6 +63,17 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
     private CpcScreen[] menuImages;
     private AnimationTimer previewUpdateTimer;
     private static final long SCREEN_UPDATE_PERIOD_NANOS = 3 * 1000000000L;
+    private static final Duration MENU_PREVIEW_DEBOUNCE = Duration.millis(150);
+
+    private final PauseTransition menuPreviewDebounce = new PauseTransition(MENU_PREVIEW_DEBOUNCE);
+    private final ExecutorService menuPreviewExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r);
+        t.setDaemon(true);
+        t.setName("Menu preview renderer");
+        return t;
+    });
+    private final int[] backgroundPixels = CpcFramebufferRenderer.newFramebuffer();
+    private byte[] renderedBackgroundImage;
 
     private InvalidationListener updateImageListener =
             (c) -> updateMenuPreview();
@@ -81,11 +81,68 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
     private InvalidationListener updateRomUsageListener =
             (c) -> updateRomUsage();
 
-    private static void initializeMenuImages(CpcScreen[] menuImages) throws IOException {
+    private final RomUsageLedger romUsageLedger = new RomUsageLedger(this::getKnownGameSize);
+    private final Set<Game> gamesBeingCompressed = Collections.newSetFromMap(new IdentityHashMap<>());
+    //Games whose compression failed. Not retried, they account for no space
+    private final Set<Game> gamesFailingCompression = Collections.newSetFromMap(new IdentityHashMap<>());
+    private CompletableFuture<OperationResult> lastGameAddition = CompletableFuture.completedFuture(null);
+
+    /*
+     * What the menu preview shows, taken on the FX thread so that the preview
+     * thread never reads the game list or the configuration
+     */
+    private static class MenuPreview {
+        final byte[] backgroundImage;
+        final byte[] charSet;
+        final String togglePokesMessage;
+        //Null when no extra ROM is included
+        final String extraRomMessage;
+        final String[] gameNames;
+        final int[] gameSymbolCodes;
+
+        MenuPreview(List<Game> gameList) throws IOException {
+            Configuration configuration = Configuration.getInstance();
+            DandanatorCpcConfiguration dConfiguration = DandanatorCpcConfiguration.getInstance();
+            backgroundImage = configuration.getBackgroundImage();
+            charSet = configuration.getCharSet();
+            togglePokesMessage = dConfiguration.getTogglePokesMessage();
+            extraRomMessage = configuration.isIncludeExtraRom() ? dConfiguration.getExtraRomMessage() : null;
+            gameNames = new String[gameList.size()];
+            gameSymbolCodes = new int[gameList.size()];
+            for (int i = 0; i < gameNames.length; i++) {
+                gameNames[i] = gameList.get(i).getName();
+                gameSymbolCodes[i] = DandanatorCpcV2RomSetExporter.getGameSymbolCode(gameList.get(i));
+            }
+        }
+    }
+
+    //Backgrounds are drawn in the preview thread, out of the application startup path
+    private void initializeMenuImages(CpcScreen[] menuImages) throws IOException {
         for (int i = 0; i < menuImages.length; i++) {
             menuImages[i] = new CpcScreen(1); //Use mode 1 here
-            updateBackgroundImage(menuImages[i]);
         }
+        byte[] backgroundImage = Configuration.getInstance().getBackgroundImage();
+        menuPreviewExecutor.execute(() -> {
+            try {
+                for (CpcScreen menuImage : menuImages) {
+                    synchronized (menuImage) {
+                        menuImage.setBackground(getBackgroundPixels(backgroundImage));
+                    }
+                }
+                Platform.runLater(this::flushMenuImages);
+            } catch (Exception e) {
+                LOGGER.error("Rendering menu background", e);
+            }
+        });
+    }
+
+    //Only decoded again when the configured background changes
+    private int[] getBackgroundPixels(byte[] backgroundImage) throws IOException {
+        if (backgroundImage != renderedBackgroundImage) {
+            renderBackgroundImage(backgroundPixels, backgroundImage);
+            renderedBackgroundImage = backgroundImage;
+        }
+        return backgroundPixels;
     }
 
     private void updateRomUsage() {
@@ -96,6 +153,7 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
     public DandanatorCpcV2RomSetHandler() throws IOException {
         menuImages = new CpcScreen[MAX_MENU_PAGES];
         initializeMenuImages(menuImages);
+        menuPreviewDebounce.setOnFinished(e -> renderMenuPreview());
         currentRomUsage = new SimpleDoubleProperty();
         previewUpdateTimer = new AnimationTimer() {
             int currentFrame = 0;
@@ -125,432 +183,79 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
         };
     }
 
-    private static byte[] getEepromLoaderCode() throws IOException {
-        EepromWriterConfiguration configuration = EepromWriterConfiguration.getInstance();
-        byte[] eewriter = Util.fromInputStream(configuration.getRomsetLoaderStream());
-        return Util.compress(eewriter);
-    }
-
-    private static byte[] getEepromLoaderScreen() throws IOException {
-        EepromWriterConfiguration configuration = EepromWriterConfiguration.getInstance();
-        byte[] screen = Util.fromInputStream(configuration.getScreenStream());
-        return RomSetUtil.getCompressedScreen(screen);
-    }
-
-    private static byte[] getPaddedGameHeader(Game game) throws IOException {
-        byte[] paddedHeader = new byte[V2Constants.GAME_HEADER_SIZE];
-        Arrays.fill(paddedHeader, Constants.B_00);
-        if (game instanceof SnapshotGame) {
-            SnapshotGame snapshotGame = (SnapshotGame) game;
-            ByteArrayOutputStream os = new ByteArrayOutputStream();
-            GameHeaderV1Serializer.serialize(snapshotGame, os);
-            byte[] snaHeader = os.toByteArray();
-            System.arraycopy(snaHeader, 0, paddedHeader, 0, snaHeader.length);
-        }
-        return paddedHeader;
-    }
-
-    protected static void dumpGameLaunchCode(OutputStream os, Game game, int index) throws IOException {
-        if (game instanceof SnapshotGame) {
-            SnapshotGame snapshotGame = (SnapshotGame) game;
-
-            int baseAddress = V2Constants.GAME_STRUCT_OFFSET + V2Constants.GAME_STRUCT_SIZE * index;
-            os.write(Z80Opcode.LD_IX__NN(baseAddress + GameHeaderOffsets.IX_OFFSET));
-            os.write(Z80Opcode.LD_HL__NN(baseAddress + GameHeaderOffsets.HL_OFFSET));
-            boolean interruptDisable = snapshotGame.getGameHeader()
-                    .getIff0() == 0;
-
-            os.write(interruptDisable ? Z80Opcode.DI : Z80Opcode.EI);
-            os.write(Z80Opcode.RET);
-        } else {
-            os.write(new byte[V2Constants.GAME_LAUNCHCODE_SIZE]);
-        }
-    }
-
-    private void dumpGameCBlocks(OutputStream os, Game game, Offsets offsets)
-            throws IOException {
-        LOGGER.debug("Writing CBlocks for game " + game.getName()
-                + ", of type " + game.getType()
-                + ", with offsets " + offsets);
-        ByteArrayOutputStream gameCBlocks = new ByteArrayOutputStream();
-        List<byte[]> blocks;
-        if (game instanceof SnapshotGame && ((SnapshotGame) game).getCompressed()) {
-            SnapshotGame snapshotGame = (SnapshotGame) game;
-            blocks = snapshotGame.getCompressedData(ramGameCompressor);
-        } else {
-            blocks = game.getData();
-        }
-        //For MLD games we encode the number of slots in the first CBlock. The rest set to FF
-        if (game instanceof MLDGame) {
-            int requiredSlots = game.getSlotCount(); //Since game.getSize() includes save space
-            int startOffset = offsets.forwardOffset - (requiredSlots * Constants.SLOT_SIZE);
-            LOGGER.debug("Writing MLD CBlock with offset {}", startOffset);
-            gameCBlocks.write(startOffset / Constants.SLOT_SIZE);
-            gameCBlocks.write(asLittleEndianWord(Constants.B_00));
-            gameCBlocks.write(asLittleEndianWord(requiredSlots));
-            offsets.forwardOffset = startOffset;
-        } else {
-        for (byte[] block: blocks) {
-            if (block != null) {
-                if (block.length < Constants.SLOT_SIZE) {
-                    LOGGER.debug("Writing compressed CBlock with offset {} and length {}", offsets.forwardOffset, block.length);
-                    gameCBlocks.write(offsets.forwardOffset / Constants.SLOT_SIZE);
-                    gameCBlocks.write(asLittleEndianWord(offsets.forwardOffset % Constants.SLOT_SIZE));
-                    gameCBlocks.write(asLittleEndianWord(block.length));
-                    offsets.forwardOffset += block.length;
-                } else if (block.length == Constants.SLOT_SIZE) {
-                    offsets.backwardsOffset -= Constants.SLOT_SIZE;
-                    LOGGER.debug("Writing uncompressed CBlock with offset {} and length {}", offsets.backwardsOffset, block.length);
-                    gameCBlocks.write(offsets.backwardsOffset / Constants.SLOT_SIZE);
-                    gameCBlocks.write(asLittleEndianWord(Constants.B_00)); //Blocks always at offset 0 (uncompressed)
-                    gameCBlocks.write(asLittleEndianWord(Constants.SLOT_SIZE));
-                } else {
-                    throw new IllegalStateException("Attempt to write a block exceeding " + Constants.SLOT_SIZE);
-                }
-            } else {
-                LOGGER.debug("Writing empty CBlock");
-                gameCBlocks.write(EMPTY_CBLOCK);
-            }
-        }
-        }
-
-        //Fill the remaining space with 0xFF
-        byte[] cBlocksArray = Util.paddedByteArray(gameCBlocks.toByteArray(),
-                5 * 8, (byte) DandanatorCpcConstants.FILLER_BYTE);
-        LOGGER.debug("CBlocks array calculated as " + Util.dumpAsHexString(cBlocksArray));
-        os.write(cBlocksArray);
-    }
-
-    protected static void dumpGameName(OutputStream os, Game game, int index) throws IOException {
-        int gameSymbolCode = getGameSymbolCode(game);
-        String gameName = String.format("%1d%c%c%c%s", (index + 1) % DandanatorCpcConstants.SLOT_COUNT,
-                gameSymbolCode, gameSymbolCode + 1, gameSymbolCode + 2,
-                game.getName());
-        os.write(asNullTerminatedByteArray(gameName, DandanatorCpcConstants.GAMENAME_SIZE));
-    }
-
-    private int getGameType(Game game) {
-        int value = game.getType().typeId();
-        if (game instanceof SnapshotGame) {
-            SnapshotGame snapshotGame = (SnapshotGame) game;
-            if (snapshotGame.getHardwareMode() != null) {
-                if (snapshotGame.getHardwareMode().supported()) {
-                    value |= (1 << 7) | ((snapshotGame.getHardwareMode().snaValue() & 3) << 4);
-                }
-            }
-        }
-        LOGGER.debug("Gametype calculated for {} is {}", game, String.format("0x%02x", value));
-        return value;
-    }
-
-    private static int getCurrentRasterInterrupt(Game game) {
-        if (game instanceof SnapshotGame) {
-            return ((SnapshotGame) game).getCurrentRasterInterrupt();
-        } else {
-            return 0;
-        }
-    }
-
-    private void dumpGameHeader(OutputStream os, int index, Game game,
-                               Offsets offsets) throws IOException {
-        os.write(getPaddedGameHeader(game));
-        os.write(game.getType().typeId());
-        os.write(RomSetUtil.getGameChunk(game));
-        os.write(isGameCompressed(game) ? Constants.B_01 : Constants.B_00);
-        os.write(isGameScreenHold(game) ? Constants.B_01 : Constants.B_00);
-        os.write(0); //Upper and lower active roms. Unused in V2
-        os.write(getCurrentRasterInterrupt(game));
-        dumpGameLaunchCode(os, game, index);
-        dumpGameCBlocks(os, game, offsets);
-        dumpGameName(os, game, index);
-    }
-
-    private void dumpGameHeaders(ByteArrayOutputStream os) throws IOException {
-        int index = 0;
-        //forwardOffset after the slot zero
-        //backwardsOffset starts before the test ROM
-        Offsets offsets = new Offsets(Constants.SLOT_SIZE,
-                Constants.SLOT_SIZE * (DandanatorCpcConstants.EEPROM_SLOTS
-                        - getReservedSlots(Configuration.getInstance())));
-        for (Game game : getApplicationContext().getGameList()) {
-            dumpGameHeader(os, index, game, offsets);
-            LOGGER.debug("Dumped gamestruct for " + game.getName() + ". Offset: " + os.size());
-            index++;
-        }
-        Util.fillWithValue(os, (byte) 0, V2Constants.GAME_STRUCT_SIZE * (DandanatorCpcConstants.MAX_GAMES - index));
-        LOGGER.debug("Filled to end of gamestruct. Offset: " + os.size());
-    }
-
-    private static byte[] getScreenTexts(DandanatorCpcConfiguration configuration) throws IOException {
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            dumpScreenTexts(os, configuration);
-            return os.toByteArray();
+    @Override
+    public void exportRomSet(OutputStream stream) {
+        try {
+            DandanatorCpcV2RomSetExporter.newBuilder()
+                    .withConfiguration(Configuration.getInstance(), DandanatorCpcConfiguration.getInstance())
+                    .withGames(getApplicationContext().getGameList())
+                    .withRamGameCompressor(ramGameCompressor)
+                    .build()
+                    .exportRomSet(stream);
+        } catch (Exception e) {
+            LOGGER.error("Creating RomSet", e);
         }
     }
 
-    private static byte[] getPokeStructureData(Collection<Game> games) throws IOException {
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            for (Game game : games) {
-                os.write(getGamePokeCount(game));
-            }
-            Util.fillWithValue(os, Constants.B_00, DandanatorCpcConstants.MAX_GAMES - games.size());
-
-            int basePokeAddress = V2Constants.POKE_TARGET_ADDRESS +
-                    DandanatorCpcConstants.MAX_GAMES * 3;
-
-            for (Game game : games) {
-                os.write(asLittleEndianWord(basePokeAddress));
-                basePokeAddress += pokeRequiredSize(game);
-            }
-            Util.fillWithValue(os, Constants.B_00, (DandanatorCpcConstants.MAX_GAMES - games.size()) * 2);
-
-            for (Game game : games) {
-                dumpGamePokeData(os, game);
-            }
-            LOGGER.debug("Poke Structure before compressing: " + Util.dumpAsHexString(os.toByteArray()));
-            return os.toByteArray();
-
-        }
+    private int getReservedSlots(Configuration configuration) {
+        return DandanatorCpcV2RomSetExporter.getReservedSlots(configuration.isIncludeExtraRom(),
+                configuration.isEnforceFollowRom());
     }
 
-    private void dumpCompressedGameData(OutputStream os, Game game) throws IOException {
-        if (game instanceof SnapshotGame) {
+    /*
+     * Size of the game as known right now. Compression is never run here,
+     * it is requested in the background and the ledger refreshed when done
+     */
+    private int getKnownGameSize(Game game) {
+        if (game instanceof SnapshotGame && game.getType() != GameType.ROM) {
             SnapshotGame snapshotGame = (SnapshotGame) game;
-            for (byte[] compressedSlot : snapshotGame.getCompressedData(ramGameCompressor)) {
-                if (compressedSlot != null) {
-                    if (compressedSlot.length < Constants.SLOT_SIZE) {
-                        os.write(compressedSlot);
-                        LOGGER.debug("Dumped compressed slot for game " + snapshotGame.getName()
-                                + " of size: " + compressedSlot.length);
-                    } else {
-                        LOGGER.debug("Skipped uncompressed slot for game {}", snapshotGame.getName());
+            if (snapshotGame.getCompressed()) {
+                if (snapshotGame.isCompressedSizeAvailable()) {
+                    try {
+                        return snapshotGame.getCompressedSize(ramGameCompressor);
+                    } catch (IOException e) {
+                        LOGGER.warn("Calculating game size usage", e);
+                        return 0;
                     }
+                } else if (gamesFailingCompression.contains(snapshotGame)) {
+                    LOGGER.warn("Compressed size of game {} unknown after compression failure",
+                            snapshotGame.getName());
+                    return 0;
                 } else {
-                    LOGGER.debug("Skipped zeroed slot");
-                }
-            }
-        }
-    }
-
-    private static int gameUncompressedSlotCount(Game game) throws IOException {
-        List<byte[]> blocks;
-        int count = 0;
-        if (game instanceof SnapshotGame && ((SnapshotGame) game).getCompressed()) {
-            SnapshotGame snapshotGame = (SnapshotGame) game;
-            blocks = snapshotGame.getCompressedData(ramGameCompressor);
-        } else {
-            blocks = game.getData();
-        }
-        for (byte[] block : blocks) {
-            if (block != null && block.length == Constants.SLOT_SIZE) {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    private static int getUncompressedSlotCount(List<Game> games) throws IOException {
-        int value = 0;
-        for (Game game: games) {
-            value += gameUncompressedSlotCount(game);
-        }
-        LOGGER.debug("Total Number of uncompressed slots " + value);
-        return value;
-    }
-
-    private void dumpUncompressedGameData(OutputStream os, Game game) throws IOException {
-        if (isGameCompressed(game)) {
-            //Dump only compressed slots with size == 16384
-            SnapshotGame snapshotGame = (SnapshotGame) game;
-            List<byte[]> compressedSlots = snapshotGame.getCompressedData(ramGameCompressor);
-            for (int i = compressedSlots.size() - 1; i >= 0; i--) {
-                byte[] slotData = compressedSlots.get(i);
-                if (slotData != null && slotData.length == Constants.SLOT_SIZE) {
-                    LOGGER.debug("Dumped uncompressed slot {} for compressed game {}", i, game.getName());
-                    os.write(slotData);
-                }
-            }
-        } else {
-            for (int i = game.getSlotCount() - 1; i >= 0; i--) {
-                if (!game.isSlotZeroed(i)) {
-                    os.write(game.getSlot(i));
-                    LOGGER.debug("Dumped uncompressed slot " + i + " for game " + game.getName());
-                } else {
-                    LOGGER.debug("Skipped zeroed slot");
+                    requestCompressedSize(snapshotGame);
+                    return RomUsageLedger.PENDING_SIZE;
                 }
+            } else {
+                //Stored as is. addGame already compressed it in the background
+                return snapshotGame.getSize();
             }
         }
-    }
-
-    private int dumpMLDGameData(OutputStream os, Game game, int lastMldSaveSector,
-                                int currentSlot) throws IOException {
-        MLDGame mldGame = (MLDGame) game;
-        mldGame.reallocate(currentSlot);
-        lastMldSaveSector = mldGame.allocateSaveSpace(lastMldSaveSector);
-
-        for (int i = 0; i < game.getSlotCount(); i++) {
-            os.write(game.getSlot(i));
-        }
-        return lastMldSaveSector;
-    }
-
-    @Override
-    public void exportRomSet(OutputStream stream) {
         try {
-            Configuration configuration = Configuration.getInstance();
-            DandanatorCpcConfiguration dmConfiguration = DandanatorCpcConfiguration.getInstance();
-
-            ByteArrayOutputStream os = new ByteArrayOutputStream();
-            List<Game> games = getApplicationContext().getGameList();
-            os.write(dmConfiguration.getDandanatorRom(), 0, V2Constants.BASEROM_SIZE);
-            LOGGER.debug("Dumped base ROM. Offset: " + os.size());
-
-            os.write((byte) games.size());
-            LOGGER.debug("Dumped game count. Offset: " + os.size());
-
-            dumpGameHeaders(os);
-            LOGGER.debug("Dumped game struct. Offset: {}", os.size());
-
-            os.write(getPokeStructureData(games));
-            LOGGER.debug("Dumped poke struct. Offset: {}", os.size());
-
-            int greyAreaOffset = os.size();
-            ByteArrayOutputStream cBlocksTable = new ByteArrayOutputStream();
-            byte[] compressedScreen = RomSetUtil.getCompressedScreen(configuration.getBackgroundImage());
-            cBlocksTable.write(asLittleEndianWord(greyAreaOffset));
-            cBlocksTable.write(asLittleEndianWord(compressedScreen.length));
-            greyAreaOffset += compressedScreen.length;
-
-            byte[] compressedScreenTexts = Util.compress(getScreenTexts(dmConfiguration));
-            cBlocksTable.write(asLittleEndianWord(greyAreaOffset));
-            cBlocksTable.write(asLittleEndianWord(compressedScreenTexts.length));
-            greyAreaOffset += compressedScreenTexts.length;
-
-            ExtendedCharSet extendedCharset = new ExtendedCharSet(configuration.getCharSet());
-            byte[] compressedCharSet = Util.compress(RomSetUtil.encodeCharset(extendedCharset.getCharSet()));
-            cBlocksTable.write(asLittleEndianWord(greyAreaOffset));
-            cBlocksTable.write(asLittleEndianWord(compressedCharSet.length));
-
-            os.write(compressedScreen);
-            os.write(compressedScreenTexts);
-            os.write(compressedCharSet);
-
-            //loader if enough room
-            int freeSpace = V2Constants.VERSION_OFFSET - os.size();
-            byte[] eepromLoaderCode = getEepromLoaderCode();
-            byte[] eepromLoaderScreen = getEepromLoaderScreen();
-            int requiredEepromLoaderSpace = eepromLoaderCode.length + eepromLoaderScreen.length;
-            int eepromLocation;
-            if (requiredEepromLoaderSpace <= freeSpace) {
-                eepromLocation = os.size();
-                LOGGER.debug("Dumping EEPROM Loader with size {} at offset {}. Free space was {}",
-                        requiredEepromLoaderSpace,
-                        eepromLocation,
-                        freeSpace);
-                cBlocksTable.write(asLittleEndianWord(os.size()));
-                os.write(eepromLoaderScreen);
-                cBlocksTable.write(asLittleEndianWord(os.size()));
-                os.write(eepromLoaderCode);
-            } else {
-                LOGGER.debug("Skipping EEPROM Loader. Not enough free space: {}. Needed {}",
-                        freeSpace, requiredEepromLoaderSpace);
-                cBlocksTable.write(asLittleEndianWord(0));
-                cBlocksTable.write(asLittleEndianWord(0));
-            }
-            //Empty entry in CBlocks table
-            cBlocksTable.write(asLittleEndianWord(0));
-            cBlocksTable.write(asLittleEndianWord(0));
-
-            Util.fillWithValue(os, (byte) 0, V2Constants.EXTRA_ROM_PRESENT_OFFSET - os.size());
-            LOGGER.debug("Dumped grey zone. Offset: {}", os.size());
-
-            os.write((configuration.isIncludeExtraRom() ? Constants.B_01 : Constants.B_00));
-            os.write((configuration.isEnforceFollowRom() ? Constants.B_01: Constants.B_00));
-            if (configuration.isEnforceFollowRom()) {
-                int baseSlot = 30; //30
-                if (configuration.isIncludeExtraRom()) {
-                    baseSlot--; //29
-                }
-                os.write((byte) ((baseSlot - 28) * 8));  //464 ROM Slot (base 28, increment 8)
-                baseSlot ++;
-                os.write((byte) baseSlot);  //464 BASIC ROM Slot
-            } else {
-                os.write(Constants.B_FF);
-                os.write(Constants.B_FF);
-            }
-
-            os.write(asNullTerminatedByteArray(getVersionInfo(), V2Constants.VERSION_SIZE));
-            LOGGER.debug("Dumped version info. Offset: {}", os.size());
-
-            os.write(cBlocksTable.toByteArray());
-            LOGGER.debug("Dumped CBlocks table {}. Offset {}",
-                    Util.dumpAsHexString(cBlocksTable.toByteArray()), os.size());
-
-            os.write(dmConfiguration.isAutoboot() ? 1 : 0);
-            LOGGER.debug("Dumped autoboot configuration. Offset: {}", os.size());
-
-            Util.fillWithValue(os, (byte) 0, Constants.SLOT_SIZE - os.size());
-
-            LOGGER.debug("Slot zero completed. Offset: {}", os.size());
-
-            for (Game game : games) {
-                if (isGameCompressed(game)) {
-                    dumpCompressedGameData(os, game);
-                    LOGGER.debug("Dumped compressed game. Offset: " + os.size());
-                }
-            }
-
-            int currentSlot = DandanatorCpcConstants.GAME_SLOTS + 1
-                    - getUncompressedSlotCount(games);
-
-            int lastMldSaveSector = (4 * currentSlot) - 1;
-
-            ByteArrayOutputStream uncompressedStream = new ByteArrayOutputStream();
-            for (int i = games.size() - 1; i >= 0; i--) {
-                Game game = games.get(i);
-                if (game instanceof MLDGame) {
-                    lastMldSaveSector = dumpMLDGameData(uncompressedStream, game,
-                            lastMldSaveSector, currentSlot);
-                } else {
-                    dumpUncompressedGameData(uncompressedStream, game);
-                }
-            }
-
-            //Uncompressed data goes at the end minus the required space for extra ROM and/or
-            //machine firmwares and grows backwards
-            int uncompressedOffset = Constants.SLOT_SIZE * (DandanatorCpcConstants.EEPROM_SLOTS - getReservedSlots(configuration))
-                    - uncompressedStream.size();
-            int gapSize = uncompressedOffset - os.size();
-            LOGGER.debug("Gap to uncompressed zone: " + gapSize);
-            Util.fillWithValue(os, Constants.B_FF, gapSize);
-
-            os.write(uncompressedStream.toByteArray());
-            LOGGER.debug("Dumped uncompressed game data. Offset: " + os.size());
-
-            if (configuration.isEnforceFollowRom()) {
-                os.write(DandanatorCpcConstants.getCpc464Firmware());
-                LOGGER.debug("Dumped 464 firmware. Offset {}", os.size());
-                os.write(DandanatorCpcConstants.getCpc464Basic());
-                LOGGER.debug("Dumped 464 Basic. Offset {}", os.size());
-            }
-            if (configuration.isIncludeExtraRom()) {
-                os.write(dmConfiguration.getExtraRom());
-                LOGGER.debug("Dumped custom rom. Offset: {}", os.size());
-            }
-
-            os.flush();
-            LOGGER.debug("All parts dumped and flushed. Offset: " + os.size());
-
-            stream.write(os.toByteArray());
+            return getGameSize(game);
         } catch (Exception e) {
-            LOGGER.error("Creating RomSet", e);
+            LOGGER.warn("Calculating game size usage", e);
+            return 0;
         }
     }
 
-    private int getReservedSlots(Configuration configuration) {
-        int value = configuration.isIncludeExtraRom() ? 1 : 0;
-        value += configuration.isEnforceFollowRom() ? 2 : 0;
-        return value;
+    private void requestCompressedSize(SnapshotGame game) {
+        ApplicationContext context = applicationContext;
+        if (context != null && gamesBeingCompressed.add(game)) {
+            context.submitTask(TaskType.CPU,
+                    () -> game.getCompressedData(ramGameCompressor))
+                    .whenComplete((compressedData, failure) -> {
+                        if (failure != null) {
+                            LOGGER.error("Calculating game size", failure);
+                        }
+                        Platform.runLater(() -> {
+                            gamesBeingCompressed.remove(game);
+                            if (failure != null) {
+                                gamesFailingCompression.add(game);
+                            }
+                            romUsageLedger.refresh(game);
+                        });
+                    });
+        }
     }
 
     private static int getGameSize(Game game) throws IOException {
@@ -570,20 +275,14 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
         return Bindings.size(ctx.getGameList())
                 .greaterThan(0)
                 .and(Bindings.size(ctx.getGameList()).lessThanOrEqualTo(DandanatorCpcConstants.MAX_GAMES))
-                .and(currentRomUsage.lessThan(1.0));
+                .and(currentRomUsage.lessThan(1.0))
+                .and(romUsageLedger.pendingGamesProperty().isEqualTo(0));
     }
 
     protected double calculateRomUsage() {
-        int size = 0;
         Configuration configuration = Configuration.getInstance();
-        for (Game game : getApplicationContext().getGameList()) {
-            try {
-                size += getGameSize(game);
-            } catch (Exception e) {
-                LOGGER.warn("Calculating game size usage", e);
-            }
-        }
-        size += getReservedSlots(configuration) * Constants.SLOT_SIZE;
+        int size = romUsageLedger.getUsedSize() +
+                getReservedSlots(configuration) * Constants.SLOT_SIZE;
 
         LOGGER.debug("Used size: {} , total size: {}", size,
                 DandanatorCpcConstants.GAME_SLOTS * Constants.SLOT_SIZE);
@@ -598,28 +297,45 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
     }
 
     protected String generateRomUsageDetail() {
-        return String.format(LocaleUtil.i18n("romUsageDetail"),
+        String detail = String.format(LocaleUtil.i18n("romUsageDetail"),
                 getApplicationContext().getGameList().size(),
                 DandanatorCpcConstants.MAX_GAMES,
                 calculateRomUsage() * 100);
+        int pendingGames = romUsageLedger.getPendingGames();
+        return pendingGames > 0 ?
+                detail + "\n" + String.format(LocaleUtil.i18n("romUsagePending"), pendingGames) :
+                detail;
     }
 
     private void prepareAddedGame(Game game) throws IOException {
         getGameSize(game);
     }
 
+    /*
+     * Games are prepared in parallel but reach the game list in the same
+     * order addGame was invoked, each addition chained to the previous one
+     */
     @Override
-    public Future<OperationResult> addGame(Game game) {
-        return getApplicationContext().addBackgroundTask(() -> {
-                try {
-                    //Force compression calculation
-                    prepareAddedGame(game);
-                    Platform.runLater(() -> getApplicationContext().getGameList().add(game));
-                } catch (Exception e) {
-                    LOGGER.error("Calculating game size", e);
-                }
-            return OperationResult.successResult();
+    public synchronized CompletableFuture<OperationResult> addGame(Game game) {
+        CompletableFuture<Game> prepared = getApplicationContext().submitTask(TaskType.CPU, () -> {
+            //Force compression calculation
+            prepareAddedGame(game);
+            return game;
+        });
+        CompletableFuture<OperationResult> added = lastGameAddition
+                .handle((result, failure) -> result)
+                .thenCombine(prepared, (result, preparedGame) -> preparedGame)
+                .thenApplyAsync(preparedGame -> {
+                    getApplicationContext().getGameList().add(preparedGame);
+                    return OperationResult.successResult();
+                }, Platform::runLater);
+        added.whenComplete((result, failure) -> {
+            if (failure != null && !prepared.isCancelled()) {
+                LOGGER.error("Calculating game size", failure);
+            }
         });
+        lastGameAddition = added;
+        return added;
     }
 
     @Override
@@ -662,36 +378,21 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
         }
     }
 
-    private static int getGameSymbolCode(Game game) {
-        switch (game.getType()) {
-            case ROM:
-                return ExtendedCharSet.SYMBOL_ROM_0_CODE;
-            case RAM64:
-                return ExtendedCharSet.SYMBOL_64K_0_CODE;
-            case RAM128:
-                return ExtendedCharSet.SYMBOL_128K_0_CODE;
-            default:
-                return ExtendedCharSet.SYMBOL_64K_0_CODE;
-        }
-    }
-
-    private static void printGameNameLine(CpcScreen screen, Game game, int index, int line) {
+    private static void printGameNameLine(CpcScreen screen, int symbolCode, String name, int index, int line) {
         screen.setPen(new CpcGradient(CpcColor.BRIGHTWHITE, 5,
                 CpcColor.WHITE));
         screen.deleteLine(line);
         screen.printLine(String.format("%1d", (index + 1) % DandanatorCpcConstants.SLOT_COUNT),
                 line, 0);
-        screen.printSymbol(getGameSymbolCode(game), line, 1);
+        screen.printSymbol(symbolCode, line, 1);
         screen.printLine(
-                String.format("%s", game.getName()), line, 4);
+                String.format("%s", name), line, 4);
     }
 
-    private void updateMenuPage(List<Game> gameList, int pageIndex, int numPages) throws IOException {
-        DandanatorCpcConfiguration dConfiguration = DandanatorCpcConfiguration.getInstance();
-        Configuration configuration = Configuration.getInstance();
+    private void updateMenuPage(MenuPreview preview, int pageIndex, int numPages) throws IOException {
         CpcScreen page = menuImages[pageIndex];
-        updateBackgroundImage(page);
-        page.setCharSet(new ExtendedCharSet(Configuration.getInstance().getCharSet()).getCharSet());
+        page.setBackground(getBackgroundPixels(preview.backgroundImage));
+        page.setCharSet(new ExtendedCharSet(preview.charSet).getCharSet());
 
         page.setPaper(CpcColor.BLACK);
         page.setPen(CpcColor.BRIGHTWHITE);
@@ -703,17 +404,17 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
         int line = 10;
         int gameIndex = pageIndex * DandanatorCpcConstants.SLOT_COUNT;
         int gameCount = 0;
-        while (gameIndex < gameList.size() && gameCount < DandanatorCpcConstants.SLOT_COUNT) {
-            Game game = gameList.get(gameIndex);
-            printGameNameLine(page, game, gameCount++, line++);
+        while (gameIndex < preview.gameNames.length && gameCount < DandanatorCpcConstants.SLOT_COUNT) {
+            printGameNameLine(page, preview.gameSymbolCodes[gameIndex], preview.gameNames[gameIndex],
+                    gameCount++, line++);
             gameIndex++;
         }
 
         page.setPen(CpcColor.BRIGHTYELLOW);
-        page.printLine(String.format("P. %s", dConfiguration.getTogglePokesMessage()), 21, 0);
-        if (configuration.isIncludeExtraRom()) {
+        page.printLine(String.format("P. %s", preview.togglePokesMessage), 21, 0);
+        if (preview.extraRomMessage != null) {
             page.setPen(CpcColor.BRIGHTRED);
-            page.printLine(String.format("R. %s", dConfiguration.getExtraRomMessage()), 23, 0);
+            page.printLine(String.format("R. %s", preview.extraRomMessage), 23, 0);
         }
     }
 
@@ -827,7 +528,7 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
                             applicationContext.selectedGameProperty()).not())
                 .or(EepromWriterConfiguration.getInstance().serialPortProperty().isEmpty()));
             sendGameBySerialPort.setOnAction(f ->
-                    applicationContext.addBackgroundTask(() -> {
+                    applicationContext.submitOperation(TaskType.IO, () -> {
                         try {
                             SerialGameUploader uploader = new SerialGameUploader(
                                 (SnapshotGame) applicationContext.getSelectedGame(),
@@ -887,17 +588,51 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
         }
     }
 
+    /*
+     * Bursts of changes (i.e. adding many games) are coalesced into a single
+     * render, that runs in the background and is flushed on the FX thread
+     */
     @Override
     public void updateMenuPreview() {
         LOGGER.debug("updateMenuPreview");
+        if (Platform.isFxApplicationThread()) {
+            menuPreviewDebounce.playFromStart();
+        } else {
+            Platform.runLater(menuPreviewDebounce::playFromStart);
+        }
+    }
+
+    private void renderMenuPreview() {
+        if (applicationContext == null) {
+            return;
+        }
+        MenuPreview preview;
         try {
-            List<Game> gameList = getApplicationContext().getGameList();
-            int numPages = 1 + ((gameList.size() - 1) / DandanatorCpcConstants.SLOT_COUNT);
-            for (int i = 0; i < numPages; i++) {
-                updateMenuPage(gameList, i, numPages);
-            }
+            preview = new MenuPreview(applicationContext.getGameList());
         } catch (Exception e) {
             LOGGER.error("Updating background screen", e);
+            return;
+        }
+        menuPreviewExecutor.execute(() -> {
+            try {
+                int numPages = 1 + ((preview.gameNames.length - 1) / DandanatorCpcConstants.SLOT_COUNT);
+                for (int i = 0; i < numPages; i++) {
+                    synchronized (menuImages[i]) {
+                        updateMenuPage(preview, i, numPages);
+                    }
+                }
+                Platform.runLater(this::flushMenuImages);
+            } catch (Exception e) {
+                LOGGER.error("Updating background screen", e);
+            }
+        });
+    }
+
+    private void flushMenuImages() {
+        for (CpcScreen menuImage : menuImages) {
+            synchronized (menuImage) {
+                menuImage.flush();
+            }
         }
     }
 
@@ -952,6 +687,9 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
                 .addListener(updateImageListener);
 
         applicationContext.getGameList().addListener(updateImageListener);
+        romUsageLedger.bind(applicationContext.getGameList());
+        romUsageLedger.usedSizeProperty().addListener(updateRomUsageListener);
+        romUsageLedger.pendingGamesProperty().addListener(updateRomUsageListener);
         applicationContext.getGameList().addListener(updateRomUsageListener);
         Configuration.getInstance().includeExtraRomProperty().addListener(updateRomUsageListener);
         Configuration.getInstance().includeExtraRomProperty().addListener(updateImageListener);
@@ -990,7 +728,12 @@ public class DandanatorCpcV2RomSetHandler extends DandanatorCpcRomSetHandlerSupp
                 getSendGameBySerialPortMenuItem());
         applicationContext.getGameList().removeListener(updateImageListener);
         applicationContext.getGameList().removeListener(updateRomUsageListener);
+        romUsageLedger.usedSizeProperty().removeListener(updateRomUsageListener);
+        romUsageLedger.pendingGamesProperty().removeListener(updateRomUsageListener);
+        romUsageLedger.unbind();
+        gamesFailingCompression.clear();
         applicationContext = null;
+        menuPreviewDebounce.stop();
         previewUpdateTimer.stop();
     }
 }
\ No newline at end of file
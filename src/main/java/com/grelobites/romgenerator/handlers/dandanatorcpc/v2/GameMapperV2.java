@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 public class GameMapperV2 implements GameMapper {
     private static final Logger LOGGER = LoggerFactory.getLogger(GameMapperV2.class);
@@ -122,14 +123,14 @@ public class GameMapperV2 implements GameMapper {
         this.trainerCount = trainerCount;
     }
 
+    //Compressed blocks are only uncompressed when the slot is read
     private List<byte[]> getGameSlots() {
-        List<byte[]> gameSlots = new ArrayList<>();
-        for (int index = 0; index < blocks.size(); index++) {
-            GameBlock block = blocks.get(index);
-            LOGGER.debug("Adding game slot for game " + name + ": " + block);
-            gameSlots.add(block.getData());
+        List<Callable<byte[]>> loaders = new ArrayList<>();
+        for (GameBlock block : blocks) {
+            LOGGER.debug("Adding lazy game slot for game " + name + ": " + block);
+            loaders.add(block.getInitSlot() > 0 ? () -> slotZero.uncompressBlock(block) : null);
         }
-        return gameSlots;
+        return new LazySlotList(loaders);
     }
 
     private List<byte[]> getMLDGameSlots() {
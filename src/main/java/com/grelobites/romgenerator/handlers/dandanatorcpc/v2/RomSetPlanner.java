@@ -0,0 +1,291 @@
+package com.grelobites.romgenerator.handlers.dandanatorcpc.v2;
+
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConstants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcRamGameCompressor;
+import com.grelobites.romgenerator.model.Game;
+import com.grelobites.romgenerator.util.GameUtil;
+import com.grelobites.romgenerator.util.RamGameCompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+ * Splits a game library over the minimum number of V2 ROM sets. Every ROM
+ * set is limited in game data bytes (as laid out by exportRomSet), number of
+ * games and poke zone. Games in the same group always end up together.
+ *
+ * Groups are placed first fit decreasing, then a local search tries to
+ * empty the least used ROM sets by moving their groups into the others.
+ */
+public class RomSetPlanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RomSetPlanner.class);
+    private static final int POKE_CAPACITY = DandanatorCpcConstants.POKE_ZONE_SIZE
+            - DandanatorCpcConstants.POKE_HEADER_SIZE;
+
+    private static class Item {
+        private final List<Game> games = new ArrayList<>();
+        private int size;
+        private int pokeSize;
+        private int firstIndex;
+    }
+
+    public static class Cartridge {
+        private final List<Item> items = new ArrayList<>();
+        private int size;
+        private int gameCount;
+        private int pokeSize;
+
+        private Cartridge() {}
+
+        private Cartridge(Cartridge cartridge) {
+            items.addAll(cartridge.items);
+            size = cartridge.size;
+            gameCount = cartridge.gameCount;
+            pokeSize = cartridge.pokeSize;
+        }
+
+        private void add(Item item) {
+            items.add(item);
+            size += item.size;
+            gameCount += item.games.size();
+            pokeSize += item.pokeSize;
+        }
+
+        //Games in the same order they had in the library
+        public List<Game> getGames() {
+            List<Item> ordered = new ArrayList<>(items);
+            ordered.sort(Comparator.comparingInt(i -> i.firstIndex));
+            List<Game> games = new ArrayList<>();
+            ordered.forEach(i -> games.addAll(i.games));
+            return games;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getPokeSize() {
+            return pokeSize;
+        }
+
+        @Override
+        public String toString() {
+            return "Cartridge{" +
+                    "games=" + gameCount +
+                    ", size=" + size +
+                    ", pokeSize=" + pokeSize +
+                    '}';
+        }
+    }
+
+    private List<Game> games = new ArrayList<>();
+    private Function<Game, String> grouping = g -> null;
+    private RamGameCompressor ramGameCompressor;
+    private boolean includeExtraRom = true;
+    private boolean enforceFollowRom = false;
+    private boolean localSearch = true;
+    private int maxGames = DandanatorCpcConstants.MAX_GAMES;
+    private int capacity;
+
+    public static class Builder {
+        private RomSetPlanner planner = new RomSetPlanner();
+
+        public Builder withGames(Collection<? extends Game> games) {
+            planner.games = new ArrayList<>(games);
+            return this;
+        }
+
+        //Games with the same non null group are kept in the same ROM set
+        public Builder withGrouping(Function<Game, String> grouping) {
+            planner.grouping = grouping;
+            return this;
+        }
+
+        public Builder withRamGameCompressor(RamGameCompressor ramGameCompressor) {
+            planner.ramGameCompressor = ramGameCompressor;
+            return this;
+        }
+
+        public Builder withIncludeExtraRom(boolean includeExtraRom) {
+            planner.includeExtraRom = includeExtraRom;
+            return this;
+        }
+
+        public Builder withEnforceFollowRom(boolean enforceFollowRom) {
+            planner.enforceFollowRom = enforceFollowRom;
+            return this;
+        }
+
+        public Builder withLocalSearch(boolean localSearch) {
+            planner.localSearch = localSearch;
+            return this;
+        }
+
+        public Builder withMaxGames(int maxGames) {
+            planner.maxGames = maxGames;
+            return this;
+        }
+
+        public RomSetPlanner build() {
+            if (planner.ramGameCompressor == null) {
+                planner.ramGameCompressor = new DandanatorCpcRamGameCompressor();
+            }
+            planner.capacity = DandanatorCpcV2RomSetExporter.getGameCapacity(
+                    planner.includeExtraRom, planner.enforceFollowRom);
+            return planner;
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private RomSetPlanner() {}
+
+    private List<Item> getItems() throws IOException {
+        Map<String, Item> groups = new LinkedHashMap<>();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < games.size(); i++) {
+            Game game = games.get(i);
+            String group = grouping.apply(game);
+            Item item = group != null ? groups.get(group) : null;
+            if (item == null) {
+                item = new Item();
+                item.firstIndex = i;
+                items.add(item);
+                if (group != null) {
+                    groups.put(group, item);
+                }
+            }
+            item.games.add(game);
+            item.size += DandanatorCpcV2RomSetExporter.getGameRomSize(game, ramGameCompressor);
+            item.pokeSize += GameUtil.getGamePokeSizeUsage(game);
+        }
+        for (Item item : items) {
+            if (!fits(new Cartridge(), item)) {
+                throw new IllegalArgumentException("Game or group doesn't fit in a ROM set: "
+                        + item.games.get(0).getName() + " (" + item.games.size() + " games, "
+                        + item.size + " bytes)");
+            }
+        }
+        return items;
+    }
+
+    private boolean fits(Cartridge cartridge, Item item) {
+        return cartridge.size + item.size <= capacity
+                && cartridge.gameCount + item.games.size() <= maxGames
+                && cartridge.pokeSize + item.pokeSize <= POKE_CAPACITY;
+    }
+
+    //Share of a ROM set taken, measured in its scarcest resource
+    private double weight(Item item) {
+        return Math.max((double) item.size / capacity,
+                Math.max((double) item.games.size() / maxGames,
+                        (double) item.pokeSize / POKE_CAPACITY));
+    }
+
+    private double load(Cartridge cartridge) {
+        return cartridge.items.stream().mapToDouble(this::weight).sum();
+    }
+
+    private List<Item> sortedByWeight(List<Item> items) {
+        List<Item> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingDouble(this::weight).reversed());
+        return sorted;
+    }
+
+    private boolean firstFit(List<Cartridge> cartridges, Item item) {
+        for (Cartridge cartridge : cartridges) {
+            if (fits(cartridge, item)) {
+                cartridge.add(item);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Cartridge> firstFitDecreasing(List<Item> items) {
+        List<Cartridge> cartridges = new ArrayList<>();
+        for (Item item : sortedByWeight(items)) {
+            if (!firstFit(cartridges, item)) {
+                Cartridge cartridge = new Cartridge();
+                cartridge.add(item);
+                cartridges.add(cartridge);
+            }
+        }
+        return cartridges;
+    }
+
+    //Moves every item of the given cartridge into the others, if possible
+    private List<Cartridge> tryToEmpty(List<Cartridge> cartridges, Cartridge target) {
+        List<Cartridge> others = new ArrayList<>();
+        for (Cartridge cartridge : cartridges) {
+            if (cartridge != target) {
+                others.add(new Cartridge(cartridge));
+            }
+        }
+        //Prefer the fullest destinations, so space is left where it's more useful
+        others.sort(Comparator.comparingDouble(this::load).reversed());
+        for (Item item : sortedByWeight(target.items)) {
+            if (!firstFit(others, item)) {
+                return null;
+            }
+        }
+        return others;
+    }
+
+    private List<Cartridge> improve(List<Cartridge> cartridges) {
+        boolean improved = true;
+        while (improved && cartridges.size() > 1) {
+            improved = false;
+            List<Cartridge> candidates = new ArrayList<>(cartridges);
+            candidates.sort(Comparator.comparingDouble(this::load));
+            for (Cartridge candidate : candidates) {
+                List<Cartridge> result = tryToEmpty(cartridges, candidate);
+                if (result != null) {
+                    LOGGER.debug("Removed ROM set {} by moving its games to the others", candidate);
+                    cartridges = result;
+                    improved = true;
+                    break;
+                }
+            }
+        }
+        return cartridges;
+    }
+
+    private int getLowerBound(List<Item> items) {
+        int size = items.stream().mapToInt(i -> i.size).sum();
+        int pokeSize = items.stream().mapToInt(i -> i.pokeSize).sum();
+        return Math.max(Math.max((size + capacity - 1) / capacity,
+                (games.size() + maxGames - 1) / maxGames),
+                (pokeSize + POKE_CAPACITY - 1) / POKE_CAPACITY);
+    }
+
+    public List<Cartridge> plan() throws IOException {
+        if (games.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Item> items = getItems();
+        List<Cartridge> cartridges = firstFitDecreasing(items);
+        int lowerBound = getLowerBound(items);
+        LOGGER.debug("First fit decreasing gave {} ROM sets, lower bound is {}",
+                cartridges.size(), lowerBound);
+        if (localSearch && cartridges.size() > lowerBound) {
+            cartridges = improve(cartridges);
+        }
+        //ROM sets follow the library order too
+        cartridges.sort(Comparator.comparingInt((Cartridge c) -> c.items.stream()
+                .mapToInt(i -> i.firstIndex).min().orElse(0)));
+        LOGGER.info("Planned {} games in {} ROM sets (lower bound {})", games.size(),
+                cartridges.size(), lowerBound);
+        return cartridges;
+    }
+}
@@ -173,8 +173,9 @@ public class SlotZeroV2 extends SlotZeroBase implements SlotZero {
                         int offset = (block.getInitSlot() - 1) * Constants.SLOT_SIZE + block.getStart();
                         LOGGER.debug("Offsetting to {}", offset - is.position());
                         is.safeSkip(offset - is.position());
+                        //Uncompressed on demand, see uncompressBlock
                         block.rawdata = Util.fromInputStream(is, block.size);
-                        block.data = uncompressByteArray(block.rawdata);
+                        block.data = null;
                     } else {
                         block.data = copy(is,
                                 (block.getInitSlot() - 1) * Constants.SLOT_SIZE + block.getStart(), block.size);
@@ -188,6 +189,13 @@ public class SlotZeroV2 extends SlotZeroBase implements SlotZero {
         }
     }
 
+    byte[] uncompressBlock(GameBlock block) throws IOException {
+        if (block.data == null && block.compressed) {
+            return uncompressByteArray(block.rawdata);
+        }
+        return block.data;
+    }
+
     @Override
     public List<? extends GameMapper> getGameMappers() {
         return gameMappers;
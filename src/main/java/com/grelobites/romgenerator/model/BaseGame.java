@@ -15,7 +15,7 @@ public class BaseGame {
 
 
 	protected StringProperty name;
-	protected List<byte[]> data;
+	protected volatile List<byte[]> data;
     protected GameType gameType;
     protected Integer size;
 
@@ -39,7 +39,8 @@ public class BaseGame {
 
 	public BaseGame(GameType gameType, List<byte[]> data) {
 	    this.gameType = gameType;
-        this.data = reduceZeroedSlots(data);
+        //Lazy slots already know which ones are zeroed
+        this.data = data instanceof LazySlotList ? data : reduceZeroedSlots(data);
 		name = new SimpleStringProperty();
 	}
 
@@ -64,7 +65,18 @@ public class BaseGame {
     }
 
     public boolean isSlotZeroed(int slot) {
-        return data.get(slot) == null;
+        return data instanceof LazySlotList ?
+                ((LazySlotList) data).isZeroed(slot) :
+                data.get(slot) == null;
+    }
+
+    private int getSlotLength(int slot) {
+        if (data instanceof LazySlotList) {
+            return ((LazySlotList) data).getLength(slot);
+        } else {
+            byte[] slotData = data.get(slot);
+            return slotData == null ? 0 : slotData.length;
+        }
     }
 
     public GameType getType() {
@@ -80,14 +92,17 @@ public class BaseGame {
     }
 
     public List<byte[]> getData() {
+        if (data instanceof LazySlotList) {
+            ((LazySlotList) data).loadAll();
+        }
         return data;
     }
 
     public int getSize() {
         if (size == null) {
             int gameSize = 0;
-            for (byte[] slot: data) {
-                gameSize += slot == null ? 0 : slot.length;
+            for (int i = 0; i < data.size(); i++) {
+                gameSize += getSlotLength(i);
             }
             size = gameSize;
         }
@@ -0,0 +1,158 @@
+package com.grelobites.romgenerator.model;
+
+import com.grelobites.romgenerator.Constants;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/*
+ * Game slots that are only materialized when somebody reads them, i.e.
+ * slots still compressed inside an imported ROM set. A null loader stands
+ * for a zeroed slot, so zeroed slots can be told apart without loading.
+ * Loaded slots are only softly held, since they can always be loaded again.
+ * Slots set through set() are held strongly. Several slots can load
+ * concurrently, but a given slot is never loaded twice at the same time.
+ */
+public class LazySlotList extends AbstractList<byte[]> implements RandomAccess {
+
+    private final AtomicReferenceArray<Callable<byte[]>> loaders;
+    private final AtomicReferenceArray<byte[]> slots;
+    private final AtomicReferenceArray<SoftReference<byte[]>> loaded;
+    private final int offset;
+    private final int size;
+
+    private LazySlotList(AtomicReferenceArray<Callable<byte[]>> loaders,
+                         AtomicReferenceArray<byte[]> slots,
+                         AtomicReferenceArray<SoftReference<byte[]>> loaded,
+                         int offset, int size) {
+        this.loaders = loaders;
+        this.slots = slots;
+        this.loaded = loaded;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    public LazySlotList(List<Callable<byte[]>> loaders) {
+        this(toArray(loaders),
+                new AtomicReferenceArray<>(loaders.size()),
+                new AtomicReferenceArray<>(loaders.size()), 0, loaders.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<Callable<byte[]>> toArray(List<Callable<byte[]>> loaders) {
+        return new AtomicReferenceArray<>(loaders.toArray((Callable<byte[]>[]) new Callable<?>[0]));
+    }
+
+    private byte[] getLoaded(int position) {
+        SoftReference<byte[]> reference = loaded.get(position);
+        return reference != null ? reference.get() : null;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public byte[] get(int index) {
+        checkIndex(index);
+        int position = offset + index;
+        byte[] slot = slots.get(position);
+        if (slot == null) {
+            Callable<byte[]> loader = loaders.get(position);
+            if (loader != null) {
+                slot = getLoaded(position);
+                if (slot != null) {
+                    return slot;
+                }
+                synchronized (loader) {
+                    if (loaders.get(position) == loader) {
+                        slot = getLoaded(position);
+                        if (slot == null) {
+                            slot = load(loader, index);
+                            loaded.set(position, new SoftReference<>(slot));
+                        }
+                        return slot;
+                    }
+                }
+            }
+            //Replaced while we were looking
+            slot = slots.get(position);
+        }
+        return slot;
+    }
+
+    private static byte[] load(Callable<byte[]> loader, int index) {
+        try {
+            return loader.call();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to load slot " + index, e);
+        }
+    }
+
+    //Replacing a slot never forces loading the previous contents
+    @Override
+    public byte[] set(int index, byte[] slot) {
+        checkIndex(index);
+        int position = offset + index;
+        Callable<byte[]> loader = loaders.get(position);
+        if (loader != null) {
+            synchronized (loader) {
+                byte[] previous = getLoaded(position);
+                slots.set(position, slot);
+                loaders.set(position, null);
+                loaded.set(position, null);
+                return previous;
+            }
+        } else {
+            return slots.getAndSet(position, slot);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<byte[]> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex);
+        }
+        return new LazySlotList(loaders, slots, loaded, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    public boolean isZeroed(int index) {
+        checkIndex(index);
+        return slots.get(offset + index) == null && loaders.get(offset + index) == null;
+    }
+
+    public boolean isLoaded(int index) {
+        checkIndex(index);
+        int position = offset + index;
+        return slots.get(position) != null || loaders.get(position) == null
+                || getLoaded(position) != null;
+    }
+
+    //Size of the slot once loaded. Slots are always full sized when uncompressed
+    public int getLength(int index) {
+        if (isZeroed(index)) {
+            return 0;
+        } else {
+            byte[] slot = slots.get(offset + index);
+            return slot != null ? slot.length : Constants.SLOT_SIZE;
+        }
+    }
+
+    public void loadAll() {
+        IntStream.range(0, size).parallel()
+                .filter(i -> !isLoaded(i))
+                .forEach(this::get);
+    }
+}
@@ -11,13 +11,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
+import java.lang.ref.SoftReference;
 import java.util.List;
 
 public class MLDGame extends BaseGame implements RamGame {
     private static final Logger LOGGER = LoggerFactory.getLogger(MLDGame.class);
 
     private HardwareMode hardwareMode;
-    private Image screenshot;
+    private SoftReference<Image> screenshot;
     private MLDInfo mldInfo;
     private IntegerProperty size;
 
@@ -47,7 +48,8 @@ public class MLDGame extends BaseGame implements RamGame {
     }
 
     public Image getScreenshot() {
-        if (screenshot == null) {
+        Image image = screenshot != null ? screenshot.get() : null;
+        if (image == null) {
             try {
                 if (mldInfo.getCompressedScreenOffset() != 0) {
                     byte[] screenData = Util.fromInputStream(
@@ -57,12 +59,13 @@ public class MLDGame extends BaseGame implements RamGame {
                                     mldInfo.getCompressedScreenOffset(),
                                     mldInfo.getCompressedScreenSize()
                             )));
-                    screenshot = ImageUtil
-                            .scrLoader(ImageUtil.newScreenshot(),
+                    image = ImageUtil
+                            .thumbnailLoader(ImageUtil.newThumbnail(),
                                     MLDInfo.MLD_DEFAULT_SCREENMODE,
                                     screenData,
                                     CrtcDisplayData.DEFAULT_VALUE,
                                     ImageUtil.embeddedPalette(screenData));
+                    screenshot = new SoftReference<>(image);
 
 
                 }
@@ -70,7 +73,7 @@ public class MLDGame extends BaseGame implements RamGame {
                 LOGGER.error("Loading screenshot", e);
             }
         }
-        return screenshot;
+        return image;
     }
 
     @Override
@@ -85,7 +88,7 @@ public class MLDGame extends BaseGame implements RamGame {
 
     @Override
     public void setScreenshot(Image screenshot) {
-        this.screenshot = screenshot;
+        this.screenshot = screenshot != null ? new SoftReference<>(screenshot) : null;
     }
 
     public MLDInfo getMldInfo() {
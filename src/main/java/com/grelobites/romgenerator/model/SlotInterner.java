@@ -0,0 +1,92 @@
+package com.grelobites.romgenerator.model;
+
+import com.grelobites.romgenerator.Constants;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * Shares identical game slots between games, so libraries with many
+ * versions of the same game keep each distinct slot once. Interned slots
+ * are shared and must never be modified in place.
+ * Entries go away once no game references the slot anymore.
+ */
+public class SlotInterner {
+
+    private static class Key {
+        private final byte[] digest;
+        private final int hashCode;
+
+        public Key(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Key && Arrays.equals(digest, ((Key) o).digest));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class SlotReference extends WeakReference<byte[]> {
+        private final Key key;
+
+        public SlotReference(Key key, byte[] slot, ReferenceQueue<byte[]> queue) {
+            super(slot, queue);
+            this.key = key;
+        }
+    }
+
+    private static final ConcurrentMap<Key, SlotReference> SLOTS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<byte[]> QUEUE = new ReferenceQueue<>();
+
+    private static Key keyOf(byte[] slot) {
+        try {
+            return new Key(MessageDigest.getInstance("SHA-256").digest(slot));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void purge() {
+        SlotReference reference;
+        while ((reference = (SlotReference) QUEUE.poll()) != null) {
+            SLOTS.remove(reference.key, reference);
+        }
+    }
+
+    public static byte[] intern(byte[] slot) {
+        if (slot == null || slot.length != Constants.SLOT_SIZE) {
+            return slot;
+        }
+        purge();
+        Key key = keyOf(slot);
+        while (true) {
+            SlotReference reference = SLOTS.get(key);
+            byte[] interned = reference != null ? reference.get() : null;
+            if (interned != null) {
+                return Arrays.equals(interned, slot) ? interned : slot;
+            }
+            SlotReference newReference = new SlotReference(key, slot, QUEUE);
+            if (reference == null ? SLOTS.putIfAbsent(key, newReference) == null :
+                    SLOTS.replace(key, reference, newReference)) {
+                return slot;
+            }
+        }
+    }
+
+    public static int size() {
+        purge();
+        return SLOTS.size();
+    }
+}
@@ -14,9 +14,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -44,7 +46,7 @@ public class SnapshotGame extends BaseGame implements RamGame {
 
 	private BooleanProperty holdScreen;
 	private BooleanProperty compressed;
-	private Image screenshot;
+	private SoftReference<Image> screenshot;
     private GameHeader gameHeader;
 	private TrainerList trainerList;
     private List<byte[]> compressedData;
@@ -55,7 +57,7 @@ public class SnapshotGame extends BaseGame implements RamGame {
     private void try64KReduction() {
         if (gameType == GameType.RAM128 && data.size() == 8) {
             for (int i = 4; i < 8; i++) {
-                if (data.get(i) != null) {
+                if (!isSlotZeroed(i)) {
                     return;
                 }
             }
@@ -72,6 +74,9 @@ public class SnapshotGame extends BaseGame implements RamGame {
         compressed = new SimpleBooleanProperty(true);
         compressedSize = new SimpleIntegerProperty(0);
         try64KReduction();
+        if (!(this.data instanceof LazySlotList)) {
+            this.data.replaceAll(SlotInterner::intern);
+        }
     }
 
     public GameHeader getGameHeader() {
@@ -153,15 +158,17 @@ public class SnapshotGame extends BaseGame implements RamGame {
         return screenPage;
     }
 
+    //Rendered at preview size and only softly held, it can be rendered again
     public Image getScreenshot() {
-		if (screenshot == null) {
+        Image image = screenshot != null ? screenshot.get() : null;
+		if (image == null) {
 		    int screenSlot = getScreenSlot();
 		    int screenOffset = getScreenOffset();
 		    LOGGER.debug("Getting screenshot from slot {} with offset {}",
                     screenSlot, screenOffset);
 			try {
-				screenshot = ImageUtil
-						.scrLoader(ImageUtil.newScreenshot(),
+				image = ImageUtil
+						.thumbnailLoader(ImageUtil.newThumbnail(),
 								getScreenMode(),
 								getSlot(screenSlot),
 								CrtcDisplayData.newBuilder()
@@ -169,15 +176,16 @@ public class SnapshotGame extends BaseGame implements RamGame {
                                 .withVisibleHeight(gameHeader.getCrtcRegisterData()[CrtcRegisters.VISIBLE_HEIGHT])
                                 .withVisibleWidth(gameHeader.getCrtcRegisterData()[CrtcRegisters.VISIBLE_WIDTH]).build(),
                                 gameHeader.getGateArrayCurrentPalette());
+                screenshot = new SoftReference<>(image);
 			} catch (Exception e) {
 				LOGGER.error("Loading screenshot", e);
 			}
 		}
-		return screenshot;
+		return image;
 	}
 	
 	public void setScreenshot(Image screenshot) {
-		this.screenshot = screenshot;
+		this.screenshot = screenshot != null ? new SoftReference<>(screenshot) : null;
 	}
 
 	public TrainerList getTrainerList() {
@@ -246,10 +254,27 @@ public class SnapshotGame extends BaseGame implements RamGame {
             for (CompressingContext context : compressingTasks) {
                 compressedData.add(context.compressedData);
             }
+            if (compressor.canUncompress()) {
+                evictSlots(compressor);
+            }
         }
         return compressedData;
     }
 
+    //Raw slots can be restored from the compressed ones, so they are only held softly
+    private void evictSlots(RamGameCompressor compressor) {
+        if (!(data instanceof LazySlotList)) {
+            List<Callable<byte[]>> loaders = new ArrayList<>();
+            for (int i = 0; i < compressedData.size(); i++) {
+                int slot = i;
+                byte[] compressedSlot = compressedData.get(i);
+                loaders.add(compressedSlot != null ?
+                        () -> SlotInterner.intern(compressor.uncompressSlot(slot, compressedSlot)) : null);
+            }
+            data = new LazySlotList(loaders);
+        }
+    }
+
     public int getCompressedSize() throws IOException {
         return getCompressedSize(null);
     }
@@ -277,6 +302,11 @@ public class SnapshotGame extends BaseGame implements RamGame {
         return compressedSize;
     }
 
+    //True when getCompressedSize() can answer without compressing
+    public boolean isCompressedSizeAvailable() {
+        return compressedSize.get() > 0 || compressedData != null;
+    }
+
     public int getSlotForMappedRam(int offset) {
         int bankPos = offset / Constants.SLOT_SIZE;
         return MEMORY_CONFIGURATIONS[gameHeader
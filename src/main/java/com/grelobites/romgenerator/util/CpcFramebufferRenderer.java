@@ -0,0 +1,116 @@
+package com.grelobites.romgenerator.util;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.model.CrtcDisplayData;
+
+import java.util.Arrays;
+
+/*
+ * Renders a CPC screen into a plain ARGB int[] framebuffer of
+ * CPC_SCREEN_WIDTH x CPC_SCREEN_HEIGHT. No JavaFX dependencies, so it can
+ * be used from emulation threads or headless tools.
+ * Instances keep some scratch state and are not thread safe.
+ */
+public class CpcFramebufferRenderer {
+    public static final int WIDTH = Constants.CPC_SCREEN_WIDTH;
+    public static final int HEIGHT = Constants.CPC_SCREEN_HEIGHT;
+    public static final int FRAMEBUFFER_SIZE = WIDTH * HEIGHT;
+
+    private static final int PIXELS_PER_BYTE = 8;
+    private static final int BORDER_PEN = 16;
+    private static final int PEN_COUNT = 17;
+    private static final int SCREEN_MASK = Constants.SLOT_SIZE - 1;
+
+    //Pen index of each of the 8 screen pixels covered by a byte, per screen mode
+    private static final byte[][] BYTE_PENS = {
+            mode0BytePens(),
+            mode1BytePens(),
+            mode2BytePens()
+    };
+
+    private final int[] penColors = new int[PEN_COUNT];
+    private final int[] byteColors = new int[256 * PIXELS_PER_BYTE];
+
+    private static byte[] mode0BytePens() {
+        byte[] pens = new byte[256 * PIXELS_PER_BYTE];
+        for (int i = 0; i < 256; i++) {
+            int pen0 = ((i & 0x02) << 2) | ((i & 0x20) >> 3) | ((i & 0x08) >> 2) | ((i & 0x80) >> 7);
+            int pen1 = ((i & 0x01) << 3) | ((i & 0x10) >> 2) | ((i & 0x04) >> 1) | ((i & 0x40) >> 6);
+            for (int j = 0; j < 4; j++) {
+                pens[i * PIXELS_PER_BYTE + j] = (byte) pen0;
+                pens[i * PIXELS_PER_BYTE + 4 + j] = (byte) pen1;
+            }
+        }
+        return pens;
+    }
+
+    private static byte[] mode1BytePens() {
+        byte[] pens = new byte[256 * PIXELS_PER_BYTE];
+        for (int i = 0; i < 256; i++) {
+            int[] pixelPens = new int[] {
+                    ((i & 0x08) >> 2) | ((i & 0x80) >> 7),
+                    ((i & 0x04) >> 1) | ((i & 0x40) >> 6),
+                    (i & 0x02) | ((i & 0x20) >> 5),
+                    ((i & 0x01) << 1) | ((i & 0x10) >> 4)
+            };
+            for (int j = 0; j < PIXELS_PER_BYTE; j++) {
+                pens[i * PIXELS_PER_BYTE + j] = (byte) pixelPens[j / 2];
+            }
+        }
+        return pens;
+    }
+
+    private static byte[] mode2BytePens() {
+        byte[] pens = new byte[256 * PIXELS_PER_BYTE];
+        for (int i = 0; i < 256; i++) {
+            for (int j = 0; j < PIXELS_PER_BYTE; j++) {
+                pens[i * PIXELS_PER_BYTE + j] = (byte) ((i & (0x80 >> j)) != 0 ? 1 : 0);
+            }
+        }
+        return pens;
+    }
+
+    public static int[] newFramebuffer() {
+        return new int[FRAMEBUFFER_SIZE];
+    }
+
+    public int[] render(int[] framebuffer,
+                        int screenMode,
+                        byte[] slot,
+                        CrtcDisplayData crtcDisplayData,
+                        byte[] palette) {
+        for (int i = 0; i < PEN_COUNT; i++) {
+            penColors[i] = CpcColor.hardIndexedArgb(palette[i]);
+        }
+        Arrays.fill(framebuffer, 0, FRAMEBUFFER_SIZE, penColors[BORDER_PEN]);
+        if (screenMode >= 0 && screenMode < BYTE_PENS.length) {
+            byte[] bytePens = BYTE_PENS[screenMode];
+            for (int i = 0; i < byteColors.length; i++) {
+                byteColors[i] = penColors[bytePens[i]];
+            }
+            renderScreen(framebuffer, slot, crtcDisplayData);
+        }
+        return framebuffer;
+    }
+
+    private void renderScreen(int[] framebuffer, byte[] slot, CrtcDisplayData crtcDisplayData) {
+        int height = Math.min(crtcDisplayData.getVisibleHeight() * 8, 200);
+        int width = Math.min(crtcDisplayData.getVisibleWidth() * 2, 80);
+        int xBorderSize = Math.max(0, (WIDTH - crtcDisplayData.getVisibleWidth() * 16) / 2);
+        int yBorderSize = Math.max(0, (HEIGHT - crtcDisplayData.getVisibleHeight() * 16) / 2);
+        int displayOffset = crtcDisplayData.getDisplayOffset();
+        int lineLength = width * PIXELS_PER_BYTE;
+
+        for (int y = 0; y < height; y++) {
+            int lineAddress = ((y / 8) * width) + ((y % 8) * 2048) + displayOffset;
+            int lineStart = (y * 2 + yBorderSize) * WIDTH + xBorderSize;
+            for (int x = 0, offset = lineStart; x < width; x++, offset += PIXELS_PER_BYTE) {
+                int pixelData = slot[(lineAddress + x) & SCREEN_MASK] & 0xff;
+                System.arraycopy(byteColors, pixelData * PIXELS_PER_BYTE,
+                        framebuffer, offset, PIXELS_PER_BYTE);
+            }
+            //Every CPC line is shown twice
+            System.arraycopy(framebuffer, lineStart, framebuffer, lineStart + WIDTH, lineLength);
+        }
+    }
+}
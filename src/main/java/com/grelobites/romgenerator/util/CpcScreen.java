@@ -1,15 +1,23 @@
 package com.grelobites.romgenerator.util;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.grelobites.romgenerator.Constants;
 
 import com.grelobites.romgenerator.handlers.dandanatorcpc.ExtendedCharSet;
-import javafx.scene.image.PixelWriter;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/*
+ * Text screen drawn into an int[] framebuffer from cached glyph tiles.
+ * Drawing can happen on any thread (callers synchronize on the screen);
+ * flush() publishes the text lines that changed to the image on the FX thread.
+ */
 public class CpcScreen extends WritableImage {
     private static final Logger LOGGER = LoggerFactory.getLogger(CpcScreen.class);
 
@@ -21,6 +29,8 @@ public class CpcScreen extends WritableImage {
 
 	private static final int[] Y_FACTORS = new int[]{2, 2, 2};
 
+	private static final int PAPER_TILE = -1;
+
 	private static final CpcColor[] DEFAULT_INKS = new CpcColor[] {
 	        CpcColor.BLACK,
 			CpcColor.SEAGREEN,
@@ -40,6 +50,36 @@ public class CpcScreen extends WritableImage {
 	private CpcColor[] inks = DEFAULT_INKS;
 	private CpcGradient pen = new CpcGradient(CpcColor.BRIGHTYELLOW);
 	private CpcColor paper = CpcColor.BLUE;
+
+    private final int screenWidth;
+    private final int tileWidth;
+    private final int tileHeight;
+    private final int[] pixels;
+    private final int[] flushedPixels;
+    private final boolean[] dirtyLines;
+
+    //Rendered tiles for the current charset, keyed by colors and then by code
+    private final Map<TileStyle, Map<Integer, int[]>> tileCache = new HashMap<>();
+    private Map<Integer, int[]> charTiles;
+    private Map<Integer, int[]> iconTiles;
+
+    private static final class TileStyle {
+        private final int[] colors;
+
+        TileStyle(int[] colors) {
+            this.colors = colors;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TileStyle && Arrays.equals(colors, ((TileStyle) o).colors);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(colors);
+        }
+    }
 	
 	public CpcScreen(int mode) {
         this(mode, Constants.CPC_SCREEN_WIDTH,
@@ -53,6 +93,12 @@ public class CpcScreen extends WritableImage {
         this.columns = COLUMNS_PER_MODE[mode];
         this.xfactor = X_FACTORS[mode];
         this.yfactor = Y_FACTORS[mode];
+        this.screenWidth = width;
+        this.tileWidth = 8 * xfactor;
+        this.tileHeight = 8 * yfactor;
+        this.pixels = new int[width * height];
+        this.flushedPixels = new int[width * height];
+        this.dirtyLines = new boolean[lines];
     }
 
 	public String getCharSetPath() {
@@ -79,8 +125,17 @@ public class CpcScreen extends WritableImage {
 	}
 
 	public void setCharSet(byte[] charSet) {
+	    if (!Arrays.equals(this.charSet, charSet)) {
+	        invalidateTiles();
+        }
 		this.charSet = charSet;
 	}
+
+	private void invalidateTiles() {
+	    tileCache.clear();
+	    charTiles = null;
+	    iconTiles = null;
+    }
 	
 	public CpcGradient getPen() {
 		return pen;
@@ -88,10 +143,11 @@ public class CpcScreen extends WritableImage {
 
 	public void setPen(CpcGradient pen) {
 		this.pen = pen;
+		charTiles = null;
 	}
 
 	public void setPen(CpcColor pen) {
-	    this.pen = new CpcGradient(pen);
+	    setPen(new CpcGradient(pen));
     }
 
 	public CpcColor getPaper() {
@@ -100,10 +156,12 @@ public class CpcScreen extends WritableImage {
 
 	public void setPaper(CpcColor paper) {
 		this.paper = paper;
+		charTiles = null;
 	}
 
 	public void setInks(CpcColor[] inks) {
 	    this.inks = inks;
+	    iconTiles = null;
     }
 
 	private byte charRasterLine(char c, int rasterLine) {
@@ -116,16 +174,100 @@ public class CpcScreen extends WritableImage {
 	    return ((getCharSet()[index] & 0xff) << 8) | (getCharSet()[index + 1] & 0xff);
     }
 	
-	public void deleteChar(int line, int column) {
-        if (line < lines && column < columns) {
-            int xpos = column * 8;
-            int ypos = line * 8;
-            PixelWriter writer = getPixelWriter();
-            for (int y = 0; y < 8; y++) {
-                for (int x = 0; x < 8; x++) {
-                	printPixelWithFactor(writer, xpos + x, ypos + y, paper.argb());
+	private Map<Integer, int[]> tilesForStyle(int[] colors) {
+	    return tileCache.computeIfAbsent(new TileStyle(colors), k -> new HashMap<>());
+    }
+
+	private Map<Integer, int[]> getCharTiles() {
+	    if (charTiles == null) {
+	        //Pen colors per raster line and paper
+	        int[] colors = new int[9];
+	        for (int y = 0; y < 8; y++) {
+	            colors[y] = pen.getColor(y).argb();
+            }
+            colors[8] = paper.argb();
+	        charTiles = tilesForStyle(colors);
+        }
+        return charTiles;
+    }
+
+    private Map<Integer, int[]> getIconTiles() {
+	    if (iconTiles == null) {
+	        int[] colors = new int[inks.length];
+	        for (int i = 0; i < inks.length; i++) {
+	            colors[i] = inks[i].argb();
+            }
+            iconTiles = tilesForStyle(colors);
+        }
+        return iconTiles;
+    }
+
+    private void setTilePixel(int[] tile, int x, int y, int color) {
+	    for (int j = 0; j < yfactor; j++) {
+	        Arrays.fill(tile, (y * yfactor + j) * tileWidth + x * xfactor,
+                    (y * yfactor + j) * tileWidth + (x + 1) * xfactor, color);
+        }
+    }
+
+    private int[] newPaperTile() {
+	    int[] tile = new int[tileWidth * tileHeight];
+	    Arrays.fill(tile, paper.argb());
+	    return tile;
+    }
+
+    private int[] newCharTile(char c) {
+	    int[] tile = new int[tileWidth * tileHeight];
+        for (int y = 0; y < 8; y++) {
+            int mask = 0x80;
+            byte charRasterLine = charRasterLine(c, y);
+            for (int x = 0; x < 8; x++) {
+                int color = (charRasterLine & mask) != 0 ?
+                        pen.getColor(y).argb() : paper.argb();
+                setTilePixel(tile, x, y, color);
+                mask >>= 1;
+            }
+        }
+        return tile;
+    }
+
+    private int[] newIconTile(int code) {
+	    int[] tile = new int[tileWidth * tileHeight];
+        for (int y = 0; y < 8; y++) {
+            int mask1 = 0x8000;
+            int mask2 = 0x0800;
+            int offset1 = 14;
+            int offset2 = 11;
+            int iconRasterLine = iconRasterLine(code, y);
+            for (int x = 0; x < 8; x++) {
+                int colorIndex = ((iconRasterLine & mask1) >> offset1) |
+                        ((iconRasterLine & mask2) >> offset2);
+                setTilePixel(tile, x, y, getColor(colorIndex));
+                mask1 >>= 1;
+                mask2 >>= 1;
+                offset1--;
+                offset2--;
+                if (x == 3) {
+                    mask1 = 0x80;
+                    mask2 = 0x08;
+                    offset1 = 6;
+                    offset2 = 3;
                 }
             }
+        }
+        return tile;
+    }
+
+    private void drawTile(int[] tile, int line, int column) {
+	    int offset = line * tileHeight * screenWidth + column * tileWidth;
+	    for (int y = 0; y < tileHeight; y++, offset += screenWidth) {
+	        System.arraycopy(tile, y * tileWidth, pixels, offset, tileWidth);
+        }
+        dirtyLines[line] = true;
+    }
+
+	public void deleteChar(int line, int column) {
+        if (line < lines && column < columns) {
+            drawTile(getCharTiles().computeIfAbsent(PAPER_TILE, k -> newPaperTile()), line, column);
         } else {
             LOGGER.debug("Out of bounds access to screen");
         }
@@ -133,19 +275,7 @@ public class CpcScreen extends WritableImage {
 	
 	public void printChar(char c, int line, int column) {
         if (line < lines && column < columns) {
-            int xpos = column * 8;
-            int ypos = line * 8;
-            PixelWriter writer = getPixelWriter();
-            for (int y = 0; y < 8; y++) {
-                int mask = 0x80;
-                byte charRasterLine = charRasterLine(c, y);
-                for (int x = 0; x < 8; x++) {
-                    int color = (charRasterLine & mask) != 0 ?
-                            pen.getColor(y).argb() : paper.argb();
-						printPixelWithFactor(writer, xpos + x, ypos + y, color);
-                    mask >>= 1;
-                }
-            }
+            drawTile(getCharTiles().computeIfAbsent((int) c, k -> newCharTile(c)), line, column);
         } else {
             LOGGER.debug("Out of bounds access to screen");
         }
@@ -157,32 +287,7 @@ public class CpcScreen extends WritableImage {
 
 	public void printIcon(int code, int line, int column) {
         if (line < lines && column < columns) {
-            int xpos = column * 8;
-            int ypos = line * 8;
-            PixelWriter writer = getPixelWriter();
-            for (int y = 0; y < 8; y++) {
-                int mask1 = 0x8000;
-                int mask2 = 0x0800;
-                int offset1 = 14;
-                int offset2 = 11;
-                int iconRasterLine = iconRasterLine(code, y);
-                for (int x = 0; x < 8; x++) {
-                    int colorIndex = ((iconRasterLine & mask1) >> offset1) |
-                            ((iconRasterLine & mask2) >> offset2);
-                    printPixelWithFactor(writer, xpos + x, ypos + y,
-                            getColor(colorIndex));
-                    mask1 >>= 1;
-                    mask2 >>= 1;
-                    offset1--;
-                    offset2--;
-                    if (x == 3) {
-                        mask1 = 0x80;
-                        mask2 = 0x08;
-                        offset1 = 6;
-                        offset2 = 3;
-                    }
-                }
-            }
+            drawTile(getIconTiles().computeIfAbsent(code, k -> newIconTile(code)), line, column);
         } else {
             LOGGER.debug("Out of bounds access to screen");
         }
@@ -193,15 +298,41 @@ public class CpcScreen extends WritableImage {
 	    printIcon(code + 1, line, column + 1);
 	    printIcon(code + 2, line, column + 2);
     }
-	private void printPixelWithFactor(PixelWriter writer, int xpos, int ypos, int color) {
-		xpos *= xfactor;
-		ypos *= yfactor;
-		for (int y = 0; y < yfactor; y++) {
-			for (int x = 0; x < xfactor; x++) {
-				writer.setArgb(xpos + x, ypos + y, color);
-			}
-		}
-	}
+
+    public void setBackground(int[] framebuffer) {
+	    System.arraycopy(framebuffer, 0, pixels, 0, pixels.length);
+	    Arrays.fill(dirtyLines, true);
+    }
+
+    private boolean updateFlushedLine(int line) {
+	    int start = line * tileHeight * screenWidth;
+	    int end = start + tileHeight * screenWidth;
+	    for (int i = start; i < end; i++) {
+	        if (pixels[i] != flushedPixels[i]) {
+	            System.arraycopy(pixels, i, flushedPixels, i, end - i);
+	            return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Must be called from the FX thread. Only text lines whose pixels changed
+     * since the last flush are written to the image
+     */
+    public void flush() {
+	    for (int line = 0; line < lines; line++) {
+	        if (dirtyLines[line]) {
+	            dirtyLines[line] = false;
+	            if (updateFlushedLine(line)) {
+	                getPixelWriter().setPixels(0, line * tileHeight, screenWidth, tileHeight,
+                            PixelFormat.getIntArgbInstance(), pixels,
+                            line * tileHeight * screenWidth, screenWidth);
+                }
+            }
+        }
+    }
+
 	public void printLine(String text, int line, int column) {
 		for (int i = 0; i < text.length(); i++) {
 			printChar(text.charAt(i), line, column++);
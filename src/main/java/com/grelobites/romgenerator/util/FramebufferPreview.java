@@ -0,0 +1,75 @@
+package com.grelobites.romgenerator.util;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/*
+ * Hands framebuffers rendered off the FX thread to a single, reused
+ * WritableImage. The producer renders into the back buffer and publishes it;
+ * while a previous frame is still waiting to be drawn new frames are dropped,
+ * so the producer never waits for the UI.
+ */
+public class FramebufferPreview {
+    private final Consumer<Image> imageConsumer;
+    private final Executor uiExecutor;
+    private final AtomicBoolean updatePending = new AtomicBoolean(false);
+    private volatile boolean closed = false;
+    private int[] backBuffer = CpcFramebufferRenderer.newFramebuffer();
+    private int[] frontBuffer = CpcFramebufferRenderer.newFramebuffer();
+    private WritableImage image;
+
+    public FramebufferPreview(Consumer<Image> imageConsumer) {
+        this(imageConsumer, Platform::runLater);
+    }
+
+    public FramebufferPreview(Consumer<Image> imageConsumer, Executor uiExecutor) {
+        this.imageConsumer = imageConsumer;
+        this.uiExecutor = uiExecutor;
+    }
+
+    /*
+     * True when a frame published now would reach the UI. Producers can
+     * skip rendering altogether otherwise
+     */
+    public boolean isReady() {
+        return !closed && !updatePending.get();
+    }
+
+    public int[] getBackBuffer() {
+        return backBuffer;
+    }
+
+    public boolean publish() {
+        if (closed || !updatePending.compareAndSet(false, true)) {
+            return false;
+        }
+        int[] buffer = frontBuffer;
+        frontBuffer = backBuffer;
+        backBuffer = buffer;
+        uiExecutor.execute(this::updateImage);
+        return true;
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    private void updateImage() {
+        try {
+            if (!closed) {
+                if (image == null) {
+                    image = ImageUtil.newScreenshot();
+                }
+                ImageUtil.writeFramebuffer(image, frontBuffer);
+                imageConsumer.accept(image);
+            }
+        } finally {
+            updatePending.set(false);
+        }
+    }
+}
@@ -16,10 +16,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Optional;
 import java.util.stream.IntStream;
 
@@ -29,12 +27,12 @@ public class GameUtil {
     public static Optional<Game> createGameFromFile(File file) {
         LOGGER.debug("createGameFromFile " + file);
         if (file.canRead() && file.isFile()) {
-            try (InputStream is = new FileInputStream(file)) {
+            try {
                 GameImageLoader loader = Util.getFileExtension(file.getName())
                         .map(GameImageLoaderFactory::getLoader)
                         .orElseGet(GameImageLoaderFactory::getDefaultLoader);
 
-                Game game = loader.load(is);
+                Game game = loader.load(file);
                 game.setName(getGameName(file));
                 return Optional.of(game);
             } catch (Exception e) {
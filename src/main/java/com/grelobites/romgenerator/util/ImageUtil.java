@@ -2,7 +2,7 @@ package com.grelobites.romgenerator.util;
 
 import com.grelobites.romgenerator.Constants;
 import com.grelobites.romgenerator.model.CrtcDisplayData;
-import javafx.scene.image.PixelWriter;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,206 +15,86 @@ import java.util.Arrays;
 
 public class ImageUtil {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ImageUtil.class);
-    private static int[] PIXEL_INDEXES_MODE0;
-    private static int[] PIXEL_INDEXES_MODE1;
+	public static final int THUMBNAIL_WIDTH = Constants.CPC_SCREEN_WIDTH / 2;
+	public static final int THUMBNAIL_HEIGHT = Constants.CPC_SCREEN_HEIGHT / 2;
 
-	private static int getXBorderSize(CrtcDisplayData crtcDisplayData) {
-	    int width = crtcDisplayData.getVisibleWidth() * 16;
-	    return Math.max(0, (Constants.CPC_SCREEN_WIDTH - width) / 2);
-    }
-
-    private static int getYBorderSize(CrtcDisplayData crtcDisplayData) {
-        int height = crtcDisplayData.getVisibleHeight() * 16;
-        return Math.max(0, (Constants.CPC_SCREEN_HEIGHT - height) / 2);
-    }
-
-    private static int getHeight(CrtcDisplayData crtcDisplayData) {
-	    return Math.min(crtcDisplayData.getVisibleHeight() * 8, 200);
+	public static <T extends WritableImage> T scrLoader(T image,
+                                                        int screenMode,
+                                                        InputStream data)
+    throws IOException {
+	    return writeFramebuffer(image, scrRender(CpcFramebufferRenderer.newFramebuffer(),
+                screenMode, data));
     }
 
-    private static int getWidth(CrtcDisplayData crtcDisplayData) {
-	    return Math.min(crtcDisplayData.getVisibleWidth() * 2, 80);
+    public static int[] scrRender(int[] framebuffer, int screenMode, InputStream data)
+            throws IOException {
+        byte[] imageData = Util.fromInputStream(data, Constants.CPC_SCREEN_SIZE);
+        byte[] paletteData = Util.fromInputStream(data, Constants.CPC_PALETTE_SIZE);
+        LOGGER.debug("Is there still data available: {}", data.available());
+        CrtcDisplayData displayData = (data.available() > 0) ?
+                CrtcDisplayData.fromInputStream(data) : CrtcDisplayData.DEFAULT_VALUE;
+        return new CpcFramebufferRenderer().render(framebuffer, screenMode,
+                imageData, displayData, paletteData);
     }
 
-    private static int getPixelIndexesMode0(int pixelData) {
-	    if (PIXEL_INDEXES_MODE0 == null) {
-	        PIXEL_INDEXES_MODE0 = new int[256];
-	        for (int i = 0; i < 256; i++) {
-	            PIXEL_INDEXES_MODE0[i] =
-                        (((i & 0x02) << 2) |
-                                ((i & 0x20) >> 3) |
-                                ((i & 0x08) >> 2) |
-                                ((i & 0x80) >> 7)) |
-                                ((((i & 0x01) << 3) |
-                                        ((i & 0x10) >> 2) |
-                                        ((i & 0x04) >> 1) |
-                                        ((i & 0x40) >> 6)) << 4);
-            }
-        }
-	    return PIXEL_INDEXES_MODE0[pixelData & 0xff];
+    public static <T extends WritableImage> T scrLoader(T image,
+                                                        int screenMode,
+                                                        byte[] slot,
+                                                        CrtcDisplayData crtcDisplayData,
+                                                        byte[] palette) {
+        LOGGER.debug("scrLoader with screenMode {}, crtcDisplayData {}", screenMode, crtcDisplayData);
+        int[] framebuffer = new CpcFramebufferRenderer().render(
+                CpcFramebufferRenderer.newFramebuffer(),
+                screenMode, slot, crtcDisplayData, palette);
+        return writeFramebuffer(image, framebuffer);
     }
 
-    private static int getPixelIndexesMode1(int pixelData) {
-	    if (PIXEL_INDEXES_MODE1 == null) {
-	        PIXEL_INDEXES_MODE1 = new int[256];
-	        for (int i = 0; i < 256; i++) {
-	            PIXEL_INDEXES_MODE1[i] =
-                        (((i & 0x08) >> 2) |
-                                ((i & 0x80) >> 7)) |
-                                ((((i & 0x04) >> 1) |
-                                        ((i & 0x40) >> 6)) << 2) |
-                                (((i & 0x02) |
-                                        ((i & 0x20) >> 5)) << 4) |
-                                ((((i & 0x01) << 1) |
-                                        ((i & 0x10) >> 4)) << 6);
-            }
-        }
-	    return PIXEL_INDEXES_MODE1[pixelData & 0xff];
+    public static <T extends WritableImage> T writeFramebuffer(T image, int[] framebuffer) {
+        image.getPixelWriter().setPixels(0, 0,
+                CpcFramebufferRenderer.WIDTH, CpcFramebufferRenderer.HEIGHT,
+                PixelFormat.getIntArgbInstance(), framebuffer, 0, CpcFramebufferRenderer.WIDTH);
+        return image;
     }
 
-    private static int getPixelColorIndexMode0(int pixelData, int position) {
-	    return (getPixelIndexesMode0(pixelData) >>> (position * 4)) & 0x0f;
+    public static <T extends WritableImage> T thumbnailLoader(T image,
+                                                              int screenMode,
+                                                              byte[] slot,
+                                                              CrtcDisplayData crtcDisplayData,
+                                                              byte[] palette) {
+        int[] framebuffer = new CpcFramebufferRenderer().render(
+                CpcFramebufferRenderer.newFramebuffer(),
+                screenMode, slot, crtcDisplayData, palette);
+        image.getPixelWriter().setPixels(0, 0,
+                THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT,
+                PixelFormat.getIntArgbInstance(), thumbnailRender(framebuffer), 0, THUMBNAIL_WIDTH);
+        return image;
     }
 
-    private static void writeToImageMode0(PixelWriter writer, byte[] data,
-                                          CrtcDisplayData crtcDisplayData,
-                                          byte[] palette) {
-        int height = getHeight(crtcDisplayData);
-        int width = getWidth(crtcDisplayData);
-        int xBorderSize = getXBorderSize(crtcDisplayData);
-        int yBorderSize = getYBorderSize(crtcDisplayData);
-        LOGGER.trace("Rendering image in mode 0 with height={}, width={}, xBorderSize={}, " +
-                        "yBorderSize={}",
-                height, width, xBorderSize, yBorderSize);
-
-        for (int y = 0; y < height; y++) {
-            int lineAddress = (((y / 8) * width) + ((y % 8) * 2048) + crtcDisplayData.getDisplayOffset()) % Constants.SLOT_SIZE;
-            for (int x = 0; x < width; x++) {
-                int pixelData = data[lineAddress + x];
-                int color0 = CpcColor.hardIndexedArgb(palette[getPixelColorIndexMode0(pixelData, 0)]);
-                int color1 = CpcColor.hardIndexedArgb(palette[getPixelColorIndexMode0(pixelData, 1)]);
-                for (int i = 0; i < 2; i++) {
-                    for (int j = 0; j < 4; j++) {
-                        writer.setArgb(4 * ((2 * x) + 0) + j + xBorderSize, y * 2 + i + yBorderSize, color0);
-                        writer.setArgb(4 * ((2 * x) + 1) + j + xBorderSize, y * 2 + i + yBorderSize, color1);
-                    }
-                }
+    //Half size framebuffer, averaging every 2x2 block of pixels
+    public static int[] thumbnailRender(int[] framebuffer) {
+        int[] thumbnail = new int[THUMBNAIL_WIDTH * THUMBNAIL_HEIGHT];
+        for (int y = 0; y < THUMBNAIL_HEIGHT; y++) {
+            int top = 2 * y * CpcFramebufferRenderer.WIDTH;
+            int bottom = top + CpcFramebufferRenderer.WIDTH;
+            for (int x = 0; x < THUMBNAIL_WIDTH; x++) {
+                int left = 2 * x;
+                thumbnail[y * THUMBNAIL_WIDTH + x] = average(framebuffer[top + left],
+                        framebuffer[top + left + 1],
+                        framebuffer[bottom + left],
+                        framebuffer[bottom + left + 1]);
             }
         }
+        return thumbnail;
     }
 
-    private static int getPixelColorIndexMode1(int pixelData, int position) {
-        return (getPixelIndexesMode1(pixelData) >>> (position * 2)) & 0x03;
-    }
-
-    private static void writeToImageMode1(PixelWriter writer, byte[] data,
-                                          CrtcDisplayData crtcDisplayData, byte[] palette) {
-	    int height = getHeight(crtcDisplayData);
-	    int width = getWidth(crtcDisplayData);
-        int xBorderSize = getXBorderSize(crtcDisplayData);
-        int yBorderSize = getYBorderSize(crtcDisplayData);
-        LOGGER.trace("Rendering image in mode 1 with height={}, width={}, xBorderSize={}, " +
-                        "yBorderSize={}",
-                height, width, xBorderSize, yBorderSize);
-
-        for (int y = 0; y < height; y++) {
-            int lineAddress = (((y / 8) * width) + ((y % 8) * 2048) + crtcDisplayData.getDisplayOffset()) % Constants.SLOT_SIZE;
-            for (int x = 0; x < width; x++) {
-                int pixelData = Byte.toUnsignedInt(data[lineAddress + x]);
-                int color0 = CpcColor.hardIndexedArgb(palette[getPixelColorIndexMode1(pixelData, 0)]);
-                int color1 = CpcColor.hardIndexedArgb(palette[getPixelColorIndexMode1(pixelData, 1)]);
-                int color2 = CpcColor.hardIndexedArgb(palette[getPixelColorIndexMode1(pixelData, 2)]);
-                int color3 = CpcColor.hardIndexedArgb(palette[getPixelColorIndexMode1(pixelData, 3)]);
-
-                for (int i = 0; i < 2; i++) {
-                    for (int j = 0; j < 2; j++) {
-                        writer.setArgb(2 * ((4 * x) + 0) + j + xBorderSize, y * 2 + i + yBorderSize, color0);
-                        writer.setArgb(2 * ((4 * x) + 1) + j + xBorderSize, y * 2 + i + yBorderSize, color1);
-                        writer.setArgb(2 * ((4 * x) + 2) + j + xBorderSize, y * 2 + i + yBorderSize, color2);
-                        writer.setArgb(2 * ((4 * x) + 3) + j + xBorderSize, y * 2 + i + yBorderSize, color3);
-                    }
-                }
-            }
+    private static int average(int p0, int p1, int p2, int p3) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = ((p0 >>> shift) & 0xff) + ((p1 >>> shift) & 0xff)
+                    + ((p2 >>> shift) & 0xff) + ((p3 >>> shift) & 0xff);
+            result |= ((sum + 2) >> 2) << shift;
         }
-    }
-
-    private static void writeToImageMode2(PixelWriter writer, byte[] data,
-										  CrtcDisplayData crtcDisplayData,
-                                          byte[] palette) {
-        int height = getHeight(crtcDisplayData);
-        int width = getWidth(crtcDisplayData);
-        int xBorderSize = getXBorderSize(crtcDisplayData);
-        int yBorderSize = getYBorderSize(crtcDisplayData);
-        LOGGER.trace("Rendering image in mode 2 with height={}, width={}, xBorderSize={}, "
-                + "yBorderSize={}",
-                height, width, xBorderSize, yBorderSize);
-
-        for (int y = 0; y < height; y++) {
-			int lineAddress = (((y / 8) * width) + ((y % 8) * 2048) + crtcDisplayData.getDisplayOffset()) % Constants.SLOT_SIZE;
-			for (int x = 0; x < width; x++) {
-				int pixelData = data[lineAddress + x];
-
-				for (int i = 0; i < 2; i++) {
-					writer.setArgb(x * 8 + xBorderSize, y * 2 + i + yBorderSize,
-                            CpcColor.hardIndexedArgb(palette[(pixelData & 0x80) != 0 ? 1 : 0]));
-					writer.setArgb(x * 8 + 1 + xBorderSize, y * 2 + i + yBorderSize,
-                            CpcColor.hardIndexedArgb(palette[(pixelData & 0x40) != 0 ? 1 : 0]));
-                    writer.setArgb(x * 8 + 2 + xBorderSize, y * 2 + i + yBorderSize,
-                            CpcColor.hardIndexedArgb(palette[(pixelData & 0x20) != 0 ? 1 : 0]));
-                    writer.setArgb(x * 8 + 3 + xBorderSize, y * 2 + i + yBorderSize,
-                            CpcColor.hardIndexedArgb(palette[(pixelData & 0x10) != 0 ? 1 : 0]));
-                    writer.setArgb(x * 8 + 4 + xBorderSize, y * 2 + i + yBorderSize,
-                            CpcColor.hardIndexedArgb(palette[(pixelData & 0x08) != 0 ? 1 : 0]));
-                    writer.setArgb(x * 8 + 5 + xBorderSize, y * 2 + i + yBorderSize,
-                            CpcColor.hardIndexedArgb(palette[(pixelData & 0x04) != 0 ? 1 : 0]));
-                    writer.setArgb(x * 8 + 6 + xBorderSize, y * 2 + i + yBorderSize,
-                            CpcColor.hardIndexedArgb(palette[(pixelData & 0x02) != 0 ? 1 : 0]));
-                    writer.setArgb(x * 8 + 7 + xBorderSize, y * 2 + i + yBorderSize,
-                            CpcColor.hardIndexedArgb(palette[(pixelData & 0x01) != 0 ? 1 : 0]));
-                }
-			}
-		}
-	}
-
-	public static <T extends WritableImage> T scrLoader(T image,
-                                                        int screenMode,
-                                                        InputStream data)
-    throws IOException {
-	    byte[] imageData = Util.fromInputStream(data, Constants.CPC_SCREEN_SIZE);
-	    byte[] paletteData = Util.fromInputStream(data, Constants.CPC_PALETTE_SIZE);
-	    LOGGER.debug("Is there still data available: {}", data.available());
-	    CrtcDisplayData displayData = (data.available() > 0) ?
-                CrtcDisplayData.fromInputStream(data) : CrtcDisplayData.DEFAULT_VALUE;
-	    return scrLoader(image, screenMode, imageData, displayData, paletteData);
-    }
-
-	private static void fillBackground(WritableImage image, PixelWriter writer, int color) {
-	    for (int y = 0; y < image.getHeight(); y++) {
-	        for (int x = 0; x < image.getWidth(); x++) {
-	            writer.setArgb(x, y, color);
-            }
-        }
-    }
-    public static <T extends WritableImage> T scrLoader(T image,
-                                                        int screenMode,
-                                                        byte[] slot,
-                                                        CrtcDisplayData crtcDisplayData,
-                                                        byte[] palette) {
-        LOGGER.debug("scrLoader with screenMode {}, crtcDisplayData {}", screenMode, crtcDisplayData);
-        PixelWriter writer = image.getPixelWriter();
-        fillBackground(image, writer, CpcColor.hardIndexedArgb(palette[16]));
-        switch (screenMode) {
-            case 0:
-                writeToImageMode0(writer, slot, crtcDisplayData, palette);
-                break;
-            case 1:
-                writeToImageMode1(writer, slot, crtcDisplayData, palette);
-                break;
-            case 2:
-                writeToImageMode2(writer, slot, crtcDisplayData, palette);
-                break;
-        }
-        return image;
+        return result;
     }
 
     public static byte[] streamToByteArray(InputStream stream) throws IOException {
@@ -234,6 +114,10 @@ public class ImageUtil {
 				Constants.CPC_SCREEN_HEIGHT);
 	}
 
+	public static WritableImage newThumbnail() {
+		return new WritableImage(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+	}
+
 	public static boolean isValidScreenFile(File screenFile) {
 		return screenFile.isFile() && screenFile.canRead() && screenFile.length() == Constants.CPC_SCREEN_SIZE;
 	}
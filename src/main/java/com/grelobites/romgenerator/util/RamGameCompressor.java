@@ -2,4 +2,13 @@ package com.grelobites.romgenerator.util;
 
 public interface RamGameCompressor {
     byte[] compressSlot(int slot, byte[] data);
+
+    //Whether uncompressSlot can restore the slots given by compressSlot
+    default boolean canUncompress() {
+        return false;
+    }
+
+    default byte[] uncompressSlot(int slot, byte[] compressedData) {
+        throw new UnsupportedOperationException("Slot uncompression not supported by " + getClass().getName());
+    }
 }
@@ -6,40 +6,42 @@ import com.grelobites.romgenerator.handlers.dandanatorcpc.v1.GameHeaderV1Seriali
 import com.grelobites.romgenerator.model.GameHeader;
 import com.grelobites.romgenerator.model.GameType;
 import com.grelobites.romgenerator.model.SnapshotGame;
-import jssc.SerialPort;
-import jssc.SerialPortException;
+import com.grelobites.romgenerator.util.metrics.Metrics;
+import com.grelobites.romgenerator.util.serial.JsscSerialTransport;
+import com.grelobites.romgenerator.util.serial.MeteredSerialTransport;
+import com.grelobites.romgenerator.util.serial.SerialTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 
 public class SerialGameUploader implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(SerialGameUploader.class);
     private static final int LAUNCH_CODE_TRAILER_SIZE = 34;
     private static final byte[] LAUNCHER_DATA = new byte[]{(byte) 0x00, (byte) 0xC0, (byte) 0x00};
-    private static final int SEND_BUFFER_SIZE = 2048;
+    //Bounds the wait for a slot to leave the port before going back to 57600
+    private static final long OUTPUT_DRAIN_TIMEOUT = 5000;
     private static final int[] SLOT_SEQUENCE_64 = new int[]{-1, 0, 1, 2};
     private static final int[] SLOT_SEQUENCE_128 = new int[]{-1, 4, 5, 6, 7, 0, 1, 2};
 
-    private String serialPortName;
-    private SerialPort serialPort;
+    private MeteredSerialTransport serialPort;
     private SnapshotGame game;
 
     public SerialGameUploader(SnapshotGame game, String serialPortName) {
+        this(game, new JsscSerialTransport(serialPortName));
+    }
+
+    public SerialGameUploader(SnapshotGame game, SerialTransport serialTransport) {
         this.game = game;
-        this.serialPortName = serialPortName;
+        this.serialPort = new MeteredSerialTransport(serialTransport);
     }
 
     private void initSerialPort() {
-        if (serialPort == null) {
-            serialPort = new SerialPort(serialPortName);
-        }
-        if (!serialPort.isOpened()) {
+        if (!serialPort.isOpen()) {
             try {
-                serialPort.openPort();
-            } catch (SerialPortException spe) {
+                serialPort.open();
+            } catch (IOException spe) {
                 LOGGER.error("Opening serial port", spe);
                 throw new RuntimeException("Opening serial port", spe);
             }
@@ -48,10 +50,10 @@ public class SerialGameUploader implements Runnable {
 
     private void closeSerialPort() {
         if (serialPort != null) {
-            if (serialPort.isOpened()) {
+            if (serialPort.isOpen()) {
                 try {
-                    serialPort.closePort();
-                } catch (SerialPortException spe) {
+                    serialPort.close();
+                } catch (IOException spe) {
                     LOGGER.warn("Closing serial port", spe);
                 }
             }
@@ -85,20 +87,11 @@ public class SerialGameUploader implements Runnable {
         LOGGER.debug("Sending block of data with length {}", data.length);
         try {
             SerialPortConfiguration.MODE_115200.apply(serialPort);
-
-            int sentBytesCount = 0;
-            ByteArrayInputStream bis = new ByteArrayInputStream(data);
-            byte[] sendBuffer = new byte[SEND_BUFFER_SIZE];
-            while (sentBytesCount < data.length) {
-                int count = bis.read(sendBuffer);
-                LOGGER.debug("Sending block of " + count + " bytes");
-                if (count < SEND_BUFFER_SIZE) {
-                    serialPort.writeBytes(Arrays.copyOfRange(sendBuffer, 0, count));
-                } else {
-                    serialPort.writeBytes(sendBuffer);
-                }
-                sentBytesCount += count;
-            }
+            serialPort.write(data);
+            //The receiver answers at 57600 as soon as it gets the last byte
+            serialPort.waitForOutputDrain(OUTPUT_DRAIN_TIMEOUT,
+                    SerialPortConfiguration.MODE_115200.getDrainGuardTime());
+            SerialPortConfiguration.MODE_57600.apply(serialPort);
         } catch (Exception e) {
             throw new RuntimeException("Game Uploader", e);
         }
@@ -122,26 +115,37 @@ public class SerialGameUploader implements Runnable {
         os.write(game.getSlot(game.getScreenSlot()));
     }
 
+    private byte[] getSlotData(int slot) throws IOException {
+        if (slot == -1) {
+            ByteArrayOutputStream firstBlock = new ByteArrayOutputStream();
+            //Send screen + launch code
+            prepareFirstBlock(firstBlock);
+            return firstBlock.toByteArray();
+        } else {
+            return game.getSlot(slot);
+        }
+    }
+
     public void run() {
         try {
-            initSerialPort();
-
             int [] slotSequence = game.getType() == GameType.RAM128 ? SLOT_SEQUENCE_128 : SLOT_SEQUENCE_64;
-            for (int slotToSend : slotSequence) {
-                Thread.sleep(500);
-                SerialPortConfiguration.MODE_57600.apply(serialPort);
-                byte[] command = serialPort.readBytes(1, slotToSend == 0 ? 10000: 5000);
+            //Everything is ready before the receiver starts asking for slots
+            byte[][] slotData = new byte[slotSequence.length][];
+            for (int i = 0; i < slotSequence.length; i++) {
+                slotData[i] = getSlotData(slotSequence[i]);
+            }
+
+            initSerialPort();
+            SerialPortConfiguration.MODE_57600.apply(serialPort);
+            for (int i = 0; i < slotSequence.length; i++) {
+                int slotToSend = slotSequence[i];
+                byte[] command = serialPort.read(1, slotToSend == 0 ? 10000: 5000);
                 LOGGER.debug("Got command bytes {}", Util.dumpAsHexString(command));
                 LOGGER.debug("Sending slot  {}", slotToSend == -1 ? "screen + code" : slotToSend);
-                if (slotToSend == -1) {
-                    ByteArrayOutputStream firstBlock = new ByteArrayOutputStream();
-                    //Send screen + launch code
-                    prepareFirstBlock(firstBlock);
-                    send(firstBlock.toByteArray());
-                } else {
-                    send(game.getSlot(slotToSend));
-                }
+                send(slotData[i]);
             }
+            LOGGER.info("Game transferred. Metrics: {}", serialPort.getMetrics());
+            Metrics.SERIAL.onTransfer(serialPort.getMetrics());
         } catch (Exception e) {
             LOGGER.error("Transferring Game", e);
             throw new RuntimeException(e.getMessage(), e);
@@ -1,10 +1,13 @@
 package com.grelobites.romgenerator.util;
 
+import com.grelobites.romgenerator.util.serial.SerialTransport;
 import jssc.SerialPort;
 import jssc.SerialPortException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 public enum SerialPortConfiguration {
     MODE_115200(114000, //Due to 464 clock jitter
             SerialPort.DATABITS_8,
@@ -15,6 +18,8 @@ public enum SerialPortConfiguration {
             SerialPort.STOPBITS_2,
             SerialPort.PARITY_NONE);
     private static final Logger LOGGER = LoggerFactory.getLogger(SerialPortConfiguration.class);
+    //Largest transmit FIFO among the usual USB serial adapters (CP210x)
+    private static final int ADAPTER_FIFO_SIZE = 640;
 
     public int baudrate;
     public int dataBits;
@@ -28,11 +33,23 @@ public enum SerialPortConfiguration {
         this.parity = parity;
     }
 
+    //Milliseconds needed to send a full adapter FIFO with this configuration
+    public long getDrainGuardTime() {
+        int bitsPerByte = 1 + dataBits + (stopBits == SerialPort.STOPBITS_1 ? 1 : 2) +
+                (parity == SerialPort.PARITY_NONE ? 0 : 1);
+        return (ADAPTER_FIFO_SIZE * bitsPerByte * 1000L + baudrate - 1) / baudrate;
+    }
+
     public void apply(SerialPort serialPort) throws SerialPortException {
         LOGGER.debug("Applying serial port configuration {}", this);
         serialPort.setParams(baudrate, dataBits, stopBits, parity);
     }
 
+    public void apply(SerialTransport serialTransport) throws IOException {
+        LOGGER.debug("Applying serial port configuration {}", this);
+        serialTransport.setParams(baudrate, dataBits, stopBits, parity);
+    }
+
     @Override
     public String toString() {
         return "SerialPortConfiguration{" +
@@ -0,0 +1,121 @@
+package com.grelobites.romgenerator.util;
+
+import com.grelobites.romgenerator.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Pool of fixed size byte buffers.
+ * A borrowed buffer is owned by its Lease until the lease is closed, what
+ * gives the buffer back to the pool, or transferred, what hands the buffer
+ * over to a longer lived owner (a game, for instance) that never returns it.
+ * Buffers come out of the pool zero filled. When the pool is empty a new
+ * buffer is allocated, and released buffers beyond the retained count are
+ * left to the garbage collector.
+ */
+public class SlotBufferPool {
+    public static final SlotBufferPool SLOTS = new SlotBufferPool(Constants.SLOT_SIZE, 64);
+
+    private final int bufferSize;
+    private final int maxRetained;
+    private final ConcurrentLinkedDeque<byte[]> buffers = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger retained = new AtomicInteger();
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    public final class Lease implements AutoCloseable {
+        private byte[] buffer;
+
+        private Lease(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        public byte[] array() {
+            if (buffer == null) {
+                throw new IllegalStateException("Buffer already released or transferred");
+            }
+            return buffer;
+        }
+
+        public byte[] transfer() {
+            byte[] result = array();
+            buffer = null;
+            return result;
+        }
+
+        @Override
+        public void close() {
+            if (buffer != null) {
+                recycle(buffer);
+                buffer = null;
+            }
+        }
+    }
+
+    /*
+     * ByteArrayOutputStream writing into a borrowed buffer, given back on close.
+     * It still grows as usual if the written data doesn't fit.
+     */
+    public static class BufferOutputStream extends ByteArrayOutputStream {
+        private final Lease lease;
+
+        public BufferOutputStream(SlotBufferPool pool) {
+            super(0);
+            lease = pool.borrow();
+            buf = lease.array();
+        }
+
+        @Override
+        public void close() {
+            lease.close();
+            buf = new byte[0];
+            count = 0;
+        }
+    }
+
+    public SlotBufferPool(int bufferSize, int maxRetained) {
+        this.bufferSize = bufferSize;
+        this.maxRetained = maxRetained;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public Lease borrow() {
+        byte[] buffer = buffers.pollFirst();
+        if (buffer != null) {
+            retained.decrementAndGet();
+            reuses.incrementAndGet();
+            Arrays.fill(buffer, (byte) 0);
+        } else {
+            allocations.incrementAndGet();
+            buffer = new byte[bufferSize];
+        }
+        return new Lease(buffer);
+    }
+
+    public void recycle(byte[] buffer) {
+        if (buffer.length != bufferSize) {
+            throw new IllegalArgumentException("Buffer of size " + buffer.length
+                    + " doesn't belong to pool of size " + bufferSize);
+        }
+        if (retained.incrementAndGet() <= maxRetained) {
+            buffers.offerFirst(buffer);
+        } else {
+            retained.decrementAndGet();
+        }
+    }
+
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    public long getReuses() {
+        return reuses.get();
+    }
+}
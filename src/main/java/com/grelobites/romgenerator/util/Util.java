@@ -254,8 +254,12 @@ public class Util {
 
 
     public static void fillWithValue(OutputStream os, byte value, int size) throws IOException {
-        for (int i = 0; i < size; i++) {
-            os.write(value);
+        byte[] block = new byte[Math.min(Math.max(size, 0), 1024)];
+        Arrays.fill(block, value);
+        while (size > 0) {
+            int length = Math.min(size, block.length);
+            os.write(block, 0, length);
+            size -= length;
         }
     }
 
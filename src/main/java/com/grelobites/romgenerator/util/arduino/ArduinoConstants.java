@@ -1,5 +1,6 @@
 package com.grelobites.romgenerator.util.arduino;
 
+import java.io.IOException;
 import java.io.InputStream;
 
 public class ArduinoConstants {
@@ -13,4 +14,8 @@ public class ArduinoConstants {
     public static InputStream xsvfResource() {
         return ArduinoConstants.class.getResourceAsStream(XSVF_RESOURCE);
     }
+
+    public static int xsvfResourceSize() throws IOException {
+        return ArduinoConstants.class.getResource(XSVF_RESOURCE).openConnection().getContentLength();
+    }
 }
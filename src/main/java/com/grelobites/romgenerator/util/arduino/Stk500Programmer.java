@@ -1,6 +1,8 @@
 package com.grelobites.romgenerator.util.arduino;
 
 import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.serial.JsscSerialTransport;
+import com.grelobites.romgenerator.util.serial.SerialTransport;
 import jssc.SerialPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,11 +11,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.CRC32;
 
 public class Stk500Programmer {
     private static final Logger LOGGER = LoggerFactory.getLogger(Stk500Programmer.class);
 
-    private static final int PROGRAM_CHUNK_SIZE = 128;
+    //As set in the pagesize field of SET_DEVICE
+    private static final int FLASH_PAGE_SIZE = 128;
+    private static final int READ_CHUNK_SIZE = 256;
     private static final int SERIAL_READ_TIMEOUT = 5000;
     private static final int SERIAL_DRAIN_TIMEOUT = 250;
     private static final int MAX_SYNC_ATTEMPTS = 3;
@@ -128,7 +133,7 @@ public class Stk500Programmer {
         }
 
     }
-    private SerialPort serialPort;
+    private SerialTransport serialPort;
 
     private void handleResponse() {
         try {
@@ -150,7 +155,7 @@ public class Stk500Programmer {
 
     private byte readByte() {
         try {
-            byte[] response = serialPort.readBytes(1, SERIAL_READ_TIMEOUT);
+            byte[] response = serialPort.read(1, SERIAL_READ_TIMEOUT);
             LOGGER.debug("SERIAL PORT. Received {}", Util.dumpAsHexString(response));
             return response[0];
         } catch (Exception e) {
@@ -179,7 +184,7 @@ public class Stk500Programmer {
         LOGGER.debug("SERIAL PORT. Flushing");
         while (true) {
             try {
-                byte [] flushed = serialPort.readBytes(1, SERIAL_DRAIN_TIMEOUT);
+                byte [] flushed = serialPort.read(1, SERIAL_DRAIN_TIMEOUT);
                 LOGGER.debug("SERIAL PORT. Flushed: {}", Util.dumpAsHexString(flushed));
             } catch (Exception e) {
                 return;
@@ -189,7 +194,7 @@ public class Stk500Programmer {
 
     private byte[] readBytes(int count) {
         try {
-            byte[] response = serialPort.readBytes(count, SERIAL_READ_TIMEOUT);
+            byte[] response = serialPort.read(count, SERIAL_READ_TIMEOUT);
             LOGGER.debug("SERIAL PORT. Received {}", Util.dumpAsHexString(response));
             return response;
         } catch (Exception e) {
@@ -200,7 +205,7 @@ public class Stk500Programmer {
     private void sendCommand(byte[] command) {
         try {
             LOGGER.debug("SERIAL PORT. Sending {}", Util.dumpAsHexString(command));
-            serialPort.writeBytes(command);
+            serialPort.write(command);
         } catch (Exception e) {
             LOGGER.error("In sendCommand", e);
             throw new RuntimeException(e);
@@ -213,6 +218,10 @@ public class Stk500Programmer {
     }
 
     public Stk500Programmer(SerialPort serialPort) {
+        this(new JsscSerialTransport(serialPort));
+    }
+
+    public Stk500Programmer(SerialTransport serialPort) {
         this.serialPort = serialPort;
     }
 
@@ -223,77 +232,115 @@ public class Stk500Programmer {
     public void programBinary(Binary binary, ProgressListener listener,
                               boolean checkCurrent, boolean validate) throws IOException {
         byte[] data = binary.toByteArray();
-        int chunks = (data.length + PROGRAM_CHUNK_SIZE - 1) / PROGRAM_CHUNK_SIZE;
         int address = binary.getAddress();
-        for (int i = 0; i < chunks; i++) {
-            boolean programmed = false;
-            byte[] chunkData = Arrays.copyOfRange(data, i * PROGRAM_CHUNK_SIZE,
-                    Math.min((i + 1) * PROGRAM_CHUNK_SIZE, data.length));
-            if (!checkCurrent || !checkChunk(address, chunkData)) {
-                programChunk(address, chunkData);
-                programmed = true;
+        int pages = (data.length + FLASH_PAGE_SIZE - 1) / FLASH_PAGE_SIZE;
+        long start = System.currentTimeMillis();
+
+        long[] pageChecksums = pageChecksums(data);
+        boolean[] pendingPages = new boolean[pages];
+        if (checkCurrent) {
+            long[] currentChecksums = pageChecksums(readFlash(address, data.length));
+            for (int i = 0; i < pages; i++) {
+                pendingPages[i] = currentChecksums[i] != pageChecksums[i];
             }
-            if (validate && programmed && !checkChunk(address, chunkData)) {
-                LOGGER.error("Validating flash content");
-                throw new IllegalStateException("Flash validation failed");
+        } else {
+            Arrays.fill(pendingPages, true);
+        }
+
+        int programmedPages = 0;
+        for (int i = 0; i < pages; i++) {
+            if (pendingPages[i]) {
+                programPage(address + i * (FLASH_PAGE_SIZE >> 1), Arrays.copyOfRange(data,
+                        i * FLASH_PAGE_SIZE, Math.min((i + 1) * FLASH_PAGE_SIZE, data.length)));
+                programmedPages++;
             }
             if (listener != null) {
-                listener.onProgressUpdate(1.0 * (i + 1) / chunks);
+                listener.onProgressUpdate(1.0 * (i + 1) / pages);
+            }
+        }
+
+        if (validate && programmedPages > 0) {
+            long[] flashChecksums = pageChecksums(readFlash(address, data.length));
+            for (int i = 0; i < pages; i++) {
+                if (pendingPages[i] && flashChecksums[i] != pageChecksums[i]) {
+                    LOGGER.error("Validating flash content of page {}", i);
+                    throw new IllegalStateException("Flash validation failed");
+                }
             }
-            address += PROGRAM_CHUNK_SIZE >> 1;
         }
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        LOGGER.info("Programmed {} of {} pages in {} ms ({} bytes/s)", programmedPages, pages,
+                elapsed, programmedPages * FLASH_PAGE_SIZE * 1000L / elapsed);
     }
 
-    private void programChunk(int address, byte[] data) {
-        LOGGER.debug("Programming chunk with address={}, data={}",
-                String.format("0x%04x", address), Util.dumpAsHexString(data));
-        sendCommandAndHandleResponse(ParametersBuilder.newInstance()
+    private static long[] pageChecksums(byte[] data) {
+        long[] checksums = new long[(data.length + FLASH_PAGE_SIZE - 1) / FLASH_PAGE_SIZE];
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < checksums.length; i++) {
+            crc.reset();
+            crc.update(data, i * FLASH_PAGE_SIZE,
+                    Math.min(FLASH_PAGE_SIZE, data.length - i * FLASH_PAGE_SIZE));
+            checksums[i] = crc.getValue();
+        }
+        return checksums;
+    }
+
+    private static byte[] loadAddressCommand(int address) {
+        return ParametersBuilder.newInstance()
                 .withByte(CMND_STK_LOAD_ADDRESS)
                 .withLittleEndianShort(address)
-                .withByte(SYNC_CRC_EOP).build());
-        sendCommandAndHandleResponse(ParametersBuilder.newInstance()
+                .withByte(SYNC_CRC_EOP).build();
+    }
+
+    /*
+     * The address is loaded without waiting for its response, since the
+     * bootloader handles it right away. Nothing is queued behind the page
+     * itself, as the bootloader doesn't read the line while writing flash.
+     */
+    private void programPage(int address, byte[] data) {
+        LOGGER.debug("Programming page with address={}, data={}",
+                String.format("0x%04x", address), Util.dumpAsHexString(data));
+        sendCommand(loadAddressCommand(address));
+        sendCommand(ParametersBuilder.newInstance()
                 .withByte(CMND_STK_PROG_PAGE)
                 .withBigEndianShort(data.length)
                 .withChar('F')
                 .withByteArray(data)
                 .withByte(SYNC_CRC_EOP)
                 .build());
+        handleResponse();
+        handleResponse();
     }
 
-    private boolean checkChunk(int address, byte[] data) {
-        LOGGER.debug("Checking chunk with address={}",
+    private byte[] readFlash(int address, int length) {
+        LOGGER.debug("Reading {} bytes of flash from address={}", length,
                 String.format("0x%04x", address));
-        sendCommandAndHandleResponse(ParametersBuilder.newInstance()
-                .withByte(CMND_STK_LOAD_ADDRESS)
-                .withLittleEndianShort(address)
-                .withByte(SYNC_CRC_EOP).build());
-        sendCommand(ParametersBuilder.newInstance()
-                .withByte(CMND_STK_READ_PAGE)
-                .withBigEndianShort(data.length)
-                .withChar('F')
-                .withByte(SYNC_CRC_EOP)
-                .build());
-
-        try {
+        byte[] flashData = new byte[length];
+        for (int offset = 0; offset < length; offset += READ_CHUNK_SIZE) {
+            int chunkLength = Math.min(READ_CHUNK_SIZE, length - offset);
+            sendCommand(loadAddressCommand(address + (offset >> 1)));
+            sendCommand(ParametersBuilder.newInstance()
+                    .withByte(CMND_STK_READ_PAGE)
+                    .withBigEndianShort(chunkLength)
+                    .withChar('F')
+                    .withByte(SYNC_CRC_EOP)
+                    .build());
+            handleResponse();
             byte response = readByte();
             if (response == RESP_STK_INSYNC) {
-                byte[] flashData = readBytes(data.length);
-                boolean result = Arrays.equals(flashData, data);
+                System.arraycopy(readBytes(chunkLength), 0, flashData, offset, chunkLength);
                 response = readByte();
                 if (response != RESP_STK_OK) {
                     LOGGER.debug("Got non RESP_STK_OK response {}", response);
                     throw new RuntimeException("STK Operation returned error");
                 }
-                return result;
             } else {
                 LOGGER.warn("Got out of sync. Value {}",
                         Util.asByteHexString(response));
                 throw new RuntimeException("Sync lost");
             }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
-
+        return flashData;
     }
 
     private void waitMillis(long millis) {
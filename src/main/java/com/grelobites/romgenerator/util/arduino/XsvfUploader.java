@@ -1,10 +1,12 @@
 package com.grelobites.romgenerator.util.arduino;
 
-import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.serial.JsscSerialTransport;
+import com.grelobites.romgenerator.util.serial.SerialTransport;
 import jssc.SerialPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -12,9 +14,19 @@ import java.util.Arrays;
 public class XsvfUploader {
     private static final Logger LOGGER = LoggerFactory.getLogger(XsvfUploader.class);
 
-    private final SerialPort serialPort;
+    private static final int INPUT_BUFFER_SIZE = 256;
+    private static final int MAX_REQUEST_SIZE = 1024;
+
+    private final SerialTransport serialPort;
+    private final byte[] inputBuffer = new byte[INPUT_BUFFER_SIZE];
+    private int inputPosition = 0;
+    private int inputLimit = 0;
 
     public XsvfUploader(SerialPort serialPort) {
+        this(new JsscSerialTransport(serialPort));
+    }
+
+    public XsvfUploader(SerialTransport serialPort) {
         this.serialPort = serialPort;
     }
 
@@ -25,43 +37,46 @@ public class XsvfUploader {
             Thread.sleep(50);
             serialPort.setDTR(true);
             serialPort.setRTS(true);
-            Thread.sleep(50);
         } catch (Exception e) {
             LOGGER.error("Clearing serial port", e);
             throw new RuntimeException(e);
         }
     }
 
-    private int readByte() {
+    //Takes whatever the device already sent, so lines are not read byte by byte
+    private void fillInputBuffer() {
         try {
-            byte[] response = serialPort.readBytes(1);
-            return response[0];
+            int available = Math.min(serialPort.getInputQueueSize(), INPUT_BUFFER_SIZE);
+            byte[] data = serialPort.read(Math.max(1, available));
+            System.arraycopy(data, 0, inputBuffer, 0, data.length);
+            inputPosition = 0;
+            inputLimit = data.length;
         } catch (Exception e) {
             throw new RuntimeException("Reading from serial port", e);
         }
     }
 
+    private int readByte() {
+        if (inputPosition == inputLimit) {
+            fillInputBuffer();
+        }
+        return inputBuffer[inputPosition++];
+    }
+
     private void purgeSerialPort() {
+        inputPosition = inputLimit = 0;
         while (true) {
             try {
-                serialPort.readBytes(1, 500);
+                serialPort.read(1, 500);
             } catch (Exception e) {
                 return;
             }
         }
     }
 
-    private byte[] readBytes(int count) {
-        try {
-            return serialPort.readBytes(count);
-        } catch (Exception e) {
-            throw new RuntimeException("Reading from serial port", e);
-        }
-    }
-
-    private void sendBytes(byte[] value) {
+    private void sendBytes(byte[] value, int length) {
         try {
-            serialPort.writeBytes(value);
+            serialPort.write(value, 0, length);
         } catch (Exception e) {
             throw new RuntimeException("Writing to serial port", e);
         }
@@ -84,8 +99,19 @@ public class XsvfUploader {
         }
     }
 
+    //Fills the buffer from the stream, padding with 0xff once it is exhausted
+    private static int readChunk(InputStream stream, byte[] buffer, int length) throws IOException {
+        int read = 0;
+        int count;
+        while (read < length && (count = stream.read(buffer, read, length - read)) > 0) {
+            read += count;
+        }
+        Arrays.fill(buffer, read, length, (byte) 0xff);
+        return read;
+    }
+
     public void upload(InputStream stream) throws IOException {
-        upload(Util.fromInputStream(stream));
+        upload(stream, 0, null);
     }
 
     public void upload(byte[] data) {
@@ -93,12 +119,26 @@ public class XsvfUploader {
     }
 
     public void upload(byte[] data, ProgressListener progressListener) {
+        try {
+            upload(new ByteArrayInputStream(data), data.length, progressListener);
+        } catch (IOException e) {
+            throw new RuntimeException("Reading XSVF data", e);
+        }
+    }
+
+    /*
+     * Each S request from the device grants credit for that many bytes, which
+     * are read from the stream and sent right away, so the only pacing is the
+     * one imposed by the device.
+     */
+    public void upload(InputStream stream, int totalBytes, ProgressListener progressListener)
+            throws IOException {
         clearSerialPort();
         purgeSerialPort();
         boolean finished = false;
         int errorCode = 0;
         String errorMessage = null;
-        int totalBytes = data.length;
+        byte[] chunk = new byte[MAX_REQUEST_SIZE];
         int sentBytes = 0;
         while (!finished) {
             Command command = getNextCommand();
@@ -106,14 +146,13 @@ public class XsvfUploader {
             switch (command.getCommand()) {
                 case "S":
                     int numBytes = Integer.parseInt(command.getArgument());
-                    byte[] chunk = new byte[numBytes];
-                    System.arraycopy(data, sentBytes, chunk, 0, Math.min(numBytes, totalBytes - sentBytes));
-                    if (totalBytes - sentBytes < numBytes) {
-                        Arrays.fill(chunk, totalBytes - sentBytes, numBytes, (byte) 0xff);
+                    if (numBytes > chunk.length) {
+                        chunk = new byte[numBytes];
                     }
-                    sendBytes(chunk);
+                    readChunk(stream, chunk, numBytes);
+                    sendBytes(chunk, numBytes);
                     sentBytes += numBytes;
-                    if (progressListener != null) {
+                    if (progressListener != null && totalBytes > 0) {
                         progressListener.onProgressUpdate((1.0 * sentBytes) / totalBytes);
                     }
                     break;
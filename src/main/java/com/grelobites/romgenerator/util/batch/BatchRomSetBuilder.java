@@ -0,0 +1,343 @@
+package com.grelobites.romgenerator.util.batch;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConstants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcRamGameCompressor;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.v2.DandanatorCpcV2RomSetExporter;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.v2.RomSetPlanner;
+import com.grelobites.romgenerator.model.Game;
+import com.grelobites.romgenerator.model.SnapshotGame;
+import com.grelobites.romgenerator.util.GameUtil;
+import com.grelobites.romgenerator.util.compress.CompressionCache;
+import com.grelobites.romgenerator.util.compress.CompressorFactory;
+import com.grelobites.romgenerator.util.compress.CompressorType;
+import com.grelobites.romgenerator.util.imageloader.ImageLoader;
+import com.grelobites.romgenerator.util.imageloader.ImageType;
+import com.grelobites.romgenerator.util.pokeimporter.ImportContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/*
+ * Headless ROM set builder. Builds the ROM sets described by a list of
+ * manifests without the JavaFX application, several at a time, sharing
+ * the compressed slots between them. Manifests with "split" set spread
+ * their games over as many ROM sets as needed.
+ *
+ * Usage: BatchRomSetBuilder [-j threads] manifest.json|directory...
+ */
+public class BatchRomSetBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchRomSetBuilder.class);
+    private static final String MANIFEST_GLOB = "*.json";
+
+    private final int parallelism;
+    private final Map<CompressorType, CompressionCache> compressionCaches = new ConcurrentHashMap<>();
+
+    public BatchRomSetBuilder(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public BatchRomSetBuilder() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    private CompressionCache getCompressionCache(String compressor) {
+        CompressorType type = compressor != null ?
+                CompressorType.fromString(compressor) : CompressorType.ZX7;
+        return compressionCaches.computeIfAbsent(type, t -> new CompressionCache(
+                new DandanatorCpcRamGameCompressor(CompressorFactory.getCompressor(t))));
+    }
+
+    public int getCompressionCacheHits() {
+        return compressionCaches.values().stream()
+                .mapToInt(CompressionCache::getHits).sum();
+    }
+
+    private static byte[] readFile(RomSetManifest manifest, String value) throws IOException {
+        return value != null ? Files.readAllBytes(manifest.resolve(value)) : null;
+    }
+
+    private static byte[] loadBackgroundImage(RomSetManifest manifest) throws IOException {
+        if (manifest.getBackground() != null) {
+            File imageFile = manifest.resolve(manifest.getBackground()).toFile();
+            Optional<ImageLoader> loader = ImageType.imageLoader(imageFile);
+            if (loader.isPresent()) {
+                return loader.get().asByteArray(imageFile);
+            } else {
+                throw new IOException("Unsupported background image " + imageFile);
+            }
+        }
+        return null;
+    }
+
+    private static Game loadGame(RomSetManifest manifest, RomSetManifest.GameEntry entry) throws IOException {
+        if (entry.getFile() == null) {
+            throw new IOException("Game entry without file in manifest " + manifest.getSource());
+        }
+        File gameFile = manifest.resolve(entry.getFile()).toFile();
+        Game game = GameUtil.createGameFromFile(gameFile)
+                .orElseThrow(() -> new IOException("Unable to load game from " + gameFile));
+        if (entry.getName() != null) {
+            game.setName(GameUtil.filterGameName(entry.getName()));
+        }
+        if (game instanceof SnapshotGame) {
+            SnapshotGame snapshotGame = (SnapshotGame) game;
+            if (entry.getCompressed() != null) {
+                snapshotGame.setCompressed(entry.getCompressed());
+            }
+            if (entry.getHoldScreen() != null) {
+                snapshotGame.setHoldScreen(entry.getHoldScreen());
+            }
+            if (entry.getPokes() != null) {
+                ImportContext ctx = new ImportContext(manifest.resolve(entry.getPokes()).toFile());
+                GameUtil.importPokesFromFile(snapshotGame, ctx);
+                if (ctx.hasErrors()) {
+                    LOGGER.warn("Errors importing pokes for {}: {}", game.getName(), ctx.getImportErrors());
+                }
+            }
+        } else if (entry.getPokes() != null) {
+            LOGGER.warn("Ignoring pokes for non snapshot game {}", game.getName());
+        }
+        return game;
+    }
+
+    private DandanatorCpcV2RomSetExporter.Builder newExporterBuilder(RomSetManifest manifest)
+            throws IOException {
+        DandanatorCpcV2RomSetExporter.Builder builder = DandanatorCpcV2RomSetExporter.newBuilder()
+                .withDandanatorRom(readFile(manifest, manifest.getDandanatorRom()))
+                .withExtraRom(readFile(manifest, manifest.getExtraRom()))
+                .withBackgroundImage(loadBackgroundImage(manifest))
+                .withCharSet(readFile(manifest, manifest.getCharset()))
+                .withRamGameCompressor(getCompressionCache(manifest.getCompressor()));
+        if (manifest.getIncludeExtraRom() != null) {
+            builder.withIncludeExtraRom(manifest.getIncludeExtraRom());
+        }
+        if (manifest.getEnforceFollowRom() != null) {
+            builder.withEnforceFollowRom(manifest.getEnforceFollowRom());
+        }
+        if (manifest.getAutoboot() != null) {
+            builder.withAutoboot(manifest.getAutoboot());
+        }
+        return builder;
+    }
+
+    private static byte[] export(DandanatorCpcV2RomSetExporter.Builder builder) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream(
+                Constants.SLOT_SIZE * DandanatorCpcConstants.EEPROM_SLOTS);
+        builder.build().exportRomSet(os);
+        return os.toByteArray();
+    }
+
+    public byte[] build(RomSetManifest manifest) throws IOException {
+        List<Game> games = new ArrayList<>();
+        for (RomSetManifest.GameEntry entry : manifest.getGames()) {
+            games.add(loadGame(manifest, entry));
+        }
+        return export(newExporterBuilder(manifest).withGames(games));
+    }
+
+    /*
+     * Splits the games of a manifest over as many ROM sets as needed,
+     * keeping the games in the same group together
+     */
+    public List<RomSetPlanner.Cartridge> plan(RomSetManifest manifest, List<Game> games,
+                                              Map<Game, String> groups) throws IOException {
+        return RomSetPlanner.newBuilder()
+                .withGames(games)
+                .withGrouping(groups::get)
+                .withRamGameCompressor(getCompressionCache(manifest.getCompressor()))
+                .withIncludeExtraRom(manifest.getIncludeExtraRom() != null ?
+                        manifest.getIncludeExtraRom() : true)
+                .withEnforceFollowRom(manifest.getEnforceFollowRom() != null ?
+                        manifest.getEnforceFollowRom() : false)
+                .build().plan();
+    }
+
+    private static class RomSetJob {
+        private final Path output;
+        private final DandanatorCpcV2RomSetExporter.Builder builder;
+        private final int gameCount;
+
+        public RomSetJob(Path output, DandanatorCpcV2RomSetExporter.Builder builder, int gameCount) {
+            this.output = output;
+            this.builder = builder;
+            this.gameCount = gameCount;
+        }
+
+        public Path run() throws IOException {
+            long start = System.currentTimeMillis();
+            //The exporter assembles the image in its own buffer, no need for another copy
+            try (OutputStream os = Files.newOutputStream(output)) {
+                builder.build().exportRomSet(os);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(output);
+                throw e;
+            }
+            LOGGER.info("Built {} with {} games in {}ms", output, gameCount,
+                    System.currentTimeMillis() - start);
+            return output;
+        }
+    }
+
+    //Loads the games of a manifest and decides the ROM sets to export
+    private List<RomSetJob> prepare(Path manifestPath) throws IOException {
+        RomSetManifest manifest = RomSetManifest.fromFile(manifestPath);
+        List<Game> games = new ArrayList<>();
+        Map<Game, String> groups = new IdentityHashMap<>();
+        for (RomSetManifest.GameEntry entry : manifest.getGames()) {
+            Game game = loadGame(manifest, entry);
+            games.add(game);
+            if (entry.getGroup() != null) {
+                groups.put(game, entry.getGroup());
+            }
+        }
+        List<RomSetJob> jobs = new ArrayList<>();
+        if (Boolean.TRUE.equals(manifest.getSplit())) {
+            List<RomSetPlanner.Cartridge> cartridges = plan(manifest, games, groups);
+            for (int i = 0; i < cartridges.size(); i++) {
+                List<Game> cartridgeGames = cartridges.get(i).getGames();
+                jobs.add(new RomSetJob(manifest.getOutputPath(i + 1),
+                        newExporterBuilder(manifest).withGames(cartridgeGames), cartridgeGames.size()));
+            }
+        } else {
+            jobs.add(new RomSetJob(manifest.getOutputPath(),
+                    newExporterBuilder(manifest).withGames(games), games.size()));
+        }
+        return jobs;
+    }
+
+    public List<Path> build(Path manifestPath) throws IOException {
+        List<Path> outputs = new ArrayList<>();
+        for (RomSetJob job : prepare(manifestPath)) {
+            outputs.add(job.run());
+        }
+        return outputs;
+    }
+
+    private static <T> Supplier<T> unchecked(Callable<T> callable) {
+        return () -> {
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    //The ROM sets of a split manifest are exported in parallel as well
+    private CompletableFuture<List<Path>> buildAsync(Path manifestPath, Executor executor) {
+        return CompletableFuture.supplyAsync(unchecked(() -> prepare(manifestPath)), executor)
+                .thenCompose(jobs -> {
+                    List<CompletableFuture<Path>> outputs = jobs.stream()
+                            .map(job -> CompletableFuture.supplyAsync(unchecked(job::run), executor))
+                            .collect(Collectors.toList());
+                    return CompletableFuture.allOf(outputs.toArray(new CompletableFuture<?>[0]))
+                            .thenApply(v -> outputs.stream()
+                                    .map(CompletableFuture::join)
+                                    .collect(Collectors.toList()));
+                });
+    }
+
+    /*
+     * Builds all the manifests, returning the failure for every manifest
+     * that could not be built. An empty map means everything went fine
+     */
+    public Map<Path, Exception> buildAll(List<Path> manifests) throws InterruptedException {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                r -> {
+                    Thread t = new Thread(r, "RomSet Builder Thread " + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        try {
+            Map<Path, Future<List<Path>>> results = new LinkedHashMap<>();
+            for (Path manifest : manifests) {
+                results.put(manifest, buildAsync(manifest, executor));
+            }
+            Map<Path, Exception> failures = new LinkedHashMap<>();
+            for (Map.Entry<Path, Future<List<Path>>> result : results.entrySet()) {
+                try {
+                    result.getValue().get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null ?
+                            e.getCause().getCause() : e.getCause();
+                    LOGGER.error("Building ROM set from {}", result.getKey(), cause);
+                    failures.put(result.getKey(), cause instanceof Exception ? (Exception) cause : e);
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Path> expandManifests(List<String> arguments) throws IOException {
+        List<Path> manifests = new ArrayList<>();
+        for (String argument : arguments) {
+            Path path = Paths.get(argument);
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, MANIFEST_GLOB)) {
+                    stream.forEach(manifests::add);
+                }
+            } else {
+                manifests.add(path);
+            }
+        }
+        return manifests;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-j".equals(args[i]) && i + 1 < args.length) {
+                parallelism = Integer.parseInt(args[++i]);
+            } else {
+                arguments.add(args[i]);
+            }
+        }
+        List<Path> manifests = expandManifests(arguments);
+        if (manifests.isEmpty()) {
+            System.err.println("Usage: " + BatchRomSetBuilder.class.getName() +
+                    " [-j threads] manifest.json|directory...");
+            System.exit(2);
+        }
+
+        long start = System.currentTimeMillis();
+        BatchRomSetBuilder builder = new BatchRomSetBuilder(parallelism);
+        Map<Path, Exception> failures = builder.buildAll(manifests);
+        LOGGER.info("Built {} of {} ROM sets in {}ms. Compression cache hits: {}",
+                manifests.size() - failures.size(), manifests.size(),
+                System.currentTimeMillis() - start, builder.getCompressionCacheHits());
+        failures.forEach((manifest, e) ->
+                System.err.println(manifest + ": " + e.getMessage()));
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+}
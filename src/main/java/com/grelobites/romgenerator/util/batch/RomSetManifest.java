@@ -0,0 +1,249 @@
+package com.grelobites.romgenerator.util.batch;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Description of a ROM set for headless builds, read from a JSON file.
+ * Relative paths are resolved against the directory of the manifest.
+ */
+public class RomSetManifest {
+    private static final String DEFAULT_OUTPUT_EXTENSION = ".rom";
+
+    public static class GameEntry {
+        private String file;
+        private String name;
+        private String pokes;
+        private Boolean compressed;
+        private Boolean holdScreen;
+        private String group;
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getPokes() {
+            return pokes;
+        }
+
+        public void setPokes(String pokes) {
+            this.pokes = pokes;
+        }
+
+        public Boolean getCompressed() {
+            return compressed;
+        }
+
+        public void setCompressed(Boolean compressed) {
+            this.compressed = compressed;
+        }
+
+        public Boolean getHoldScreen() {
+            return holdScreen;
+        }
+
+        public void setHoldScreen(Boolean holdScreen) {
+            this.holdScreen = holdScreen;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public void setGroup(String group) {
+            this.group = group;
+        }
+
+        @Override
+        public String toString() {
+            return "GameEntry{" +
+                    "file='" + file + '\'' +
+                    ", name='" + name + '\'' +
+                    ", pokes='" + pokes + '\'' +
+                    ", group='" + group + '\'' +
+                    '}';
+        }
+    }
+
+    private String output;
+    private List<GameEntry> games = new ArrayList<>();
+    private String background;
+    private String charset;
+    private String dandanatorRom;
+    private String extraRom;
+    private Boolean includeExtraRom;
+    private Boolean enforceFollowRom;
+    private Boolean autoboot;
+    private String compressor;
+    private Boolean split;
+    private transient Path source;
+
+    public static RomSetManifest fromFile(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            RomSetManifest manifest = new Gson().fromJson(reader, RomSetManifest.class);
+            if (manifest == null) {
+                throw new IOException("Empty manifest " + path);
+            }
+            manifest.source = path;
+            return manifest;
+        } catch (JsonParseException e) {
+            throw new IOException("Parsing manifest " + path, e);
+        }
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    public void setSource(Path source) {
+        this.source = source;
+    }
+
+    public Path resolve(String value) {
+        if (value == null) {
+            return null;
+        }
+        Path directory = source != null ? source.toAbsolutePath().getParent() : null;
+        return directory != null ? directory.resolve(value) : Paths.get(value);
+    }
+
+    public Path getOutputPath() {
+        if (output != null) {
+            return resolve(output);
+        }
+        String name = source.getFileName().toString();
+        int extensionIndex = name.lastIndexOf('.');
+        return source.resolveSibling((extensionIndex > 0 ? name.substring(0, extensionIndex) : name)
+                + DEFAULT_OUTPUT_EXTENSION);
+    }
+
+    //Output of every ROM set of a split manifest, numbered from 1
+    public Path getOutputPath(int index) {
+        Path path = getOutputPath();
+        String name = path.getFileName().toString();
+        int extensionIndex = name.lastIndexOf('.');
+        return extensionIndex > 0 ?
+                path.resolveSibling(name.substring(0, extensionIndex) + "-" + index + name.substring(extensionIndex)) :
+                path.resolveSibling(name + "-" + index);
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public List<GameEntry> getGames() {
+        return games;
+    }
+
+    public void setGames(List<GameEntry> games) {
+        this.games = games;
+    }
+
+    public String getBackground() {
+        return background;
+    }
+
+    public void setBackground(String background) {
+        this.background = background;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    public String getDandanatorRom() {
+        return dandanatorRom;
+    }
+
+    public void setDandanatorRom(String dandanatorRom) {
+        this.dandanatorRom = dandanatorRom;
+    }
+
+    public String getExtraRom() {
+        return extraRom;
+    }
+
+    public void setExtraRom(String extraRom) {
+        this.extraRom = extraRom;
+    }
+
+    public Boolean getIncludeExtraRom() {
+        return includeExtraRom;
+    }
+
+    public void setIncludeExtraRom(Boolean includeExtraRom) {
+        this.includeExtraRom = includeExtraRom;
+    }
+
+    public Boolean getEnforceFollowRom() {
+        return enforceFollowRom;
+    }
+
+    public void setEnforceFollowRom(Boolean enforceFollowRom) {
+        this.enforceFollowRom = enforceFollowRom;
+    }
+
+    public Boolean getAutoboot() {
+        return autoboot;
+    }
+
+    public void setAutoboot(Boolean autoboot) {
+        this.autoboot = autoboot;
+    }
+
+    public String getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(String compressor) {
+        this.compressor = compressor;
+    }
+
+    public Boolean getSplit() {
+        return split;
+    }
+
+    public void setSplit(Boolean split) {
+        this.split = split;
+    }
+
+    @Override
+    public String toString() {
+        return "RomSetManifest{" +
+                "source=" + source +
+                ", output='" + output + '\'' +
+                ", games=" + games.size() +
+                ", compressor='" + compressor + '\'' +
+                ", split=" + split +
+                '}';
+    }
+}
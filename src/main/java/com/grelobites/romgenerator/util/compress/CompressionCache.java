@@ -0,0 +1,153 @@
+package com.grelobites.romgenerator.util.compress;
+
+import com.grelobites.romgenerator.util.RamGameCompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * RamGameCompressor that remembers the results for the slot contents it has
+ * seen, so the same game appearing in several ROM sets is compressed once.
+ * Concurrent requests for the same contents wait for the first one.
+ * Results are kept in least recently used order up to a total size, so long
+ * runs don't hold every compressed game.
+ */
+public class CompressionCache implements RamGameCompressor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressionCache.class);
+
+    private static class Key {
+        private final int slot;
+        private final byte[] digest;
+
+        public Key(int slot, byte[] digest) {
+            this.slot = slot;
+            this.digest = digest;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return slot == key.slot && Arrays.equals(digest, key.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * slot + Arrays.hashCode(digest);
+        }
+    }
+
+    //Around 500 games worth of compressed slots
+    private static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+    private final RamGameCompressor delegate;
+    private final long maxBytes;
+    private final ConcurrentMap<Key, FutureTask<byte[]>> pending = new ConcurrentHashMap<>();
+    //Access ordered. Guarded by itself
+    private final LinkedHashMap<Key, byte[]> completed = new LinkedHashMap<>(16, 0.75f, true);
+    private long completedBytes;
+    private final AtomicInteger hits = new AtomicInteger();
+
+    public CompressionCache(RamGameCompressor delegate, long maxBytes) {
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+    }
+
+    public CompressionCache(RamGameCompressor delegate) {
+        this(delegate, DEFAULT_MAX_BYTES);
+    }
+
+    private byte[] getCompleted(Key key) {
+        synchronized (completed) {
+            return completed.get(key);
+        }
+    }
+
+    private void putCompleted(Key key, byte[] value) {
+        synchronized (completed) {
+            byte[] previous = completed.put(key, value);
+            completedBytes += value.length - (previous != null ? previous.length : 0);
+            Iterator<Map.Entry<Key, byte[]>> eldest = completed.entrySet().iterator();
+            while (completedBytes > maxBytes && eldest.hasNext()) {
+                completedBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private static byte[] digest(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public byte[] compressSlot(int slot, byte[] data) {
+        Key key = new Key(slot, digest(data));
+        byte[] cached = getCompleted(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        FutureTask<byte[]> task = new FutureTask<>(() -> delegate.compressSlot(slot, data));
+        FutureTask<byte[]> existing = pending.putIfAbsent(key, task);
+        boolean owner = existing == null;
+        if (owner) {
+            task.run();
+        } else {
+            hits.incrementAndGet();
+            task = existing;
+        }
+        try {
+            byte[] result = task.get();
+            if (owner) {
+                putCompleted(key, result);
+                pending.remove(key, task);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for compression", e);
+        } catch (ExecutionException e) {
+            //Let a later request try again
+            pending.remove(key, task);
+            LOGGER.debug("Compression failed for slot {}", slot, e.getCause());
+            throw e.getCause() instanceof RuntimeException ?
+                    (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public boolean canUncompress() {
+        return delegate.canUncompress();
+    }
+
+    @Override
+    public byte[] uncompressSlot(int slot, byte[] compressedData) {
+        return delegate.uncompressSlot(slot, compressedData);
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int size() {
+        synchronized (completed) {
+            return completed.size();
+        }
+    }
+}
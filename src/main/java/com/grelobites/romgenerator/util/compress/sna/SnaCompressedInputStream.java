@@ -5,6 +5,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class SnaCompressedInputStream extends InputStream {
     private static final Logger LOGGER = LoggerFactory.getLogger(SnaCompressedInputStream.class);
@@ -65,6 +67,38 @@ public class SnaCompressedInputStream extends InputStream {
         return sourceMark;
     }
 
+    /*
+     * Decodes the remaining bytes of the source buffer in one go, without
+     * going through a stream. Works on any buffer, including mapped ones
+     */
+    public static byte[] decompress(ByteBuffer source, int expectedSize) {
+        byte[] target = new byte[expectedSize];
+        int length = 0;
+        while (source.hasRemaining()) {
+            int value = Byte.toUnsignedInt(source.get());
+            int count = 1;
+            if (value == CONTROL_BYTE) {
+                if (!source.hasRemaining()) {
+                    break;
+                }
+                count = Byte.toUnsignedInt(source.get());
+                if (count == 0) {
+                    count = 1;
+                } else if (source.hasRemaining()) {
+                    value = Byte.toUnsignedInt(source.get());
+                } else {
+                    break;
+                }
+            }
+            if (length + count > target.length) {
+                target = Arrays.copyOf(target, Math.max(length + count, target.length * 2));
+            }
+            Arrays.fill(target, length, length + count, (byte) value);
+            length += count;
+        }
+        return length == target.length ? target : Arrays.copyOf(target, length);
+    }
+
     @Override
     public int read() throws IOException {
         if (cachedCount > 0) {
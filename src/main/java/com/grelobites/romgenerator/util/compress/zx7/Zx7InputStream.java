@@ -6,15 +6,47 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+/*
+ * ZX7 decompressor.
+ * Forward data is decoded while it's read, keeping only the window that back
+ * references can reach. Backwards data has to be read completely first, and it's
+ * decoded from the end straight into its final position, as the Z80 routine does.
+ */
 public class Zx7InputStream extends FilterInputStream {
     private static final Logger LOGGER = LoggerFactory.getLogger(Zx7InputStream.class);
 
+    //Power of two above the maximum offset (2176)
+    private static final int WINDOW_SIZE = 4096;
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+    private static final int INPUT_BUFFER_SIZE = 512;
+    private static final int END = -1;
+    private static final int LITERAL = 0;
+
     private boolean backwards = Zx7Compressor.BACKWARDS_DEFAULT;
-    private ByteArrayInputStream uncompressedStream;
+
+    //Input, either buffered from the stream or the whole backwards data
+    private byte[] input;
+    private int inputIndex;
+    private int inputLimit;
+    private int bitMask;
+    private int bitValue;
+
+    //Decoder state
+    private boolean started;
+    private boolean ended;
+    private int literal;
+    private int matchOffset;
+    private int matchRemaining;
+    private byte[] window;
+    private int written;
+
+    private ByteArrayInputStream backwardsStream;
+    private final byte[] singleByte = new byte[1];
 
     public Zx7InputStream(InputStream in, boolean backwards) {
         this(in);
@@ -25,29 +57,218 @@ public class Zx7InputStream extends FilterInputStream {
         super(in);
     }
 
+    private int readRawByte() throws IOException {
+        if (backwards) {
+            return inputIndex >= 0 ? Byte.toUnsignedInt(input[inputIndex--]) : -1;
+        }
+        if (inputIndex == inputLimit) {
+            if (input == null) {
+                input = new byte[INPUT_BUFFER_SIZE];
+            }
+            inputLimit = in.read(input, 0, input.length);
+            inputIndex = 0;
+            if (inputLimit <= 0) {
+                inputLimit = 0;
+                return -1;
+            }
+        }
+        return Byte.toUnsignedInt(input[inputIndex++]);
+    }
+
+    private int readByte() throws IOException {
+        int value = readRawByte();
+        if (value < 0) {
+            throw new EOFException("Truncated ZX7 data");
+        }
+        return value;
+    }
+
+    private boolean readBit() throws IOException {
+        bitMask >>= 1;
+        if (bitMask == 0) {
+            bitMask = 128;
+            bitValue = readByte();
+        }
+        return (bitValue & bitMask) != 0;
+    }
+
+    private int readEliasGamma() throws IOException {
+        int i = 0;
+        while (!readBit()) {
+            i++;
+        }
+        if (i > 15) {
+            return -1;
+        }
+
+        int value = 1;
+        while (i-- > 0) {
+            value = (value << 1) | (readBit() ? 1 : 0);
+        }
+        return value;
+    }
+
+    private int readOffset() throws IOException {
+        int value = readByte();
+        if (value < 128) {
+            return value;
+        } else {
+            int i = readBit() ? 1 : 0;
+            i = (i << 1) | (readBit() ? 1 : 0);
+            i = (i << 1) | (readBit() ? 1 : 0);
+            i = (i << 1) | (readBit() ? 1 : 0);
+            return (value & 127 | i << 7) + 128;
+        }
+    }
+
+    //Literal (value in literal), back reference length (offset in matchOffset) or END
+    private int nextToken() throws IOException {
+        if (!started) {
+            started = true;
+            literal = readRawByte();
+            return literal < 0 ? END : LITERAL;
+        } else if (!readBit()) {
+            literal = readByte();
+            return LITERAL;
+        } else {
+            int length = readEliasGamma() + 1;
+            if (length == 0) {
+                return END;
+            }
+            matchOffset = readOffset() + 1;
+            if (matchOffset > written) {
+                throw new IOException("Invalid compressed data. Reference before start of data");
+            }
+            return length;
+        }
+    }
+
+    private void emit(byte[] b, int index, int value) {
+        window[written++ & WINDOW_MASK] = (byte) value;
+        b[index] = (byte) value;
+    }
+
+    private int readForward(byte[] b, int off, int len) throws IOException {
+        if (window == null) {
+            window = new byte[WINDOW_SIZE];
+        }
+        int count = 0;
+        while (count < len) {
+            if (matchRemaining > 0) {
+                emit(b, off + count++, window[(written - matchOffset) & WINDOW_MASK]);
+                matchRemaining--;
+            } else if (ended) {
+                break;
+            } else {
+                int token = nextToken();
+                if (token == END) {
+                    ended = true;
+                } else if (token == LITERAL) {
+                    emit(b, off + count++, literal);
+                } else {
+                    matchRemaining = token;
+                }
+            }
+        }
+        return count == 0 && len > 0 ? -1 : count;
+    }
+
+    //Decodes backwards data with its last byte at dst[end - 1]. Returns the index of the first byte
+    private int decodeBackwards(byte[] dst, int start, int end) throws IOException {
+        input = Util.fromInputStream(in);
+        inputIndex = input.length - 1;
+        int position = end;
+        int token;
+        while ((token = nextToken()) != END) {
+            int length = token == LITERAL ? 1 : token;
+            if (position - length < start) {
+                throw new IOException("Uncompressed data doesn't fit in destination");
+            }
+            if (token == LITERAL) {
+                dst[--position] = (byte) literal;
+            } else {
+                while (length-- > 0) {
+                    position--;
+                    dst[position] = dst[position + matchOffset];
+                }
+            }
+            written = end - position;
+        }
+        ended = true;
+        LOGGER.debug("Uncompressed {} backwards bytes", end - position);
+        return position;
+    }
+
+    /*
+     * Decompresses the rest of the stream into dst starting at off and returns its
+     * length. Backwards data is decoded against the end of dst, so all the space
+     * from off on can be used, and moved to off afterwards if shorter
+     */
+    public int decompressInto(byte[] dst, int off) throws IOException {
+        if (backwards) {
+            int start = decodeBackwards(dst, off, dst.length);
+            int length = dst.length - start;
+            if (start != off) {
+                System.arraycopy(dst, start, dst, off, length);
+            }
+            backwardsStream = new ByteArrayInputStream(new byte[0]);
+            return length;
+        } else {
+            int length = 0;
+            int count;
+            while (off + length < dst.length &&
+                    (count = readForward(dst, off + length, dst.length - off - length)) > 0) {
+                length += count;
+            }
+            if (matchRemaining > 0 || (!ended && nextToken() != END)) {
+                throw new IOException("Uncompressed data doesn't fit in destination");
+            }
+            return length;
+        }
+    }
+
+    private ByteArrayInputStream getBackwardsStream() throws IOException {
+        if (backwardsStream == null) {
+            byte[] buffer = new byte[Zx7Compressor.MAX_SIZE];
+            int start = decodeBackwards(buffer, 0, buffer.length);
+            backwardsStream = new ByteArrayInputStream(buffer, start, buffer.length - start);
+        }
+        return backwardsStream;
+    }
+
     @Override
     public int read() throws IOException {
-        return getUncompressedStream().read();
+        return read(singleByte, 0, 1) == 1 ? Byte.toUnsignedInt(singleByte[0]) : -1;
     }
 
     @Override
     public int read(byte[] b) throws IOException {
-        return getUncompressedStream().read(b);
+        return read(b, 0, b.length);
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-        return getUncompressedStream().read(b, off, len);
+        if (backwards) {
+            return getBackwardsStream().read(b, off, len);
+        } else {
+            return readForward(b, off, len);
+        }
     }
 
     @Override
     public long skip(long n) throws IOException {
-        return getUncompressedStream().skip(n);
+        byte[] buffer = new byte[(int) Math.min(n, INPUT_BUFFER_SIZE)];
+        long skipped = 0;
+        int count;
+        while (skipped < n && (count = read(buffer, 0, (int) Math.min(n - skipped, buffer.length))) > 0) {
+            skipped += count;
+        }
+        return skipped;
     }
 
     @Override
     public int available() throws IOException {
-        return getUncompressedStream().available();
+        return backwards ? getBackwardsStream().available() : matchRemaining;
     }
 
     @Override
@@ -57,44 +278,16 @@ public class Zx7InputStream extends FilterInputStream {
 
     @Override
     public synchronized void mark(int readlimit) {
-        getUncompressedStream().mark(readlimit);
     }
 
     @Override
     public synchronized void reset() throws IOException {
-        getUncompressedStream().reset();
+        throw new IOException("Mark not supported");
     }
 
     @Override
     public boolean markSupported() {
-        return getUncompressedStream().markSupported();
-    }
-
-    private ByteArrayInputStream getUncompressedStream() {
-        if (uncompressedStream == null) {
-            try {
-                byte[] uncompressedByteArray = uncompress(
-                        backwards ?
-                                Util.reverseByteArray(Util.fromInputStream(in)) :
-                                Util.fromInputStream(in));
-                LOGGER.debug("Uncompressing byte array of size " + uncompressedByteArray.length
-                        + ", backwards: " + backwards);
-                uncompressedStream = new ByteArrayInputStream(
-                        backwards ?
-                                Util.reverseByteArray(uncompressedByteArray) :
-                                uncompressedByteArray);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        return uncompressedStream;
-    }
-
-    private byte[] uncompress(byte[] data) throws IOException {
-        UncompressedByteArrayReader reader = new UncompressedByteArrayReader(data);
-
-        return reader.uncompress();
-
+        return false;
     }
 
 }
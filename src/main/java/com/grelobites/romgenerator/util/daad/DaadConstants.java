@@ -1,6 +1,7 @@
 package com.grelobites.romgenerator.util.daad;
 
 import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.resource.LazyResource;
 
 import java.io.IOException;
 
@@ -13,27 +14,23 @@ public class DaadConstants {
     public static final String MLD_SIGNATURE = "MLD";
 
     private static final String DAAD_LOADER_RESOURCE = "daad/loader.bin";
-    private static byte[] DAAD_LOADER;
+    private static final LazyResource<byte[]> DAAD_LOADER = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DaadConstants.class.getClassLoader()
+                            .getResourceAsStream(DAAD_LOADER_RESOURCE)));
 
     private static final String DAAD_SCREEN_RESOURCE = "daad/screen.scr";
-    private static byte[] DAAD_SCREEN;
+    private static final LazyResource<byte[]> DAAD_SCREEN = new LazyResource<>(() ->
+            Util.fromInputStream(
+                    DaadConstants.class.getClassLoader()
+                            .getResourceAsStream(DAAD_SCREEN_RESOURCE)));
 
     public static byte[] getDAADLoader() throws IOException {
-        if (DAAD_LOADER == null) {
-            DAAD_LOADER = Util.fromInputStream(
-                    DaadConstants.class.getClassLoader()
-                            .getResourceAsStream(DAAD_LOADER_RESOURCE));
-        }
-        return DAAD_LOADER;
+        return DAAD_LOADER.get();
     }
 
     public static byte[] getDefaultScreen() throws IOException {
-        if (DAAD_SCREEN == null) {
-            DAAD_SCREEN = Util.fromInputStream(
-                    DaadConstants.class.getClassLoader()
-                            .getResourceAsStream(DAAD_SCREEN_RESOURCE));
-        }
-        return DAAD_SCREEN;
+        return DAAD_SCREEN.get();
     }
 
 }
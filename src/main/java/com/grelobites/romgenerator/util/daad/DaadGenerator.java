@@ -2,6 +2,7 @@ package com.grelobites.romgenerator.util.daad;
 
 import com.grelobites.romgenerator.Constants;
 import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.compress.Compressor;
 import com.grelobites.romgenerator.util.pack.Container;
 import com.grelobites.romgenerator.util.pack.PackAlgorithms;
 import org.slf4j.Logger;
@@ -11,11 +12,16 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class DaadGenerator {
     private static final Logger LOGGER = LoggerFactory.getLogger(DaadGenerator.class);
+    private static final int MAX_SLOTS = 29;
+    private static final long PACK_SEARCH_NODES = 1000000;
 
     private static class SlotContainer implements Container<RelocatableItem> {
         public int remaining = Constants.SLOT_SIZE;
@@ -44,19 +50,12 @@ public class DaadGenerator {
 
     private static List<SlotContainer> performBinPack(SlotContainer slot0,
                                                       List<RelocatableItem> items) {
-        List<SlotContainer> slots = new ArrayList<>();
-        for (int i = 0; i < 29; i++) {
-            slots.add(new SlotContainer());
+        List<SlotContainer> slots = PackAlgorithms.binOptimalPack(SlotContainer::new,
+                items, PACK_SEARCH_NODES);
+        if (slots.size() > MAX_SLOTS) {
+            throw new IllegalArgumentException("Unable to pack DAAD data in " + MAX_SLOTS +
+                    " slots. Required " + slots.size());
         }
-        PackAlgorithms.binBFDPack(slots, items);
-        //Remove unused slots
-        for (int i = slots.size() - 1; i >= 0; i--) {
-            if (slots.get(i).items.size() == 0) {
-                slots.remove(i);
-            }
-        }
-        LOGGER.debug("Slot count after pruning {}", slots.size());
-
         int slotId = 1;
         for (SlotContainer slot: slots) {
             int currentOffset = 0;
@@ -107,13 +106,47 @@ public class DaadGenerator {
         }
     }
 
+    private static byte[] compress(Compressor compressor, byte[] data) {
+        try {
+            ByteArrayOutputStream target = new ByteArrayOutputStream();
+            try (OutputStream os = compressor.getCompressingOutputStream(target)) {
+                os.write(data);
+            }
+            return target.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Screen and binary parts are compressed in parallel. Resources are stored as is
+    private static byte[][] compressAll(byte[]... sources) throws IOException {
+        Compressor compressor = Util.getCompressor();
+        try {
+            return Arrays.stream(sources).parallel()
+                    .map(source -> compress(compressor, source))
+                    .toArray(byte[][]::new);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     public InputStream generate() throws IOException {
+        DaadScreen screen = data.getScreen();
+        byte[][] sources = new byte[screen != null ? DaadConstants.BINARY_PARTS + 1 :
+                DaadConstants.BINARY_PARTS][];
+        for (int i = 0; i < DaadConstants.BINARY_PARTS; i++) {
+            sources[i] = data.getBinaryPart(i).getData();
+        }
+        if (screen != null) {
+            sources[DaadConstants.BINARY_PARTS] = screen.getData();
+        }
+        byte[][] compressed = compressAll(sources);
+
         SlotContainer slot0 = new SlotContainer();
         slot0.remaining -= DaadConstants.getDAADLoader().length;
         slot0.remaining -= DaadConstants.METADATA_SIZE;
-        if (data.getScreen() != null) {
-            DaadScreen screen = data.getScreen();
-            byte[] compressedScreen = Util.compress(screen.getData());
+        if (screen != null) {
+            byte[] compressedScreen = compressed[DaadConstants.BINARY_PARTS];
             screen.setSlotOffset(Constants.SLOT_SIZE - slot0.remaining);
             screen.setData(compressedScreen);
             slot0.remaining -= compressedScreen.length;
@@ -121,7 +154,7 @@ public class DaadGenerator {
         List<RelocatableItem> items = new ArrayList<>();
         for (int i = 0; i < DaadConstants.BINARY_PARTS; i++) {
             DaadBinary part = data.getBinaryPart(i);
-            part.setData(Util.compress(part.getData()));
+            part.setData(compressed[i]);
             items.add(part);
         }
         items.addAll(data.getDAADResources());
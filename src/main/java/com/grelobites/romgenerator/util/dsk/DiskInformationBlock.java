@@ -23,6 +23,7 @@ public class DiskInformationBlock {
     private int trackCount;
     private int sideCount;
     private int trackSize;
+    private byte[] trackSizeTable = new byte[0];
 
     public static class Builder {
         DiskInformationBlock diskInformationBlock = new DiskInformationBlock();
@@ -77,6 +78,9 @@ public class DiskInformationBlock {
         block.trackCount = header.get();
         block.sideCount = header.get();
         block.trackSize = header.getShort();
+        //Extended images store the size of each track (MSB only) after the header
+        block.trackSizeTable = new byte[header.remaining()];
+        header.get(block.trackSizeTable);
 
         return block;
     }
@@ -111,6 +115,14 @@ public class DiskInformationBlock {
         return trackSize;
     }
 
+    public boolean isExtended() {
+        return magic != null && magic.startsWith(EXTENDED_DSK_PREFIX);
+    }
+
+    public int getExtendedTrackSize(int index) {
+        return index < trackSizeTable.length ? (trackSizeTable[index] & 0xff) << 8 : 0;
+    }
+
     @Override
     public String toString() {
         return "DiskInformationBlock{" +
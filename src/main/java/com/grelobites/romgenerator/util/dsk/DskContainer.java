@@ -4,9 +4,14 @@ import com.grelobites.romgenerator.util.Util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 public class DskContainer {
     private static final Logger LOGGER = LoggerFactory.getLogger(DskContainer.class);
@@ -44,25 +49,73 @@ public class DskContainer {
     }
 
     public static DskContainer fromInputStream(InputStream data) throws IOException {
-        DiskInformationBlock diskInformationBlock = DiskInformationBlock.fromInputStream(data);
+        return fromBuffer(ByteBuffer.wrap(Util.fromInputStream(data)));
+    }
+
+    /*
+     * The file is mapped and only track headers are parsed upfront. Sector
+     * contents stay in the mapping until they are first needed
+     */
+    public static DskContainer fromFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return fromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static DskContainer fromBuffer(ByteBuffer data) throws IOException {
+        ByteBuffer buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < DiskInformationBlock.BLOCK_SIZE) {
+            throw new IOException("Truncated Dsk container");
+        }
+        byte[] header = new byte[DiskInformationBlock.BLOCK_SIZE];
+        buffer.get(header);
+        DiskInformationBlock diskInformationBlock = DiskInformationBlock.fromByteArray(header);
         LOGGER.debug("Disk Information block: " + diskInformationBlock);
+        boolean extended = diskInformationBlock.isExtended();
         Track[] tracks = new Track[diskInformationBlock.getTrackCount()];
-        int i = 0;
-        for (i = 0; i < diskInformationBlock.getTrackCount(); i++) {
+        int trackOffset = DiskInformationBlock.BLOCK_SIZE;
+        for (int i = 0; i < diskInformationBlock.getTrackCount(); i++) {
+            int trackSize = extended ? diskInformationBlock.getExtendedTrackSize(i) : 0;
+            if (extended && trackSize == 0) {
+                LOGGER.debug("Skipping unformatted track {}", i);
+                continue;
+            }
             try {
-                TrackInformationBlock trackInformationBlock = TrackInformationBlock.fromInputStream(data);
-                Track track = new Track(trackInformationBlock);
-                for (int j = 0; j < trackInformationBlock.getSectorCount(); j++) {
-                    track.setSectorData(j, Util.fromInputStream(data, trackInformationBlock.getSectorSize()));
+                buffer.position(trackOffset);
+                TrackInformationBlock trackInformationBlock = TrackInformationBlock.fromByteBuffer(buffer);
+                SectorInformationBlock[] sectors = trackInformationBlock.getSectorInformationList();
+                ByteBuffer[] sectorData = new ByteBuffer[sectors.length];
+                int sectorOffset = trackOffset + TrackInformationBlock.BLOCK_SIZE;
+                for (int j = 0; j < sectors.length; j++) {
+                    int sectorSize = extended ? sectors[j].getDataLength() : trackInformationBlock.getSectorSize();
+                    sectorData[j] = slice(buffer, sectorOffset, sectorSize);
+                    sectorOffset += sectorSize;
                 }
-                tracks[trackInformationBlock.getTrackNumber()] = track;
+                if (!extended) {
+                    trackSize = sectorOffset - trackOffset;
+                }
+                tracks[trackInformationBlock.getTrackNumber()] = new Track(trackInformationBlock, sectorData);
             } catch (Exception e) {
                 LOGGER.warn("Unable to read track from Dsk container", e);
+                if (!extended) {
+                    break;
+                }
             }
+            trackOffset += trackSize;
         }
         return new DskContainer(diskInformationBlock, tracks);
     }
 
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        if (offset + length > buffer.limit()) {
+            throw new IllegalArgumentException("Sector data out of Dsk container bounds");
+        }
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return slice.slice();
+    }
+
     public void dumpRawData(OutputStream os) throws IOException {
         for (Track track : tracks) {
             LOGGER.trace("Dumping information for track " + track.getInformation());
@@ -3,6 +3,7 @@ package com.grelobites.romgenerator.util.dsk;
 import com.grelobites.romgenerator.model.Game;
 import com.grelobites.romgenerator.model.HardwareMode;
 import com.grelobites.romgenerator.util.emulator.BaseEmulator;
+import com.grelobites.romgenerator.util.emulator.StopCondition;
 import com.grelobites.romgenerator.util.emulator.resources.LoaderResources;
 import com.grelobites.romgenerator.util.filesystem.AmsdosHeader;
 import com.grelobites.romgenerator.util.filesystem.Archive;
@@ -12,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Comparator;
@@ -121,9 +123,11 @@ public class DskLoader extends BaseEmulator {
                             nec765.getStatistics());
                     if (nec765.getStatistics().getBytesRead() < DISK_READ_THRESHOLD && !keyboardInput) {
                         LOGGER.info("Trying to force load resume with keyboard input");
+                        onStopCondition(StopCondition.DISK_KEYBOARD_RESUME);
                         enterCommand("1");
                         keyboardInput = true;
                     } else {
+                        onStopCondition(StopCondition.DISK_INACTIVITY);
                         executionAborted = true;
                     }
                 }
@@ -132,7 +136,14 @@ public class DskLoader extends BaseEmulator {
         return getSnapshotGame();
     }
     public Game loadDsk(InputStream dskFile) throws IOException {
-        DskContainer container = DskContainer.fromInputStream(dskFile);
+        return loadDsk(DskContainer.fromInputStream(dskFile));
+    }
+
+    public Game loadDsk(File dskFile) throws IOException {
+        return loadDsk(DskContainer.fromFile(dskFile));
+    }
+
+    private Game loadDsk(DskContainer container) throws IOException {
         String command = guessBootstrapCommand(container);
         return loadFromDskAndCommand(container, command);
     }
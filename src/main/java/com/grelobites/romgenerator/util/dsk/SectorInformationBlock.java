@@ -15,6 +15,7 @@ public class SectorInformationBlock {
     private int sectorSize;
     private int fdcStatusRegister1;
     private int fdcStatusRegister2;
+    private int dataLength;
     private int physicalPosition;
 
     public static class Builder {
@@ -71,14 +72,15 @@ public class SectorInformationBlock {
 
     public static SectorInformationBlock fromByteArray(byte[] data) {
         SectorInformationBlock block = new SectorInformationBlock();
-        ByteBuffer header = ByteBuffer.wrap(data);
+        ByteBuffer header = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
         block.track = header.get();
         block.side = header.get();
         block.sectorId = header.get() & 0xff;
         block.sectorSize = header.get();
         block.fdcStatusRegister1 = header.get();
         block.fdcStatusRegister2 = header.get();
-
+        //Actual sector data length. Only meaningful in extended DSK images
+        block.dataLength = header.getShort() & 0xffff;
         return block;
     }
 
@@ -117,6 +119,10 @@ public class SectorInformationBlock {
         return fdcStatusRegister2;
     }
 
+    public int getDataLength() {
+        return dataLength;
+    }
+
     public int getPhysicalPosition() {
         return physicalPosition;
     }
@@ -134,6 +140,7 @@ public class SectorInformationBlock {
                 ", sectorSize=" + sectorSize +
                 ", fdcStatusRegister1=" + fdcStatusRegister1 +
                 ", fdcStatusRegister2=" + fdcStatusRegister2 +
+                ", dataLength=" + dataLength +
                 ", physicalPosition=" + physicalPosition +
                 '}';
     }
@@ -1,25 +1,70 @@
 package com.grelobites.romgenerator.util.dsk;
 
+import java.nio.ByteBuffer;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class Track {
     private TrackInformationBlock trackInformationBlock;
     private byte[][] data;
+    private ByteBuffer[] sourceData;
+    private Map<Integer, SectorInformationBlock> sectorIndex;
 
     public Track(TrackInformationBlock trackInformationBlock) {
         this.trackInformationBlock = trackInformationBlock;
         data = new byte[trackInformationBlock.getSectorCount()][trackInformationBlock.getSectorSize()];
     }
 
+    /*
+     * Track backed by (possibly memory mapped) sector slices. Each sector is
+     * only copied into its own array when it is first requested, so that
+     * writes never reach the source buffer.
+     */
+    public Track(TrackInformationBlock trackInformationBlock, ByteBuffer[] sourceData) {
+        this.trackInformationBlock = trackInformationBlock;
+        this.sourceData = sourceData;
+        data = new byte[trackInformationBlock.getSectorCount()][];
+    }
+
     public void setSectorData(int sector, byte[] data) {
         this.data[sector] = data;
     }
 
     public byte[] getSectorData(int sector) {
-        return this.data[sector];
+        if (data[sector] == null) {
+            ByteBuffer source = sourceData[sector].duplicate();
+            byte[] sectorData = new byte[source.remaining()];
+            source.get(sectorData);
+            data[sector] = sectorData;
+        }
+        return data[sector];
+    }
+
+    public void copySectorData(int sector, byte[] target, int length) {
+        if (data[sector] != null) {
+            System.arraycopy(data[sector], 0, target, 0, length);
+        } else {
+            sourceData[sector].duplicate().get(target, 0, length);
+        }
+    }
+
+    /*
+     * First sector in physical order with the given id (R), as the controller
+     * would find it while the track spins
+     */
+    public SectorInformationBlock findSector(int sectorId) {
+        if (sectorIndex == null) {
+            Map<Integer, SectorInformationBlock> index = new HashMap<>();
+            for (SectorInformationBlock sectorInfo : trackInformationBlock.getSectorInformationList()) {
+                index.putIfAbsent(sectorInfo.getSectorId(), sectorInfo);
+            }
+            sectorIndex = index;
+        }
+        return sectorIndex.get(sectorId);
     }
 
     public List<Integer> orderedSectorList() {
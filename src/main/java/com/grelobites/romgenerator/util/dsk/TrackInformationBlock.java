@@ -88,6 +88,15 @@ public class TrackInformationBlock {
         return block;
     }
 
+    public static TrackInformationBlock fromByteBuffer(ByteBuffer data) {
+        byte[] header = new byte[BLOCK_SIZE];
+        data.get(header);
+        TrackInformationBlock block = fromByteArray(header);
+        LOGGER.trace("Track information is " + block);
+
+        return block;
+    }
+
     private static TrackInformationBlock fromByteArray(byte[] data) {
         ByteBuffer header = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
 
@@ -0,0 +1,98 @@
+package com.grelobites.romgenerator.util.eewriter;
+
+import com.grelobites.romgenerator.util.SerialPortConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Host side of the EEPROM writer protocol. The writer sends a SYNC mark, that
+ * also selects the speed of the next transfer, waits for the ACK and then
+ * requests a block by number. A failed block is requested again, so a block
+ * is only known to be written once the writer moves to another block or
+ * closes the communication with EOC.
+ */
+public class BlockRequestProtocol {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlockRequestProtocol.class);
+    public static final int MARK_SYNC_57600 = 0x55;
+    public static final int MARK_SYNC_115200 = 0xF0;
+    public static final int MARK_EOC = 0xAA;
+    public static final int MARK_ACK = 0xFF;
+    public static final int MAX_BLOCKS = 64;
+
+    public interface Handler {
+        void sendAck();
+        void sendBlock(int block, SerialPortConfiguration serialPortConfiguration) throws Exception;
+        void onBlockWritten(int block);
+        void onCommunicationClosed();
+    }
+
+    private final Handler handler;
+    private boolean dandanatorReady = false;
+    private boolean ignoreSyncRequest = false;
+    private int lastSentBlock = -1;
+    private SerialPortConfiguration sendSerialPortConfiguration = SerialPortConfiguration.MODE_57600;
+
+    public BlockRequestProtocol(Handler handler) {
+        this.handler = handler;
+    }
+
+    public void reset() {
+        dandanatorReady = false;
+        ignoreSyncRequest = false;
+        lastSentBlock = -1;
+    }
+
+    private void syncAck() {
+        if (!ignoreSyncRequest) {
+            LOGGER.debug("Dandanator ready to request data");
+            dandanatorReady = true;
+            ignoreSyncRequest = true;
+            handler.sendAck();
+        } else {
+            LOGGER.debug("Discarded SYNC request");
+        }
+    }
+
+    private void confirmLastSentBlock() {
+        if (lastSentBlock >= 0) {
+            handler.onBlockWritten(lastSentBlock);
+            lastSentBlock = -1;
+        }
+    }
+
+    public void onDataReceived(int value) {
+        if (value < MAX_BLOCKS) {
+            if (dandanatorReady) {
+                LOGGER.debug("Block {} Requested by serial port", value);
+                if (value != lastSentBlock) {
+                    confirmLastSentBlock();
+                }
+                try {
+                    handler.sendBlock(value, sendSerialPortConfiguration);
+                    lastSentBlock = value;
+                } catch (Exception e) {
+                    LOGGER.error("Sending block", e);
+                }
+                //Allow new sync requests to be ACK'd
+                ignoreSyncRequest = false;
+            } else {
+                LOGGER.warn("Received block request before SYNC (dandanator ready)");
+            }
+        } else if (value == MARK_EOC) {
+            LOGGER.debug("Received end of communications message");
+            confirmLastSentBlock();
+            dandanatorReady = false;
+            handler.onCommunicationClosed();
+        } else if (value == MARK_SYNC_57600) {
+            LOGGER.debug("Received 57600 SYNC");
+            syncAck();
+            sendSerialPortConfiguration = SerialPortConfiguration.MODE_57600;
+        } else if (value == MARK_SYNC_115200) {
+            LOGGER.debug("Received 115200 SYNC");
+            syncAck();
+            sendSerialPortConfiguration = SerialPortConfiguration.MODE_115200;
+        } else {
+            LOGGER.warn("Unexpected value {} received on serial port", value);
+        }
+    }
+}
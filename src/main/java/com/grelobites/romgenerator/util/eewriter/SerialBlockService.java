@@ -4,13 +4,14 @@ import com.grelobites.romgenerator.ApplicationContext;
 import com.grelobites.romgenerator.EepromWriterConfiguration;
 import com.grelobites.romgenerator.util.OperationResult;
 import com.grelobites.romgenerator.util.SerialPortConfiguration;
-import com.grelobites.romgenerator.util.SerialPortUtils;
 import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.metrics.Metrics;
+import com.grelobites.romgenerator.util.serial.JsscSerialTransport;
+import com.grelobites.romgenerator.util.serial.MeteredSerialTransport;
+import com.grelobites.romgenerator.util.serial.SerialTransport;
+import com.grelobites.romgenerator.util.serial.SerialTransportTimeoutException;
 import com.grelobites.romgenerator.view.EepromWriterController;
 import javafx.application.Platform;
-import jssc.SerialPort;
-import jssc.SerialPortException;
-import jssc.SerialPortTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,22 +19,20 @@ import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Optional;
-import java.util.concurrent.Future;
 
 public class SerialBlockService {
     private static final Logger LOGGER = LoggerFactory.getLogger(SerialBlockService.class);
     private static final String SERVICE_THREAD_NAME = "SerialBlockService";
-    private SerialPort serialPort;
+    private MeteredSerialTransport serialPort;
     private Thread serviceThread;
+    //Bounds the wait for the port output queue to drain before changing the speed
+    private static final long OUTPUT_DRAIN_TIMEOUT = 2000;
     private Runnable onDataReceived;
     private final EepromWriterController controller;
-    private boolean dandanatorReady = false;
-    private boolean ignoreSyncRequest = false;
-    private SerialPortConfiguration sendSerialPortConfiguration = SerialPortConfiguration.MODE_57600;
+    private final BlockRequestProtocol protocol = new BlockRequestProtocol(new ProtocolHandler());
+    private int writtenBlocks;
+    private int lastRequestedBlock = -1;
     private byte[] romsetByteArray;
-    private static final int MARK_SYNC_57600 = 0x55;
-    private static final int MARK_SYNC_115200 = 0xF0;
-    private static final int MARK_EOC = 0xAA;
 
     private enum State {
         STOPPED,
@@ -56,7 +55,11 @@ public class SerialBlockService {
 
     public void start(String serialPort) {
         LOGGER.debug("Creating serial port on {}", serialPort);
-        this.serialPort =  new SerialPort(serialPort);
+        start(new JsscSerialTransport(serialPort));
+    }
+
+    public void start(SerialTransport serialTransport) {
+        this.serialPort = new MeteredSerialTransport(serialTransport);
         this.serviceThread = new Thread(null, this::run, SERVICE_THREAD_NAME);
         this.serviceThread.setDaemon(true);
         this.serviceThread.start();
@@ -77,9 +80,9 @@ public class SerialBlockService {
 
     public void close() {
         if (serialPort != null) {
-            if (serialPort.isOpened()) {
+            if (serialPort.isOpen()) {
                 try {
-                    serialPort.closePort();
+                    serialPort.close();
                 } catch (Exception e) {
                     LOGGER.error("Closing serial port", e);
                 }
@@ -87,21 +90,6 @@ public class SerialBlockService {
         }
     }
 
-    private void syncAck() {
-        if (!ignoreSyncRequest) {
-            LOGGER.debug("Dandanator ready to request data");
-            dandanatorReady = true;
-            ignoreSyncRequest = true;
-            try {
-                serialPort.writeByte((byte) 0xFF);
-            } catch (Exception e) {
-                LOGGER.error("Trying to ACK dandanator", e);
-            }
-        } else {
-            LOGGER.debug("Discarded SYNC request");
-        }
-    }
-
     private Optional<byte[]> getRomsetByteArray() {
         EepromWriterConfiguration configuration = EepromWriterConfiguration.getInstance();
         ApplicationContext applicationContext = controller.getApplicationContext();
@@ -128,64 +116,66 @@ public class SerialBlockService {
         }
     }
 
-    private Optional<DataProducer> getRomsetDataProducer(int slot) {
-        int blockSize = EepromWriterConfiguration.getInstance().getBlockSize();
-        byte[] buffer = new byte[blockSize];
-        Optional<byte[]> romsetByteArray = getRomsetByteArray();
-        if (romsetByteArray.isPresent()) {
-            System.arraycopy(romsetByteArray.get(), slot * blockSize, buffer, 0, blockSize);
-            return Optional.of(new SerialDataProducer(serialPort, slot, buffer));
-        } else {
-            return Optional.empty();
+    private class ProtocolHandler implements BlockRequestProtocol.Handler {
+        @Override
+        public void sendAck() {
+            try {
+                serialPort.write(BlockRequestProtocol.MARK_ACK);
+            } catch (Exception e) {
+                LOGGER.error("Trying to ACK dandanator", e);
+            }
+        }
+
+        @Override
+        public void sendBlock(int block, SerialPortConfiguration serialPortConfiguration) throws Exception {
+            Optional<byte[]> romset = getRomsetByteArray();
+            if (romset.isPresent()) {
+                int blockSize = EepromWriterConfiguration.getInstance().getBlockSize();
+                if (block == lastRequestedBlock) {
+                    serialPort.onRetransmit();
+                }
+                lastRequestedBlock = block;
+                DataProducer dataProducer = new SerialDataProducer(serialPort, block,
+                        romset.get(), block * blockSize);
+                Platform.runLater(() -> controller.bindDataProducer(dataProducer));
+                serialPortConfiguration.apply(serialPort);
+                try {
+                    dataProducer.send();
+                    serialPort.waitForOutputDrain(OUTPUT_DRAIN_TIMEOUT,
+                            serialPortConfiguration.getDrainGuardTime());
+                } finally {
+                    SerialPortConfiguration.MODE_57600.apply(serialPort);
+                }
+            } else {
+                throw new IllegalStateException("Unable to send block " + block);
+            }
+        }
+
+        @Override
+        public void onBlockWritten(int block) {
+            writtenBlocks++;
+        }
+
+        @Override
+        public void onCommunicationClosed() {
+            LOGGER.info("Written {} blocks", writtenBlocks);
+            LOGGER.info("Transfer metrics: {}", serialPort.getMetrics());
+            Metrics.SERIAL.onTransfer(serialPort.getMetrics());
+            writtenBlocks = 0;
+            lastRequestedBlock = -1;
+            serialPort.getMetrics().reset();
+            Platform.runLater(() ->
+                    controller.onCommunicationClosed());
         }
     }
+
     private void handleIncomingData(byte[] data) {
         if (data.length > 0) {
             if (onDataReceived != null) {
                 Platform.runLater(onDataReceived);
             }
             if (data.length == 1) {
-                int value = data[0] & 0xFF;
-                if (value < 64) {
-                    if (dandanatorReady) {
-                        LOGGER.debug("Block {} Requested by serial port", value);
-                        try {
-                            Optional<DataProducer> dataProducer = getRomsetDataProducer(value);
-                            if (dataProducer.isPresent()) {
-                                Platform.runLater(() ->
-                                        controller.bindDataProducer(dataProducer.get()));
-                                sendSerialPortConfiguration.apply(serialPort);
-                                dataProducer.get().send();
-                                //Wait a bit to allow the buffer to be empty
-                                Thread.sleep(500);
-                                SerialPortConfiguration.MODE_57600.apply(serialPort);
-                            } else {
-                                LOGGER.error("Unable to send block {}", value);
-                            }
-                        } catch (Exception e) {
-                            LOGGER.error("Sending block", e);
-                        }
-                        //Allow new sync requests to be ACK'd
-                        ignoreSyncRequest = false;
-                    } else {
-                        LOGGER.warn("Received block request before SYNC (dandanator ready)");
-                    }
-                } else if (value == MARK_EOC) {
-                    LOGGER.debug("Received end of communications message");
-                    dandanatorReady = false;
-                    Platform.runLater(() ->
-                            controller.onCommunicationClosed());
-                } else if (value == MARK_SYNC_57600) {
-                    LOGGER.debug("Received 57600 SYNC");
-                    syncAck();
-                    sendSerialPortConfiguration = SerialPortConfiguration.MODE_57600;
-                } else if (value == MARK_SYNC_115200) {
-                    LOGGER.debug("Received 115200 SYNC");
-                    syncAck();
-                    sendSerialPortConfiguration = SerialPortConfiguration.MODE_115200;
-                } else {
-                    LOGGER.warn("Unexpected value {} received on serial port", value);
-                }
+                protocol.onDataReceived(data[0] & 0xFF);
             } else {
                 LOGGER.warn("Unexpected byte array of length {} in serial port", data.length);
             }
@@ -194,7 +184,7 @@ public class SerialBlockService {
 
     public void run() {
         try {
-            serialPort.openPort();
+            serialPort.open();
             SerialPortConfiguration.MODE_57600.apply(serialPort);
         } catch (Exception e) {
             LOGGER.error("Initializing Serial port", e);
@@ -202,12 +192,11 @@ public class SerialBlockService {
         }
         try {
             state = State.RUNNING;
-            dandanatorReady = false;
-            ignoreSyncRequest = false;
+            protocol.reset();
             while (state == State.RUNNING) {
                 try {
-                    handleIncomingData(serialPort.readBytes(1, 1000));
-                } catch (SerialPortTimeoutException spte) {
+                    handleIncomingData(serialPort.read(1, 1000));
+                } catch (SerialTransportTimeoutException stte) {
                 } catch (Exception e) {
                     LOGGER.error("Trying to read from serial port", e);
                     state = State.STOPPING;
@@ -220,7 +209,7 @@ public class SerialBlockService {
         state = State.STOPPED;
     }
 
-    public SerialPort serialPort() {
+    public SerialTransport serialPort() {
         return serialPort;
     }
 }
@@ -2,16 +2,13 @@ package com.grelobites.romgenerator.util.eewriter;
 
 import com.grelobites.romgenerator.EepromWriterConfiguration;
 import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.serial.SerialTransport;
 import javafx.application.Platform;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
-import jssc.SerialPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
-import java.util.Arrays;
-
 public class SerialDataProducer implements DataProducer {
     private static final Logger LOGGER = LoggerFactory.getLogger(SerialDataProducer.class);
     private static EepromWriterConfiguration configuration = EepromWriterConfiguration
@@ -19,7 +16,7 @@ public class SerialDataProducer implements DataProducer {
     private static final int SEND_BUFFER_SIZE = 1024;
 
     private int id;
-    private SerialPort serialPort;
+    private SerialTransport serialTransport;
     private Runnable onFinalization;
     private Runnable onDataSent;
     private DoubleProperty progressProperty;
@@ -30,15 +27,19 @@ public class SerialDataProducer implements DataProducer {
     }
 
 
-    public SerialDataProducer(SerialPort serialPort, int block, byte[] data) {
-        this.serialPort = serialPort;
+    public SerialDataProducer(SerialTransport serialTransport, int block, byte[] data) {
+        this(serialTransport, block, data, 0);
+    }
+
+    public SerialDataProducer(SerialTransport serialTransport, int block, byte[] data, int offset) {
+        this.serialTransport = serialTransport;
         this.id = block;
         init();
-        setupBlockData(block, data);
+        setupBlockData(block, data, offset);
     }
 
-    public SerialDataProducer(SerialPort serialPort, byte[] rawData) {
-        this.serialPort = serialPort;
+    public SerialDataProducer(SerialTransport serialTransport, byte[] rawData) {
+        this.serialTransport = serialTransport;
         this.id = 0;
         init();
         data = rawData;
@@ -49,30 +50,29 @@ public class SerialDataProducer implements DataProducer {
         return id;
     }
 
-    private void setupBlockData(int block, byte[] buffer) {
-        int blockSize = configuration.getBlockSize();
-        data = new byte[blockSize + 3];
-        System.arraycopy(buffer, 0, data, 0, blockSize);
+    private void setupBlockData(int block, byte[] buffer, int offset) {
+        data = blockFrame(block, buffer, offset, configuration.getBlockSize());
+    }
+
+    //Block data followed by the block number and the 16 bit checksum
+    public static byte[] blockFrame(int block, byte[] buffer, int offset, int blockSize) {
+        byte[] frame = new byte[blockSize + 3];
+        System.arraycopy(buffer, offset, frame, 0, blockSize);
 
-        data[blockSize] = Integer.valueOf(block).byteValue();
+        frame[blockSize] = Integer.valueOf(block).byteValue();
 
-        Util.writeAsLittleEndian(data, blockSize + 1, Util.getBlockCrc16(data, blockSize + 1));
+        Util.writeAsLittleEndian(frame, blockSize + 1, Util.getBlockCrc16(frame, blockSize + 1));
+        return frame;
     }
 
     @Override
     public void send() {
         try {
             int sentBytesCount = 0;
-            ByteArrayInputStream bis = new ByteArrayInputStream(data);
-            byte[] sendBuffer = new byte[SEND_BUFFER_SIZE];
             while (sentBytesCount < data.length) {
-                int count = bis.read(sendBuffer);
+                int count = Math.min(SEND_BUFFER_SIZE, data.length - sentBytesCount);
                 LOGGER.debug("Sending block of " + count + " bytes");
-                if (count < SEND_BUFFER_SIZE) {
-                    serialPort.writeBytes(Arrays.copyOfRange(sendBuffer, 0, count));
-                } else {
-                    serialPort.writeBytes(sendBuffer);
-                }
+                serialTransport.write(data, sentBytesCount, count);
                 sentBytesCount += count;
                 if (onDataSent != null) {
                     Platform.runLater(onDataSent);
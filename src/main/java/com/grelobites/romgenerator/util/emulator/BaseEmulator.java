@@ -1,7 +1,7 @@
 package com.grelobites.romgenerator.util.emulator;
 
 import com.grelobites.romgenerator.model.*;
-import com.grelobites.romgenerator.util.Counter;
+import com.grelobites.romgenerator.util.CpcFramebufferRenderer;
 import com.grelobites.romgenerator.util.ImageUtil;
 import com.grelobites.romgenerator.util.emulator.peripheral.CpcMemory;
 import com.grelobites.romgenerator.util.emulator.peripheral.Crtc;
@@ -11,6 +11,7 @@ import com.grelobites.romgenerator.util.emulator.peripheral.KeyboardCode;
 import com.grelobites.romgenerator.util.emulator.peripheral.Ppi;
 import com.grelobites.romgenerator.util.emulator.peripheral.fdc.Nec765;
 import com.grelobites.romgenerator.util.emulator.resources.LoaderResources;
+import com.grelobites.romgenerator.util.metrics.Metrics;
 import javafx.scene.image.Image;
 import javafx.scene.image.WritableImage;
 import org.slf4j.Logger;
@@ -37,10 +38,15 @@ public class BaseEmulator implements Z80operations {
     protected long lastDiskAccessTstates;
     protected final CpcMemory memory;
     protected final HardwareMode hardwareMode;
+    protected final RasterScheduler rasterScheduler;
+    private final CpcFramebufferRenderer screenRenderer = new CpcFramebufferRenderer();
     protected boolean executionAborted = false;
-    protected int currentRasterInterrupt;
-    protected Counter gateArrayCounter = new Counter(6);
     private boolean hasDiskCapability = false;
+    //Load figures for the metrics
+    private final long startNanos = Metrics.now();
+    private long frames;
+    private long instructions;
+    private StopCondition stopCondition;
 
     private void loadRoms() throws IOException {
         memory.loadLowRom(loaderResources.osRom());
@@ -61,6 +67,8 @@ public class BaseEmulator implements Z80operations {
                 .withHardwareDefaultValues(hardwareMode).build();
         crtc = new Crtc(CrtcType.CRTC_TYPE_0);
         memory = new CpcMemory(gateArray);
+        rasterScheduler = new RasterScheduler(TSTATES_PER_US, clock, z80, crtc, gateArray, ppi);
+        clock.setRasterScheduler(rasterScheduler);
         hasDiskCapability = hardwareMode == HardwareMode.HW_CPC6128 ||
                 hardwareMode == HardwareMode.HW_CPC6128PLUS;
         if (hasDiskCapability) {
@@ -185,18 +193,23 @@ public class BaseEmulator implements Z80operations {
     }
 
     protected SnapshotGame getSnapshotGame() {
-        SnapshotGame game = new SnapshotGame(memory.getRamSize() == 65536 ?
-                GameType.RAM64 : GameType.RAM128,
-                memory.toByteArrayList());
-        game.setGameHeader(getGameHeader());
+        GameHeader header = getGameHeader();
+        GameType gameType = memory.getRamSize() == 65536 ? GameType.RAM64 : GameType.RAM128;
+        //The game takes over the emulator RAM. No further emulation is possible
+        SnapshotGame game = new SnapshotGame(gameType, memory.detachRamBanks());
+        game.setGameHeader(header);
         game.setHardwareMode(hardwareMode);
-        if (gateArrayCounter.value() >= LINES_PER_INTERRUPT - GAME_SETUP_TSTATES) {
+        int currentRasterInterrupt = rasterScheduler.getRasterInterrupts();
+        if (rasterScheduler.getGateArrayCounter() >= LINES_PER_INTERRUPT - GAME_SETUP_TSTATES) {
             //Add an interrupt to the counter to take into account the time
             //needed to setup the game
             currentRasterInterrupt = (currentRasterInterrupt + 1) % 6;
         }
         LOGGER.debug("Setting current raster interrupt {}", currentRasterInterrupt);
         game.setCurrentRasterInterrupt(currentRasterInterrupt);
+        Metrics.EMULATION.onLoad(this, clock.getTstates(), frames, instructions,
+                nec765 != null ? nec765.getStatistics().getBytesRead() : 0,
+                stopCondition, startNanos);
         return game;
     }
 
@@ -331,88 +344,39 @@ public class BaseEmulator implements Z80operations {
         return executeFrame(() -> false, compensation);
     }
 
-    protected long executeFrame(Supplier<Boolean> restoreOnAbortedEmulation, long compensation) {
-        currentRasterInterrupt = 0;
-        final long frameStartTstates = clock.getTstates();
-        final long tStatesPerLine = crtc.getHorizontalTotal() * TSTATES_PER_US;
-        final long tStatesToHSync = (crtc.getHSyncPos() + crtc.getHSyncLength()) * TSTATES_PER_US;
-        final long vSyncTstates = frameStartTstates +
-                crtc.getVSyncPos() * (crtc.getMaximumRasterAddress() + 1)
-                        * tStatesPerLine;
-        final long vSyncLines = (crtc.getMaximumRasterAddress() + 1) * crtc.getVSyncLength();
-        final Counter gateArrayCounter = new Counter(6);
-        final Counter hSyncCounter = new Counter(16);
-        gateArrayCounter.reset();
-
-        final ClockTimeout clockTimeout = new ClockTimeout();
-
-        //LOGGER.debug("Frame[compensation={}, tstatesPerLine={}, vSyncPos={}, tStatesToHSync={}, vSyncTstates={}]",
-          //     compensation, tStatesPerLine, crtc.getVSyncPos(), tStatesToHSync, vSyncTstates);
-        z80.setInterruptAckListener((t) -> {
-            //LOGGER.debug("INT ACK at {}. GateArrayCounter is {}", clock.getTstates() - frameStartTstates, gateArrayCounter.value());
-            if (gateArray.isInterruptGenerationDelayed()) {
-                gateArrayCounter.reset();
-            } else {
-                gateArrayCounter.mask(~0x20);
-            }
-            z80.setINTLine(false);
-        });
-
-        clockTimeout.setListener((long t) -> {
-            if (gateArrayCounter.increment() == LINES_PER_INTERRUPT) {
-                //LOGGER.debug("Enabling INT at {}", clock.getTstates() - frameStartTstates);
-                z80.setINTLine(true);
-                currentRasterInterrupt++;
-                gateArrayCounter.reset();
-            }
-            if (ppi.isvSyncActive()) {
-
-                if (hSyncCounter.increment() == 2) {
-                    if ((gateArrayCounter.value() & 0x20) == 0) {
-                        //LOGGER.debug("VSYNC INT at {}", clock.getTstates() - frameStartTstates);
-                        z80.setINTLine(true);
-                    }
-                    gateArrayCounter.reset();
-                } else if (hSyncCounter.value() == vSyncLines) {
-                    //LOGGER.debug("Disabling VSYNC at {}", clock.getTstates() - frameStartTstates);
-                    ppi.setvSyncActive(false);
-                }
-                /*
-                if (hSyncCounter.increment() == vSyncLines) {
-                    //LOGGER.debug("Disabling VSYNC at {}", clock.getTstates() - frameStartTstates);
-                    ppi.setvSyncActive(false);
-                }
-                */
-            } else {
-                if (clock.getTstates() >= vSyncTstates && hSyncCounter.value() == 0) {
-                    //LOGGER.debug("Enabling VSYNC at {}", clock.getTstates() - frameStartTstates);
-                    ppi.setvSyncActive(true);
-                }
-            }
-            clockTimeout.setTimeout(tStatesPerLine); //Next HSYNC comes after a whole line
-        });
-        clockTimeout.setTimeout(tStatesToHSync);
+    protected void onStopCondition(StopCondition condition) {
+        LOGGER.debug("Stop condition {} triggered", condition);
+        stopCondition = condition;
+        Metrics.EMULATION.onStop(condition);
+    }
 
-        clock.addClockTimeout(clockTimeout);
+    protected long executeFrame(Supplier<Boolean> restoreOnAbortedEmulation, long compensation) {
+        frames++;
+        rasterScheduler.beginFrame();
         try {
             compensation = executeTstates(restoreOnAbortedEmulation, FRAME_TSTATES - compensation);
         } finally {
-            ppi.setvSyncActive(false);
-            z80.resetInterruptAckListener();
-            clock.removeClockTimeout(clockTimeout);
+            rasterScheduler.endFrame();
         }
         return compensation;
     }
 
     public long executeTstates(Supplier<Boolean> restoreOnAbortedEmulation, long tStates) {
         long limit = clock.getTstates() + tStates;
-        while (clock.getTstates() < limit && !executionAborted) {
-            z80.execute(restoreOnAbortedEmulation.get());
-            //Check if our thread gets interrupted
-            if (Thread.interrupted()) {
-                LOGGER.warn("Thread running emulation was interrupted");
-                executionAborted = true;
+        long executed = 0;
+        try {
+            while (clock.getTstates() < limit && !executionAborted) {
+                z80.execute(restoreOnAbortedEmulation.get());
+                executed++;
+                //Check if our thread gets interrupted
+                if (Thread.interrupted()) {
+                    LOGGER.warn("Thread running emulation was interrupted");
+                    onStopCondition(StopCondition.INTERRUPTED);
+                    executionAborted = true;
+                }
             }
+        } finally {
+            instructions += executed;
         }
         return clock.getTstates() - limit;
     }
@@ -423,18 +387,25 @@ public class BaseEmulator implements Z80operations {
         LOGGER.debug("Breakpoint reached!!");
     }
 
-    protected Image getScreenshot() {
-            return ImageUtil.scrLoader(
-                    ImageUtil.newScreenshot(),
-                    gateArray.getScreenMode(),
-                    memory.getRamBank(crtc.getScreenPage()),
-                    CrtcDisplayData.newBuilder()
-                            .withDisplayOffset(crtc.getScreenOffset())
-                            .withVisibleHeight(crtc.getVisibleHeight())
-                            .withVisibleWidth(crtc.getVisibleWidth())
-                            .build(),
-                    gateArray.getPalette());
+    private CrtcDisplayData getCrtcDisplayData() {
+        return CrtcDisplayData.newBuilder()
+                .withDisplayOffset(crtc.getScreenOffset())
+                .withVisibleHeight(crtc.getVisibleHeight())
+                .withVisibleWidth(crtc.getVisibleWidth())
+                .build();
+    }
+
+    protected int[] renderScreen(int[] framebuffer) {
+        return screenRenderer.render(framebuffer,
+                gateArray.getScreenMode(),
+                memory.getRamBank(crtc.getScreenPage()),
+                getCrtcDisplayData(),
+                gateArray.getPalette());
+    }
 
+    protected Image getScreenshot() {
+        return ImageUtil.writeFramebuffer(ImageUtil.newScreenshot(),
+                renderScreen(CpcFramebufferRenderer.newFramebuffer()));
     }
 
 }
@@ -11,6 +11,11 @@ public class Clock {
 
     private long tstates;
     private final List<ClockTimeout> clockTimeouts = new ArrayList<>();
+    private RasterScheduler rasterScheduler;
+
+    public void setRasterScheduler(RasterScheduler rasterScheduler) {
+        this.rasterScheduler = rasterScheduler;
+    }
 
     public void addClockTimeout(final ClockTimeout clockTimeout) {
         clockTimeouts.add(clockTimeout);
@@ -30,15 +35,14 @@ public class Clock {
 
     public void setTstates(long states) {
         tstates = states;
-        for (ClockTimeout clockTimeout: clockTimeouts) {
-            clockTimeout.remaining = 0;
-        }
+        resetTimeouts();
     }
 
     public void addTstates(long states) {
         tstates += states;
 
-        for (ClockTimeout clockTimeout: clockTimeouts) {
+        for (int i = 0; i < clockTimeouts.size(); i++) {
+            ClockTimeout clockTimeout = clockTimeouts.get(i);
             if (clockTimeout.remaining > 0) {
                 clockTimeout.remaining -= states;
                 if (clockTimeout.remaining <= 0) {
@@ -52,13 +56,32 @@ public class Clock {
                 }
             }
         }
+
+        //Raster timing is checked in place, without going through a listener
+        if (rasterScheduler != null && rasterScheduler.remaining > 0) {
+            rasterScheduler.remaining -= states;
+            if (rasterScheduler.remaining <= 0) {
+                long error = rasterScheduler.remaining;
+                rasterScheduler.onHSync();
+                if (rasterScheduler.remaining > 0 && error < 0) {
+                    rasterScheduler.remaining += error;
+                }
+            }
+        }
     }
 
-    public void reset() {
-        tstates = 0;
+    private void resetTimeouts() {
         for (ClockTimeout clockTimeout: clockTimeouts) {
             clockTimeout.remaining = 0;
         }
+        if (rasterScheduler != null) {
+            rasterScheduler.remaining = 0;
+        }
+    }
+
+    public void reset() {
+        tstates = 0;
+        resetTimeouts();
     }
 
 }
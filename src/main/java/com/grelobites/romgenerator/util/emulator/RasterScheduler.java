@@ -0,0 +1,123 @@
+package com.grelobites.romgenerator.util.emulator;
+
+import com.grelobites.romgenerator.util.emulator.peripheral.Crtc;
+import com.grelobites.romgenerator.util.emulator.peripheral.GateArray;
+import com.grelobites.romgenerator.util.emulator.peripheral.Ppi;
+
+/*
+ * Raster and interrupt generation for the emulator. A single instance is kept
+ * by the emulator and driven directly by the Clock on every HSYNC, so that
+ * executing a frame doesn't need to allocate counters, timeouts or listeners.
+ * CRTC derived timings are only recalculated when the CRTC registers change
+ */
+public final class RasterScheduler extends ClockTimeout implements InterruptAckListener {
+    private static final int LINES_PER_INTERRUPT = 52;
+    private static final int GATE_ARRAY_COUNTER_MASK = 0x3f;
+    private static final int HSYNC_COUNTER_MASK = 0xffff;
+
+    private final int tStatesPerUs;
+    private final Clock clock;
+    private final Z80 z80;
+    private final Crtc crtc;
+    private final GateArray gateArray;
+    private final Ppi ppi;
+
+    private int crtcModificationCount = -1;
+    private long tStatesPerLine;
+    private long tStatesToHSync;
+    private long vSyncOffset;
+    private long vSyncLines;
+
+    private long vSyncTstates;
+    private int gateArrayCounter;
+    private int hSyncCounter;
+    private int rasterInterrupts;
+
+    public RasterScheduler(int tStatesPerUs, Clock clock, Z80 z80, Crtc crtc,
+                           GateArray gateArray, Ppi ppi) {
+        this.tStatesPerUs = tStatesPerUs;
+        this.clock = clock;
+        this.z80 = z80;
+        this.crtc = crtc;
+        this.gateArray = gateArray;
+        this.ppi = ppi;
+    }
+
+    private void updateTimings() {
+        if (crtc.getModificationCount() != crtcModificationCount) {
+            crtcModificationCount = crtc.getModificationCount();
+            tStatesPerLine = crtc.getHorizontalTotal() * tStatesPerUs;
+            tStatesToHSync = (crtc.getHSyncPos() + crtc.getHSyncLength()) * tStatesPerUs;
+            vSyncOffset = crtc.getVSyncPos() * (crtc.getMaximumRasterAddress() + 1)
+                    * tStatesPerLine;
+            vSyncLines = (crtc.getMaximumRasterAddress() + 1) * crtc.getVSyncLength();
+        }
+    }
+
+    public void beginFrame() {
+        updateTimings();
+        vSyncTstates = clock.getTstates() + vSyncOffset;
+        gateArrayCounter = 0;
+        hSyncCounter = 0;
+        rasterInterrupts = 0;
+        z80.setInterruptAckListener(this);
+        setTimeout(tStatesToHSync);
+    }
+
+    public void endFrame() {
+        ppi.setvSyncActive(false);
+        z80.resetInterruptAckListener();
+        remaining = 0;
+    }
+
+    @Override
+    public void onInterruptAck(long tstates) {
+        if (gateArray.isInterruptGenerationDelayed()) {
+            gateArrayCounter = 0;
+        } else {
+            gateArrayCounter &= ~0x20 & GATE_ARRAY_COUNTER_MASK;
+        }
+        z80.setINTLine(false);
+    }
+
+    void onHSync() {
+        gateArrayCounter = (gateArrayCounter + 1) & GATE_ARRAY_COUNTER_MASK;
+        if (gateArrayCounter == LINES_PER_INTERRUPT) {
+            z80.setINTLine(true);
+            rasterInterrupts++;
+            gateArrayCounter = 0;
+        }
+        if (ppi.isvSyncActive()) {
+            hSyncCounter = (hSyncCounter + 1) & HSYNC_COUNTER_MASK;
+            if (hSyncCounter == 2) {
+                if ((gateArrayCounter & 0x20) == 0) {
+                    z80.setINTLine(true);
+                }
+                gateArrayCounter = 0;
+            } else if (hSyncCounter == vSyncLines) {
+                ppi.setvSyncActive(false);
+            }
+        } else if (clock.getTstates() >= vSyncTstates && hSyncCounter == 0) {
+            ppi.setvSyncActive(true);
+        }
+        setTimeout(tStatesPerLine); //Next HSYNC comes after a whole line
+    }
+
+    public int getRasterInterrupts() {
+        return rasterInterrupts;
+    }
+
+    public int getGateArrayCounter() {
+        return gateArrayCounter;
+    }
+
+    @Override
+    public String toString() {
+        return "RasterScheduler{" +
+                "remaining=" + remaining +
+                ", gateArrayCounter=" + gateArrayCounter +
+                ", hSyncCounter=" + hSyncCounter +
+                ", rasterInterrupts=" + rasterInterrupts +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package com.grelobites.romgenerator.util.emulator;
+
+//Reasons for a loader to end the emulation and take the snapshot
+public enum StopCondition {
+    TAPE_END,
+    TAPE_STALLED,
+    PALETTE_CHANGE,
+    CRTC_ACCESS,
+    PSG_WRITE,
+    KEYBOARD_READ,
+    MOTOR_STOPPED,
+    VRAM_WRITE,
+    DISK_INACTIVITY,
+    DISK_KEYBOARD_RESUME,
+    LANDING_ZONE_TIMEOUT,
+    INTERRUPTED
+}
@@ -1,5 +1,6 @@
 package com.grelobites.romgenerator.util.emulator.peripheral;
 
+import com.grelobites.romgenerator.util.SlotBufferPool;
 import com.grelobites.romgenerator.util.emulator.Memory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,20 +21,31 @@ public class CpcMemory implements Memory {
     private byte[][] ramBanks;
     private byte[][] romBanks;
     private Map<Integer, byte[]> highRoms;
+    //Banks are borrowed from the slot pool. RAM ends up in the game, ROMs go back
+    private final SlotBufferPool.Lease[] ramLeases;
+    private final List<SlotBufferPool.Lease> romLeases = new ArrayList<>();
 
     public CpcMemory(GateArray gateArray) {
         this.gateArray = gateArray;
         this.ramBanks = new byte[gateArray.hasRamBanking() ? 8 : 4][];
+        this.ramLeases = new SlotBufferPool.Lease[ramBanks.length];
         for (int i = 0; i < ramBanks.length; i++) {
-            ramBanks[i] = new byte[BANK_SIZE];
+            ramLeases[i] = SlotBufferPool.SLOTS.borrow();
+            ramBanks[i] = ramLeases[i].array();
         }
         this.romBanks = new byte[4][];
-        this.romBanks[LOW_ROM] = new byte[BANK_SIZE];
-        this.basicRom = new byte[BANK_SIZE];
+        this.romBanks[LOW_ROM] = borrowRomBank();
+        this.basicRom = borrowRomBank();
         this.romBanks[HIGH_ROM] = basicRom;
         this.highRoms = new HashMap<>();
     }
 
+    private byte[] borrowRomBank() {
+        SlotBufferPool.Lease lease = SlotBufferPool.SLOTS.borrow();
+        romLeases.add(lease);
+        return lease.array();
+    }
+
     private byte[] bankSlot(int address, boolean write) {
         try {
             int bankSlot = gateArray.getMemoryBankSlot(address);
@@ -112,7 +124,7 @@ public class CpcMemory implements Memory {
     }
 
     public void registerHighRom(int id, byte[] source) {
-        byte[] copy = new byte[BANK_SIZE];
+        byte[] copy = borrowRomBank();
         loadRom(source, copy);
         highRoms.put(id, copy);
     }
@@ -138,14 +150,22 @@ public class CpcMemory implements Memory {
         return ramBanks.length * BANK_SIZE;
     }
 
-    public List<byte[]> toByteArrayList() {
+    /*
+     * Hands the RAM banks over to the caller without copying them.
+     * The memory cannot be used afterwards and its ROM banks are released
+     */
+    public List<byte[]> detachRamBanks() {
         List<byte[]> banks = new ArrayList<>();
-        for (byte[] ramBank : ramBanks) {
-            //Detach the banks from the current RAM representation
-            byte[] ramCopy = new byte[BANK_SIZE];
-            System.arraycopy(ramBank, 0, ramCopy, 0, BANK_SIZE);
-            banks.add(ramCopy);
+        for (SlotBufferPool.Lease lease : ramLeases) {
+            banks.add(lease.transfer());
         }
+        release();
         return banks;
     }
+
+    public void release() {
+        romLeases.forEach(SlotBufferPool.Lease::close);
+        romLeases.clear();
+        highRoms.clear();
+    }
 }
@@ -35,6 +35,7 @@ public class Crtc {
     private int statusRegister = 0;
     private int selectedRegister;
     private CrtcType crtcType;
+    private int modificationCount = 0;
 
     private Set<CrtcChangeListener> crtcChangeListeners = new HashSet<>();
 
@@ -74,6 +75,7 @@ public class Crtc {
     public void onWriteRegisterOperation(int value) {
         if (notifyListeners(CrtcOperation.WRITE_REGISTER)) {
             crtcRegisterData[selectedRegister] = (byte) value;
+            modificationCount++;
         } else {
             LOGGER.debug("CRTC Write Register rejected by listener");
         }
@@ -113,6 +115,12 @@ public class Crtc {
     public void setCrtcRegisterData(byte[] data) {
         System.arraycopy(data, 0, crtcRegisterData, 0,
                 Math.min(data.length, NUM_REGISTERS));
+        modificationCount++;
+    }
+
+    //Increased on every register change, to invalidate timings derived from them
+    public int getModificationCount() {
+        return modificationCount;
     }
 
     public int getSelectedRegister() {
@@ -58,21 +58,19 @@ public class ReadDataCommand extends ReadWriteBaseCommand {
         Track dskTrack = dsk.getTrack(track);
         if (dskTrack != null) {
             //Search for sectorId
-            for (SectorInformationBlock sectorInfo : dskTrack.getInformation().getSectorInformationList()) {
+            SectorInformationBlock sectorInfo = dskTrack.findSector(firstSector);
+            if (sectorInfo != null) {
                 controller.getDriveStatus(unit).setCurrentSector(sectorInfo);
-                if (sectorInfo.getSectorId() == firstSector) {
-                    sectorData = new byte[sectorBytes];
-                    System.arraycopy(
-                            dskTrack.getSectorData(sectorInfo.getPhysicalPosition()), 0,
-                            sectorData, 0, sectorBytes);
-                    LOGGER.debug("Required sector is {}", Util.dumpAsHexString(sectorData));
-                    controller.getMainStatusRegister().setDataReady(true);
-                    //Fill status registers stored in DSK
-                    controller.getStatus1Register().setValue(sectorInfo.getFdcStatusRegister1());
-                    controller.getStatus2Register().setValue(sectorInfo.getFdcStatusRegister2());
-                    return;
-                }
+                sectorData = new byte[sectorBytes];
+                dskTrack.copySectorData(sectorInfo.getPhysicalPosition(), sectorData, sectorBytes);
+                LOGGER.debug("Required sector is {}", Util.dumpAsHexString(sectorData));
+                controller.getMainStatusRegister().setDataReady(true);
+                //Fill status registers stored in DSK
+                controller.getStatus1Register().setValue(sectorInfo.getFdcStatusRegister1());
+                controller.getStatus2Register().setValue(sectorInfo.getFdcStatusRegister2());
+                return;
             }
+            setLastSectorAsCurrent(dskTrack);
             //Sector not found
             controller.getStatus1Register().setNoData(true);
             controller.getStatus0Register().setInterruptCode(Nec765Constants.ICODE_ABNORMAL_TERMINATION);
@@ -2,6 +2,8 @@ package com.grelobites.romgenerator.util.emulator.peripheral.fdc.command;
 
 import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.dsk.DskContainer;
+import com.grelobites.romgenerator.util.dsk.SectorInformationBlock;
+import com.grelobites.romgenerator.util.dsk.Track;
 import com.grelobites.romgenerator.util.emulator.peripheral.fdc.Nec765Constants;
 import com.grelobites.romgenerator.util.emulator.peripheral.fdc.Nec765Phase;
 import org.slf4j.Logger;
@@ -23,6 +25,17 @@ public abstract class ReadWriteBaseCommand extends Nec765BaseCommand implements
 
     protected void preExecutionOperation(DskContainer dsk) {}
 
+    /*
+     * When the requested sector is missing the controller has gone
+     * through the whole track, ending on its last sector
+     */
+    protected void setLastSectorAsCurrent(Track dskTrack) {
+        SectorInformationBlock[] sectorInfoList = dskTrack.getInformation().getSectorInformationList();
+        if (sectorInfoList.length > 0) {
+            controller.getDriveStatus(unit).setCurrentSector(sectorInfoList[sectorInfoList.length - 1]);
+        }
+    }
+
     private void prepareExecution() {
         LOGGER.debug("Read/Write operation on unit {}, head {}, track {}, firstSector {}, lastSector {}, sectorBytes {}",
                 unit, head, track, Util.asByteHexString(firstSector), Util.asByteHexString(lastSector), sectorBytes);
@@ -57,15 +57,15 @@ public class WriteDataCommand extends ReadWriteBaseCommand {
         Track dskTrack = dsk.getTrack(track);
         if (dskTrack != null) {
             //Search for sectorId
-            for (SectorInformationBlock sectorInfo : dskTrack.getInformation().getSectorInformationList()) {
+            SectorInformationBlock sectorInfo = dskTrack.findSector(firstSector);
+            if (sectorInfo != null) {
                 controller.getDriveStatus(unit).setCurrentSector(sectorInfo);
-                if (sectorInfo.getSectorId() == firstSector) {
-                    sectorData = dskTrack.getSectorData(sectorInfo.getPhysicalPosition());
-                    controller.getMainStatusRegister().setDataReady(false);
-                    controller.getMainStatusRegister().setExecMode(true);
-                    return;
-                }
+                sectorData = dskTrack.getSectorData(sectorInfo.getPhysicalPosition());
+                controller.getMainStatusRegister().setDataReady(false);
+                controller.getMainStatusRegister().setExecMode(true);
+                return;
             }
+            setLastSectorAsCurrent(dskTrack);
             //Sector not found
             controller.getStatus1Register().setNoData(true);
             controller.getStatus0Register().setInterruptCode(Nec765Constants.ICODE_ABNORMAL_TERMINATION);
@@ -1,8 +1,11 @@
 package com.grelobites.romgenerator.util.emulator.resources;
 
+import com.grelobites.romgenerator.util.resource.LazyResource;
+
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class Cpc6128LoaderResources extends LoaderResourcesBase {
     private static final String OS_ROM_RESOURCE = "/rom/6128/OS_6128.ROM";
@@ -12,6 +15,9 @@ public class Cpc6128LoaderResources extends LoaderResourcesBase {
 
     private static Cpc6128LoaderResources instance;
 
+    private final LazyResource<byte[]> amsdosRom = new LazyResource<>(() ->
+            loadRom(AMSDOS_ROM_RESOURCE));
+
     public static Cpc6128LoaderResources getInstance() {
         if (instance == null) {
             instance = new Cpc6128LoaderResources();
@@ -26,6 +32,12 @@ public class Cpc6128LoaderResources extends LoaderResourcesBase {
 
     @Override
     public Map<Integer, byte[]> highRoms() throws IOException {
-        return Collections.singletonMap(7, loadRom(AMSDOS_ROM_RESOURCE));
+        return Collections.singletonMap(7, amsdosRom.get());
+    }
+
+    @Override
+    public void preload(Executor executor) {
+        super.preload(executor);
+        amsdosRom.preload(executor);
     }
 }
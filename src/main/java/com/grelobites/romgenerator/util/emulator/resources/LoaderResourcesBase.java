@@ -4,24 +4,26 @@ import com.grelobites.romgenerator.model.SnapshotGame;
 import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.gameloader.GameImageLoaderFactory;
 import com.grelobites.romgenerator.util.gameloader.GameImageType;
+import com.grelobites.romgenerator.util.resource.LazyResource;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 public abstract class LoaderResourcesBase implements LoaderResources {
     private static final int ROM_SIZE = 0x4000;
 
-    private String osRomResource;
-    private String basicRomResource;
-    private String snaLoaderResource;
-    private byte[] osRom;
-    private byte[] basicRom;
-    private SnapshotGame snaLoader;
+    private final LazyResource<byte[]> osRom;
+    private final LazyResource<byte[]> basicRom;
+    private final LazyResource<SnapshotGame> snaLoader;
 
     public LoaderResourcesBase(String osRomResource, String basicRomResource,
                                String snaLoaderResource) {
-        this.osRomResource = osRomResource;
-        this.basicRomResource = basicRomResource;
-        this.snaLoaderResource = snaLoaderResource;
+        this.osRom = new LazyResource<>(() -> loadRom(osRomResource));
+        this.basicRom = new LazyResource<>(() -> loadRom(basicRomResource));
+        this.snaLoader = new LazyResource<>(() -> (SnapshotGame) GameImageLoaderFactory
+                .getLoader(GameImageType.SNA)
+                .load(LoaderResourcesBase.class
+                        .getResourceAsStream(snaLoaderResource)));
     }
 
     protected byte[] loadRom(String romResource) throws IOException {
@@ -31,29 +33,22 @@ public abstract class LoaderResourcesBase implements LoaderResources {
 
     @Override
     public byte[] osRom() throws IOException {
-        if (osRom == null) {
-            osRom = loadRom(osRomResource);
-        }
-        return osRom;
+        return osRom.get();
     }
 
     @Override
     public byte[] basicRom() throws IOException {
-        if (basicRom == null) {
-            basicRom = loadRom(basicRomResource);
-        }
-        return basicRom;
+        return basicRom.get();
     }
 
     @Override
     public SnapshotGame snaLoader() throws IOException {
-        if (snaLoader == null) {
-            snaLoader = (SnapshotGame) GameImageLoaderFactory
-                    .getLoader(GameImageType.SNA)
-                    .load(LoaderResourcesBase.class
-                            .getResourceAsStream(snaLoaderResource));
-
-        }
-        return snaLoader;
+        return snaLoader.get();
+    }
+
+    public void preload(Executor executor) {
+        osRom.preload(executor);
+        basicRom.preload(executor);
+        snaLoader.preload(executor);
     }
 }
@@ -9,9 +9,9 @@ import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
 
 public class CpmFileSystem {
     private static final Logger LOGGER = LoggerFactory.getLogger(CpmFileSystem.class);
@@ -19,13 +19,16 @@ public class CpmFileSystem {
     private final FileSystemParameters parameters;
 
     private List<Archive> archiveList;
+    private Map<String, Archive> archiveIndex;
     private int freeBytes;
     private int totalBytes;
     private int freeDirectoryEntries;
+    private final ImageExporter imageExporter = new ImageExporter();
 
     public CpmFileSystem(FileSystemParameters parameters) {
         this.parameters = parameters;
         this.archiveList = new ArrayList<>();
+        this.archiveIndex = new HashMap<>();
 
         this.totalBytes = parameters.getBlockCount() * parameters.getBlockSize();
         this.freeBytes = this.totalBytes - parameters.getDirectoryEntries() * CpmConstants.DIRECTORY_ENTRY_SIZE;
@@ -41,16 +44,21 @@ public class CpmFileSystem {
         return Util.roundToNearestMultiple(archive.getSize(), parameters.getBlockSize());
     }
 
+    private static String archiveKey(int userArea, String name, String extension) {
+        return userArea + ":" + name + "." + extension;
+    }
+
+    private static String archiveKey(Archive archive) {
+        return archiveKey(archive.getUserArea(), archive.getName().trim(), archive.getExtension().trim());
+    }
+
     private boolean isArchiveNameConflict(Archive archive) {
-        return archiveList.stream().filter(item ->
-                item.getName().trim().equals(archive.getName().trim()) &&
-                item.getExtension().trim().equals(archive.getExtension().trim()) &&
-                item.getUserArea() == archive.getUserArea())
-                .count() > 0;
+        return archiveIndex.containsKey(archiveKey(archive));
     }
 
     public void addArchive(Archive archive) {
-        if (archiveList.contains(archive) || isArchiveNameConflict(archive)) {
+        //An archive already in the filesystem always conflicts with itself
+        if (isArchiveNameConflict(archive)) {
             throw new ArchiveOperationException("archiveAlreadyExists");
         } else {
             int neededBytes = getNeededBytes(archive);
@@ -64,6 +72,7 @@ public class CpmFileSystem {
             LOGGER.debug("Archive " + archive + " needs " + neededBytes + " bytes "
                 + " and " + neededDirectoryEntries + " directory entries");
             archiveList.add(archive);
+            archiveIndex.put(archiveKey(archive), archive);
             freeBytes -= neededBytes;
             freeDirectoryEntries -= neededDirectoryEntries;
         }
@@ -71,15 +80,21 @@ public class CpmFileSystem {
 
     public void clear() {
         archiveList.clear();
+        archiveIndex.clear();
+        imageExporter.invalidate(0);
         freeBytes = totalBytes;
         freeDirectoryEntries = parameters.getDirectoryEntries();
     }
 
     public void removeArchive(Archive archive) {
-        if (archiveList.contains(archive)) {
+        int index = archiveList.indexOf(archive);
+        if (index >= 0) {
             freeBytes += getNeededBytes(archive);
             freeDirectoryEntries += getNeededDirectoryEntries(archive);
-            archiveList.remove(archive);
+            //Archives are laid out in order, so everything after the removed one moves
+            imageExporter.invalidate(index);
+            archiveList.remove(index);
+            archiveIndex.remove(archiveKey(archive));
         } else {
             throw new IllegalArgumentException("Archive " + archive + " is not in the filesystem");
         }
@@ -106,98 +121,105 @@ public class CpmFileSystem {
     }
 
     public byte[] asByteArray() {
-        return new ByteArrayExporter().export();
+        return imageExporter.export().clone();
     }
 
     public byte[] getSector(int logicalTrack, int logicalSector) {
         int offset = (logicalTrack * parameters.getSectorsByTrack() + logicalSector) * parameters.getSectorSize();
-        //TODO: Optimize if finally needed
-        return Arrays.copyOfRange(asByteArray(), offset, offset + parameters.getSectorSize());
+        return Arrays.copyOfRange(imageExporter.export(), offset, offset + parameters.getSectorSize());
     }
 
-    private static Archive getArchiveFromDirectoryEntry(CpmDirectoryEntry[] directoryEntries, int index,
-                                                        byte[] data, FileSystemParameters parameters,
-                                                        int offset) {
-        final CpmDirectoryEntry entry = directoryEntries[index];
-        if (entry.getUserArea() != CpmConstants.UNUSED_ENTRY_USER) {
-            LOGGER.debug("Getting extents for archive " + entry.getName()
-                + "." + entry.getExtension() + " in user area " + entry.getUserArea());
-            int extentNumber = entry.getExtent();
-            List<CpmDirectoryEntry> fileExtents = Stream.of(directoryEntries).filter(e ->
-                    entry.getName().equals(e.getName()) &&
-                            entry.getExtension().equals(e.getExtension()) &&
-                            entry.getUserArea() == e.getUserArea())
-                    .collect(Collectors.toList());
-            fileExtents.sort(Comparator.comparingInt(CpmDirectoryEntry::getExtent));
-            LOGGER.debug("File has " + fileExtents.size() + " extents");
-            if (extentNumber == fileExtents.get(0).getExtent()) {
-                ByteArrayOutputStream bos = new ByteArrayOutputStream();
-                //Assuming that the blocks are ordered
-                for (CpmDirectoryEntry extent : fileExtents) {
-                    int records = extent.getRecordCount();
-                    int lastRecordBytes = extent.getByteCount() == 0 ? 128 : extent.getByteCount();
-                    LOGGER.trace("Processing extent " + extent);
-                    for (int block : extent.getAllocatedBlocks()) {
-                        if (block > 0) {
-                            LOGGER.trace("Fetching data for block " + block);
-                            try {
-                                int from = block * parameters.getBlockSize();
-                                int to = from;
-                                if ((records << CpmConstants.RECORD_SHIFT) <= parameters.getBlockSize()) {
-                                    to += ((records - 1) << CpmConstants.RECORD_SHIFT) + lastRecordBytes;
-                                } else {
-                                    to += parameters.getBlockSize();
-                                }
-                                LOGGER.trace("Calculated data range from " + from + " to " + to
-                                    + ", size: " + (to - from) + " bytes");
-                                bos.write(Arrays.copyOfRange(data, from + offset, to + offset));
-                                records -= (to - from) >> CpmConstants.RECORD_SHIFT;
-                            } catch (Exception e) {
-                                LOGGER.error("Getting file data", e);
-                            }
+    private static Archive getArchiveFromExtents(List<CpmDirectoryEntry> fileExtents,
+                                                 byte[] data, FileSystemParameters parameters,
+                                                 int offset) {
+        CpmDirectoryEntry entry = fileExtents.get(0);
+        LOGGER.debug("File " + entry.getName() + "." + entry.getExtension() + " in user area "
+                + entry.getUserArea() + " has " + fileExtents.size() + " extents");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        //Assuming that the blocks are ordered
+        for (CpmDirectoryEntry extent : fileExtents) {
+            int records = extent.getRecordCount();
+            int lastRecordBytes = extent.getByteCount() == 0 ? 128 : extent.getByteCount();
+            LOGGER.trace("Processing extent " + extent);
+            for (int block : extent.getAllocatedBlocks()) {
+                if (block > 0) {
+                    LOGGER.trace("Fetching data for block " + block);
+                    try {
+                        int from = block * parameters.getBlockSize();
+                        int to = from;
+                        if ((records << CpmConstants.RECORD_SHIFT) <= parameters.getBlockSize()) {
+                            to += ((records - 1) << CpmConstants.RECORD_SHIFT) + lastRecordBytes;
+                        } else {
+                            to += parameters.getBlockSize();
                         }
+                        LOGGER.trace("Calculated data range from " + from + " to " + to
+                            + ", size: " + (to - from) + " bytes");
+                        if (to + offset <= data.length) {
+                            bos.write(data, from + offset, to - from);
+                        } else {
+                            bos.write(Arrays.copyOfRange(data, from + offset, to + offset));
+                        }
+                        records -= (to - from) >> CpmConstants.RECORD_SHIFT;
+                    } catch (Exception e) {
+                        LOGGER.error("Getting file data", e);
                     }
                 }
-                return new Archive(entry.getName(), entry.getExtension(), entry.getUserArea(),
-                        bos.toByteArray(), entry.getFlags());
-
-            } else {
-                LOGGER.debug("Not the first extent of file. Skipping");
             }
         }
-
-        return null;
+        return new Archive(entry.getName(), entry.getExtension(), entry.getUserArea(),
+                bos.toByteArray(), entry.getFlags());
     }
 
     public static CpmFileSystem fromByteArray(byte[] data, FileSystemParameters parameters) {
         CpmDirectoryEntry[] directoryEntries = new CpmDirectoryEntry[parameters.getDirectoryEntries()];
         int offset = parameters.getReservedTracks() * parameters.getSectorsByTrack() * parameters.getSectorSize();
         int directoryOffset = offset;
+        //Extents of each file, indexed by user area, name and extension
+        Map<String, List<CpmDirectoryEntry>> fileExtents = new HashMap<>();
         for (int i = 0; i < directoryEntries.length; i++) {
-            directoryEntries[i] = CpmDirectoryEntry.fromByteArray(parameters, data, directoryOffset);
-            LOGGER.debug("-- Directory entry " + directoryEntries[i]);
+            CpmDirectoryEntry entry = CpmDirectoryEntry.fromByteArray(parameters, data, directoryOffset);
+            LOGGER.debug("-- Directory entry " + entry);
+            directoryEntries[i] = entry;
+            fileExtents.computeIfAbsent(archiveKey(entry.getUserArea(), entry.getName(), entry.getExtension()),
+                    k -> new ArrayList<>()).add(entry);
             directoryOffset += CpmConstants.DIRECTORY_ENTRY_SIZE;
         }
+        fileExtents.values().forEach(extents -> extents.sort(Comparator.comparingInt(CpmDirectoryEntry::getExtent)));
+
         CpmFileSystem fileSystem = new CpmFileSystem(parameters);
-        //Recreate now the files
-        for (int i = 0; i < directoryEntries.length; i++) {
-            Archive archive = getArchiveFromDirectoryEntry(directoryEntries, i, data, parameters, offset);
-            if (archive != null) {
-                LOGGER.debug("Adding archive " + archive);
-                fileSystem.addArchive(archive);
+        //Recreate now the files, in the order of their first extent
+        for (CpmDirectoryEntry entry : directoryEntries) {
+            if (entry.getUserArea() != CpmConstants.UNUSED_ENTRY_USER) {
+                List<CpmDirectoryEntry> extents = fileExtents.get(
+                        archiveKey(entry.getUserArea(), entry.getName(), entry.getExtension()));
+                if (entry.getExtent() == extents.get(0).getExtent()) {
+                    Archive archive = getArchiveFromExtents(extents, data, parameters, offset);
+                    LOGGER.debug("Adding archive " + archive);
+                    fileSystem.addArchive(archive);
+                } else {
+                    LOGGER.debug("Not the first extent of file. Skipping");
+                }
             }
         }
 
         return fileSystem;
     }
 
-    private class ByteArrayExporter {
+    /*
+     * Keeps the exported image of the filesystem, with the archives laid out
+     * in list order after the directory. Appending an archive only writes its
+     * own blocks and directory entries; removing one only rewrites what
+     * follows it.
+     */
+    private class ImageExporter {
+        private byte[] data;
+        //First block and directory entry of each exported archive
+        private final List<int[]> archiveLayouts = new ArrayList<>();
         private int currentDirectoryEntry;
-        private CpmDirectoryEntry[] directoryEntries;
         private int currentBlock;
-        private byte[] data;
 
         private void exportArchive(Archive archive) {
+            archiveLayouts.add(new int[] {currentBlock, currentDirectoryEntry});
             int remaining = archive.getSize();
             int extent = 0;
             int dataOffset = 0;
@@ -227,39 +249,42 @@ public class CpmFileSystem {
                                 CpmConstants.RECORD_SIZE) >> CpmConstants.RECORD_SHIFT,
                         lastRecordBytes);
                 LOGGER.debug("Creating new directory entry " + directoryEntry);
-                directoryEntries[currentDirectoryEntry++] = directoryEntry;
+                System.arraycopy(directoryEntry.asByteArray(parameters), 0, data,
+                        currentDirectoryEntry++ * CpmConstants.DIRECTORY_ENTRY_SIZE,
+                        CpmConstants.DIRECTORY_ENTRY_SIZE);
                 remaining -= requestedSize;
             } while (remaining > 0);
         }
 
-        private byte[] getDirectoryByteArray(int size) {
-            byte[] directory = new byte[size];
-            Arrays.fill(directory, CpmConstants.EMPTY_BYTE);
-            for (int entryIndex = 0; entryIndex < directoryEntries.length; entryIndex++) {
-                CpmDirectoryEntry entry = directoryEntries[entryIndex];
-                if (entry != null) {
-                    System.arraycopy(entry.asByteArray(parameters), 0, directory,
-                            entryIndex * CpmConstants.DIRECTORY_ENTRY_SIZE,
-                            CpmConstants.DIRECTORY_ENTRY_SIZE);
-                } else {
-                    break;
-                }
+        private void invalidate(int archiveIndex) {
+            if (archiveIndex == 0) {
+                data = null;
+                archiveLayouts.clear();
+            } else if (archiveIndex < archiveLayouts.size()) {
+                int[] layout = archiveLayouts.get(archiveIndex);
+                Arrays.fill(data, layout[0] * parameters.getBlockSize(),
+                        currentBlock * parameters.getBlockSize(), (byte) 0);
+                Arrays.fill(data, layout[1] * CpmConstants.DIRECTORY_ENTRY_SIZE,
+                        currentDirectoryEntry * CpmConstants.DIRECTORY_ENTRY_SIZE, CpmConstants.EMPTY_BYTE);
+                currentBlock = layout[0];
+                currentDirectoryEntry = layout[1];
+                archiveLayouts.subList(archiveIndex, archiveLayouts.size()).clear();
             }
-            return directory;
         }
 
         public byte[] export() {
-            data = new byte[parameters.getBlockSize() * parameters.getBlockCount()];
-            directoryEntries = new CpmDirectoryEntry[parameters.getDirectoryEntries()];
-            int directorySize = Util.roundToNearestMultiple(
-                    parameters.getDirectoryEntries() * CpmConstants.DIRECTORY_ENTRY_SIZE,
-                    parameters.getBlockSize());
-            currentBlock = directorySize / parameters.getBlockSize();
-            currentDirectoryEntry = 0;
-            for (Archive archive : archiveList) {
-                exportArchive(archive);
+            if (data == null) {
+                data = new byte[parameters.getBlockSize() * parameters.getBlockCount()];
+                int directorySize = Util.roundToNearestMultiple(
+                        parameters.getDirectoryEntries() * CpmConstants.DIRECTORY_ENTRY_SIZE,
+                        parameters.getBlockSize());
+                Arrays.fill(data, 0, directorySize, CpmConstants.EMPTY_BYTE);
+                currentBlock = directorySize / parameters.getBlockSize();
+                currentDirectoryEntry = 0;
+            }
+            for (int i = archiveLayouts.size(); i < archiveList.size(); i++) {
+                exportArchive(archiveList.get(i));
             }
-            System.arraycopy(getDirectoryByteArray(directorySize), 0, data, 0, directorySize);
             return data;
         }
     }
@@ -2,6 +2,8 @@ package com.grelobites.romgenerator.util.gameloader;
 
 import com.grelobites.romgenerator.model.Game;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -9,5 +11,12 @@ import java.io.OutputStream;
 
 public interface GameImageLoader {
     Game load(InputStream is) throws IOException;
+
+    default Game load(File file) throws IOException {
+        try (InputStream is = new FileInputStream(file)) {
+            return load(is);
+        }
+    }
+
     void save(Game game, OutputStream os) throws IOException;
 }
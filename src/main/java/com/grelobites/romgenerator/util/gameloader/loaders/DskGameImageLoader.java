@@ -7,6 +7,7 @@ import com.grelobites.romgenerator.util.dsk.DskLoader;
 import com.grelobites.romgenerator.util.emulator.resources.Cpc6128LoaderResources;
 import com.grelobites.romgenerator.util.gameloader.GameImageLoader;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -14,12 +15,22 @@ import java.io.OutputStream;
 public class DskGameImageLoader implements GameImageLoader {
     @Override
     public Game load(InputStream is) throws IOException {
-        DskLoader loader = new DskLoader(HardwareMode.HW_CPC6128, Cpc6128LoaderResources.getInstance());
-        SnapshotGame game = (SnapshotGame) loader.loadDsk(is);
+        SnapshotGame game = (SnapshotGame) newLoader().loadDsk(is);
         game.setHoldScreen(true);
         return game;
     }
 
+    @Override
+    public Game load(File file) throws IOException {
+        SnapshotGame game = (SnapshotGame) newLoader().loadDsk(file);
+        game.setHoldScreen(true);
+        return game;
+    }
+
+    private static DskLoader newLoader() {
+        return new DskLoader(HardwareMode.HW_CPC6128, Cpc6128LoaderResources.getInstance());
+    }
+
     @Override
     public void save(Game game, OutputStream os) throws IOException {
         throw new IllegalStateException("Save to Dsk not supported");
@@ -14,9 +14,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -29,11 +31,38 @@ import java.util.TreeMap;
 public class SNAGameImageLoader implements GameImageLoader {
     private static final Logger LOGGER = LoggerFactory.getLogger(SNAGameImageLoader.class);
 
-    private static void setGameSlot(Map<Integer,byte[]> slots, byte[] data, int source, int slot) {
+    private static boolean isZeroed(ByteBuffer data) {
+        while (data.remaining() >= Long.BYTES) {
+            if (data.getLong() != 0) {
+                return false;
+            }
+        }
+        while (data.hasRemaining()) {
+            if (data.get() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Slots are read straight from the source view. Zeroed slots share
+     * Constants.ZEROED_SLOT instead of getting an array of their own
+     */
+    private static void setGameSlot(Map<Integer,byte[]> slots, ByteBuffer data, int source, int slot) {
         LOGGER.debug("Copying chunk data from {} to {}. Source size {}",
-                slot * Constants.SLOT_SIZE, (slot + 1) * Constants.SLOT_SIZE, data.length);
-        slots.put(slot, Arrays.copyOfRange(data, source * Constants.SLOT_SIZE,
-                (source + 1 ) * Constants.SLOT_SIZE));
+                slot * Constants.SLOT_SIZE, (slot + 1) * Constants.SLOT_SIZE, data.capacity());
+        ByteBuffer slotData = data.duplicate();
+        int start = Math.min(source * Constants.SLOT_SIZE, slotData.limit());
+        slotData.position(start);
+        slotData.limit(Math.min(start + Constants.SLOT_SIZE, slotData.limit()));
+        if (isZeroed(slotData.duplicate())) {
+            slots.put(slot, Constants.ZEROED_SLOT);
+        } else {
+            byte[] slotArray = new byte[Constants.SLOT_SIZE];
+            slotData.get(slotArray, 0, slotData.remaining());
+            slots.put(slot, slotArray);
+        }
     }
 
     private static boolean isEmptyChunk(SnaChunk chunk) {
@@ -57,13 +86,21 @@ public class SNAGameImageLoader implements GameImageLoader {
 
     @Override
     public Game load(InputStream is) throws IOException {
+        return fromSnaImage(SnaFactory.fromInputStream(is));
+    }
+
+    @Override
+    public Game load(File file) throws IOException {
+        return fromSnaImage(SnaFactory.fromFile(file));
+    }
+
+    private static Game fromSnaImage(SnaImage snaImage) throws IOException {
         try {
-            SnaImage snaImage = SnaFactory.fromInputStream(is);
             GameHeader header = GameHeader.fromSnaImage(snaImage);
             int slots = 1024 * snaImage.getMemoryDumpSize() / Constants.SLOT_SIZE;
             SortedMap<Integer, byte[]> gameSlots = new TreeMap<>();
             for (int i = 0; i < slots; i++) {
-                setGameSlot(gameSlots, snaImage.getMemoryDump(), i, i);
+                setGameSlot(gameSlots, snaImage.getMemoryDumpBuffer(), i, i);
             }
 
             if (snaImage.getSnapshotVersion() == 3 && !hasAllEmptyChunks(snaImage.getSnaChunks())) {
@@ -73,14 +110,16 @@ public class SNAGameImageLoader implements GameImageLoader {
                     if (chunk.getName().equals(SnaChunk.CHUNK_MEM0)) {
                         LOGGER.debug("Read compressed chunk {} with size {}", chunk.getName(),
                                 chunk.getData().length);
+                        ByteBuffer chunkData = ByteBuffer.wrap(chunk.getData());
                         for (int i = 0; i < 4; i++) {
-                            setGameSlot(gameSlots, chunk.getData(), i, i);
+                            setGameSlot(gameSlots, chunkData, i, i);
                         }
                     } else if (chunk.getName().equals(SnaChunk.CHUNK_MEM1)) {
                         LOGGER.debug("Read compressed chunk {} with size {}", chunk.getName(),
                                 chunk.getData().length);
+                        ByteBuffer chunkData = ByteBuffer.wrap(chunk.getData());
                         for (int i = 0; i < chunk.getData().length / Constants.SLOT_SIZE; i++) {
-                            setGameSlot(gameSlots, chunk.getData(), i, i + 4);
+                            setGameSlot(gameSlots, chunkData, i, i + 4);
                         }
                     }
                 }
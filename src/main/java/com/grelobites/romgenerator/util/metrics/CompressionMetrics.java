@@ -0,0 +1,90 @@
+package com.grelobites.romgenerator.util.metrics;
+
+import com.grelobites.romgenerator.util.compress.CompressorType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Game slots compressed with a codec. Slots per second are measured over the
+ * time spent compressing, so they add up the work of all the threads.
+ */
+public class CompressionMetrics implements CompressionMetricsMXBean {
+    private final CompressorType codec;
+    private final boolean enabled;
+    private final LongAdder slots = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public CompressionMetrics(CompressorType codec, boolean enabled) {
+        this.codec = codec;
+        this.enabled = enabled;
+    }
+
+    public void onSlot(int in, int out, long startNanos) {
+        if (enabled) {
+            long elapsed = System.nanoTime() - startNanos;
+            slots.increment();
+            bytesIn.add(in);
+            bytesOut.add(out);
+            nanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+            Metrics.EVENTS.onCompression(codec.name(), in, out, elapsed);
+        }
+    }
+
+    @Override
+    public String getCodec() {
+        return codec.name();
+    }
+
+    @Override
+    public long getSlots() {
+        return slots.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public double getCompressionRatio() {
+        long in = bytesIn.sum();
+        return in > 0 ? (double) bytesOut.sum() / in : 0;
+    }
+
+    @Override
+    public double getSlotsPerSecond() {
+        long elapsed = nanos.sum();
+        return elapsed > 0 ? slots.sum() * 1e9 / elapsed : 0;
+    }
+
+    @Override
+    public double getAverageSlotMicros() {
+        long count = slots.sum();
+        return count > 0 ? nanos.sum() / 1e3 / count : 0;
+    }
+
+    @Override
+    public long getMaxSlotMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+    }
+
+    @Override
+    public void reset() {
+        slots.reset();
+        bytesIn.reset();
+        bytesOut.reset();
+        nanos.reset();
+        maxNanos.reset();
+    }
+}
@@ -0,0 +1,21 @@
+package com.grelobites.romgenerator.util.metrics;
+
+public interface CompressionMetricsMXBean {
+    String getCodec();
+
+    long getSlots();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    double getCompressionRatio();
+
+    double getSlotsPerSecond();
+
+    double getAverageSlotMicros();
+
+    long getMaxSlotMicros();
+
+    void reset();
+}
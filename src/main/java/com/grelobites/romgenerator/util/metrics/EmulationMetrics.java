@@ -0,0 +1,119 @@
+package com.grelobites.romgenerator.util.metrics;
+
+import com.grelobites.romgenerator.util.emulator.StopCondition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Game loads through the emulator. Rates are measured over the time spent
+ * emulating, so concurrent loads add up.
+ */
+public class EmulationMetrics implements EmulationMetricsMXBean {
+    private final boolean enabled;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder tstates = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder instructions = new LongAdder();
+    private final LongAdder fdcBytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder[] stopConditions = new LongAdder[StopCondition.values().length];
+
+    public EmulationMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < stopConditions.length; i++) {
+            stopConditions[i] = new LongAdder();
+        }
+    }
+
+    public void onStop(StopCondition condition) {
+        if (enabled) {
+            stopConditions[condition.ordinal()].increment();
+        }
+    }
+
+    public void onLoad(Object loader, long loadTstates, long loadFrames, long loadInstructions,
+                       long loadFdcBytes, StopCondition stopCondition, long startNanos) {
+        if (enabled) {
+            long elapsed = System.nanoTime() - startNanos;
+            loads.increment();
+            tstates.add(loadTstates);
+            frames.add(loadFrames);
+            instructions.add(loadInstructions);
+            fdcBytes.add(loadFdcBytes);
+            nanos.add(elapsed);
+            Metrics.EVENTS.onEmulation(loader.getClass().getSimpleName(), loadTstates, loadFrames,
+                    loadInstructions, loadFdcBytes,
+                    stopCondition != null ? stopCondition.name() : null, elapsed);
+        }
+    }
+
+    @Override
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    //T-states per microsecond. 4 is the speed of the real machine
+    @Override
+    public double getEmulatedMhz() {
+        long elapsed = nanos.sum();
+        return elapsed > 0 ? tstates.sum() * 1e3 / elapsed : 0;
+    }
+
+    @Override
+    public double getFramesPerSecond() {
+        long elapsed = nanos.sum();
+        return elapsed > 0 ? frames.sum() * 1e9 / elapsed : 0;
+    }
+
+    @Override
+    public double getAverageLoadMillis() {
+        long count = loads.sum();
+        return count > 0 ? nanos.sum() / 1e6 / count : 0;
+    }
+
+    @Override
+    public double getAverageInstructionsPerLoad() {
+        long count = loads.sum();
+        return count > 0 ? (double) instructions.sum() / count : 0;
+    }
+
+    @Override
+    public double getAverageFdcBytesPerLoad() {
+        long count = loads.sum();
+        return count > 0 ? (double) fdcBytes.sum() / count : 0;
+    }
+
+    @Override
+    public long getInstructions() {
+        return instructions.sum();
+    }
+
+    @Override
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    @Override
+    public Map<String, Long> getStopConditions() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (StopCondition condition : StopCondition.values()) {
+            result.put(condition.name(), stopConditions[condition.ordinal()].sum());
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        loads.reset();
+        tstates.reset();
+        frames.reset();
+        instructions.reset();
+        fdcBytes.reset();
+        nanos.reset();
+        for (LongAdder counter : stopConditions) {
+            counter.reset();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.grelobites.romgenerator.util.metrics;
+
+import java.util.Map;
+
+public interface EmulationMetricsMXBean {
+    long getLoads();
+
+    double getEmulatedMhz();
+
+    double getFramesPerSecond();
+
+    double getAverageLoadMillis();
+
+    double getAverageInstructionsPerLoad();
+
+    double getAverageFdcBytesPerLoad();
+
+    long getInstructions();
+
+    long getFrames();
+
+    Map<String, Long> getStopConditions();
+
+    void reset();
+}
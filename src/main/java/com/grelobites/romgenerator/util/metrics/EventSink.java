@@ -0,0 +1,20 @@
+package com.grelobites.romgenerator.util.metrics;
+
+/*
+ * Receiver of the individual measurements, besides the aggregated figures
+ * kept by the metrics beans. Used to emit Flight Recorder events.
+ */
+public interface EventSink {
+    EventSink NONE = new EventSink() {};
+
+    default void onCompression(String codec, int bytesIn, int bytesOut, long nanos) {}
+
+    default void onEmulation(String loader, long tstates, long frames, long instructions,
+                             long fdcBytes, String stopCondition, long nanos) {}
+
+    default void onTask(String type, long queueNanos, long runNanos) {}
+
+    default void onSerialTransfer(long bytesWritten, long bytesRead, long retransmits, long nanos) {}
+
+    default void onExport(int games, int bytes, long nanos) {}
+}
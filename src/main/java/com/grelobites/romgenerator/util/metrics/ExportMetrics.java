@@ -0,0 +1,58 @@
+package com.grelobites.romgenerator.util.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//ROM set images generated, from the game list to the written image
+public class ExportMetrics implements ExportMetricsMXBean {
+    private final boolean enabled;
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    private volatile long lastNanos;
+
+    public ExportMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void onExport(int games, int bytes, long startNanos) {
+        if (enabled) {
+            long elapsed = System.nanoTime() - startNanos;
+            exports.increment();
+            nanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+            lastNanos = elapsed;
+            Metrics.EVENTS.onExport(games, bytes, elapsed);
+        }
+    }
+
+    @Override
+    public long getExports() {
+        return exports.sum();
+    }
+
+    @Override
+    public double getAverageExportMillis() {
+        long count = exports.sum();
+        return count > 0 ? nanos.sum() / 1e6 / count : 0;
+    }
+
+    @Override
+    public long getMaxExportMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    @Override
+    public long getLastExportMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastNanos);
+    }
+
+    @Override
+    public void reset() {
+        exports.reset();
+        nanos.reset();
+        maxNanos.reset();
+        lastNanos = 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.grelobites.romgenerator.util.metrics;
+
+public interface ExportMetricsMXBean {
+    long getExports();
+
+    double getAverageExportMillis();
+
+    long getMaxExportMillis();
+
+    long getLastExportMillis();
+
+    void reset();
+}
@@ -0,0 +1,96 @@
+package com.grelobites.romgenerator.util.metrics;
+
+import com.grelobites.romgenerator.util.compress.CompressorType;
+import com.grelobites.romgenerator.util.task.TaskType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+/*
+ * Runtime metrics of the generator, published as JMX beans under the
+ * com.grelobites.romgenerator domain and, when the JFR event classes are
+ * available (JDK 11+ builds with -Djfr), as Flight Recorder events.
+ *
+ * Everything is disabled unless the romgenerator.metrics system property is
+ * true. The recorders check their final enabled flag first and no start time
+ * is taken while disabled, so instrumented code only pays for a branch. All
+ * the metric objects are created upfront and updated through LongAdders,
+ * with no allocation or formatting on the recording path.
+ */
+public class Metrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Metrics.class);
+    private static final String ENABLED_PROPERTY = "romgenerator.metrics";
+    private static final String JMX_DOMAIN = "com.grelobites.romgenerator";
+    private static final String JFR_SINK_CLASS = "com.grelobites.romgenerator.util.metrics.jfr.JfrEventSink";
+
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    static final EventSink EVENTS = ENABLED ? loadEventSink() : EventSink.NONE;
+
+    private static final Map<CompressorType, CompressionMetrics> COMPRESSION = new EnumMap<>(CompressorType.class);
+    private static final Map<TaskType, TaskMetrics> TASKS = new EnumMap<>(TaskType.class);
+    public static final EmulationMetrics EMULATION = new EmulationMetrics(ENABLED);
+    public static final SerialMetrics SERIAL = new SerialMetrics(ENABLED);
+    public static final ExportMetrics EXPORT = new ExportMetrics(ENABLED);
+
+    static {
+        for (CompressorType type : CompressorType.values()) {
+            COMPRESSION.put(type, new CompressionMetrics(type, ENABLED));
+        }
+        for (TaskType type : TaskType.values()) {
+            TASKS.put(type, new TaskMetrics(type, ENABLED));
+        }
+        if (ENABLED) {
+            registerBeans();
+        }
+    }
+
+    private static EventSink loadEventSink() {
+        try {
+            return (EventSink) Class.forName(JFR_SINK_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.info("Flight Recorder events not available");
+            return EventSink.NONE;
+        }
+    }
+
+    private static void register(MBeanServer server, String name, Object bean) {
+        try {
+            server.registerMBean(bean, new ObjectName(JMX_DOMAIN + ":" + name));
+        } catch (Exception e) {
+            LOGGER.warn("Registering metrics bean {}", name, e);
+        }
+    }
+
+    private static void registerBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        COMPRESSION.forEach((type, bean) -> register(server, "type=Compression,codec=" + type.name(), bean));
+        TASKS.forEach((type, bean) -> register(server, "type=Tasks,pool=" + type.name(), bean));
+        register(server, "type=Emulation", EMULATION);
+        register(server, "type=Serial", SERIAL);
+        register(server, "type=Export", EXPORT);
+        LOGGER.info("Runtime metrics published in JMX domain {}", JMX_DOMAIN);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    //Start time for the recorders, not taken when disabled
+    public static long now() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static CompressionMetrics compression(CompressorType type) {
+        return COMPRESSION.get(type);
+    }
+
+    public static TaskMetrics tasks(TaskType type) {
+        return TASKS.get(type);
+    }
+}
@@ -0,0 +1,78 @@
+package com.grelobites.romgenerator.util.metrics;
+
+import com.grelobites.romgenerator.util.serial.SerialTransportMetrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Completed serial transfers, taken from the metrics of their transport.
+ * Throughput in bytes written per second, idle gaps included.
+ */
+public class SerialMetrics implements SerialMetricsMXBean {
+    private final boolean enabled;
+    private final LongAdder transfers = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder retransmits = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private volatile double lastTransferThroughput;
+
+    public SerialMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void onTransfer(SerialTransportMetrics transfer) {
+        if (enabled) {
+            long elapsed = transfer.getElapsedNanos();
+            transfers.increment();
+            bytesWritten.add(transfer.getBytesWritten());
+            bytesRead.add(transfer.getBytesRead());
+            retransmits.add(transfer.getRetransmits());
+            nanos.add(elapsed);
+            lastTransferThroughput = transfer.getThroughput();
+            Metrics.EVENTS.onSerialTransfer(transfer.getBytesWritten(), transfer.getBytesRead(),
+                    transfer.getRetransmits(), elapsed);
+        }
+    }
+
+    @Override
+    public long getTransfers() {
+        return transfers.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getRetransmits() {
+        return retransmits.sum();
+    }
+
+    @Override
+    public double getThroughput() {
+        long elapsed = nanos.sum();
+        return elapsed > 0 ? bytesWritten.sum() * 1e9 / elapsed : 0;
+    }
+
+    @Override
+    public double getLastTransferThroughput() {
+        return lastTransferThroughput;
+    }
+
+    @Override
+    public void reset() {
+        transfers.reset();
+        bytesWritten.reset();
+        bytesRead.reset();
+        retransmits.reset();
+        nanos.reset();
+        lastTransferThroughput = 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.grelobites.romgenerator.util.metrics;
+
+public interface SerialMetricsMXBean {
+    long getTransfers();
+
+    long getBytesWritten();
+
+    long getBytesRead();
+
+    long getRetransmits();
+
+    double getThroughput();
+
+    double getLastTransferThroughput();
+
+    void reset();
+}
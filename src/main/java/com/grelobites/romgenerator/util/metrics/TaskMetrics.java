@@ -0,0 +1,94 @@
+package com.grelobites.romgenerator.util.metrics;
+
+import com.grelobites.romgenerator.util.task.TaskType;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Background tasks run in one of the task pools: time waiting in the queue
+ * and running. Queue depth and active threads are read from the pool itself
+ * when asked for.
+ */
+public class TaskMetrics implements TaskMetricsMXBean {
+    private final TaskType type;
+    private final boolean enabled;
+    private final LongAdder tasks = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Long::max, 0);
+    private volatile ThreadPoolExecutor executor;
+
+    public TaskMetrics(TaskType type, boolean enabled) {
+        this.type = type;
+        this.enabled = enabled;
+    }
+
+    public void bind(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            this.executor = (ThreadPoolExecutor) executor;
+        }
+    }
+
+    public void onTask(long queuedNanos, long startNanos) {
+        if (enabled) {
+            long queued = startNanos - queuedNanos;
+            long run = System.nanoTime() - startNanos;
+            tasks.increment();
+            queueNanos.add(queued);
+            runNanos.add(run);
+            maxQueueNanos.accumulate(queued);
+            Metrics.EVENTS.onTask(type.name(), queued, run);
+        }
+    }
+
+    @Override
+    public String getPool() {
+        return type.name();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        ThreadPoolExecutor current = executor;
+        return current != null ? current.getQueue().size() : 0;
+    }
+
+    @Override
+    public int getActiveThreads() {
+        ThreadPoolExecutor current = executor;
+        return current != null ? current.getActiveCount() : 0;
+    }
+
+    @Override
+    public long getTasks() {
+        return tasks.sum();
+    }
+
+    @Override
+    public double getAverageQueueMillis() {
+        long count = tasks.sum();
+        return count > 0 ? queueNanos.sum() / 1e6 / count : 0;
+    }
+
+    @Override
+    public long getMaxQueueMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueNanos.get());
+    }
+
+    @Override
+    public double getAverageRunMillis() {
+        long count = tasks.sum();
+        return count > 0 ? runNanos.sum() / 1e6 / count : 0;
+    }
+
+    @Override
+    public void reset() {
+        tasks.reset();
+        queueNanos.reset();
+        runNanos.reset();
+        maxQueueNanos.reset();
+    }
+}
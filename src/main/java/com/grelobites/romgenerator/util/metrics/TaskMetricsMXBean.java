@@ -0,0 +1,19 @@
+package com.grelobites.romgenerator.util.metrics;
+
+public interface TaskMetricsMXBean {
+    String getPool();
+
+    int getQueueDepth();
+
+    int getActiveThreads();
+
+    long getTasks();
+
+    double getAverageQueueMillis();
+
+    long getMaxQueueMillis();
+
+    double getAverageRunMillis();
+
+    void reset();
+}
@@ -3,8 +3,12 @@ package com.grelobites.romgenerator.util.pack;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 public class PackAlgorithms {
     private static final Logger LOGGER = LoggerFactory.getLogger(PackAlgorithms.class);
@@ -31,4 +35,184 @@ public class PackAlgorithms {
             containers.sort(Comparator.comparingInt(Container::getCapacity));
         }
     }
+
+    /*
+     * Martello-Toth L2 lower bound on the number of containers of the given
+     * capacity needed to hold all the items
+     */
+    public static int getLowerBound(List<? extends PackedItem> items, int capacity) {
+        int[] sizes = items.stream().mapToInt(PackedItem::getSize).toArray();
+        TreeSet<Integer> thresholds = new TreeSet<>();
+        thresholds.add(0);
+        for (int size : sizes) {
+            if (size * 2 <= capacity) {
+                thresholds.add(size);
+            }
+        }
+        int bound = 0;
+        for (int threshold : thresholds) {
+            int big = 0;
+            int medium = 0;
+            long mediumSize = 0;
+            long smallSize = 0;
+            for (int size : sizes) {
+                if (size > capacity - threshold) {
+                    big++;
+                } else if (size * 2 > capacity) {
+                    medium++;
+                    mediumSize += size;
+                } else if (size >= threshold) {
+                    smallSize += size;
+                }
+            }
+            long excess = smallSize - ((long) medium * capacity - mediumSize);
+            int containers = big + medium + (int) Math.max(0, (excess + capacity - 1) / capacity);
+            bound = Math.max(bound, containers);
+        }
+        return bound;
+    }
+
+    private static int[] firstFitDecreasing(int[] sizes, int capacity) {
+        int[] assignment = new int[sizes.length];
+        int[] free = new int[sizes.length];
+        int containers = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            int container = 0;
+            while (container < containers && free[container] < sizes[i]) {
+                container++;
+            }
+            if (container == containers) {
+                free[containers++] = capacity;
+            }
+            free[container] -= sizes[i];
+            assignment[i] = container;
+        }
+        return assignment;
+    }
+
+    private static int getContainerCount(int[] assignment) {
+        return Arrays.stream(assignment).max().orElse(-1) + 1;
+    }
+
+    /*
+     * Depth first search of a placement of the items (sorted by decreasing
+     * size) in a fixed number of containers. Containers with the same free
+     * space are interchangeable, so only the first of them is tried.
+     * Gives up once the node budget is exhausted.
+     */
+    private static class Search {
+        private final int[] sizes;
+        private final int capacity;
+        private final long maxNodes;
+        private final int[] assignment;
+        private long nodes;
+        private boolean aborted;
+
+        public Search(int[] sizes, int capacity, long maxNodes) {
+            this.sizes = sizes;
+            this.capacity = capacity;
+            this.maxNodes = maxNodes;
+            this.assignment = new int[sizes.length];
+        }
+
+        public boolean fits(int containers) {
+            int[] free = new int[containers];
+            Arrays.fill(free, capacity);
+            return place(0, free, Arrays.stream(sizes).asLongStream().sum());
+        }
+
+        private boolean place(int index, int[] free, long pendingSize) {
+            if (index == sizes.length) {
+                return true;
+            }
+            if (++nodes > maxNodes) {
+                aborted = true;
+                return false;
+            }
+            //Space smaller than the smallest item left is lost for good
+            int smallest = sizes[sizes.length - 1];
+            long usable = 0;
+            for (int space : free) {
+                if (space >= smallest) {
+                    usable += space;
+                }
+            }
+            if (pendingSize > usable) {
+                return false;
+            }
+            int size = sizes[index];
+            for (int container = 0; container < free.length; container++) {
+                if (free[container] >= size && !isRepeated(free, container)) {
+                    free[container] -= size;
+                    assignment[index] = container;
+                    if (place(index + 1, free, pendingSize - size)) {
+                        return true;
+                    }
+                    free[container] += size;
+                    if (aborted) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean isRepeated(int[] free, int container) {
+            for (int i = 0; i < container; i++) {
+                if (free[i] == free[container]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /*
+     * Packs the items in as few containers as possible. Starts from first fit
+     * decreasing and then looks for placements using one container less until
+     * the lower bound is reached, no placement exists or the search budget
+     * (in visited nodes) runs out.
+     */
+    public static <T extends PackedItem, C extends Container<T>> List<C> binOptimalPack(
+            Supplier<C> containerSupplier, List<T> items, long maxNodes) {
+        int capacity = containerSupplier.get().getCapacity();
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingInt(PackedItem::getSize).reversed());
+        for (T item : sorted) {
+            if (item.getSize() > capacity) {
+                throw new IllegalArgumentException("Unable to pack element of size " +
+                        item.getSize());
+            }
+        }
+        int[] sizes = sorted.stream().mapToInt(PackedItem::getSize).toArray();
+        int[] best = firstFitDecreasing(sizes, capacity);
+        int containerCount = getContainerCount(best);
+        int lowerBound = getLowerBound(sorted, capacity);
+        LOGGER.debug("First fit decreasing packed {} items in {} containers, lower bound is {}",
+                sorted.size(), containerCount, lowerBound);
+
+        Search search = new Search(sizes, capacity, maxNodes);
+        boolean optimal = containerCount == lowerBound;
+        while (!optimal && !search.aborted) {
+            if (search.fits(containerCount - 1)) {
+                best = search.assignment.clone();
+                containerCount = getContainerCount(best);
+                optimal = containerCount == lowerBound;
+            } else {
+                optimal = !search.aborted;
+            }
+        }
+        LOGGER.debug("Packed {} items in {} containers after {} search nodes ({})",
+                sorted.size(), containerCount, search.nodes,
+                optimal ? "optimal" : "search budget exhausted");
+
+        List<C> containers = new ArrayList<>();
+        for (int i = 0; i < containerCount; i++) {
+            containers.add(containerSupplier.get());
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            containers.get(best[i]).addItem(sorted.get(i));
+        }
+        return containers;
+    }
 }
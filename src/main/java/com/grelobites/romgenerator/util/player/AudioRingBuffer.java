@@ -0,0 +1,87 @@
+package com.grelobites.romgenerator.util.player;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/*
+ * Bounded single producer/single consumer byte buffer between the tape
+ * renderer and the audio sink. The producer blocks when the buffer is full
+ * and the consumer when it is empty, so only a few hundred milliseconds
+ * of audio are ever rendered ahead of the line
+ */
+public class AudioRingBuffer extends OutputStream {
+    private final byte[] buffer;
+    private int readPosition = 0;
+    private int available = 0;
+    private boolean closed = false;
+    private boolean aborted = false;
+
+    public AudioRingBuffer(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            while (available == buffer.length && !aborted) {
+                waitForChange();
+            }
+            if (aborted) {
+                throw new InterruptedIOException("Ring buffer aborted");
+            }
+            int writePosition = (readPosition + available) % buffer.length;
+            int count = Math.min(length, Math.min(buffer.length - available,
+                    buffer.length - writePosition));
+            System.arraycopy(data, offset, buffer, writePosition, count);
+            available += count;
+            offset += count;
+            length -= count;
+            notifyAll();
+        }
+    }
+
+    //Returns -1 once the producer has closed the buffer and it is empty
+    public synchronized int read(byte[] data, int offset, int length) throws IOException {
+        while (available == 0 && !closed && !aborted) {
+            waitForChange();
+        }
+        if (aborted) {
+            throw new InterruptedIOException("Ring buffer aborted");
+        }
+        if (available == 0) {
+            return -1;
+        }
+        int count = Math.min(length, Math.min(available, buffer.length - readPosition));
+        System.arraycopy(buffer, readPosition, data, offset, count);
+        readPosition = (readPosition + count) % buffer.length;
+        available -= count;
+        notifyAll();
+        return count;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    public synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+
+    private void waitForChange() throws InterruptedIOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting on ring buffer");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.grelobites.romgenerator.util.player;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+
+public interface AudioSink {
+
+    void open(AudioFormat format) throws IOException;
+
+    void write(byte[] data, int offset, int length) throws IOException;
+
+    void drain() throws IOException;
+
+    void close();
+}
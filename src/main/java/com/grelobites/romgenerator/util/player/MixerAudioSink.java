@@ -0,0 +1,56 @@
+package com.grelobites.romgenerator.util.player;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
+import java.io.IOException;
+
+public class MixerAudioSink implements AudioSink {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MixerAudioSink.class);
+
+    private SourceDataLine soundLine;
+
+    private static Mixer getMixer() {
+        Mixer.Info[] mixerInfos =  AudioSystem.getMixerInfo();
+        return AudioSystem.getMixer(mixerInfos[0]);
+    }
+
+    @Override
+    public void open(AudioFormat format) throws IOException {
+        try {
+            Mixer mixer = getMixer();
+            LOGGER.debug("Playing audio on mixer {} with format {}", mixer.getMixerInfo(), format);
+            DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
+            soundLine = (SourceDataLine) mixer.getLine(info);
+            soundLine.open(format);
+            soundLine.start();
+        } catch (LineUnavailableException e) {
+            throw new IOException("Opening audio line", e);
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        soundLine.write(data, offset, length);
+    }
+
+    @Override
+    public void drain() {
+        soundLine.drain();
+    }
+
+    @Override
+    public void close() {
+        if (soundLine != null) {
+            soundLine.stop();
+            soundLine.close();
+            soundLine = null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.grelobites.romgenerator.util.player;
+
+import javax.sound.sampled.AudioFormat;
+
+public class NullAudioSink implements AudioSink {
+    private long bytesWritten = 0;
+
+    @Override
+    public void open(AudioFormat format) {
+        bytesWritten = 0;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        bytesWritten += length;
+    }
+
+    @Override
+    public void drain() {}
+
+    @Override
+    public void close() {}
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,235 @@
+package com.grelobites.romgenerator.util.player;
+
+import com.grelobites.romgenerator.util.wav.CdtWavOutputStream;
+import com.grelobites.romgenerator.util.wav.PcmPulseOutput;
+import com.grelobites.romgenerator.util.wav.SampleCountingOutput;
+import com.grelobites.romgenerator.util.wav.WavFormat;
+import javafx.application.Platform;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Plays a CDT rendering its pulses on the fly. A producer thread feeds an
+ * AudioRingBuffer from the CdtWavOutputStream and a consumer thread moves
+ * the samples from the buffer to the AudioSink, so playback starts without
+ * rendering the whole tape or going through a temporary file
+ */
+public class StreamingAudioDataPlayer implements DataPlayer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingAudioDataPlayer.class);
+    private static final int SINK_CHUNK_SIZE = 2048;
+    private static final int RING_BUFFER_MILLIS = 500;
+    private static final double PROGRESS_STEP = 0.005;
+
+    private static ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r);
+        t.setDaemon(true);
+        t.setName("Audio Player");
+        return t;
+    });
+
+    private enum State {
+        STOPPED,
+        RUNNING,
+        STOPPING
+    }
+
+    private final byte[] cdtData;
+    private final WavFormat format;
+    private final AudioSink audioSink;
+    private final Executor progressExecutor;
+    private final DoubleProperty progressProperty = new SimpleDoubleProperty();
+    private final AtomicBoolean progressUpdatePending = new AtomicBoolean(false);
+    private volatile double currentProgress;
+    private double publishedProgress;
+    private long streamLength = -1;
+    private Runnable onFinalization;
+    private AudioRingBuffer ringBuffer;
+    private volatile State state = State.STOPPED;
+
+    public static class Builder {
+        private byte[] cdtData;
+        private WavFormat format = WavFormat.DEFAULT_FORMAT;
+        private AudioSink audioSink;
+        private Executor progressExecutor = Platform::runLater;
+
+        public Builder withCdtData(byte[] cdtData) {
+            this.cdtData = cdtData;
+            return this;
+        }
+
+        public Builder withFormat(WavFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        public Builder withAudioSink(AudioSink audioSink) {
+            this.audioSink = audioSink;
+            return this;
+        }
+
+        //Where progress and finalization notifications are run. FX thread by default
+        public Builder withProgressExecutor(Executor progressExecutor) {
+            this.progressExecutor = progressExecutor;
+            return this;
+        }
+
+        public StreamingAudioDataPlayer build() {
+            if (cdtData == null) {
+                throw new IllegalStateException("No CDT data provided");
+            }
+            return new StreamingAudioDataPlayer(cdtData, format,
+                    audioSink != null ? audioSink : new MixerAudioSink(),
+                    progressExecutor);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private StreamingAudioDataPlayer(byte[] cdtData, WavFormat format,
+                                     AudioSink audioSink, Executor progressExecutor) {
+        this.cdtData = cdtData;
+        this.format = format;
+        this.audioSink = audioSink;
+        this.progressExecutor = progressExecutor;
+    }
+
+    private long getStreamLength() throws IOException {
+        if (streamLength < 0) {
+            SampleCountingOutput counter = new SampleCountingOutput(format);
+            new CdtWavOutputStream(new ByteArrayInputStream(cdtData), counter).flush();
+            streamLength = counter.getByteCount();
+            LOGGER.debug("Calculated audio stream length as {} bytes", streamLength);
+        }
+        return streamLength;
+    }
+
+    private AudioFormat getAudioFormat() {
+        //8 bit unsigned PCM, as in the generated WAV files
+        return new AudioFormat(format.getSampleRate(), 8,
+                format.getChannelType().channels(), false, false);
+    }
+
+    private void updateProgress(double progress) {
+        if (progress - publishedProgress >= PROGRESS_STEP || progress >= 1.0) {
+            publishedProgress = progress;
+            currentProgress = progress;
+            //Coalesce updates while the previous one has not been consumed yet
+            if (progressUpdatePending.compareAndSet(false, true)) {
+                progressExecutor.execute(() -> {
+                    progressUpdatePending.set(false);
+                    progressProperty.set(currentProgress);
+                });
+            }
+        }
+    }
+
+    private void renderTape(AudioRingBuffer buffer) {
+        try {
+            PcmPulseOutput output = new PcmPulseOutput(buffer, format);
+            new CdtWavOutputStream(new ByteArrayInputStream(cdtData), output).flush();
+            LOGGER.debug("Tape rendering completed");
+        } catch (InterruptedIOException e) {
+            LOGGER.debug("Tape rendering aborted");
+        } catch (Exception e) {
+            LOGGER.error("Rendering tape", e);
+            buffer.abort();
+        } finally {
+            buffer.close();
+        }
+    }
+
+    private void playBuffer(AudioRingBuffer buffer) {
+        try {
+            long length = getStreamLength();
+            audioSink.open(getAudioFormat());
+            try {
+                byte[] chunk = new byte[SINK_CHUNK_SIZE];
+                long written = 0;
+                int count;
+                while (state == State.RUNNING && (count = buffer.read(chunk, 0, chunk.length)) != -1) {
+                    audioSink.write(chunk, 0, count);
+                    written += count;
+                    updateProgress(length > 0 ? 1.0 * written / length : 1.0);
+                }
+                if (state == State.RUNNING) {
+                    audioSink.drain();
+                }
+            } finally {
+                audioSink.close();
+            }
+            if (state == State.RUNNING && onFinalization != null) {
+                //Only when we are not stopped programmatically (end of stream)
+                progressExecutor.execute(onFinalization);
+            }
+        } catch (InterruptedIOException e) {
+            LOGGER.debug("Audio playback aborted");
+        } catch (Exception e) {
+            LOGGER.error("Playing audio", e);
+        } finally {
+            buffer.abort();
+            synchronized (this) {
+                state = State.STOPPED;
+                notifyAll();
+            }
+            LOGGER.debug("State is now STOPPED");
+        }
+    }
+
+    @Override
+    public synchronized void send() {
+        if (state != State.STOPPED) {
+            LOGGER.warn("Player is already running");
+            return;
+        }
+        int frameSize = format.getChannelType().channels();
+        ringBuffer = new AudioRingBuffer(format.getSampleRate() * RING_BUFFER_MILLIS / 1000 * frameSize);
+        publishedProgress = 0;
+        state = State.RUNNING;
+        final AudioRingBuffer buffer = ringBuffer;
+        executor.execute(() -> renderTape(buffer));
+        executor.execute(() -> playBuffer(buffer));
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (state == State.RUNNING) {
+            state = State.STOPPING;
+            LOGGER.debug("State changed to STOPPING");
+            ringBuffer.abort();
+            while (state != State.STOPPED) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    LOGGER.debug("Interrupted while waiting player termination", e);
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            LOGGER.debug("Stop operation acknowledged");
+        }
+    }
+
+    @Override
+    public void onFinalization(Runnable onFinalization) {
+        this.onFinalization = onFinalization;
+    }
+
+    @Override
+    public DoubleProperty progressProperty() {
+        return progressProperty;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.grelobites.romgenerator.util.player;
+
+import com.grelobites.romgenerator.util.wav.WavFormat;
+import com.grelobites.romgenerator.util.wav.WavOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class WavFileAudioSink implements AudioSink {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WavFileAudioSink.class);
+
+    private final File file;
+    private final WavFormat format;
+    private RandomAccessFile output;
+    private int dataLength;
+
+    public WavFileAudioSink(File file, WavFormat format) {
+        this.file = file;
+        this.format = format;
+    }
+
+    @Override
+    public void open(AudioFormat audioFormat) throws IOException {
+        output = new RandomAccessFile(file, "rw");
+        output.setLength(0);
+        dataLength = 0;
+        //Placeholder header, rewritten on drain when the length is known
+        output.write(WavOutputStream.getWavHeader(format, 0));
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        output.write(data, offset, length);
+        dataLength += length;
+    }
+
+    @Override
+    public void drain() throws IOException {
+        output.seek(0);
+        output.write(WavOutputStream.getWavHeader(format, dataLength));
+        output.seek(output.length());
+    }
+
+    @Override
+    public void close() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ioe) {
+                LOGGER.warn("Closing wav file " + file, ioe);
+            }
+            output = null;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.grelobites.romgenerator.util.pokefinder;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.model.SnapshotGame;
+import com.grelobites.romgenerator.model.Trainer;
+import com.grelobites.romgenerator.model.TrainerList;
+import com.grelobites.romgenerator.util.emulator.Memory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/*
+ * Cheat finder over a series of RAM captures of the same game (i.e. with 3,
+ * 2 and 1 lives left). Candidate addresses are kept as a bitset and every
+ * filter compares the new capture with the previous one, narrowing the set.
+ * Comparisons are done eight bytes at a time on longs, skipping words with no
+ * candidates left, and each 16K bank is scanned in parallel.
+ */
+public class RamSearch {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RamSearch.class);
+    public static final int RAM_SIZE = 0x10000;
+    private static final int BANK_SIZE = Constants.SLOT_SIZE;
+    private static final int BANKS = RAM_SIZE / BANK_SIZE;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long BYTE_ONES = 0x0101010101010101L;
+    //Moves the high bit of each byte to bits 56 to 63
+    private static final long GATHER_HIGH_BITS = 0x0102040810204080L;
+
+    //Given a long of the new capture and the same long of the previous one,
+    //sets the high bit of each byte that passes the filter
+    @FunctionalInterface
+    private interface ByteFilter {
+        long matches(long current, long previous);
+    }
+
+    private final long[] candidates = new long[RAM_SIZE / Long.SIZE];
+    private byte[] previous;
+
+    public RamSearch(byte[] ram) {
+        checkSize(ram);
+        Arrays.fill(candidates, -1L);
+        previous = ram.clone();
+    }
+
+    private static void checkSize(byte[] ram) {
+        if (ram.length != RAM_SIZE) {
+            throw new IllegalArgumentException("RAM captures must be " + RAM_SIZE + " bytes long");
+        }
+    }
+
+    //The 64K as currently mapped by the game
+    public static byte[] capture(SnapshotGame game) {
+        byte[] ram = new byte[RAM_SIZE];
+        for (int bank = 0; bank < BANKS; bank++) {
+            System.arraycopy(game.getSlot(game.getSlotForMappedRam(bank * BANK_SIZE)), 0,
+                    ram, bank * BANK_SIZE, BANK_SIZE);
+        }
+        return ram;
+    }
+
+    public static byte[] capture(Memory memory) {
+        byte[] ram = new byte[RAM_SIZE];
+        for (int address = 0; address < RAM_SIZE; address++) {
+            ram[address] = (byte) memory.peek8(address);
+        }
+        return ram;
+    }
+
+    static long zeroBytes(long value) {
+        return ~(((value & LOW_BITS) + LOW_BITS) | value | LOW_BITS);
+    }
+
+    static long lessThanBytes(long a, long b) {
+        long lowDifference = (a | HIGH_BITS) - (b & ~HIGH_BITS);
+        return ((~a & b) | (~(a ^ b) & ~lowDifference)) & HIGH_BITS;
+    }
+
+    static long subtractBytes(long a, long b) {
+        return ((a | HIGH_BITS) - (b & ~HIGH_BITS)) ^ ((a ^ ~b) & HIGH_BITS);
+    }
+
+    private void filterBank(int bank, LongBuffer current, LongBuffer last, ByteFilter filter) {
+        int firstWord = bank * BANK_SIZE / Long.SIZE;
+        int lastWord = firstWord + BANK_SIZE / Long.SIZE;
+        for (int word = firstWord; word < lastWord; word++) {
+            if (candidates[word] != 0) {
+                long matches = 0;
+                for (int i = 0; i < Long.BYTES; i++) {
+                    int index = word * Long.BYTES + i;
+                    long mask = filter.matches(current.get(index), last.get(index)) & HIGH_BITS;
+                    matches |= ((mask >>> 7) * GATHER_HIGH_BITS >>> 56) << (i * Byte.SIZE);
+                }
+                candidates[word] &= matches;
+            }
+        }
+    }
+
+    private RamSearch filter(byte[] ram, ByteFilter filter) {
+        checkSize(ram);
+        LongBuffer current = ByteBuffer.wrap(ram).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        LongBuffer last = ByteBuffer.wrap(previous).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        IntStream.range(0, BANKS).parallel()
+                .forEach(bank -> filterBank(bank, current, last, filter));
+        previous = ram.clone();
+        LOGGER.debug("{} candidates after filter", getCandidateCount());
+        return this;
+    }
+
+    public RamSearch equalTo(byte[] ram, int value) {
+        long pattern = BYTE_ONES * (value & 0xff);
+        return filter(ram, (current, last) -> zeroBytes(current ^ pattern));
+    }
+
+    public RamSearch unchanged(byte[] ram) {
+        return filter(ram, (current, last) -> zeroBytes(current ^ last));
+    }
+
+    public RamSearch changed(byte[] ram) {
+        return filter(ram, (current, last) -> ~zeroBytes(current ^ last));
+    }
+
+    public RamSearch decreased(byte[] ram) {
+        return filter(ram, RamSearch::lessThanBytes);
+    }
+
+    public RamSearch increased(byte[] ram) {
+        return filter(ram, (current, last) -> lessThanBytes(last, current));
+    }
+
+    //Changed by exactly delta (modulo 256) since the previous capture
+    public RamSearch delta(byte[] ram, int delta) {
+        long pattern = BYTE_ONES * (delta & 0xff);
+        return filter(ram, (current, last) -> zeroBytes(subtractBytes(current, last) ^ pattern));
+    }
+
+    public RamSearch restrictTo(int fromAddress, int toAddress) {
+        for (int address = 0; address < RAM_SIZE; address++) {
+            if (address < fromAddress || address > toAddress) {
+                candidates[address / Long.SIZE] &= ~(1L << (address % Long.SIZE));
+            }
+        }
+        return this;
+    }
+
+    public int getCandidateCount() {
+        int count = 0;
+        for (long word : candidates) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int[] getCandidates() {
+        int[] addresses = new int[getCandidateCount()];
+        int index = 0;
+        for (int word = 0; word < candidates.length; word++) {
+            long bits = candidates[word];
+            while (bits != 0) {
+                addresses[index++] = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return addresses;
+    }
+
+    //Value of the address in the last capture
+    public int getValue(int address) {
+        return Byte.toUnsignedInt(previous[address]);
+    }
+
+    //A trainer poking value in every candidate, as long as they fit in one
+    public Optional<Trainer> addTrainer(TrainerList trainerList, String name, int value) {
+        int[] addresses = getCandidates();
+        if (addresses.length > 0 && addresses.length <= Trainer.MAX_POKES_PER_TRAINER) {
+            Optional<Trainer> trainer = trainerList.addTrainerNode(name);
+            trainer.ifPresent(t -> {
+                for (int address : addresses) {
+                    t.addPoke(address, value);
+                }
+            });
+            return trainer;
+        } else {
+            LOGGER.info("{} candidates don't fit in a trainer", addresses.length);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.grelobites.romgenerator.util.resource;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * A resource decoded once, either when first used or in advance on a
+ * background thread through preload(). Users asking for it while it's
+ * still being preloaded wait for that load instead of starting another.
+ * Failed loads are not cached, so the next get() tries again.
+ */
+public class LazyResource<T> {
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    private final Loader<T> loader;
+    private final AtomicReference<CompletableFuture<T>> value = new AtomicReference<>();
+
+    public LazyResource(Loader<T> loader) {
+        this.loader = loader;
+    }
+
+    private void load(CompletableFuture<T> future) {
+        try {
+            future.complete(loader.load());
+        } catch (Throwable t) {
+            value.compareAndSet(future, null);
+            future.completeExceptionally(t);
+        }
+    }
+
+    public void preload(Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (value.compareAndSet(null, future)) {
+            executor.execute(() -> load(future));
+        }
+    }
+
+    public T get() throws IOException {
+        CompletableFuture<T> future;
+        while ((future = value.get()) == null) {
+            CompletableFuture<T> newFuture = new CompletableFuture<>();
+            if (value.compareAndSet(null, newFuture)) {
+                load(newFuture);
+                future = newFuture;
+                break;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IOException(cause);
+            }
+        }
+    }
+}
@@ -7,7 +7,7 @@ import javafx.beans.property.BooleanProperty;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface RomSetHandler {
 
@@ -24,6 +24,6 @@ public interface RomSetHandler {
     void updateMenuPreview();
 
     BooleanProperty generationAllowedProperty();
-    Future<OperationResult> addGame(Game game);
+    CompletableFuture<OperationResult> addGame(Game game);
     void removeGame(Game game);
 }
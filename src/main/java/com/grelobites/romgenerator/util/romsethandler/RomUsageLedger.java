@@ -0,0 +1,108 @@
+package com.grelobites.romgenerator.util.romsethandler;
+
+import com.grelobites.romgenerator.model.Game;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/*
+ * Keeps the space used by the games in a list up to date as games are
+ * added, removed or updated, without walking the whole list on each change.
+ * The sizer must not block: it returns PENDING_SIZE for games whose size is
+ * still being calculated, and refresh() is called once it is known.
+ * To be used from the FX thread.
+ */
+public class RomUsageLedger {
+    public static final int PENDING_SIZE = -1;
+
+    private final ToIntFunction<Game> gameSizer;
+    private final Map<Game, Integer> gameSizes = new IdentityHashMap<>();
+    private final IntegerProperty usedSize = new SimpleIntegerProperty(0);
+    private final IntegerProperty pendingGames = new SimpleIntegerProperty(0);
+    private final ListChangeListener<Game> gameListListener = this::onGameListChanged;
+    private ObservableList<Game> gameList;
+
+    public RomUsageLedger(ToIntFunction<Game> gameSizer) {
+        this.gameSizer = gameSizer;
+    }
+
+    public void bind(ObservableList<Game> gameList) {
+        unbind();
+        this.gameList = gameList;
+        gameList.forEach(this::add);
+        gameList.addListener(gameListListener);
+    }
+
+    public void unbind() {
+        if (gameList != null) {
+            gameList.removeListener(gameListListener);
+            gameList = null;
+        }
+        gameSizes.clear();
+        usedSize.set(0);
+        pendingGames.set(0);
+    }
+
+    public void refresh(Game game) {
+        if (gameSizes.containsKey(game)) {
+            remove(game);
+            add(game);
+        }
+    }
+
+    public int getUsedSize() {
+        return usedSize.get();
+    }
+
+    public ReadOnlyIntegerProperty usedSizeProperty() {
+        return usedSize;
+    }
+
+    public int getPendingGames() {
+        return pendingGames.get();
+    }
+
+    public ReadOnlyIntegerProperty pendingGamesProperty() {
+        return pendingGames;
+    }
+
+    private void add(Game game) {
+        int size = gameSizer.applyAsInt(game);
+        gameSizes.put(game, size);
+        if (size == PENDING_SIZE) {
+            pendingGames.set(pendingGames.get() + 1);
+        } else {
+            usedSize.set(usedSize.get() + size);
+        }
+    }
+
+    private void remove(Game game) {
+        Integer size = gameSizes.remove(game);
+        if (size != null) {
+            if (size == PENDING_SIZE) {
+                pendingGames.set(pendingGames.get() - 1);
+            } else {
+                usedSize.set(usedSize.get() - size);
+            }
+        }
+    }
+
+    private void onGameListChanged(ListChangeListener.Change<? extends Game> change) {
+        while (change.next()) {
+            if (change.wasUpdated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    refresh(change.getList().get(i));
+                }
+            } else if (!change.wasPermutated()) {
+                change.getRemoved().forEach(this::remove);
+                change.getAddedSubList().forEach(this::add);
+            }
+        }
+    }
+}
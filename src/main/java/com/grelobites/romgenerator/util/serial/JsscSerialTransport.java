@@ -0,0 +1,136 @@
+package com.grelobites.romgenerator.util.serial;
+
+import jssc.SerialPort;
+import jssc.SerialPortException;
+import jssc.SerialPortTimeoutException;
+
+import java.io.IOException;
+
+public class JsscSerialTransport implements SerialTransport {
+    private final SerialPort serialPort;
+
+    public JsscSerialTransport(String portName) {
+        this(new SerialPort(portName));
+    }
+
+    public JsscSerialTransport(SerialPort serialPort) {
+        this.serialPort = serialPort;
+    }
+
+    private static IOException asIOException(SerialPortException e) {
+        return new IOException(e.getMessage(), e);
+    }
+
+    @Override
+    public String getName() {
+        return serialPort.getPortName();
+    }
+
+    @Override
+    public void open() throws IOException {
+        try {
+            serialPort.openPort();
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return serialPort.isOpened();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serialPort.isOpened()) {
+            try {
+                serialPort.closePort();
+            } catch (SerialPortException e) {
+                throw asIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void setParams(int baudrate, int dataBits, int stopBits, int parity) throws IOException {
+        try {
+            serialPort.setParams(baudrate, dataBits, stopBits, parity);
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public void setDTR(boolean enabled) throws IOException {
+        try {
+            serialPort.setDTR(enabled);
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public void setRTS(boolean enabled) throws IOException {
+        try {
+            serialPort.setRTS(enabled);
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public void write(byte[] data) throws IOException {
+        try {
+            serialPort.writeBytes(data);
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public byte[] read(int count, int timeout) throws IOException {
+        try {
+            return serialPort.readBytes(count, timeout);
+        } catch (SerialPortTimeoutException e) {
+            throw new SerialTransportTimeoutException(e.getMessage(), e);
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public byte[] read(int count) throws IOException {
+        try {
+            return serialPort.readBytes(count);
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public int getInputQueueSize() throws IOException {
+        try {
+            return serialPort.getInputBufferBytesCount();
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public int getOutputQueueSize() throws IOException {
+        try {
+            return serialPort.getOutputBufferBytesCount();
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+
+    @Override
+    public void purge() throws IOException {
+        try {
+            serialPort.purgePort(SerialPort.PURGE_RXCLEAR | SerialPort.PURGE_TXCLEAR);
+        } catch (SerialPortException e) {
+            throw asIOException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.grelobites.romgenerator.util.serial;
+
+import java.io.IOException;
+
+public class MeteredSerialTransport implements SerialTransport {
+    private final SerialTransport delegate;
+    private final SerialTransportMetrics metrics = new SerialTransportMetrics();
+
+    public MeteredSerialTransport(SerialTransport delegate) {
+        this.delegate = delegate;
+    }
+
+    public SerialTransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void onRetransmit() {
+        metrics.onRetransmit();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public void open() throws IOException {
+        delegate.open();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public void setParams(int baudrate, int dataBits, int stopBits, int parity) throws IOException {
+        delegate.setParams(baudrate, dataBits, stopBits, parity);
+    }
+
+    @Override
+    public void setDTR(boolean enabled) throws IOException {
+        delegate.setDTR(enabled);
+    }
+
+    @Override
+    public void setRTS(boolean enabled) throws IOException {
+        delegate.setRTS(enabled);
+    }
+
+    @Override
+    public void write(byte[] data) throws IOException {
+        long start = System.nanoTime();
+        delegate.write(data);
+        metrics.onWrite(data.length, start, System.nanoTime());
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        delegate.write(data, offset, length);
+        metrics.onWrite(length, start, System.nanoTime());
+    }
+
+    @Override
+    public byte[] read(int count, int timeout) throws IOException {
+        byte[] data = delegate.read(count, timeout);
+        metrics.onRead(data.length);
+        return data;
+    }
+
+    @Override
+    public byte[] read(int count) throws IOException {
+        byte[] data = delegate.read(count);
+        metrics.onRead(data.length);
+        return data;
+    }
+
+    @Override
+    public int getInputQueueSize() throws IOException {
+        return delegate.getInputQueueSize();
+    }
+
+    @Override
+    public int getOutputQueueSize() throws IOException {
+        return delegate.getOutputQueueSize();
+    }
+
+    @Override
+    public void purge() throws IOException {
+        delegate.purge();
+    }
+}
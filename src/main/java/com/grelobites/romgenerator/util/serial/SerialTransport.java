@@ -0,0 +1,76 @@
+package com.grelobites.romgenerator.util.serial;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ * Byte oriented serial link used by the uploaders and programmers, so they
+ * can run against a real port or a simulated device.
+ * Reads that time out throw SerialTransportTimeoutException.
+ */
+public interface SerialTransport extends Closeable {
+
+    String getName();
+
+    void open() throws IOException;
+
+    boolean isOpen();
+
+    void setParams(int baudrate, int dataBits, int stopBits, int parity) throws IOException;
+
+    void setDTR(boolean enabled) throws IOException;
+
+    void setRTS(boolean enabled) throws IOException;
+
+    void write(byte[] data) throws IOException;
+
+    default void write(byte[] data, int offset, int length) throws IOException {
+        if (offset == 0 && length == data.length) {
+            write(data);
+        } else {
+            byte[] buffer = new byte[length];
+            System.arraycopy(data, offset, buffer, 0, length);
+            write(buffer);
+        }
+    }
+
+    default void write(int value) throws IOException {
+        write(new byte[] {(byte) value});
+    }
+
+    byte[] read(int count, int timeout) throws IOException;
+
+    //Blocks until the requested bytes are received
+    byte[] read(int count) throws IOException;
+
+    //Bytes received and still not read
+    int getInputQueueSize() throws IOException;
+
+    //Bytes written but still not sent through the line
+    int getOutputQueueSize() throws IOException;
+
+    void purge() throws IOException;
+
+    /*
+     * Waits for the output queue to drain, so that the port can be reconfigured
+     * without affecting the bytes still in flight. The guard time covers what
+     * may remain in the adapter FIFO once the queue is empty.
+     * Throws SerialTransportTimeoutException if the queue doesn't drain in time.
+     */
+    default void waitForOutputDrain(long timeout, long guardTime) throws IOException {
+        try {
+            long deadline = System.currentTimeMillis() + timeout;
+            while (getOutputQueueSize() > 0) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new SerialTransportTimeoutException("Output queue not drained after "
+                            + timeout + "ms");
+                }
+                Thread.sleep(1);
+            }
+            Thread.sleep(guardTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for output drain", e);
+        }
+    }
+}
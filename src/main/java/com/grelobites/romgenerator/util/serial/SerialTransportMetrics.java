@@ -0,0 +1,106 @@
+package com.grelobites.romgenerator.util.serial;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Traffic figures of a transport: bytes moved, write throughput, the idle
+ * gaps between writes longer than IDLE_GAP_THRESHOLD and the retransmissions
+ * reported by the protocol on top.
+ */
+public class SerialTransportMetrics {
+    private static final long IDLE_GAP_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private long bytesWritten;
+    private long bytesRead;
+    private long retransmits;
+    private long idleGaps;
+    private long idleTime;
+    private long maxIdleGap;
+    private long writeTime;
+    private long firstWriteStart = -1;
+    private long lastWriteEnd = -1;
+
+    public synchronized void onWrite(int count, long startNanos, long endNanos) {
+        if (firstWriteStart < 0) {
+            firstWriteStart = startNanos;
+        } else {
+            long gap = startNanos - lastWriteEnd;
+            if (gap > IDLE_GAP_THRESHOLD) {
+                idleGaps++;
+                idleTime += gap;
+                maxIdleGap = Math.max(maxIdleGap, gap);
+            }
+        }
+        lastWriteEnd = endNanos;
+        writeTime += endNanos - startNanos;
+        bytesWritten += count;
+    }
+
+    public synchronized void onRead(int count) {
+        bytesRead += count;
+    }
+
+    public synchronized void onRetransmit() {
+        retransmits++;
+    }
+
+    public synchronized void reset() {
+        bytesWritten = bytesRead = retransmits = 0;
+        idleGaps = idleTime = maxIdleGap = writeTime = 0;
+        firstWriteStart = lastWriteEnd = -1;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public synchronized long getBytesRead() {
+        return bytesRead;
+    }
+
+    public synchronized long getRetransmits() {
+        return retransmits;
+    }
+
+    public synchronized long getIdleGaps() {
+        return idleGaps;
+    }
+
+    public synchronized long getIdleTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(idleTime);
+    }
+
+    public synchronized long getMaxIdleGapMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxIdleGap);
+    }
+
+    //From the first to the last write
+    public synchronized long getElapsedNanos() {
+        return firstWriteStart < 0 ? 0 : lastWriteEnd - firstWriteStart;
+    }
+
+    //Bytes per second from the first to the last write, idle gaps included
+    public synchronized double getThroughput() {
+        long elapsed = lastWriteEnd - firstWriteStart;
+        return elapsed > 0 ? bytesWritten * 1e9 / elapsed : 0;
+    }
+
+    //Bytes per second while writing
+    public synchronized double getWriteThroughput() {
+        return writeTime > 0 ? bytesWritten * 1e9 / writeTime : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SerialTransportMetrics{" +
+                "bytesWritten=" + bytesWritten +
+                ", bytesRead=" + bytesRead +
+                ", throughput=" + String.format("%.0f", getThroughput()) +
+                ", writeThroughput=" + String.format("%.0f", getWriteThroughput()) +
+                ", idleGaps=" + idleGaps +
+                ", idleTimeMillis=" + getIdleTimeMillis() +
+                ", maxIdleGapMillis=" + getMaxIdleGapMillis() +
+                ", retransmits=" + retransmits +
+                '}';
+    }
+}
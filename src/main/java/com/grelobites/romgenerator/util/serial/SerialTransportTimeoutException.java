@@ -0,0 +1,14 @@
+package com.grelobites.romgenerator.util.serial;
+
+import java.io.IOException;
+
+public class SerialTransportTimeoutException extends IOException {
+
+    public SerialTransportTimeoutException(String message) {
+        super(message);
+    }
+
+    public SerialTransportTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
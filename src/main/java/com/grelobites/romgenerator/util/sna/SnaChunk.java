@@ -1,11 +1,9 @@
 package com.grelobites.romgenerator.util.sna;
 
-import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.compress.sna.SnaCompressedInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
@@ -15,6 +13,7 @@ public class SnaChunk {
 
     public static final String CHUNK_MEM0 = "MEM0";
     public static final String CHUNK_MEM1 = "MEM1";
+    private static final int MEMORY_CHUNK_SIZE = 0x10000;
 
     private String name;
     private byte[] data;
@@ -47,11 +46,10 @@ public class SnaChunk {
         int size = buffer.getInt();
         LOGGER.debug("Detected chunk with name {} and size {}", name, size);
 
-        byte[] bufferAsArray = buffer.array();
-        SnaCompressedInputStream cs = new SnaCompressedInputStream(
-                new ByteArrayInputStream(bufferAsArray, buffer.position(),
-                        bufferAsArray.length - buffer.position()), size);
-        SnaChunk chunk = new SnaChunk(name, Util.fromInputStream(cs));
+        ByteBuffer source = buffer.slice();
+        source.limit(Math.min(size, source.remaining()));
+        SnaChunk chunk = new SnaChunk(name,
+                SnaCompressedInputStream.decompress(source, MEMORY_CHUNK_SIZE));
         LOGGER.debug("Shifting buffer position {}", size);
         buffer.position(buffer.position() + size);
         return chunk;
@@ -10,18 +10,34 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 public class SnaFactory {
     private static final Logger LOGGER = LoggerFactory.getLogger(SnaFactory.class);
 
 
     public static SnaImage fromInputStream(InputStream is) throws IOException {
-        ByteBuffer buffer = ByteBuffer.wrap(Util.fromInputStream(is))
-                .order(ByteOrder.LITTLE_ENDIAN);
+        return fromBuffer(ByteBuffer.wrap(Util.fromInputStream(is)));
+    }
+
+    /*
+     * The file is mapped and parsed in place. The returned image keeps
+     * views over the mapping instead of copies of the memory dump
+     */
+    public static SnaImage fromFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return fromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static SnaImage fromBuffer(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
         byte[] signature = new byte[SnaConstants.SNA_SIGNATURE.length()];
         buffer.get(signature);
         if (SnaConstants.SNA_SIGNATURE.equals(new String(signature))) {
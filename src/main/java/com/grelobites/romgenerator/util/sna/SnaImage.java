@@ -2,6 +2,7 @@ package com.grelobites.romgenerator.util.sna;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 public interface SnaImage {
@@ -50,6 +51,8 @@ public interface SnaImage {
 
     byte[] getMemoryDump();
 
+    ByteBuffer getMemoryDumpBuffer();
+
     //Version 2
     int getCpcType();
     int getInterruptNumber();
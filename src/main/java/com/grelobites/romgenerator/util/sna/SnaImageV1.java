@@ -51,6 +51,8 @@ public class SnaImageV1 extends SnaImageBase implements SnaImage {
 
     protected int memoryDumpSize;
     protected byte[] memory;
+    //Read-only view over the source buffer, only copied if the dump is requested as an array
+    protected ByteBuffer memoryBuffer;
 
     @Override
     public int getSnapshotVersion() {
@@ -214,9 +216,24 @@ public class SnaImageV1 extends SnaImageBase implements SnaImage {
 
     @Override
     public byte[] getMemoryDump() {
+        if (memory == null && memoryBuffer != null) {
+            memory = new byte[memoryBuffer.remaining()];
+            memoryBuffer.duplicate().get(memory);
+        }
         return memory;
     }
 
+    @Override
+    public ByteBuffer getMemoryDumpBuffer() {
+        if (memory != null) {
+            return ByteBuffer.wrap(memory).asReadOnlyBuffer();
+        } else if (memoryBuffer != null) {
+            return memoryBuffer.duplicate();
+        } else {
+            return ByteBuffer.allocate(0);
+        }
+    }
+
     public void setAfRegister(int afRegister) {
         this.afRegister = afRegister;
     }
@@ -342,6 +359,7 @@ public class SnaImageV1 extends SnaImageBase implements SnaImage {
 
     public void setMemory(byte[] memory) {
         this.memory = memory;
+        this.memoryBuffer = null;
     }
 
     public void setMemoryDumpSize(int memoryDumpSize) {
@@ -399,8 +417,11 @@ public class SnaImageV1 extends SnaImageBase implements SnaImage {
         buffer.position(256);
         int uncompressedMemorysize = this.memoryDumpSize * 1024;
         if (buffer.capacity() - buffer.position() >= memoryDumpSize * 1024) {
-            this.memory = new byte[memoryDumpSize * 1024];
-            buffer.get(this.memory);
+            ByteBuffer memoryBuffer = buffer.slice();
+            memoryBuffer.limit(memoryDumpSize * 1024);
+            this.memoryBuffer = memoryBuffer.asReadOnlyBuffer();
+            this.memory = null;
+            buffer.position(buffer.position() + memoryDumpSize * 1024);
         } else {
             LOGGER.warn("Overriding peripheral size on buffer underrun");
             this.memoryDumpSize = 0;
@@ -466,7 +487,7 @@ public class SnaImageV1 extends SnaImageBase implements SnaImage {
         ByteBuffer header = createHeader();
         fillHeader(header);
         os.write(header.array());
-        os.write(memory);
+        os.write(getMemoryDump());
     }
 
 
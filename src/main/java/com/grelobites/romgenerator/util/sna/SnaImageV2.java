@@ -70,7 +70,7 @@ public class SnaImageV2 extends SnaImageV1 implements SnaImage {
         ByteBuffer header = createHeader();
         fillHeader(header);
         os.write(header.array());
-        os.write(memory);
+        os.write(getMemoryDump());
     }
 
 }
@@ -250,9 +250,9 @@ public class SnaImageV3 extends SnaImageV2 implements SnaImage {
         fillHeader(header);
 
         os.write(header.array());
-        if (memory != null) {
+        if (getMemoryDump() != null) {
             //Only v3 chunks
-            os.write(memory);
+            os.write(getMemoryDump());
         }
 
         for (SnaChunk chunk : snaChunks.values()) {
@@ -321,7 +321,7 @@ public class SnaImageV3 extends SnaImageV2 implements SnaImage {
                 ", psgSelectedRegisterIndex=" + psgSelectedRegisterIndex +
                 ", psgRegisterData=" + Util.dumpAsHexString(psgRegisterData) +
                 ", memoryDumpSize=" + memoryDumpSize +
-                ", peripheral.length=" + (memory != null ? memory.length : 0) +
+                ", peripheral.length=" + getMemoryDumpBuffer().remaining() +
                 ", snaChunks.size=" + snaChunks.size() +
                 '}';
     }
@@ -5,8 +5,10 @@ import com.grelobites.romgenerator.EmulatorConfiguration;
 import com.grelobites.romgenerator.model.Game;
 import com.grelobites.romgenerator.model.HardwareMode;
 import com.grelobites.romgenerator.model.SnapshotGame;
+import com.grelobites.romgenerator.util.FramebufferPreview;
 import com.grelobites.romgenerator.util.emulator.BaseEmulator;
 import com.grelobites.romgenerator.util.emulator.EmulationAbortedException;
+import com.grelobites.romgenerator.util.emulator.StopCondition;
 import com.grelobites.romgenerator.util.emulator.peripheral.*;
 import com.grelobites.romgenerator.util.emulator.resources.LoaderResources;
 import com.grelobites.romgenerator.util.gameloader.loaders.SNAGameImageLoader;
@@ -16,7 +18,6 @@ import com.grelobites.romgenerator.util.tape.TapeLoader;
 import com.grelobites.romgenerator.util.tape.CdtTapePlayer;
 import javafx.application.Platform;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +25,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
     private static final Logger LOGGER = LoggerFactory.getLogger(TapeLoaderImpl.class);
@@ -31,7 +33,9 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
     private static final int CPU_HZ = 4000000;
     private static final int FIRM_ZONE_START = 0xB100;
     private static final int FIRM_ZONE_END = 0xBE00;
+    private static final int PREVIEW_FRAME_INTERVAL = 50;
     private final CdtTapePlayer tapePlayer;
+    private final Supplier<Boolean> restoreOnAbortedEmulation = this::isTapeNearEndPosition;
     private static EmulatorConfiguration configuration = EmulatorConfiguration.getInstance();
 
     public TapeLoaderImpl(HardwareMode hardwareMode,
@@ -63,9 +67,11 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
         return true;
     }
 
-    private void setGamePreview(Image screenshot) {
-        Platform.runLater(() -> ApplicationContext.getInstance().getGamePreview()
-                .setImage(screenshot));
+    private void updateGamePreview(FramebufferPreview preview) {
+        if (preview.isReady()) {
+            renderScreen(preview.getBackBuffer());
+            preview.publish();
+        }
     }
 
     @Override
@@ -77,13 +83,16 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
         Image savedPreview = context.getGamePreview().getImage();
         loadSnapshot(loaderResources.snaLoader());
 
-        setGamePreview(getScreenshot());
+        final FramebufferPreview preview = new FramebufferPreview(image ->
+                context.getGamePreview().setImage(image));
+        updateGamePreview(preview);
         //Define different listeners to detect emulation stop conditions
         final GateArrayChangeListener paletteGateArrayChangeListener = (f, v) -> {
             if (configuration.isTestPaletteChanges() && f == GateArrayFunction.PALETTE_DATA_FN) {
                 //Ignore border changes
                 if (isTapeNearEndPosition() && (gateArray.getSelectedPen() & 0x10) == 0) {
                     LOGGER.debug("Aborting execution on palette change with tape near end");
+                    onStopCondition(StopCondition.PALETTE_CHANGE);
                     executionAborted = true;
                     throw new EmulationAbortedException("Palette changed");
                 }
@@ -94,6 +103,7 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
         final CrtcChangeListener crtcChangeListener = (o) -> {
             if (isTapeNearEndPosition()) {
                 LOGGER.debug("Aborting execution on CRTC modification with tape near end");
+                onStopCondition(StopCondition.CRTC_ACCESS);
                 executionAborted = true;
                 throw new EmulationAbortedException("CRTC access attempt");
             }
@@ -104,11 +114,13 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
             if (isTapeNearEndPosition()) {
                 if (configuration.isTestPsgAccess() && f == PsgFunction.WRITE) {
                     LOGGER.debug("Aborting emulation on write to PSG with tape near end");
+                    onStopCondition(StopCondition.PSG_WRITE);
                     executionAborted = true;
                 } else if (configuration.isTestKeyboardReads() &&
                         f == PsgFunction.READ &&
                         Ppi.KEYSCAN_PSG_REGISTER == ppi.getSelectedPsgRegister()) {
                     LOGGER.debug("Aborting emulation on read keyboard with tape near end");
+                    onStopCondition(StopCondition.KEYBOARD_READ);
                     executionAborted = true;
                 }
             }
@@ -120,6 +132,7 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
                 tapePlayer.pause();
                 if (configuration.isTestOnMotorStopped() && isTapeNearEndPosition()) {
                     LOGGER.debug("Aborting emulation with tape stopped near tape end");
+                    onStopCondition(StopCondition.MOTOR_STOPPED);
                     executionAborted = true;
                 }
             } else {
@@ -155,15 +168,16 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
         gateArray.addChangeListener(paletteGateArrayChangeListener);
         try {
             while (!tapePlayer.isEOT() && !stopOnTapeStalled && !executionAborted) {
-                compensation = executeFrame(this::isTapeNearEndPosition, compensation);
-                if (++frameIndex % 50 == 0) {
-                    setGamePreview(getScreenshot());
+                compensation = executeFrame(restoreOnAbortedEmulation, compensation);
+                if (++frameIndex % PREVIEW_FRAME_INTERVAL == 0) {
+                    updateGamePreview(preview);
                 }
                 if (tapePlayer.getCurrentTapePosition() == currentTapePosition) {
                     framesWithoutTapeMovement++;
                     if (framesWithoutTapeMovement >= MAX_FRAMES_WITHOUT_TAPE_MOVEMENT) {
                         LOGGER.debug("{} frames without tape movement. Stopping",
                                 MAX_FRAMES_WITHOUT_TAPE_MOVEMENT);
+                        onStopCondition(StopCondition.TAPE_STALLED);
                         stopOnTapeStalled = true;
                     }
                 } else {
@@ -171,9 +185,13 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
                     currentTapePosition = tapePlayer.getCurrentTapePosition();
                 }
             }
+            if (tapePlayer.isEOT()) {
+                onStopCondition(StopCondition.TAPE_END);
+            }
             tapePlayer.stop();
         } catch (TapeFinishedException tfe) {
             LOGGER.debug("Tape finished", tfe);
+            onStopCondition(StopCondition.TAPE_END);
         } catch (EmulationAbortedException eae) {
             LOGGER.debug("Emulation aborted", eae);
         }
@@ -190,6 +208,7 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
             z80.execute();
             if (clock.getTstates() > deadline) {
                 LOGGER.warn("Unable to find landing zone before deadline with status {}", z80.getZ80State());
+                onStopCondition(StopCondition.LANDING_ZONE_TIMEOUT);
                 LOGGER.info("Simulating Space keypress");
                 //Try to press SPACE to exit dead zone
                 pressKeyDuringFrames(20, KeyboardCode.KEY_SPACE);
@@ -209,7 +228,9 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
         LOGGER.debug("Saving Snapshot with PC in {}, inRAM: {}",
                 String.format("0x%04x", z80.getRegPC()),
                 memory.isAddressInRam(z80.getRegPC()));
-        context.getGamePreview().setImage(savedPreview);
+        //Queued behind any pending preview update
+        preview.close();
+        Platform.runLater(() -> context.getGamePreview().setImage(savedPreview));
 
         return getSnapshotGame();
     }
@@ -219,6 +240,7 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
         super.poke8(address, value);
         if (isTapeNearEndPosition() && crtc.isVideoAddress(address)) {
             LOGGER.debug("Aborting execution on write to VRAM with tape at end");
+            onStopCondition(StopCondition.VRAM_WRITE);
             executionAborted = true;
             throw new EmulationAbortedException("Write to VRAM");
         }
@@ -229,6 +251,7 @@ public class TapeLoaderImpl extends BaseEmulator implements TapeLoader {
         super.poke16(address, word);
         if (isTapeNearEndPosition() && crtc.isVideoAddress(address)) {
             LOGGER.debug("Aborting execution on write to VRAM with tape at end");
+            onStopCondition(StopCondition.VRAM_WRITE);
             executionAborted = true;
             throw new EmulationAbortedException("Write to VRAM");
         }
@@ -0,0 +1,152 @@
+package com.grelobites.romgenerator.util.task;
+
+import com.grelobites.romgenerator.util.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/*
+ * Background work as a graph of CompletableFutures. Steps that depend on
+ * others are chained and run when their inputs are ready, so no pool thread
+ * ever blocks waiting for another task. Each kind of task has its own pool.
+ *
+ * Cancelling a step interrupts it if already running and cancels the steps
+ * depending on it and the steps it was waiting for.
+ */
+public class TaskGraph {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskGraph.class);
+
+    @FunctionalInterface
+    public interface Step<T, R> {
+        R apply(T value) throws Exception;
+    }
+
+    private final Map<TaskType, ExecutorService> executors = new EnumMap<>(TaskType.class);
+    private final Set<CompletableFuture<?>> pendingTasks = ConcurrentHashMap.newKeySet();
+    private final IntConsumer pendingTasksListener;
+
+    private static ThreadFactory threadFactory(TaskType type) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("RomGenerator " + type.name().toLowerCase() + " task " + count.incrementAndGet());
+            return t;
+        };
+    }
+
+    public TaskGraph(int cpuThreads, int emulationThreads, IntConsumer pendingTasksListener) {
+        executors.put(TaskType.CPU, Executors.newFixedThreadPool(cpuThreads, threadFactory(TaskType.CPU)));
+        executors.put(TaskType.EMULATION, Executors.newFixedThreadPool(emulationThreads,
+                threadFactory(TaskType.EMULATION)));
+        executors.put(TaskType.IO, Executors.newCachedThreadPool(threadFactory(TaskType.IO)));
+        executors.forEach((type, executor) -> Metrics.tasks(type).bind(executor));
+        this.pendingTasksListener = pendingTasksListener;
+    }
+
+    public TaskGraph(IntConsumer pendingTasksListener) {
+        this(Runtime.getRuntime().availableProcessors(),
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                pendingTasksListener);
+    }
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        pendingTasks.add(future);
+        pendingTasksListener.accept(pendingTasks.size());
+        future.whenComplete((r, t) -> {
+            pendingTasks.remove(future);
+            pendingTasksListener.accept(pendingTasks.size());
+        });
+        return future;
+    }
+
+    private <T> void execute(TaskType type, CompletableFuture<T> future, Callable<T> task) {
+        long queued = Metrics.now();
+        Future<?> execution = executors.get(type).submit(() -> {
+            if (!future.isDone()) {
+                long started = Metrics.now();
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+                Metrics.tasks(type).onTask(queued, started);
+            }
+        });
+        future.whenComplete((r, t) -> {
+            if (future.isCancelled()) {
+                execution.cancel(true);
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> submit(TaskType type, Callable<T> task) {
+        CompletableFuture<T> future = track(new CompletableFuture<>());
+        execute(type, future, task);
+        return future;
+    }
+
+    public <T, R> CompletableFuture<R> then(CompletableFuture<T> source, TaskType type,
+                                           Step<? super T, ? extends R> step) {
+        CompletableFuture<R> future = track(new CompletableFuture<>());
+        source.whenComplete((value, failure) -> {
+            if (source.isCancelled()) {
+                future.cancel(true);
+            } else if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                execute(type, future, () -> step.apply(value));
+            }
+        });
+        future.whenComplete((r, t) -> {
+            if (future.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    public <T> CompletableFuture<List<T>> allOf(List<? extends CompletableFuture<? extends T>> futures) {
+        CompletableFuture<List<T>> future = CompletableFuture
+                .allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.<T>toList()));
+        future.whenComplete((r, t) -> {
+            if (future.isCancelled()) {
+                futures.forEach(f -> f.cancel(true));
+            }
+        });
+        return future;
+    }
+
+    public int getPendingTasks() {
+        return pendingTasks.size();
+    }
+
+    public void cancelAll() {
+        List<CompletableFuture<?>> tasks = new ArrayList<>(pendingTasks);
+        LOGGER.debug("Cancelling {} pending tasks", tasks.size());
+        tasks.forEach(f -> f.cancel(true));
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executors.values().forEach(ExecutorService::shutdownNow);
+    }
+}
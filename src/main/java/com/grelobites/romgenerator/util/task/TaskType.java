@@ -0,0 +1,10 @@
+package com.grelobites.romgenerator.util.task;
+
+public enum TaskType {
+    //Compression, rendering and other pure computations
+    CPU,
+    //Game loaders that run the emulator. Memory hungry, so fewer of them
+    EMULATION,
+    //Serial devices and other work mostly waiting on I/O
+    IO
+}
@@ -18,7 +18,7 @@ import java.util.zip.InflaterInputStream;
 
 public class CdtWavOutputStream {
     private static final Logger LOGGER = LoggerFactory.getLogger(CdtWavOutputStream.class);
-    private WavOutputStream output;
+    private PulseOutput output;
     private byte[] tapeBuffer;
     private boolean casseteInput = false;
 
@@ -32,6 +32,10 @@ public class CdtWavOutputStream {
     private static final int MILLISECOND_TSTATES = 3500;
 
     public CdtWavOutputStream(WavFormat format, InputStream is, OutputStream os) {
+        this(is, new WavOutputStream(os, format));
+    }
+
+    public CdtWavOutputStream(InputStream is, PulseOutput output) {
         try {
             Optional<CdtHeader> header = CdtHeader.fromInputStream(is);
             if (header.isPresent()) {
@@ -43,7 +47,7 @@ public class CdtWavOutputStream {
             throw new IllegalArgumentException("Trying to read cdt tape stream", ioe);
         }
 
-        this.output = new WavOutputStream(os, format);
+        this.output = output;
     }
 
     private static int readInt(byte buffer[], int start, int len) {
@@ -194,14 +198,14 @@ public class CdtWavOutputStream {
         return blockOffsets.stream().mapToInt(i -> i).toArray();
     }
 
-    private void dumpLeader(int leaderLength, int leaderPulses) {
+    private void dumpLeader(int leaderLength, int leaderPulses) throws IOException {
         for (int i = 0; i < leaderPulses; i++) {
             output.writeValue(leaderLength, casseteInput);
             casseteInput = !casseteInput;
         }
     }
 
-    private void dumpPulseSequence(int currentTapePosition, int pulses) {
+    private void dumpPulseSequence(int currentTapePosition, int pulses) throws IOException {
         for (int i = 0; i < pulses; i++) {
             int length = readInt(tapeBuffer, currentTapePosition, 2);
             output.writeValue(length, casseteInput);
@@ -210,19 +214,19 @@ public class CdtWavOutputStream {
         }
     }
 
-    private void dumpSync(int sync1Length, int sync2Length) {
+    private void dumpSync(int sync1Length, int sync2Length) throws IOException {
         output.writeValue(sync1Length, casseteInput);
         casseteInput = !casseteInput;
         output.writeValue(sync2Length, casseteInput);
         casseteInput = !casseteInput;
     }
 
-    private void dumpPause(int pauseLength) {
+    private void dumpPause(int pauseLength) throws IOException {
         output.writeValue(pauseLength, false);
     }
 
     private void dumpData(int position, int length,
-                          int zeroLength, int oneLength, int bitsLastByte) {
+                          int zeroLength, int oneLength, int bitsLastByte) throws IOException {
         while (length-- > 0) {
             int mask = 0x80;
             for (int j = (length > 0) ? 8 : bitsLastByte; j > 0; j--) {
@@ -239,7 +243,7 @@ public class CdtWavOutputStream {
     }
 
     private void dumpDrData(int position, int length,
-                            int bitLength, int bitsLastByte) {
+                            int bitLength, int bitsLastByte) throws IOException {
         while (length-- > 0) {
             int mask = 0x80;
             for (int j = (length > 0) ? 8 : bitsLastByte; j > 0; j--) {
@@ -250,7 +254,7 @@ public class CdtWavOutputStream {
         }
     }
 
-    private void dumpRleData(int position, int length, float cswStatesSample) {
+    private void dumpRleData(int position, int length, float cswStatesSample) throws IOException {
         while (length-- > 0) {
             int duration = tapeBuffer[position++] & 0xff;
             if (duration == 0) {
@@ -0,0 +1,91 @@
+package com.grelobites.romgenerator.util.wav;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class PcmPulseOutput implements PulseOutput {
+    public static final int SPECTRUM_CLOCK = 3500000;
+    private static final int BUFFER_SIZE = 4096;
+
+    private final OutputStream out;
+    private final WavFormat format;
+    private final int cpuClock;
+    private final byte[] buffer;
+    private int bufferPosition = 0;
+    private long sampleCount = 0;
+
+    public PcmPulseOutput(OutputStream out, WavFormat format) {
+        this(out, format, SPECTRUM_CLOCK);
+    }
+
+    public PcmPulseOutput(OutputStream out, WavFormat format, int cpuClock) {
+        this.out = out;
+        this.format = format;
+        this.cpuClock = cpuClock;
+        //Keep the buffer aligned to whole frames
+        int frameSize = getFrameSize();
+        this.buffer = new byte[BUFFER_SIZE - (BUFFER_SIZE % frameSize)];
+    }
+
+    protected long tStatesToSamples(long tstates) {
+        long upper = tstates * format.getSampleRate();
+        return upper / cpuClock + (upper % cpuClock == 0 ? 0 : 1);
+    }
+
+    private int getLowValue() {
+        return format.isReversePhase() ? format.getHighValue() : format.getLowValue();
+    }
+
+    private int getHighValue() {
+        return format.isReversePhase() ? format.getLowValue() : format.getHighValue();
+    }
+
+    public int getFrameSize() {
+        return format.getChannelType().channels();
+    }
+
+    public WavFormat getFormat() {
+        return format;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    protected void writeSamples(long samples, boolean value) throws IOException {
+        byte first = (byte) (value ? getHighValue() : getLowValue());
+        byte second = first;
+        if (format.getChannelType() == ChannelType.STEREOINV) {
+            second = (byte) (value ? getLowValue() : getHighValue());
+        }
+        boolean stereo = format.getChannelType() != ChannelType.MONO;
+        for (long i = 0; i < samples; i++) {
+            if (bufferPosition == buffer.length) {
+                drainBuffer();
+            }
+            buffer[bufferPosition++] = first;
+            if (stereo) {
+                buffer[bufferPosition++] = second;
+            }
+        }
+        sampleCount += samples;
+    }
+
+    private void drainBuffer() throws IOException {
+        if (bufferPosition > 0) {
+            out.write(buffer, 0, bufferPosition);
+            bufferPosition = 0;
+        }
+    }
+
+    @Override
+    public void writeValue(long tstates, boolean value) throws IOException {
+        writeSamples(tStatesToSamples(tstates), value);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drainBuffer();
+        out.flush();
+    }
+}
@@ -0,0 +1,10 @@
+package com.grelobites.romgenerator.util.wav;
+
+import java.io.IOException;
+
+public interface PulseOutput {
+
+    void writeValue(long tstates, boolean value) throws IOException;
+
+    void flush() throws IOException;
+}
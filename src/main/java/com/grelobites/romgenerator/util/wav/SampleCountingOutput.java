@@ -0,0 +1,30 @@
+package com.grelobites.romgenerator.util.wav;
+
+/*
+ * Walks a tape without rendering it, only accounting the number of samples
+ * it would produce. Used to get the length of a stream before playing it
+ */
+public class SampleCountingOutput extends PcmPulseOutput {
+    private long sampleCount = 0;
+
+    public SampleCountingOutput(WavFormat format) {
+        super(null, format);
+    }
+
+    @Override
+    protected void writeSamples(long samples, boolean value) {
+        sampleCount += samples;
+    }
+
+    @Override
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public void flush() {}
+
+    public long getByteCount() {
+        return sampleCount * getFrameSize();
+    }
+}
@@ -9,12 +9,11 @@ import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
-public class WavOutputStream {
+public class WavOutputStream extends PcmPulseOutput {
     private static final Logger LOGGER = LoggerFactory.getLogger(WavOutputStream.class);
-    private static final int SPECTRUM_CLOCK = 3500000;
-    private static final int WAV_HEADER_LENGTH = 44;
+    public static final int WAV_HEADER_LENGTH = 44;
 
-    private byte[] getWavHeader(int wavDataLength) {
+    public static byte[] getWavHeader(WavFormat format, int wavDataLength) {
         int byteRate = format.getSampleRate() * format.getChannelType().channels();
         int sampleRate = format.getSampleRate();
         short numChannels = (short) format.getChannelType().channels();
@@ -37,61 +36,28 @@ public class WavOutputStream {
         return buffer.array();
     }
 
-    private ByteArrayOutputStream wavStream = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream wavStream;
     private final OutputStream out;
-    private WavFormat format;
-    private int cpuClock;
-    private double factor;
-
-    private long tStatesToSamples0(long tstates) {
-        return (long) (0.5D + factor * tstates);
-    }
-
-    private long tStatesToSamples(long tstates) {
-        long upper = tstates * format.getSampleRate();
-        return upper / cpuClock + (upper % cpuClock == 0 ? 0 : 1);
-    }
-
-    private int getLowValue() {
-        return format.isReversePhase() ? format.getHighValue() : format.getLowValue();
-    }
-
-    private int getHighValue() {
-        return format.isReversePhase() ? format.getLowValue() : format.getHighValue();
-    }
-
-    private void writeSamples(long samples, boolean value) {
-        int highValue = getHighValue();
-        int lowValue = getLowValue();
-        for (long i = 0; i < samples; i++) {
-            wavStream.write(value ? highValue : lowValue);
-            if (format.getChannelType() == ChannelType.STEREO) {
-                wavStream.write(value ? highValue: lowValue);
-            } else if (format.getChannelType() == ChannelType.STEREOINV) {
-                wavStream.write(value ? lowValue: highValue);
-            }
-        }
-    }
-
-    public void writeValue(long tstates, boolean value) {
-        long samples = tStatesToSamples(tstates);
-        writeSamples(samples, value);
-    }
 
     public WavOutputStream(OutputStream out, WavFormat format) {
         this(out, format, SPECTRUM_CLOCK);
     }
 
     public WavOutputStream(OutputStream out, WavFormat format, int cpuClock) {
+        this(out, format, cpuClock, new ByteArrayOutputStream());
+    }
+
+    private WavOutputStream(OutputStream out, WavFormat format, int cpuClock,
+                            ByteArrayOutputStream wavStream) {
+        super(wavStream, format, cpuClock);
         this.out = out;
-        this.format = format;
-        this.cpuClock = cpuClock;
-        this.factor = 1.0D * format.getSampleRate() / cpuClock;
+        this.wavStream = wavStream;
     }
 
+    @Override
     public void flush() throws IOException {
-        wavStream.flush();
-        out.write(getWavHeader(wavStream.size()));
+        super.flush();
+        out.write(getWavHeader(getFormat(), wavStream.size()));
         out.write(wavStream.toByteArray());
         out.flush();
         wavStream.reset();
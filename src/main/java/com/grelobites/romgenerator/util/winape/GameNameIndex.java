@@ -0,0 +1,119 @@
+package com.grelobites.romgenerator.util.winape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/*
+ * Trigram index over game names for fuzzy lookups. Names are normalized
+ * (case, punctuation and a leading or trailing "The") and queries also lose
+ * file extensions and TOSEC style tags, so a query scores on the proportion
+ * of trigrams it shares with each name. That tolerates typos and missing
+ * words.
+ */
+public class GameNameIndex {
+    private static final Pattern FILE_EXTENSION = Pattern.compile(
+            "\\.(SNA|DSK|CDT|TAP|ROM|Z80|BIN)$");
+    //From the year onwards: (1987)(Publisher)[a]...
+    private static final Pattern TOSEC_TAGS = Pattern.compile("\\((19|20)\\d\\d[^)]*\\).*$");
+    private static final Pattern FLAGS = Pattern.compile("\\[[^\\]]*\\]");
+    private static final Pattern SEPARATORS = Pattern.compile("[^A-Z0-9]+");
+    private static final String ARTICLE = "THE";
+
+    private final String[] names;
+    private final int[] trigramCounts;
+    private final Map<String, int[]> postings;
+
+    public static class Match {
+        private final int index;
+        private final double score;
+
+        private Match(int index, double score) {
+            this.index = index;
+            this.score = score;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    public static String normalizeQuery(String query) {
+        String value = query.toUpperCase(Locale.ROOT).trim();
+        value = FILE_EXTENSION.matcher(value).replaceFirst("");
+        value = TOSEC_TAGS.matcher(value).replaceFirst("");
+        value = FLAGS.matcher(value).replaceAll(" ");
+        return normalize(value);
+    }
+
+    public static String normalize(String name) {
+        String value = name.toUpperCase(Locale.ROOT);
+        value = SEPARATORS.matcher(value).replaceAll(" ").trim();
+        if (value.startsWith(ARTICLE + " ")) {
+            value = value.substring(ARTICLE.length() + 1);
+        } else if (value.endsWith(" " + ARTICLE)) {
+            value = value.substring(0, value.length() - ARTICLE.length() - 1);
+        }
+        return value;
+    }
+
+    private static String[] trigrams(String normalized) {
+        String padded = "  " + normalized + " ";
+        String[] trigrams = new String[padded.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = padded.substring(i, i + 3);
+        }
+        return Arrays.stream(trigrams).distinct().toArray(String[]::new);
+    }
+
+    public GameNameIndex(List<String> names) {
+        this.names = new String[names.size()];
+        this.trigramCounts = new int[names.size()];
+        Map<String, List<Integer>> lists = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            this.names[i] = normalize(names.get(i));
+            String[] trigrams = trigrams(this.names[i]);
+            trigramCounts[i] = trigrams.length;
+            for (String trigram : trigrams) {
+                lists.computeIfAbsent(trigram, k -> new ArrayList<>()).add(i);
+            }
+        }
+        postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((trigram, entries) -> postings.put(trigram,
+                entries.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    //Best matches first, by Dice coefficient over trigrams. Exact matches score 1
+    public List<Match> search(String query, int limit) {
+        String normalized = normalizeQuery(query);
+        String[] trigrams = trigrams(normalized);
+        int[] hits = new int[names.length];
+        for (String trigram : trigrams) {
+            int[] entries = postings.get(trigram);
+            if (entries != null) {
+                for (int entry : entries) {
+                    hits[entry]++;
+                }
+            }
+        }
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < hits.length; i++) {
+            if (hits[i] > 0) {
+                double score = names[i].equals(normalized) ? 1.0 :
+                        2.0 * hits[i] / (trigrams.length + trigramCounts[i]);
+                matches.add(new Match(i, score));
+            }
+        }
+        matches.sort((m1, m2) -> m1.score != m2.score ?
+                Double.compare(m2.score, m1.score) : Integer.compare(m1.index, m2.index));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+}
@@ -29,6 +29,20 @@ public class PokInputStream extends FilterInputStream {
         return new String(s, StandardCharsets.US_ASCII);
     }
 
+    public void skipString() throws IOException {
+        skipFully(nextNumber());
+    }
+
+    public void skipFully(long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of POK data");
+            }
+            count -= skipped;
+        }
+    }
+
     public int nextNumber() throws IOException {
         long nextValue;
         long result = 0;
@@ -5,6 +5,7 @@ import com.grelobites.romgenerator.util.winape.PokInputStream;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,10 +15,22 @@ public class WinApeGame implements Comparable<WinApeGame> {
     private String name;
     private byte[] idData;
     private int idAddr;
-    private List<WinApeTrainer> trainers = new ArrayList<>();
+    private List<WinApeTrainer> trainers;
+    private byte[] trainerSource;
+    private int trainerOffset;
     private BooleanProperty matched;
 
     public static WinApeGame fromPokInputStream(PokInputStream is) throws IOException {
+        WinApeGame game = headerFromPokInputStream(is);
+        game.trainers = readTrainers(is);
+        return game;
+    }
+
+    /*
+     * Reads only the name and the id data. The trainers that follow are
+     * decoded from the source POK data the first time they are requested.
+     */
+    public static WinApeGame headerFromPokInputStream(PokInputStream is) throws IOException {
         WinApeGame game = new WinApeGame();
         game.setName(is.nextString());
         int idSize = Util.readAsLittleEndian(is);
@@ -26,12 +39,29 @@ public class WinApeGame implements Comparable<WinApeGame> {
         is.read(idData);
         game.setIdData(idData);
         game.matched = new SimpleBooleanProperty(false);
+        return game;
+    }
 
+    public static void skipTrainers(PokInputStream is) throws IOException {
         int numTrainers = is.nextNumber();
         for (int i = 0; i < numTrainers; i++) {
-            game.getTrainers().add(WinApeTrainer.fromPokInputStream(is));
+            WinApeTrainer.skipPokInputStream(is);
         }
-        return game;
+    }
+
+    private static List<WinApeTrainer> readTrainers(PokInputStream is) throws IOException {
+        List<WinApeTrainer> trainers = new ArrayList<>();
+        int numTrainers = is.nextNumber();
+        for (int i = 0; i < numTrainers; i++) {
+            trainers.add(WinApeTrainer.fromPokInputStream(is));
+        }
+        return trainers;
+    }
+
+    public void setTrainerSource(byte[] source, int offset) {
+        this.trainerSource = source;
+        this.trainerOffset = offset;
+        this.trainers = null;
     }
 
     public String getName() {
@@ -63,6 +93,19 @@ public class WinApeGame implements Comparable<WinApeGame> {
     }
 
     public List<WinApeTrainer> getTrainers() {
+        if (trainers == null) {
+            if (trainerSource != null) {
+                try {
+                    trainers = readTrainers(new PokInputStream(new ByteArrayInputStream(trainerSource,
+                            trainerOffset, trainerSource.length - trainerOffset)));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Decoding trainers of game " + name, e);
+                }
+                trainerSource = null;
+            } else {
+                trainers = new ArrayList<>();
+            }
+        }
         return trainers;
     }
 
@@ -97,7 +140,7 @@ public class WinApeGame implements Comparable<WinApeGame> {
                 "name='" + name + '\'' +
                 ", idData=" + Arrays.toString(idData) +
                 ", idAddr=" + idAddr +
-                ", trainers=" + trainers +
+                ", trainers=" + getTrainers() +
                 '}';
     }
 }
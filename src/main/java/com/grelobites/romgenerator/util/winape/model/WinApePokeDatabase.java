@@ -1,43 +1,100 @@
 package com.grelobites.romgenerator.util.winape.model;
 
+import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.resource.LazyResource;
+import com.grelobites.romgenerator.util.winape.GameNameIndex;
 import com.grelobites.romgenerator.util.winape.PokInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 public class WinApePokeDatabase {
     private static final String SIGNATURE = "WPOK";
+    private static final String DEFAULT_DATABASE_RESOURCE = "/winape.pok";
     private static final Logger LOGGER = LoggerFactory.getLogger(WinApePokeDatabase.class);
+    private static final LazyResource<WinApePokeDatabase> DEFAULT_DATABASE = new LazyResource<>(() -> {
+        try (InputStream is = WinApePokeDatabase.class.getResourceAsStream(DEFAULT_DATABASE_RESOURCE)) {
+            return fromInputStream(is);
+        }
+    });
 
     private TreeMap<String, WinApeGame> games = new TreeMap<>();
+    private List<WinApeGame> indexedGames;
+    private GameNameIndex nameIndex;
+
+    private static class PositionedInputStream extends ByteArrayInputStream {
+        PositionedInputStream(byte[] data) {
+            super(data);
+        }
+
+        int position() {
+            return pos;
+        }
+    }
 
+    //Only game names and ids are decoded here, trainers are left in the POK data
     public static WinApePokeDatabase fromInputStream(InputStream is) throws IOException {
-        PokInputStream pis = new PokInputStream(new BufferedInputStream(is));
+        byte[] data = Util.fromInputStream(is);
+        PositionedInputStream source = new PositionedInputStream(data);
+        PokInputStream pis = new PokInputStream(source);
         if (pis.getHeader().equals(SIGNATURE)) {
             WinApePokeDatabase database = new WinApePokeDatabase();
             int numGames = pis.nextNumber();
             LOGGER.debug("Detected {} games in WinApe Poke Database", numGames);
             for (int i = 0; i < numGames; i++) {
-                WinApeGame game = WinApeGame.fromPokInputStream(pis);
+                WinApeGame game = WinApeGame.headerFromPokInputStream(pis);
+                game.setTrainerSource(data, source.position());
+                WinApeGame.skipTrainers(pis);
                 database.games.put(game.getName().toUpperCase(), game);
             }
-            LOGGER.debug("All games extracted from database");
+            database.indexedGames = new ArrayList<>(database.games.values());
+            database.nameIndex = new GameNameIndex(database.indexedGames.stream()
+                    .map(WinApeGame::getName).collect(Collectors.toList()));
+            LOGGER.debug("All games indexed from database");
             return database;
         } else {
             throw new IllegalArgumentException("Not a WinApe POK database");
         }
     }
 
+    //The bundled database, indexed once and shared
+    public static WinApePokeDatabase getDefault() {
+        try {
+            return DEFAULT_DATABASE.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void preloadDefault(Executor executor) {
+        DEFAULT_DATABASE.preload(executor);
+    }
+
+    public List<WinApeGame> search(String key, int limit) {
+        return nameIndex.search(key, limit).stream()
+                .map(m -> indexedGames.get(m.getIndex()))
+                .collect(Collectors.toList());
+    }
+
     public WinApeGame search(String key) {
-        return games.floorEntry(key.toUpperCase()).getValue();
+        List<WinApeGame> matches = search(key, 1);
+        if (!matches.isEmpty()) {
+            return matches.get(0);
+        } else {
+            Map.Entry<String, WinApeGame> entry = games.floorEntry(key.toUpperCase());
+            return entry != null ? entry.getValue() : null;
+        }
     }
 
     public WinApeGame firstGame() {
@@ -1,6 +1,7 @@
 package com.grelobites.romgenerator.util.winape.model;
 
 
+import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.winape.PokInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +33,19 @@ public class WinApeTrainer implements Comparable<WinApeTrainer> {
         return trainer;
     }
 
+    public static void skipPokInputStream(PokInputStream is) throws IOException {
+        is.skipString();
+        is.skipString();
+        //Value type, reversed flag and RAM bank
+        is.skipFully(3);
+        int numPokes = is.nextNumber();
+        for (int i = 0; i < numPokes; i++) {
+            int size = Util.readAsLittleEndian(is);
+            //Address plus the 16 bit values
+            is.skipFully(2 + 2 * size);
+        }
+    }
+
     public String getDescription() {
         return description;
     }
@@ -142,8 +142,7 @@ public class WinApePokesController {
 
     public WinApePokesController(ApplicationContext applicationContext) throws IOException {
         this.applicationContext = applicationContext;
-        this.database = WinApePokeDatabase.fromInputStream(WinApePokesController.class
-                .getResourceAsStream("/winape.pok"));
+        this.database = WinApePokeDatabase.getDefault();
 
     }
 
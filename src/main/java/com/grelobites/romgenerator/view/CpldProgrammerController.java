@@ -4,6 +4,9 @@ import com.grelobites.romgenerator.ApplicationContext;
 import com.grelobites.romgenerator.util.OperationResult;
 import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.arduino.*;
+import com.grelobites.romgenerator.util.serial.JsscSerialTransport;
+import com.grelobites.romgenerator.util.serial.SerialTransport;
+import com.grelobites.romgenerator.util.task.TaskType;
 import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
 import javafx.application.Platform;
@@ -26,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public class CpldProgrammerController {
@@ -102,7 +106,7 @@ public class CpldProgrammerController {
 
     private Animation currentLedAnimation;
 
-    private SerialPort serialPort;
+    private SerialTransport serialPort;
     private Stk500Programmer arduinoProgrammer;
     private XsvfUploader xsvfUploader;
 
@@ -148,7 +152,7 @@ public class CpldProgrammerController {
     public void onProgrammingEnd() {
         if (serialPort != null) {
             try {
-                serialPort.closePort();
+                serialPort.close();
             } catch (Exception e) {}
         }
         Platform.runLater(() -> {
@@ -192,7 +196,7 @@ public class CpldProgrammerController {
                 arduinoUpdatedLed, dandanatorUpdatedLed);
     }
 
-    private static void sync(SerialPort serialPort, Stk500Programmer programmer) {
+    private static void sync(SerialTransport serialPort, Stk500Programmer programmer) {
         for (SerialPortConfiguration spc : SerialPortConfiguration.values()) {
             try {
                 LOGGER.debug("Trying to sync with serial configuration {}", spc);
@@ -227,16 +231,16 @@ public class CpldProgrammerController {
 
         programButton.setOnAction(c -> {
 
-            applicationContext.addBackgroundTask(() -> {
+            applicationContext.submitOperation(TaskType.IO, () -> {
                 onProgrammingStart();
                 try {
                     try {
                         LOGGER.debug("Starting arduino detection");
                         onStartOperation(arduinoDetectedLed);
-                        serialPort = new SerialPort(serialPortList
+                        serialPort = new JsscSerialTransport(serialPortList
                                 .getSelectionModel().getSelectedItem());
                         arduinoProgrammer = new Stk500Programmer(serialPort);
-                        serialPort.openPort();
+                        serialPort.open();
                         sync(serialPort, arduinoProgrammer);
                         onSuccessfulOperation(arduinoDetectedLed, 0.10);
                     } catch (Exception e) {
@@ -289,8 +293,10 @@ public class CpldProgrammerController {
                                 SerialPort.STOPBITS_1,
                                 SerialPort.PARITY_NONE);
                         xsvfUploader = new XsvfUploader(serialPort);
-                        xsvfUploader.upload(Util.fromInputStream(ArduinoConstants.xsvfResource()),
-                                (d) -> progress.set(0.4 + 0.6 * d));
+                        try (InputStream xsvf = ArduinoConstants.xsvfResource()) {
+                            xsvfUploader.upload(xsvf, ArduinoConstants.xsvfResourceSize(),
+                                    (d) -> progress.set(0.4 + 0.6 * d));
+                        }
                         onSuccessfulOperation(dandanatorUpdatedLed, 1.0);
                     } catch (Exception e) {
                         LOGGER.error("During dandanator update");
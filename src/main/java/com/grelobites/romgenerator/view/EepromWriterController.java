@@ -11,7 +11,10 @@ import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.eewriter.DataProducer;
 import com.grelobites.romgenerator.util.eewriter.SerialBlockService;
 import com.grelobites.romgenerator.util.eewriter.SerialDataProducer;
-import com.grelobites.romgenerator.util.player.SampledAudioDataPlayer;
+import com.grelobites.romgenerator.util.player.AudioDataPlayerSupport;
+import com.grelobites.romgenerator.util.player.DataPlayer;
+import com.grelobites.romgenerator.util.player.StreamingAudioDataPlayer;
+import com.grelobites.romgenerator.util.task.TaskType;
 import javafx.animation.FadeTransition;
 import javafx.beans.InvalidationListener;
 import javafx.beans.binding.Bindings;
@@ -30,7 +33,7 @@ import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public class EepromWriterController {
     private static final Logger LOGGER = LoggerFactory.getLogger(EepromWriterController.class);
@@ -81,7 +84,7 @@ public class EepromWriterController {
 
     private SerialBlockService serialBlockService;
 
-    private ObjectProperty<SampledAudioDataPlayer> rescuePlayer;
+    private ObjectProperty<DataPlayer> rescuePlayer;
 
     private Stage codeViewerStage;
     private ScrollPane codeViewerPane;
@@ -150,7 +153,9 @@ public class EepromWriterController {
         currentBlock = new SimpleIntegerProperty(-1);
         rescuePlayer = new SimpleObjectProperty<>();
         try {
-            rescuePlayer.set(new SampledAudioDataPlayer(applicationContext));
+            rescuePlayer.set(StreamingAudioDataPlayer.builder()
+                    .withCdtData(AudioDataPlayerSupport.getRescueLoaderCdt())
+                    .build());
         } catch (Exception e) {
             LOGGER.error("Initializing rescue Player", e);
         }
@@ -187,10 +192,10 @@ public class EepromWriterController {
         playing.set(true);
     }
 
-    private Future<OperationResult> asyncSend(DataProducer producer) {
+    private CompletableFuture<OperationResult> asyncSend(DataProducer producer) {
         txLed.setVisible(true);
         playing.set(true);
-        return applicationContext.addBackgroundTask(() -> {
+        return applicationContext.submitOperation(TaskType.IO, () -> {
             try {
                 producer.send();
             } catch (Exception e) {
@@ -11,12 +11,12 @@ import com.grelobites.romgenerator.model.SnapshotGame;
 import com.grelobites.romgenerator.util.GameUtil;
 import com.grelobites.romgenerator.util.ImageUtil;
 import com.grelobites.romgenerator.util.LocaleUtil;
-import com.grelobites.romgenerator.util.OperationResult;
 import com.grelobites.romgenerator.util.Util;
 import com.grelobites.romgenerator.util.gamerenderer.GameRenderer;
 import com.grelobites.romgenerator.util.gamerenderer.GameRendererFactory;
 import com.grelobites.romgenerator.util.romsethandler.RomSetHandler;
 import com.grelobites.romgenerator.util.romsethandler.RomSetHandlerFactory;
+import com.grelobites.romgenerator.util.task.TaskType;
 import com.grelobites.romgenerator.view.util.DialogUtil;
 import com.grelobites.romgenerator.view.util.DirectoryAwareFileChooser;
 import javafx.application.Platform;
@@ -40,8 +40,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class MainAppController {
     private static final Logger LOGGER = LoggerFactory.getLogger(MainAppController.class);
@@ -134,35 +138,58 @@ public class MainAppController {
         }
     }
 
-    private void addGamesFromFiles(List<File> files) {
-        if (!interceptSpecialRomSet(files)) {
-            files.forEach(file ->
-                    applicationContext.addBackgroundTask(() -> {
-                        Optional<Game> gameOptional = GameUtil.createGameFromFile(file);
-                        if (gameOptional.isPresent()) {
-                            Platform.runLater(() -> getRomSetHandler().addGame(gameOptional.get()));
-                        } else {
-                            Platform.runLater(() -> {
-                                try (FileInputStream fis = new FileInputStream(file)) {
-                                    if (getApplicationContext().getGameList().isEmpty()) {
-                                        getRomSetHandler().importRomSet(fis);
-                                    } else {
-                                        getRomSetHandler().mergeRomSet(fis);
-                                    }
-                                } catch (Exception e) {
-                                    LOGGER.error("Importing ROMSet", e);
-                                    DialogUtil.buildErrorAlert(
-                                            LocaleUtil.i18n("fileImportError"),
-                                            LocaleUtil.i18n("fileImportErrorHeader"),
-                                            LocaleUtil.i18n("fileImportErrorContent"))
-                                            .showAndWait();
-                                }
-                            });
-                        }
-                        return OperationResult.successResult();
-                    }));
+    private void importRomSetFromFile(File file) {
+        try (InputStream is = new ByteArrayInputStream(Files.readAllBytes(file.toPath()))) {
+            if (getApplicationContext().getGameList().isEmpty()) {
+                getRomSetHandler().importRomSet(is);
+            } else {
+                getRomSetHandler().mergeRomSet(is);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Importing ROMSet", e);
+            DialogUtil.buildErrorAlert(
+                    LocaleUtil.i18n("fileImportError"),
+                    LocaleUtil.i18n("fileImportErrorHeader"),
+                    LocaleUtil.i18n("fileImportErrorContent"))
+                    .showAndWait();
         }
+    }
 
+    private CompletableFuture<Void> addGamesFromFiles(List<File> files) {
+        CompletableFuture<Void> added = CompletableFuture.completedFuture(null);
+        if (!interceptSpecialRomSet(files)) {
+            //Files are loaded in parallel and each one is handled as soon as it and
+            //the ones dropped before it are ready, so the drop order is kept
+            for (File file : files) {
+                CompletableFuture<Optional<Game>> loadedGame = applicationContext.submitTask(TaskType.EMULATION,
+                        () -> GameUtil.createGameFromFile(file));
+                added = added.thenCombineAsync(loadedGame, (previous, gameOptional) -> gameOptional,
+                        Platform::runLater)
+                        .thenCompose(gameOptional -> {
+                            if (gameOptional.isPresent()) {
+                                return getRomSetHandler().addGame(gameOptional.get())
+                                        .thenApply(result -> (Void) null);
+                            } else {
+                                importRomSetFromFile(file);
+                                return CompletableFuture.completedFuture(null);
+                            }
+                        })
+                        .exceptionally(failure -> {
+                            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ?
+                                    failure.getCause() : failure;
+                            if (!(cause instanceof CancellationException)) {
+                                LOGGER.error("Adding game from file {}", file, cause);
+                                Platform.runLater(() -> DialogUtil.buildErrorAlert(
+                                        LocaleUtil.i18n("fileImportError"),
+                                        LocaleUtil.i18n("fileImportErrorHeader"),
+                                        LocaleUtil.i18n("fileImportErrorContent"))
+                                        .showAndWait());
+                            }
+                            return null;
+                        });
+            }
+        }
+        return added;
     }
 
     private void updateRomSetHandler() {
@@ -0,0 +1,163 @@
+package com.grelobites.romgenerator.arduino;
+
+import com.grelobites.romgenerator.serial.SimulatedSerialDevice;
+import com.grelobites.romgenerator.util.serial.SerialTransportTimeoutException;
+
+import java.util.Arrays;
+
+/*
+ * Serial side of an optiboot-like STK500 bootloader on an ATmega328P.
+ * As the real one, it stays silent on a missing EOP and sends the final OK
+ * of a page write only once the page is in flash.
+ */
+public class Stk500BootloaderSimulator extends SimulatedSerialDevice {
+    private static final long IDLE_TIMEOUT = 1000;
+    private static final int FLASH_SIZE = 32768;
+
+    private static final int RESP_STK_OK = 0x10;
+    private static final int RESP_STK_INSYNC = 0x14;
+    private static final int RESP_STK_UNKNOWN = 0x12;
+    private static final int SYNC_CRC_EOP = 0x20;
+
+    private static final int CMND_STK_GET_SYNC = 0x30;
+    private static final int CMND_STK_GET_PARAMETER = 0x41;
+    private static final int CMND_STK_SET_DEVICE = 0x42;
+    private static final int CMND_STK_SET_DEVICE_EXT = 0x45;
+    private static final int CMND_STK_ENTER_PROGMODE = 0x50;
+    private static final int CMND_STK_LEAVE_PROGMODE = 0x51;
+    private static final int CMND_STK_LOAD_ADDRESS = 0x55;
+    private static final int CMND_STK_PROG_PAGE = 0x64;
+    private static final int CMND_STK_READ_PAGE = 0x74;
+    private static final int CMND_STK_READ_SIGN = 0x75;
+
+    private static final int PARM_STK_SW_MAJOR = 0x81;
+    private static final int SW_MAJOR_VERSION = 8;
+    private static final int[] SIGNATURE = {0x1e, 0x95, 0x0f};
+
+    private final int baudrate;
+    private final long pageWriteTime;
+    private final byte[] flash = new byte[FLASH_SIZE];
+    private int address = 0;
+    private volatile int writtenPages = 0;
+
+    public Stk500BootloaderSimulator(int baudrate, long pageWriteTime, double timeScale) {
+        super("STK500 bootloader simulator", timeScale);
+        this.baudrate = baudrate;
+        this.pageWriteTime = pageWriteTime;
+        Arrays.fill(flash, (byte) 0xff);
+    }
+
+    private int next() throws InterruptedException {
+        while (true) {
+            try {
+                return receive(1, baudrate, IDLE_TIMEOUT)[0] & 0xff;
+            } catch (SerialTransportTimeoutException e) {
+                //Keep waiting for commands
+            }
+        }
+    }
+
+    private int nextWord() throws InterruptedException {
+        return (next() << 8) | next();
+    }
+
+    private void skip(int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            next();
+        }
+    }
+
+    private boolean verifySpace() throws InterruptedException {
+        if (next() == SYNC_CRC_EOP) {
+            send(RESP_STK_INSYNC);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    protected void runDevice() throws Exception {
+        while (true) {
+            int command = next();
+            switch (command) {
+                case CMND_STK_GET_PARAMETER:
+                    int parameter = next();
+                    if (verifySpace()) {
+                        send(parameter == PARM_STK_SW_MAJOR ? SW_MAJOR_VERSION : 0, RESP_STK_OK);
+                    }
+                    break;
+                case CMND_STK_SET_DEVICE:
+                    skip(20);
+                    if (verifySpace()) {
+                        send(RESP_STK_OK);
+                    }
+                    break;
+                case CMND_STK_SET_DEVICE_EXT:
+                    skip(5);
+                    if (verifySpace()) {
+                        send(RESP_STK_OK);
+                    }
+                    break;
+                case CMND_STK_LOAD_ADDRESS:
+                    int value = next() | (next() << 8);
+                    address = value << 1;
+                    if (verifySpace()) {
+                        send(RESP_STK_OK);
+                    }
+                    break;
+                case CMND_STK_PROG_PAGE: {
+                    int length = nextWord();
+                    next();
+                    byte[] page = new byte[length];
+                    for (int i = 0; i < length; i++) {
+                        page[i] = (byte) next();
+                    }
+                    if (verifySpace()) {
+                        pause(pageWriteTime);
+                        System.arraycopy(page, 0, flash, address, length);
+                        writtenPages++;
+                        send(RESP_STK_OK);
+                    }
+                    break;
+                }
+                case CMND_STK_READ_PAGE: {
+                    int length = nextWord();
+                    next();
+                    if (verifySpace()) {
+                        for (int i = 0; i < length; i++) {
+                            send(flash[address + i]);
+                        }
+                        send(RESP_STK_OK);
+                    }
+                    break;
+                }
+                case CMND_STK_READ_SIGN:
+                    if (verifySpace()) {
+                        send(SIGNATURE);
+                        send(RESP_STK_OK);
+                    }
+                    break;
+                case CMND_STK_GET_SYNC:
+                case CMND_STK_ENTER_PROGMODE:
+                case CMND_STK_LEAVE_PROGMODE:
+                    if (verifySpace()) {
+                        send(RESP_STK_OK);
+                    }
+                    break;
+                default:
+                    if (verifySpace()) {
+                        send(RESP_STK_UNKNOWN);
+                    }
+            }
+        }
+    }
+
+    public byte[] getFlash() {
+        return flash;
+    }
+
+    public int getWrittenPages() {
+        return writtenPages;
+    }
+}
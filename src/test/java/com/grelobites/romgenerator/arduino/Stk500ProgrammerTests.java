@@ -0,0 +1,51 @@
+package com.grelobites.romgenerator.arduino;
+
+import com.grelobites.romgenerator.util.arduino.ArduinoConstants;
+import com.grelobites.romgenerator.util.arduino.Binary;
+import com.grelobites.romgenerator.util.arduino.HexUtil;
+import com.grelobites.romgenerator.util.arduino.Stk500Programmer;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Stk500ProgrammerTests {
+    private static final int BAUDRATE = 115200;
+    private static final int FLASH_PAGE_SIZE = 128;
+
+    @Test
+    public void programAndSkipUnchangedPages() throws Exception {
+        List<Binary> binaries = HexUtil.toBinaryList(ArduinoConstants.hexResource());
+        Stk500BootloaderSimulator bootloader = new Stk500BootloaderSimulator(BAUDRATE, 4, 20);
+        bootloader.open();
+        try {
+            bootloader.setParams(BAUDRATE, 8, 1, 0);
+            Stk500Programmer programmer = new Stk500Programmer(bootloader);
+            programmer.sync();
+            assertArrayEquals(new byte[] {0x1e, (byte) 0x95, 0x0f}, programmer.getDeviceSignature());
+            programmer.enterProgramMode();
+            int pages = 0;
+            for (Binary binary : binaries) {
+                programmer.programBinary(binary, true, true);
+                byte[] data = binary.toByteArray();
+                pages += (data.length + FLASH_PAGE_SIZE - 1) / FLASH_PAGE_SIZE;
+                assertArrayEquals(data, Arrays.copyOfRange(bootloader.getFlash(),
+                        binary.getAddress(), binary.getAddress() + data.length));
+            }
+            assertEquals(pages, bootloader.getWrittenPages());
+
+            for (Binary binary : binaries) {
+                programmer.programBinary(binary, true, true);
+            }
+            programmer.leaveProgramMode();
+            assertEquals(pages, bootloader.getWrittenPages());
+            assertTrue(pages > 0);
+        } finally {
+            bootloader.close();
+        }
+    }
+}
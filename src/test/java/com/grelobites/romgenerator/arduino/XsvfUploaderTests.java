@@ -0,0 +1,74 @@
+package com.grelobites.romgenerator.arduino;
+
+import com.grelobites.romgenerator.serial.SimulatedSerialDevice;
+import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.arduino.ArduinoConstants;
+import com.grelobites.romgenerator.util.arduino.XsvfUploader;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class XsvfUploaderTests {
+    private static final int BAUDRATE = 115200;
+    private static final int REQUEST_SIZE = 32;
+
+    private static class XsvfPlayerSimulator extends SimulatedSerialDevice {
+        private final int expectedBytes;
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        XsvfPlayerSimulator(int expectedBytes) {
+            super("XSVF player simulator", 20);
+            this.expectedBytes = expectedBytes;
+        }
+
+        private void sendLine(String line) {
+            for (byte value : (line + "\n").getBytes(StandardCharsets.US_ASCII)) {
+                send(value);
+            }
+        }
+
+        @Override
+        protected void runDevice() throws Exception {
+            //Startup time after the DTR reset
+            Thread.sleep(600);
+            sendLine("DSimulated player");
+            sendLine("R");
+            while (received.size() < expectedBytes) {
+                sendLine("S" + REQUEST_SIZE);
+                received.write(receive(REQUEST_SIZE, BAUDRATE, 5000));
+            }
+            sendLine("Q0,Success");
+        }
+    }
+
+    @Test
+    public void xsvfIsStreamedOnDeviceRequests() throws Exception {
+        byte[] xsvf;
+        try (InputStream stream = ArduinoConstants.xsvfResource()) {
+            xsvf = Util.fromInputStream(stream);
+        }
+        assertEquals(xsvf.length, ArduinoConstants.xsvfResourceSize());
+
+        XsvfPlayerSimulator player = new XsvfPlayerSimulator(xsvf.length);
+        player.open();
+        try {
+            player.setParams(BAUDRATE, 8, 1, 0);
+            try (InputStream stream = ArduinoConstants.xsvfResource()) {
+                new XsvfUploader(player).upload(stream, xsvf.length, null);
+            }
+        } finally {
+            player.close();
+        }
+        byte[] received = player.received.toByteArray();
+        assertArrayEquals(xsvf, Arrays.copyOf(received, xsvf.length));
+        for (int i = xsvf.length; i < received.length; i++) {
+            assertEquals((byte) 0xff, received[i]);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.grelobites.romgenerator.batch;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConstants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcRamGameCompressor;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.v2.DandanatorCpcV2RomSetExporter;
+import com.grelobites.romgenerator.model.Game;
+import com.grelobites.romgenerator.util.GameUtil;
+import com.grelobites.romgenerator.util.batch.BatchRomSetBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchRomSetBuilderTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String resourcePath(String name) throws Exception {
+        return Paths.get(BatchRomSetBuilderTests.class.getResource(name).toURI()).toString()
+                .replace("\\", "/");
+    }
+
+    private Path manifest(String name, String output, String... games) throws Exception {
+        StringBuilder entries = new StringBuilder();
+        for (String game : games) {
+            entries.append(entries.length() > 0 ? "," : "")
+                    .append("{\"file\": \"").append(resourcePath(game)).append("\"}");
+        }
+        Path manifest = folder.getRoot().toPath().resolve(name);
+        Files.write(manifest, ("{\"output\": \"" + output + "\", \"games\": [" + entries + "]}")
+                .getBytes(StandardCharsets.UTF_8));
+        return manifest;
+    }
+
+    @Test
+    public void buildsManifestsInParallelSharingCompression() throws Exception {
+        Path first = manifest("first.json", "first.rom", "/sna/1942-6128.sna", "/sna/antiriad.sna");
+        Path second = manifest("second.json", "second.rom", "/sna/1942-6128.sna", "/sna/antiriad.sna");
+
+        BatchRomSetBuilder builder = new BatchRomSetBuilder(2);
+        Map<Path, Exception> failures = builder.buildAll(Arrays.asList(first, second));
+        assertTrue(failures.isEmpty());
+
+        byte[] firstRomSet = Files.readAllBytes(first.resolveSibling("first.rom"));
+        byte[] secondRomSet = Files.readAllBytes(second.resolveSibling("second.rom"));
+        assertEquals(Constants.SLOT_SIZE * DandanatorCpcConstants.EEPROM_SLOTS, firstRomSet.length);
+        assertArrayEquals(firstRomSet, secondRomSet);
+        assertTrue(builder.getCompressionCacheHits() > 0);
+
+        //Same image as an uncached export of the same games
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DandanatorCpcV2RomSetExporter.newBuilder()
+                .withGames(Arrays.asList(
+                        loadGame("/sna/1942-6128.sna"),
+                        loadGame("/sna/antiriad.sna")))
+                .withRamGameCompressor(new DandanatorCpcRamGameCompressor())
+                .build().exportRomSet(expected);
+        assertArrayEquals(expected.toByteArray(), firstRomSet);
+    }
+
+    @Test
+    public void failedManifestsAreReported() throws Exception {
+        Path valid = manifest("valid.json", "valid.rom", "/sna/antiriad.sna");
+        Path invalid = folder.getRoot().toPath().resolve("invalid.json");
+        Files.write(invalid, "{\"games\": [{\"file\": \"missing.sna\"}]}".getBytes(StandardCharsets.UTF_8));
+
+        Map<Path, Exception> failures = new BatchRomSetBuilder(2).buildAll(Arrays.asList(valid, invalid));
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(invalid));
+        assertTrue(Files.exists(valid.resolveSibling("valid.rom")));
+    }
+
+    @Test
+    public void splitManifestsAreSpreadOverSeveralRomSets() throws Exception {
+        String[] games = new String[DandanatorCpcConstants.MAX_GAMES + 2];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = i % 2 == 0 ? "/sna/1942-6128.sna" : "/sna/antiriad.sna";
+        }
+        Path manifest = manifest("split.json", "split.rom", games);
+        String json = new String(Files.readAllBytes(manifest), StandardCharsets.UTF_8);
+        Files.write(manifest, json.replaceFirst("\\{", "{\"split\": true, ")
+                .getBytes(StandardCharsets.UTF_8));
+
+        Map<Path, Exception> failures = new BatchRomSetBuilder(2).buildAll(Arrays.asList(manifest));
+        assertTrue(failures.isEmpty());
+        assertTrue(Files.exists(manifest.resolveSibling("split-1.rom")));
+        assertTrue(Files.exists(manifest.resolveSibling("split-2.rom")));
+        assertEquals(Constants.SLOT_SIZE * DandanatorCpcConstants.EEPROM_SLOTS,
+                Files.size(manifest.resolveSibling("split-2.rom")));
+    }
+
+    private static Game loadGame(String resource) throws Exception {
+        return GameUtil.createGameFromFile(new File(resourcePath(resource))).get();
+    }
+}
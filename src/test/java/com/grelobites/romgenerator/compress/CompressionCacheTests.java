@@ -0,0 +1,42 @@
+package com.grelobites.romgenerator.compress;
+
+import com.grelobites.romgenerator.util.compress.CompressionCache;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompressionCacheTests {
+
+    private static byte[] slot(int value) {
+        byte[] data = new byte[16];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreEvicted() {
+        AtomicInteger compressions = new AtomicInteger();
+        //Room for two 10 bytes results
+        CompressionCache cache = new CompressionCache((slot, data) -> {
+            compressions.incrementAndGet();
+            return new byte[10];
+        }, 20);
+
+        cache.compressSlot(0, slot(1));
+        cache.compressSlot(0, slot(2));
+        cache.compressSlot(0, slot(1));
+        assertEquals(2, compressions.get());
+        assertEquals(1, cache.getHits());
+
+        //Evicts slot(2), the least recently used
+        cache.compressSlot(0, slot(3));
+        assertEquals(2, cache.size());
+        cache.compressSlot(0, slot(1));
+        assertEquals(3, compressions.get());
+        cache.compressSlot(0, slot(2));
+        assertEquals(4, compressions.get());
+    }
+}
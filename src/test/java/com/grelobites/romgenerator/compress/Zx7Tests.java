@@ -0,0 +1,88 @@
+package com.grelobites.romgenerator.compress;
+
+import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.compress.zx7.Zx7InputStream;
+import com.grelobites.romgenerator.util.compress.zx7.Zx7OutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Zx7Tests {
+
+    //Runs of random bytes repeated at distances up to the maximum offset
+    private static byte[] newData(int size) {
+        Random random = new Random(size);
+        byte[] data = new byte[size];
+        int i = 0;
+        while (i < size) {
+            int length = Math.min(size - i, 1 + random.nextInt(64));
+            if (i > 0 && random.nextBoolean()) {
+                int offset = 1 + random.nextInt(Math.min(i, 2176));
+                for (int j = 0; j < length; j++, i++) {
+                    data[i] = data[i - offset];
+                }
+            } else {
+                for (int j = 0; j < length; j++) {
+                    data[i++] = (byte) random.nextInt(4);
+                }
+            }
+        }
+        return data;
+    }
+
+    private static byte[] compress(byte[] data, boolean backwards) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Zx7OutputStream zos = new Zx7OutputStream(os, backwards);
+        zos.write(data);
+        zos.flush();
+        return os.toByteArray();
+    }
+
+    @Test
+    public void forwardDataIsStreamed() throws IOException {
+        byte[] data = newData(16384);
+        byte[] compressed = compress(data, false);
+
+        assertArrayEquals(data, Util.fromInputStream(
+                new Zx7InputStream(new ByteArrayInputStream(compressed))));
+
+        //One byte at a time
+        Zx7InputStream zis = new Zx7InputStream(new ByteArrayInputStream(compressed));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        int value;
+        while ((value = zis.read()) != -1) {
+            os.write(value);
+        }
+        assertArrayEquals(data, os.toByteArray());
+    }
+
+    @Test
+    public void dataIsDecompressedInPlace() throws IOException {
+        byte[] data = newData(6000);
+        for (boolean backwards : new boolean[] {false, true}) {
+            byte[] target = new byte[10000];
+            int length = new Zx7InputStream(new ByteArrayInputStream(compress(data, backwards)),
+                    backwards).decompressInto(target, 100);
+            assertEquals(data.length, length);
+            byte[] result = new byte[length];
+            System.arraycopy(target, 100, result, 0, length);
+            assertArrayEquals(data, result);
+
+            assertArrayEquals(data, Util.fromInputStream(new Zx7InputStream(
+                    new ByteArrayInputStream(compress(data, backwards)), backwards)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void decompressionIntoSmallerTargetsFails() throws IOException {
+        byte[] data = newData(2000);
+        new Zx7InputStream(new ByteArrayInputStream(compress(data, false)))
+                .decompressInto(new byte[1999], 0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.grelobites.romgenerator.dsk;
+
+import com.grelobites.romgenerator.util.dsk.DskConstants;
+import com.grelobites.romgenerator.util.dsk.FileSystemParameters;
+import com.grelobites.romgenerator.util.filesystem.Archive;
+import com.grelobites.romgenerator.util.filesystem.CpmFileSystem;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CpmFileSystemTests {
+    private static final FileSystemParameters PARAMETERS = DskConstants.CPC_DATA_FS_PARAMETERS;
+
+    private static Archive archive(String name, int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i + name.hashCode());
+        }
+        return new Archive(name, "BIN", 0, data);
+    }
+
+    @Test
+    public void removingAnArchiveCompactsTheImage() {
+        Archive first = archive("FIRST", 20000);
+        Archive second = archive("SECOND", 3000);
+        Archive third = archive("THIRD", 500);
+
+        CpmFileSystem fileSystem = new CpmFileSystem(PARAMETERS);
+        fileSystem.addArchive(first);
+        fileSystem.addArchive(second);
+        fileSystem.getSector(0, 0);
+        fileSystem.addArchive(third);
+        fileSystem.removeArchive(second);
+
+        CpmFileSystem expected = new CpmFileSystem(PARAMETERS);
+        expected.addArchive(first);
+        expected.addArchive(third);
+        assertArrayEquals(expected.asByteArray(), fileSystem.asByteArray());
+
+        byte[] image = fileSystem.asByteArray();
+        assertArrayEquals(Arrays.copyOfRange(image, 2 * PARAMETERS.getSectorSize(), 3 * PARAMETERS.getSectorSize()),
+                fileSystem.getSector(0, 2));
+    }
+
+    @Test
+    public void archivesSurviveRoundTrip() {
+        CpmFileSystem fileSystem = new CpmFileSystem(PARAMETERS);
+        fileSystem.addArchive(archive("LARGE", 12000));
+        fileSystem.addArchive(archive("SMALL", 100));
+
+        List<Archive> archives = CpmFileSystem.fromByteArray(fileSystem.asByteArray(), PARAMETERS)
+                .getArchiveList();
+        assertEquals(2, archives.size());
+        assertEquals("LARGE", archives.get(0).getName().trim());
+        assertArrayEquals(fileSystem.getArchiveList().get(0).getData(), archives.get(0).getData());
+        assertArrayEquals(fileSystem.getArchiveList().get(1).getData(), archives.get(1).getData());
+    }
+}
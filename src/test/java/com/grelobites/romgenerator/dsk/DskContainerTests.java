@@ -0,0 +1,76 @@
+package com.grelobites.romgenerator.dsk;
+
+import com.grelobites.romgenerator.util.dsk.DskContainer;
+import com.grelobites.romgenerator.util.dsk.SectorInformationBlock;
+import com.grelobites.romgenerator.util.dsk.Track;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DskContainerTests {
+
+    private static ByteBuffer extendedImage() {
+        ByteBuffer image = ByteBuffer.allocate(0x100 + 0x400).order(ByteOrder.LITTLE_ENDIAN);
+        image.put("EXTENDED CPC DSK File\r\nDisk-Info\r\n".getBytes(StandardCharsets.US_ASCII));
+        image.position(0x30);
+        image.put((byte) 2);        //Tracks
+        image.put((byte) 1);        //Sides
+        image.position(0x34);
+        image.put((byte) 4);        //Track 0 is 0x400 bytes long
+        image.put((byte) 0);        //Track 1 is unformatted
+
+        image.position(0x100);
+        image.put("Track-Info\r\n".getBytes(StandardCharsets.US_ASCII));
+        image.position(0x114);
+        image.put((byte) 2);        //Sector size (N)
+        image.put((byte) 2);        //Sector count
+        image.position(0x118);
+        //Sectors with different sizes
+        image.put(new byte[] {0, 0, (byte) 0xC2, 2, 0, 0}).putShort((short) 0x200);
+        image.put(new byte[] {0, 0, (byte) 0xC1, 1, 0, 0}).putShort((short) 0x100);
+        image.position(0x200);
+        byte[] sector = new byte[0x200];
+        Arrays.fill(sector, (byte) 0x22);
+        image.put(sector);
+        Arrays.fill(sector, 0, 0x100, (byte) 0x11);
+        image.put(sector, 0, 0x100);
+        image.flip();
+        return image;
+    }
+
+    @Test
+    public void loadExtendedImageWithVariableSectorSizes() throws IOException {
+        DskContainer container = DskContainer.fromBuffer(extendedImage());
+        Track track = container.getTrack(0);
+        assertNull(container.getTrack(1));
+
+        SectorInformationBlock sector = track.findSector(0xC1);
+        assertEquals(1, sector.getPhysicalPosition());
+        byte[] expected = new byte[0x100];
+        Arrays.fill(expected, (byte) 0x11);
+        assertArrayEquals(expected, track.getSectorData(sector.getPhysicalPosition()));
+        assertEquals(0x200, track.getSectorData(track.findSector(0xC2).getPhysicalPosition()).length);
+        assertNull(track.findSector(0xC3));
+    }
+
+    @Test
+    public void writesDoNotReachSourceBuffer() throws IOException {
+        ByteBuffer image = extendedImage();
+        DskContainer container = DskContainer.fromBuffer(image);
+        Track track = container.getTrack(0);
+        track.getSectorData(1)[0] = 0x55;
+
+        byte[] target = new byte[1];
+        track.copySectorData(1, target, 1);
+        assertEquals(0x55, target[0]);
+        assertEquals(0x11, image.get(0x400));
+    }
+}
@@ -0,0 +1,121 @@
+package com.grelobites.romgenerator.metrics;
+
+import com.grelobites.romgenerator.util.compress.CompressorType;
+import com.grelobites.romgenerator.util.emulator.StopCondition;
+import com.grelobites.romgenerator.util.metrics.CompressionMetrics;
+import com.grelobites.romgenerator.util.metrics.EmulationMetrics;
+import com.grelobites.romgenerator.util.metrics.Metrics;
+import com.grelobites.romgenerator.util.metrics.TaskMetrics;
+import com.grelobites.romgenerator.util.task.TaskType;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTests {
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void nothingIsRecordedWhenDisabled() throws Exception {
+        assertFalse(Metrics.isEnabled());
+        assertEquals(0, Metrics.now());
+
+        Metrics.compression(CompressorType.ZX7).onSlot(16384, 1024, Metrics.now());
+        Metrics.EMULATION.onStop(StopCondition.TAPE_END);
+        Metrics.EXPORT.onExport(10, 524288, Metrics.now());
+
+        assertEquals(0, Metrics.compression(CompressorType.ZX7).getSlots());
+        assertEquals(0L, (long) Metrics.EMULATION.getStopConditions().get(StopCondition.TAPE_END.name()));
+        assertEquals(0, Metrics.EXPORT.getExports());
+        assertTrue(ManagementFactory.getPlatformMBeanServer()
+                .queryNames(new ObjectName("com.grelobites.romgenerator:*"), null).isEmpty());
+    }
+
+    @Test
+    public void compressionIsPublishedThroughJmx() throws Exception {
+        CompressionMetrics metrics = new CompressionMetrics(CompressorType.ZX7, true);
+        metrics.onSlot(16384, 4096, System.nanoTime() - MILLISECOND);
+        metrics.onSlot(16384, 4096, System.nanoTime() - MILLISECOND);
+
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("com.grelobites.romgenerator:type=Compression,codec=ZX7");
+        server.registerMBean(metrics, name);
+        assertEquals(2L, server.getAttribute(name, "Slots"));
+        assertEquals(32768L, server.getAttribute(name, "BytesIn"));
+        assertEquals(0.25, (Double) server.getAttribute(name, "CompressionRatio"), 1e-9);
+        //Two slots taking at least a millisecond each
+        double slotsPerSecond = (Double) server.getAttribute(name, "SlotsPerSecond");
+        assertTrue(slotsPerSecond > 0 && slotsPerSecond <= 1000);
+        assertTrue((Double) server.getAttribute(name, "AverageSlotMicros") >= 1000);
+
+        metrics.reset();
+        assertEquals(0L, server.getAttribute(name, "Slots"));
+    }
+
+    @Test
+    public void stopConditionsAreCounted() throws Exception {
+        EmulationMetrics metrics = new EmulationMetrics(true);
+        metrics.onStop(StopCondition.DISK_KEYBOARD_RESUME);
+        metrics.onStop(StopCondition.DISK_INACTIVITY);
+        metrics.onStop(StopCondition.DISK_INACTIVITY);
+        metrics.onLoad(this, 4000000, 50, 1000000, 20480,
+                StopCondition.DISK_INACTIVITY, System.nanoTime() - MILLISECOND);
+
+        assertEquals(1, metrics.getLoads());
+        assertEquals(20480.0, metrics.getAverageFdcBytesPerLoad(), 1e-9);
+        assertEquals(1000000.0, metrics.getAverageInstructionsPerLoad(), 1e-9);
+        assertTrue(metrics.getEmulatedMhz() > 0);
+
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("com.grelobites.romgenerator:type=Emulation");
+        server.registerMBean(metrics, name);
+        TabularData conditions = (TabularData) server.getAttribute(name, "StopConditions");
+        CompositeData inactivity = conditions.get(new Object[] {StopCondition.DISK_INACTIVITY.name()});
+        assertEquals(2L, inactivity.get("value"));
+        CompositeData tapeEnd = conditions.get(new Object[] {StopCondition.TAPE_END.name()});
+        assertEquals(0L, tapeEnd.get("value"));
+    }
+
+    @Test
+    public void taskQueueAndRunTimesAreMeasured() throws Exception {
+        TaskMetrics metrics = new TaskMetrics(TaskType.CPU, true);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            metrics.bind(executor);
+            executor.submit(() -> {
+                running.countDown();
+                release.await();
+                return null;
+            });
+            running.await();
+            executor.submit(() -> { });
+            executor.submit(() -> { });
+            assertEquals(2, metrics.getQueueDepth());
+            assertEquals(1, metrics.getActiveThreads());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        long started = System.nanoTime() - MILLISECOND;
+        metrics.onTask(started - 4 * MILLISECOND, started);
+        assertEquals(1, metrics.getTasks());
+        assertTrue(metrics.getAverageQueueMillis() >= 4);
+        assertEquals(4, metrics.getMaxQueueMillis());
+        assertTrue(metrics.getAverageRunMillis() >= 1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.grelobites.romgenerator.model;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcRamGameCompressor;
+import com.grelobites.romgenerator.util.CpcFramebufferRenderer;
+import com.grelobites.romgenerator.util.ImageUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotGameTests {
+
+    private static List<byte[]> newSlots(long seed) {
+        Random random = new Random(seed);
+        List<byte[]> slots = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            byte[] slot = new byte[Constants.SLOT_SIZE];
+            if (i != 2) {
+                //Compressible but not trivial contents
+                for (int j = 0; j < slot.length; j += 64) {
+                    Arrays.fill(slot, j, j + 64, (byte) random.nextInt(4));
+                }
+            }
+            slots.add(slot);
+        }
+        return slots;
+    }
+
+    private static List<byte[]> copy(List<byte[]> slots) {
+        List<byte[]> copy = new ArrayList<>();
+        slots.forEach(slot -> copy.add(slot.clone()));
+        return copy;
+    }
+
+    @Test
+    public void identicalSlotsAreShared() {
+        List<byte[]> slots = newSlots(1);
+        SnapshotGame game = new SnapshotGame(GameType.RAM64, copy(slots));
+        SnapshotGame other = new SnapshotGame(GameType.RAM64, copy(slots));
+
+        assertTrue(game.isSlotZeroed(2));
+        assertSame(Constants.ZEROED_SLOT, game.getSlot(2));
+        for (int i = 0; i < slots.size(); i++) {
+            assertSame(game.getSlot(i), other.getSlot(i));
+        }
+    }
+
+    @Test
+    public void compressedGamesRestoreEvictedSlots() throws Exception {
+        List<byte[]> slots = newSlots(2);
+        SnapshotGame game = new SnapshotGame(GameType.RAM64, copy(slots));
+        int size = game.getSize();
+
+        List<byte[]> compressedData = game.getCompressedData(new DandanatorCpcRamGameCompressor());
+        assertTrue(compressedData.get(0).length < Constants.SLOT_SIZE);
+        assertTrue(game.getData() instanceof LazySlotList);
+        assertEquals(size, game.getSize());
+        assertTrue(game.isSlotZeroed(2));
+        for (int i = 0; i < slots.size(); i++) {
+            assertArrayEquals(slots.get(i), game.getSlot(i));
+        }
+    }
+
+    @Test
+    public void thumbnailsAverageFramebufferPixels() {
+        int[] framebuffer = CpcFramebufferRenderer.newFramebuffer();
+        framebuffer[0] = 0xff000000;
+        framebuffer[1] = 0xff0000ff;
+        framebuffer[CpcFramebufferRenderer.WIDTH] = 0xff00ff00;
+        framebuffer[CpcFramebufferRenderer.WIDTH + 1] = 0xffff0000;
+
+        int[] thumbnail = ImageUtil.thumbnailRender(framebuffer);
+        assertEquals(ImageUtil.THUMBNAIL_WIDTH * ImageUtil.THUMBNAIL_HEIGHT, thumbnail.length);
+        assertEquals(0xff404040, thumbnail[0]);
+    }
+}
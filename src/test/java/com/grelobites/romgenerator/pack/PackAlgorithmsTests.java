@@ -0,0 +1,77 @@
+package com.grelobites.romgenerator.pack;
+
+import com.grelobites.romgenerator.util.pack.Container;
+import com.grelobites.romgenerator.util.pack.PackAlgorithms;
+import com.grelobites.romgenerator.util.pack.PackedItem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class PackAlgorithmsTests {
+    private static final int CAPACITY = 10;
+
+    private static class Bin implements Container<Item> {
+        private final List<Item> items = new ArrayList<>();
+        private int remaining = CAPACITY;
+
+        @Override
+        public int getCapacity() {
+            return remaining;
+        }
+
+        @Override
+        public void addItem(Item item) {
+            if (item.getSize() > remaining) {
+                throw new IllegalStateException("Container overflow");
+            }
+            remaining -= item.getSize();
+            items.add(item);
+        }
+    }
+
+    private static class Item implements PackedItem {
+        private final int size;
+
+        public Item(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+    }
+
+    private static List<Item> items(int... sizes) {
+        return IntStream.of(sizes).mapToObj(Item::new).collect(Collectors.toList());
+    }
+
+    @Test
+    public void searchImprovesOnFirstFitDecreasing() {
+        //First fit decreasing needs three bins: 5+4, 3+3+3, 2
+        List<Item> items = items(5, 4, 3, 3, 3, 2);
+        assertEquals(2, PackAlgorithms.getLowerBound(items, CAPACITY));
+        assertEquals(3, PackAlgorithms.binOptimalPack(Bin::new, items, 0).size());
+
+        List<Bin> bins = PackAlgorithms.binOptimalPack(Bin::new, items, 1000);
+        assertEquals(2, bins.size());
+        assertEquals(items.size(), bins.stream().mapToInt(b -> b.items.size()).sum());
+    }
+
+    @Test
+    public void lowerBoundAccountsForItemsThatCannotShareContainers() {
+        //Six items bigger than half a container, even if they add up to less than 4
+        assertEquals(6, PackAlgorithms.getLowerBound(items(6, 6, 6, 6, 6, 6), CAPACITY));
+        assertEquals(3, PackAlgorithms.getLowerBound(items(7, 7, 3, 3, 3), CAPACITY));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oversizedItemsAreRejected() {
+        PackAlgorithms.binOptimalPack(Bin::new, items(3, 11), 1000);
+    }
+}
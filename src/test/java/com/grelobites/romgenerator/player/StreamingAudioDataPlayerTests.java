@@ -0,0 +1,70 @@
+package com.grelobites.romgenerator.player;
+
+import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.player.NullAudioSink;
+import com.grelobites.romgenerator.util.player.StreamingAudioDataPlayer;
+import com.grelobites.romgenerator.util.player.WavFileAudioSink;
+import com.grelobites.romgenerator.util.wav.CdtWavOutputStream;
+import com.grelobites.romgenerator.util.wav.WavFormat;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingAudioDataPlayerTests {
+
+    private static byte[] getCdt() throws Exception {
+        return Util.fromInputStream(StreamingAudioDataPlayerTests.class
+                .getResourceAsStream("/cdt/lala.cdt"));
+    }
+
+    private static void playAndWait(StreamingAudioDataPlayer player) throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        player.onFinalization(finished::countDown);
+        player.send();
+        assertTrue(finished.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void streamedAudioMatchesWavFile() throws Exception {
+        byte[] cdt = getCdt();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CdtWavOutputStream(WavFormat.DEFAULT_FORMAT, new ByteArrayInputStream(cdt), expected)
+                .flush();
+
+        File output = File.createTempFile("streamtest", ".wav");
+        output.deleteOnExit();
+        StreamingAudioDataPlayer player = StreamingAudioDataPlayer.builder()
+                .withCdtData(cdt)
+                .withAudioSink(new WavFileAudioSink(output, WavFormat.DEFAULT_FORMAT))
+                .withProgressExecutor(Runnable::run)
+                .build();
+        playAndWait(player);
+
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(output.toPath()));
+        assertEquals(1.0, player.progressProperty().get(), 0.0001);
+    }
+
+    @Test
+    public void stopInterruptsPlayback() throws Exception {
+        NullAudioSink sink = new NullAudioSink();
+        StreamingAudioDataPlayer player = StreamingAudioDataPlayer.builder()
+                .withCdtData(getCdt())
+                .withAudioSink(sink)
+                .withProgressExecutor(Runnable::run)
+                .build();
+        player.send();
+        player.stop();
+        //The player can be restarted after being stopped
+        playAndWait(player);
+        assertTrue(sink.getBytesWritten() > 0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.grelobites.romgenerator.pokefinder;
+
+import com.grelobites.romgenerator.util.pokefinder.RamSearch;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class RamSearchTests {
+
+    private static byte[] randomRam(Random random) {
+        byte[] ram = new byte[RamSearch.RAM_SIZE];
+        random.nextBytes(ram);
+        return ram;
+    }
+
+    //Copy of the capture with about a quarter of the bytes changed
+    private static byte[] mutate(byte[] ram, Random random) {
+        byte[] result = ram.clone();
+        for (int i = 0; i < result.length; i++) {
+            if (random.nextInt(4) == 0) {
+                result[i] = (byte) random.nextInt(256);
+            }
+        }
+        return result;
+    }
+
+    private static int[] expected(IntPredicate predicate) {
+        return IntStream.range(0, RamSearch.RAM_SIZE).filter(predicate).toArray();
+    }
+
+    @Test
+    public void filtersMatchBytewiseComparison() {
+        Random random = new Random(7);
+        byte[] first = randomRam(random);
+        byte[] second = mutate(first, random);
+        int[][] results = {
+                new RamSearch(first).changed(second).getCandidates(),
+                new RamSearch(first).unchanged(second).getCandidates(),
+                new RamSearch(first).decreased(second).getCandidates(),
+                new RamSearch(first).increased(second).getCandidates(),
+                new RamSearch(first).delta(second, -1).getCandidates(),
+                new RamSearch(first).equalTo(second, 0x80).getCandidates()
+        };
+        assertArrayEquals(expected(a -> first[a] != second[a]), results[0]);
+        assertArrayEquals(expected(a -> first[a] == second[a]), results[1]);
+        assertArrayEquals(expected(a -> (second[a] & 0xff) < (first[a] & 0xff)), results[2]);
+        assertArrayEquals(expected(a -> (second[a] & 0xff) > (first[a] & 0xff)), results[3]);
+        assertArrayEquals(expected(a -> (byte) (second[a] - first[a]) == -1), results[4]);
+        assertArrayEquals(expected(a -> (second[a] & 0xff) == 0x80), results[5]);
+    }
+
+    @Test
+    public void livesCounterIsFound() {
+        Random random = new Random(11);
+        int livesAddress = 0x8123;
+        byte[] ram = randomRam(random);
+        ram[livesAddress] = 3;
+        RamSearch search = new RamSearch(ram).restrictTo(0x4000, 0xffff);
+        for (int lives = 2; lives >= 0; lives--) {
+            ram = mutate(ram, random);
+            ram[livesAddress] = (byte) lives;
+            search.delta(ram, -1);
+            ram = mutate(ram, random);
+            ram[livesAddress] = (byte) lives;
+            search.unchanged(ram);
+        }
+        assertArrayEquals(new int[] {livesAddress}, search.getCandidates());
+    }
+}
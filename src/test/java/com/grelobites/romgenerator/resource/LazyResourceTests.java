@@ -0,0 +1,62 @@
+package com.grelobites.romgenerator.resource;
+
+import com.grelobites.romgenerator.util.resource.LazyResource;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class LazyResourceTests {
+
+    @Test
+    public void usersWaitForThePreloadInProgress() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        LazyResource<byte[]> resource = new LazyResource<>(() -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return new byte[16];
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            resource.preload(executor);
+            resource.preload(executor);
+            release.countDown();
+            byte[] value = resource.get();
+            assertSame(value, resource.get());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedLoadsAreRetried() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        LazyResource<String> resource = new LazyResource<>(() -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException("Unavailable");
+            }
+            return "loaded";
+        });
+        try {
+            resource.get();
+            fail("Expected failure on first load");
+        } catch (IOException e) {
+            assertEquals("Unavailable", e.getMessage());
+        }
+        assertEquals("loaded", resource.get());
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,59 @@
+package com.grelobites.romgenerator.resource;
+
+import com.grelobites.romgenerator.util.SlotBufferPool;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SlotBufferPoolTests {
+
+    @Test
+    public void releasedBuffersAreReusedZeroFilled() {
+        SlotBufferPool pool = new SlotBufferPool(16, 2);
+        byte[] buffer;
+        try (SlotBufferPool.Lease lease = pool.borrow()) {
+            buffer = lease.array();
+            Arrays.fill(buffer, (byte) 0x55);
+        }
+        try (SlotBufferPool.Lease lease = pool.borrow()) {
+            assertSame(buffer, lease.array());
+            assertArrayEquals(new byte[16], lease.array());
+        }
+        assertEquals(1, pool.getAllocations());
+        assertEquals(1, pool.getReuses());
+    }
+
+    @Test
+    public void transferredBuffersAreNotReturned() {
+        SlotBufferPool pool = new SlotBufferPool(16, 2);
+        SlotBufferPool.Lease lease = pool.borrow();
+        byte[] buffer = lease.transfer();
+        lease.close();
+        assertNotSame(buffer, pool.borrow().array());
+        assertEquals(2, pool.getAllocations());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void releasedLeasesCannotBeUsed() {
+        SlotBufferPool.Lease lease = new SlotBufferPool(16, 2).borrow();
+        lease.close();
+        lease.array();
+    }
+
+    @Test
+    public void outputStreamGrowsBeyondTheBuffer() throws Exception {
+        SlotBufferPool pool = new SlotBufferPool(4, 2);
+        byte[] data = {1, 2, 3, 4, 5, 6};
+        try (SlotBufferPool.BufferOutputStream os = new SlotBufferPool.BufferOutputStream(pool)) {
+            os.write(data);
+            assertArrayEquals(data, os.toByteArray());
+        }
+        pool.borrow();
+        assertEquals(1, pool.getReuses());
+    }
+}
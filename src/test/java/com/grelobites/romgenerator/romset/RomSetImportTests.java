@@ -0,0 +1,111 @@
+package com.grelobites.romgenerator.romset;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcRamGameCompressor;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.model.GameMapper;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.model.SlotZero;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.v2.DandanatorCpcV2RomSetExporter;
+import com.grelobites.romgenerator.model.Game;
+import com.grelobites.romgenerator.model.LazySlotList;
+import com.grelobites.romgenerator.util.GameUtil;
+import com.grelobites.romgenerator.util.PositionAwareInputStream;
+import com.grelobites.romgenerator.util.RamGameCompressor;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RomSetImportTests {
+
+    private static Game loadGame(String resource) throws Exception {
+        return GameUtil.createGameFromFile(Paths.get(RomSetImportTests.class
+                .getResource(resource).toURI()).toFile()).get();
+    }
+
+    private static byte[] export(List<Game> games, RamGameCompressor compressor) throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        DandanatorCpcV2RomSetExporter.newBuilder()
+                .withGames(games)
+                .withRamGameCompressor(compressor)
+                .build().exportRomSet(os);
+        return os.toByteArray();
+    }
+
+    private static List<Game> importGames(byte[] romSet) throws Exception {
+        InputStream is = new ByteArrayInputStream(romSet);
+        byte[] slotZeroData = new byte[Constants.SLOT_SIZE];
+        assertEquals(Constants.SLOT_SIZE, is.read(slotZeroData));
+        SlotZero slotZero = SlotZero.getImplementation(slotZeroData).get();
+        slotZero.parse();
+        slotZero.populateGameSlots(new PositionAwareInputStream(is));
+        List<Game> games = new ArrayList<>();
+        for (GameMapper mapper : slotZero.getGameMappers()) {
+            games.add(mapper.getGame());
+        }
+        return games;
+    }
+
+    @Test
+    public void unchangedGamesAreExportedWithoutRecompression() throws Exception {
+        List<Game> originals = Arrays.asList(loadGame("/sna/1942-6128.sna"), loadGame("/sna/antiriad.sna"));
+        byte[] romSet = export(originals, new DandanatorCpcRamGameCompressor());
+
+        List<Game> games = importGames(romSet);
+        assertArrayEquals(romSet, export(games, (slot, data) -> {
+            throw new IllegalStateException("Unexpected compression of slot " + slot);
+        }));
+
+        for (int i = 0; i < originals.size(); i++) {
+            Game original = originals.get(i);
+            Game game = games.get(i);
+            assertEquals(original.getSize(), game.getSize());
+            for (int slot = 0; slot < original.getSlotCount(); slot++) {
+                assertEquals(original.isSlotZeroed(slot), game.isSlotZeroed(slot));
+                assertArrayEquals(original.getSlot(slot), game.getSlot(slot));
+            }
+        }
+    }
+
+    @Test
+    public void slotsAreLoadedOnceAndOnlyWhenRead() {
+        AtomicInteger loads = new AtomicInteger();
+        Callable<byte[]> loader = () -> {
+            loads.incrementAndGet();
+            return new byte[Constants.SLOT_SIZE];
+        };
+        LazySlotList slots = new LazySlotList(Arrays.asList(loader, null, loader, loader));
+
+        assertTrue(slots.isZeroed(1));
+        assertNull(slots.get(1));
+        assertEquals(Constants.SLOT_SIZE, slots.getLength(0));
+        assertFalse(slots.isLoaded(0));
+
+        slots.get(0);
+        slots.get(0);
+        assertEquals(1, loads.get());
+
+        //Replacing a slot does not load it and views share the loaded slots
+        byte[] replacement = new byte[Constants.SLOT_SIZE];
+        slots.set(2, replacement);
+        LazySlotList view = (LazySlotList) slots.subList(2, 4);
+        assertTrue(view.isLoaded(0));
+        assertFalse(view.isLoaded(1));
+        slots.loadAll();
+        assertTrue(view.isLoaded(1));
+        assertEquals(2, loads.get());
+        assertTrue(replacement == view.get(0));
+    }
+}
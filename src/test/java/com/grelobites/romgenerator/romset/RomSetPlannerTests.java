@@ -0,0 +1,101 @@
+package com.grelobites.romgenerator.romset;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.DandanatorCpcConstants;
+import com.grelobites.romgenerator.handlers.dandanatorcpc.v2.RomSetPlanner;
+import com.grelobites.romgenerator.model.Game;
+import com.grelobites.romgenerator.model.GameType;
+import com.grelobites.romgenerator.model.RomGame;
+import com.grelobites.romgenerator.model.SnapshotGame;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RomSetPlannerTests {
+
+    private static byte[] newSlot(int value) {
+        byte[] slot = new byte[Constants.SLOT_SIZE];
+        Arrays.fill(slot, (byte) value);
+        return slot;
+    }
+
+    private static Game newRomGame(String name) {
+        Game game = new RomGame(GameType.ROM, newSlot(name.hashCode()));
+        game.setName(name);
+        return game;
+    }
+
+    //Eight slots stored uncompressed
+    private static Game newSnapshotGame(String name) {
+        List<byte[]> slots = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            slots.add(newSlot(i + 1));
+        }
+        SnapshotGame game = new SnapshotGame(GameType.RAM128, slots);
+        game.setCompressed(false);
+        game.setName(name);
+        return game;
+    }
+
+    private static List<String> names(List<Game> games) {
+        return games.stream().map(Game::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void gameLimitIsHonouredAndGroupsKeptTogether() throws Exception {
+        List<Game> games = new ArrayList<>();
+        Map<Game, String> groups = new HashMap<>();
+        for (int i = 0; i < 45; i++) {
+            Game game = newRomGame("Game " + i);
+            games.add(game);
+            if (i % 5 == 0) {
+                groups.put(game, "Group");
+            }
+        }
+        List<RomSetPlanner.Cartridge> cartridges = RomSetPlanner.newBuilder()
+                .withGames(games)
+                .withGrouping(groups::get)
+                .build().plan();
+
+        assertEquals(3, cartridges.size());
+        List<Game> planned = new ArrayList<>();
+        for (RomSetPlanner.Cartridge cartridge : cartridges) {
+            List<Game> cartridgeGames = cartridge.getGames();
+            assertTrue(cartridgeGames.size() <= DandanatorCpcConstants.MAX_GAMES);
+            long grouped = cartridgeGames.stream().filter(groups::containsKey).count();
+            assertTrue(grouped == 0 || grouped == groups.size());
+            planned.addAll(cartridgeGames);
+        }
+        planned.sort((a, b) -> Integer.compare(games.indexOf(a), games.indexOf(b)));
+        assertEquals(names(games), names(planned));
+    }
+
+    @Test
+    public void romSetsAreFilledUpToCapacity() throws Exception {
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            games.add(newSnapshotGame("Snapshot " + i));
+        }
+        for (int i = 0; i < 12; i++) {
+            games.add(newRomGame("Rom " + i));
+        }
+        //30 slots per ROM set with the extra ROM, 60 slots of games
+        List<RomSetPlanner.Cartridge> cartridges = RomSetPlanner.newBuilder()
+                .withGames(games)
+                .withIncludeExtraRom(true)
+                .build().plan();
+
+        assertEquals(2, cartridges.size());
+        for (RomSetPlanner.Cartridge cartridge : cartridges) {
+            assertEquals(30 * Constants.SLOT_SIZE, cartridge.getSize());
+        }
+    }
+}
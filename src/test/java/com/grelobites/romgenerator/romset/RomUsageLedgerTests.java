@@ -0,0 +1,59 @@
+package com.grelobites.romgenerator.romset;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.model.Game;
+import com.grelobites.romgenerator.model.GameType;
+import com.grelobites.romgenerator.model.RomGame;
+import com.grelobites.romgenerator.util.romsethandler.RomUsageLedger;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class RomUsageLedgerTests {
+
+    private static Game newGame(String name) {
+        Game game = new RomGame(GameType.ROM, new byte[Constants.SLOT_SIZE]);
+        game.setName(name);
+        return game;
+    }
+
+    @Test
+    public void tracksAddedAndRemovedGames() {
+        ObservableList<Game> games = FXCollections.observableArrayList(Game::getObservable);
+        RomUsageLedger ledger = new RomUsageLedger(g -> g.getName().length());
+        games.add(newGame("abc"));
+        ledger.bind(games);
+        Game game = newGame("abcde");
+        games.add(game);
+        assertEquals(8, ledger.getUsedSize());
+
+        game.setName("ab");
+        assertEquals(5, ledger.getUsedSize());
+
+        games.remove(game);
+        assertEquals(3, ledger.getUsedSize());
+    }
+
+    @Test
+    public void pendingGamesAreAccountedOnRefresh() {
+        ObservableList<Game> games = FXCollections.observableArrayList();
+        Set<Game> sized = new HashSet<>();
+        RomUsageLedger ledger = new RomUsageLedger(g -> sized.contains(g) ?
+                100 : RomUsageLedger.PENDING_SIZE);
+        ledger.bind(games);
+        Game game = newGame("game");
+        games.add(game);
+        assertEquals(1, ledger.getPendingGames());
+        assertEquals(0, ledger.getUsedSize());
+
+        sized.add(game);
+        ledger.refresh(game);
+        assertEquals(0, ledger.getPendingGames());
+        assertEquals(100, ledger.getUsedSize());
+    }
+}
@@ -0,0 +1,62 @@
+package com.grelobites.romgenerator.screen;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.model.CrtcDisplayData;
+import com.grelobites.romgenerator.util.CpcColor;
+import com.grelobites.romgenerator.util.CpcFramebufferRenderer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CpcFramebufferRendererTests {
+
+    private static byte[] palette() {
+        byte[] palette = new byte[Constants.CPC_PALETTE_SIZE];
+        palette[0] = 0x54;  //Black paper
+        palette[1] = 0x4B;  //Bright white ink
+        palette[16] = 0x4C; //Bright red border
+        return palette;
+    }
+
+    @Test
+    public void mode2PixelsAreDoubledVertically() {
+        byte[] slot = new byte[Constants.SLOT_SIZE];
+        byte[] palette = palette();
+        slot[0] = (byte) 0xA0;
+        int[] framebuffer = new CpcFramebufferRenderer().render(
+                CpcFramebufferRenderer.newFramebuffer(), 2, slot,
+                CrtcDisplayData.DEFAULT_VALUE, palette);
+
+        int ink = CpcColor.hardIndexedArgb(palette[1]);
+        int paper = CpcColor.hardIndexedArgb(palette[0]);
+        for (int line = 0; line < 2; line++) {
+            int offset = line * CpcFramebufferRenderer.WIDTH;
+            assertEquals(ink, framebuffer[offset]);
+            assertEquals(paper, framebuffer[offset + 1]);
+            assertEquals(ink, framebuffer[offset + 2]);
+            assertEquals(paper, framebuffer[offset + 3]);
+        }
+    }
+
+    @Test
+    public void borderIsFilledOutsideVisibleArea() {
+        byte[] palette = palette();
+        CrtcDisplayData displayData = CrtcDisplayData.newBuilder()
+                .withDisplayOffset(0)
+                .withVisibleWidth(32)
+                .withVisibleHeight(20)
+                .build();
+        int[] framebuffer = new CpcFramebufferRenderer().render(
+                CpcFramebufferRenderer.newFramebuffer(), 1,
+                new byte[Constants.SLOT_SIZE], displayData, palette);
+
+        int border = CpcColor.hardIndexedArgb(palette[16]);
+        int paper = CpcColor.hardIndexedArgb(palette[0]);
+        //32 visible characters in mode 1 leave 64 border pixels per side
+        assertEquals(border, framebuffer[0]);
+        assertEquals(border, framebuffer[40 * CpcFramebufferRenderer.WIDTH + 63]);
+        assertEquals(paper, framebuffer[40 * CpcFramebufferRenderer.WIDTH + 64]);
+        assertEquals(paper, framebuffer[40 * CpcFramebufferRenderer.WIDTH + 575]);
+        assertEquals(border, framebuffer[40 * CpcFramebufferRenderer.WIDTH + 576]);
+    }
+}
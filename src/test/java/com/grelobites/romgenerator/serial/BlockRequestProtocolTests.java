@@ -0,0 +1,78 @@
+package com.grelobites.romgenerator.serial;
+
+import com.grelobites.romgenerator.util.SerialPortConfiguration;
+import com.grelobites.romgenerator.util.eewriter.BlockRequestProtocol;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BlockRequestProtocolTests {
+
+    private static class RecordingHandler implements BlockRequestProtocol.Handler {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void sendAck() {
+            events.add("ACK");
+        }
+
+        @Override
+        public void sendBlock(int block, SerialPortConfiguration serialPortConfiguration) {
+            events.add("SEND " + block + " " + serialPortConfiguration.baudrate);
+        }
+
+        @Override
+        public void onBlockWritten(int block) {
+            events.add("WRITTEN " + block);
+        }
+
+        @Override
+        public void onCommunicationClosed() {
+            events.add("EOC");
+        }
+    }
+
+    private static List<String> run(int... received) {
+        RecordingHandler handler = new RecordingHandler();
+        BlockRequestProtocol protocol = new BlockRequestProtocol(handler);
+        for (int value : received) {
+            protocol.onDataReceived(value);
+        }
+        return handler.events;
+    }
+
+    @Test
+    public void blocksAreWrittenWhenTheWriterMovesOn() {
+        List<String> events = run(
+                BlockRequestProtocol.MARK_SYNC_115200, BlockRequestProtocol.MARK_SYNC_115200, 0,
+                BlockRequestProtocol.MARK_SYNC_57600, 1,
+                BlockRequestProtocol.MARK_EOC);
+        assertEquals(7, events.size());
+        assertEquals("ACK", events.get(0));
+        assertEquals("SEND 0 " + SerialPortConfiguration.MODE_115200.baudrate, events.get(1));
+        assertEquals("ACK", events.get(2));
+        assertEquals("WRITTEN 0", events.get(3));
+        assertEquals("SEND 1 " + SerialPortConfiguration.MODE_57600.baudrate, events.get(4));
+        assertEquals("WRITTEN 1", events.get(5));
+        assertEquals("EOC", events.get(6));
+    }
+
+    @Test
+    public void requestedAgainBlockIsNotWritten() {
+        List<String> events = run(
+                BlockRequestProtocol.MARK_SYNC_57600, 3,
+                BlockRequestProtocol.MARK_SYNC_57600, 3,
+                BlockRequestProtocol.MARK_SYNC_57600, 4);
+        assertEquals("SEND 3 " + SerialPortConfiguration.MODE_57600.baudrate, events.get(3));
+        assertEquals("WRITTEN 3", events.get(5));
+        assertEquals(1, events.stream().filter(e -> e.startsWith("WRITTEN")).count());
+    }
+
+    @Test
+    public void requestsBeforeSyncAreIgnored() {
+        assertEquals(0, run(5, 6).size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.grelobites.romgenerator.serial;
+
+import com.grelobites.romgenerator.util.SerialPortConfiguration;
+import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.eewriter.BlockRequestProtocol;
+import com.grelobites.romgenerator.util.serial.SerialTransportTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Device side of the EEPROM writer protocol: requests every block in order,
+ * checks the block number and checksum trailing each one and requests it
+ * again when they don't match.
+ */
+public class EepromWriterSimulator extends SimulatedSerialDevice {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EepromWriterSimulator.class);
+    private static final long ACK_TIMEOUT = 1000;
+    private static final long BLOCK_TIMEOUT = 5000;
+
+    private final int blockSize;
+    private final int blockCount;
+    private final SerialPortConfiguration transferConfiguration;
+    private final long blockProgramTime;
+    private final byte[] eeprom;
+    private volatile int rejectedBlocks = 0;
+    private volatile boolean finished = false;
+
+    public EepromWriterSimulator(int blockSize, int blockCount,
+                                 SerialPortConfiguration transferConfiguration,
+                                 long blockProgramTime, double timeScale) {
+        super("EEPROM writer simulator", timeScale);
+        this.blockSize = blockSize;
+        this.blockCount = blockCount;
+        this.transferConfiguration = transferConfiguration;
+        this.blockProgramTime = blockProgramTime;
+        this.eeprom = new byte[blockSize * blockCount];
+    }
+
+    private boolean isValidFrame(int block, byte[] frame) {
+        int crc = Util.getBlockCrc16(frame, blockSize + 1);
+        return (frame[blockSize] & 0xff) == block &&
+                (frame[blockSize + 1] & 0xff) == (crc & 0xff) &&
+                (frame[blockSize + 2] & 0xff) == (crc >> 8);
+    }
+
+    @Override
+    protected void runDevice() throws Exception {
+        int syncMark = transferConfiguration == SerialPortConfiguration.MODE_115200 ?
+                BlockRequestProtocol.MARK_SYNC_115200 : BlockRequestProtocol.MARK_SYNC_57600;
+        int block = 0;
+        while (block < blockCount) {
+            send(syncMark);
+            try {
+                byte[] ack = receive(1, SerialPortConfiguration.MODE_57600.baudrate, ACK_TIMEOUT);
+                if ((ack[0] & 0xff) != BlockRequestProtocol.MARK_ACK) {
+                    LOGGER.debug("Unexpected ACK value {}", ack[0] & 0xff);
+                    continue;
+                }
+            } catch (SerialTransportTimeoutException e) {
+                LOGGER.debug("No ACK received");
+                continue;
+            }
+            send(block);
+            byte[] frame;
+            try {
+                frame = receive(blockSize + 3, transferConfiguration.baudrate, BLOCK_TIMEOUT);
+            } catch (SerialTransportTimeoutException e) {
+                LOGGER.debug("Timeout receiving block {}", block);
+                rejectedBlocks++;
+                continue;
+            }
+            if (isValidFrame(block, frame)) {
+                System.arraycopy(frame, 0, eeprom, block * blockSize, blockSize);
+                pause(blockProgramTime);
+                block++;
+            } else {
+                LOGGER.debug("Rejected block {}", block);
+                rejectedBlocks++;
+            }
+        }
+        send(BlockRequestProtocol.MARK_EOC);
+        finished = true;
+    }
+
+    public byte[] getEeprom() {
+        return eeprom;
+    }
+
+    public int getRejectedBlocks() {
+        return rejectedBlocks;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
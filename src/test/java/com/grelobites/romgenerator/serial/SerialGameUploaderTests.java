@@ -0,0 +1,91 @@
+package com.grelobites.romgenerator.serial;
+
+import com.grelobites.romgenerator.Constants;
+import com.grelobites.romgenerator.model.GameType;
+import com.grelobites.romgenerator.model.SnapshotGame;
+import com.grelobites.romgenerator.util.SerialGameUploader;
+import com.grelobites.romgenerator.util.gameloader.loaders.SNAGameImageLoader;
+import com.grelobites.romgenerator.util.serial.SerialTransportTimeoutException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SerialGameUploaderTests {
+    //Game header, chunk and flags plus the launch code trailer
+    private static final int FIRST_BLOCK_FIXED_SIZE = 127 + 34;
+    private static final int[] SLOT_SEQUENCE_64 = new int[]{0, 1, 2};
+    private static final double TIME_SCALE = 20;
+
+    private static SnapshotGame game() throws Exception {
+        SnapshotGame game = (SnapshotGame) new SNAGameImageLoader().load(SerialGameUploaderTests.class
+                .getResourceAsStream("/sna/1942-6128.sna"));
+        assertEquals(GameType.RAM64, game.getType());
+        return game;
+    }
+
+    private static int headerSize() throws IOException {
+        return FIRST_BLOCK_FIXED_SIZE + Constants.getUsbLaunchcodeHeader().length;
+    }
+
+    private static int[] blockSizes() throws IOException {
+        int[] blockSizes = new int[SLOT_SEQUENCE_64.length + 1];
+        Arrays.fill(blockSizes, Constants.SLOT_SIZE);
+        blockSizes[0] += headerSize();
+        return blockSizes;
+    }
+
+    private static void assertUploaded(long responseDelay) throws Exception {
+        SnapshotGame game = game();
+        UsbGameReceiverSimulator receiver = new UsbGameReceiverSimulator(TIME_SCALE, responseDelay, blockSizes());
+        new SerialGameUploader(game, receiver).run();
+        receiver.awaitDevice(1000);
+
+        List<byte[]> blocks = receiver.getReceivedBlocks();
+        assertEquals(SLOT_SEQUENCE_64.length + 1, blocks.size());
+        assertArrayEquals(game.getSlot(game.getScreenSlot()),
+                Arrays.copyOfRange(blocks.get(0), headerSize(), blocks.get(0).length));
+        for (int i = 0; i < SLOT_SEQUENCE_64.length; i++) {
+            assertArrayEquals(game.getSlot(SLOT_SEQUENCE_64[i]), blocks.get(i + 1));
+        }
+        assertEquals(0, receiver.getFramingErrors());
+    }
+
+    @Test
+    public void gameIsUploadedToSimulatedReceiver() throws Exception {
+        assertUploaded(500);
+    }
+
+    @Test
+    public void gameIsUploadedToReceiverAnsweringImmediately() throws Exception {
+        //Next request queued while the uploader still waits for the line to drain
+        assertUploaded(0);
+    }
+
+    @Test
+    public void uploadFailsWhenOutputDoesNotDrain() throws Exception {
+        UsbGameReceiverSimulator receiver = new UsbGameReceiverSimulator(TIME_SCALE, 0, blockSizes()) {
+            @Override
+            public int getOutputQueueSize() {
+                return 1;
+            }
+        };
+        try {
+            new SerialGameUploader(game(), receiver).run();
+            fail("Upload completed with the output queue stuck");
+        } catch (RuntimeException e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof SerialTransportTimeoutException)) {
+                cause = cause.getCause();
+            }
+            assertTrue("Unexpected failure " + e, cause instanceof SerialTransportTimeoutException);
+        }
+        assertEquals(1, receiver.getReceivedBlocks().size());
+    }
+}
@@ -0,0 +1,124 @@
+package com.grelobites.romgenerator.serial;
+
+import com.grelobites.romgenerator.util.SerialPortConfiguration;
+import com.grelobites.romgenerator.util.eewriter.BlockRequestProtocol;
+import com.grelobites.romgenerator.util.eewriter.SerialDataProducer;
+import com.grelobites.romgenerator.util.serial.MeteredSerialTransport;
+import com.grelobites.romgenerator.util.serial.SerialTransportTimeoutException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SerialTransportSimulatorTests {
+    private static final int BLOCK_SIZE = 16384;
+    private static final int BLOCK_COUNT = 4;
+    private static final double TIME_SCALE = 20;
+    private static final long TRANSFER_TIMEOUT = 20000;
+
+    private static class HostHandler implements BlockRequestProtocol.Handler {
+        private final MeteredSerialTransport transport;
+        private final byte[] romset;
+        private boolean drainFirstAttempt;
+        private int lastBlock = -1;
+        private boolean closed = false;
+
+        HostHandler(MeteredSerialTransport transport, byte[] romset, boolean drainFirstAttempt) {
+            this.transport = transport;
+            this.romset = romset;
+            this.drainFirstAttempt = drainFirstAttempt;
+        }
+
+        @Override
+        public void sendAck() {
+            try {
+                transport.write(BlockRequestProtocol.MARK_ACK);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void sendBlock(int block, SerialPortConfiguration serialPortConfiguration) throws Exception {
+            boolean retransmit = block == lastBlock;
+            if (retransmit) {
+                transport.onRetransmit();
+            }
+            lastBlock = block;
+            serialPortConfiguration.apply(transport);
+            transport.write(SerialDataProducer.blockFrame(block, romset, block * BLOCK_SIZE, BLOCK_SIZE));
+            if (drainFirstAttempt || retransmit) {
+                transport.waitForOutputDrain(2000, 5);
+            }
+            SerialPortConfiguration.MODE_57600.apply(transport);
+        }
+
+        @Override
+        public void onBlockWritten(int block) {
+        }
+
+        @Override
+        public void onCommunicationClosed() {
+            closed = true;
+        }
+    }
+
+    private static byte[] romset() {
+        byte[] romset = new byte[BLOCK_SIZE * BLOCK_COUNT];
+        new Random(42).nextBytes(romset);
+        return romset;
+    }
+
+    private static HostHandler transfer(EepromWriterSimulator device, byte[] romset,
+                                        boolean drainFirstAttempt) throws Exception {
+        MeteredSerialTransport transport = new MeteredSerialTransport(device);
+        HostHandler handler = new HostHandler(transport, romset, drainFirstAttempt);
+        BlockRequestProtocol protocol = new BlockRequestProtocol(handler);
+        transport.open();
+        try {
+            SerialPortConfiguration.MODE_57600.apply(transport);
+            long deadline = System.currentTimeMillis() + TRANSFER_TIMEOUT;
+            while (!handler.closed && System.currentTimeMillis() < deadline) {
+                try {
+                    protocol.onDataReceived(transport.read(1, 100)[0] & 0xff);
+                } catch (SerialTransportTimeoutException e) {
+                }
+            }
+        } finally {
+            transport.close();
+        }
+        assertTrue("Transfer not completed", handler.closed);
+        return handler;
+    }
+
+    @Test
+    public void romsetIsWrittenToSimulatedDevice() throws Exception {
+        byte[] romset = romset();
+        EepromWriterSimulator device = new EepromWriterSimulator(BLOCK_SIZE, BLOCK_COUNT,
+                SerialPortConfiguration.MODE_115200, 100, TIME_SCALE);
+        HostHandler handler = transfer(device, romset, true);
+
+        assertArrayEquals(romset, device.getEeprom());
+        assertEquals(0, device.getFramingErrors());
+        assertEquals(0, device.getRejectedBlocks());
+        assertEquals(0, handler.transport.getMetrics().getRetransmits());
+        assertTrue(handler.transport.getMetrics().getBytesWritten() >= romset.length);
+    }
+
+    @Test
+    public void speedChangeBeforeDrainCorruptsBlock() throws Exception {
+        byte[] romset = romset();
+        EepromWriterSimulator device = new EepromWriterSimulator(BLOCK_SIZE, BLOCK_COUNT,
+                SerialPortConfiguration.MODE_115200, 100, TIME_SCALE);
+        HostHandler handler = transfer(device, romset, false);
+
+        assertArrayEquals(romset, device.getEeprom());
+        assertTrue(device.getFramingErrors() > 0);
+        assertEquals(BLOCK_COUNT, device.getRejectedBlocks());
+        assertEquals(BLOCK_COUNT, handler.transport.getMetrics().getRetransmits());
+    }
+}
@@ -0,0 +1,273 @@
+package com.grelobites.romgenerator.serial;
+
+import com.grelobites.romgenerator.util.serial.SerialTransport;
+import com.grelobites.romgenerator.util.serial.SerialTransportTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/*
+ * In-process stand-in for a device attached to a serial port. The host side
+ * is the SerialTransport; subclasses implement the device side in runDevice()
+ * on their own thread.
+ * Host writes go through a simulated line that moves bytes at the configured
+ * speed (scaled by timeScale). Each byte reaches the device tagged with the
+ * speed the host had set when it left the line, so reconfiguring the port
+ * with bytes still queued shows up as framing errors, as it would on real
+ * hardware.
+ */
+public abstract class SimulatedSerialDevice implements SerialTransport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulatedSerialDevice.class);
+    //Start bit, 8 data bits and 2 stop bits
+    private static final int BITS_PER_BYTE = 11;
+    private static final int OUTPUT_BUFFER_SIZE = 4096;
+    private static final long LINE_TICK = 1;
+    //Speed difference tolerated by the device UART
+    private static final int BAUDRATE_TOLERANCE_DIVIDER = 20;
+
+    private final String name;
+    private final double timeScale;
+    private final Object lock = new Object();
+    private final ArrayDeque<Byte> outputQueue = new ArrayDeque<>();
+    private final ArrayDeque<Long> deviceInput = new ArrayDeque<>();
+    private final ArrayDeque<Byte> hostInput = new ArrayDeque<>();
+    private volatile int baudrate = 9600;
+    private volatile boolean open = false;
+    private int framingErrors = 0;
+    private Exception deviceFailure;
+    private Thread lineThread;
+    private Thread deviceThread;
+
+    protected SimulatedSerialDevice(String name, double timeScale) {
+        this.name = name;
+        this.timeScale = timeScale;
+    }
+
+    protected abstract void runDevice() throws Exception;
+
+    private void runLine() {
+        long last = System.nanoTime();
+        double budget = 0;
+        while (open) {
+            try {
+                Thread.sleep(LINE_TICK);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            synchronized (lock) {
+                if (outputQueue.isEmpty()) {
+                    budget = 0;
+                } else {
+                    budget += (now - last) * baudrate * timeScale / BITS_PER_BYTE / 1e9;
+                    while (budget >= 1 && !outputQueue.isEmpty()) {
+                        deviceInput.add(((long) baudrate << 8) | (outputQueue.poll() & 0xff));
+                        budget--;
+                    }
+                    lock.notifyAll();
+                }
+            }
+            last = now;
+        }
+    }
+
+    private void runDeviceThread() {
+        try {
+            runDevice();
+        } catch (InterruptedException e) {
+            LOGGER.debug("Simulated device {} stopped", name);
+        } catch (Exception e) {
+            LOGGER.warn("Simulated device {} failed", name, e);
+            synchronized (lock) {
+                deviceFailure = e;
+            }
+        }
+    }
+
+    private void waitOnLock(long deadline) throws IOException {
+        try {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining > 0) {
+                lock.wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        if (!open) {
+            throw new IOException("Port " + name + " closed");
+        }
+    }
+
+    //Device side
+
+    protected void send(int... values) {
+        synchronized (lock) {
+            for (int value : values) {
+                hostInput.add((byte) value);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    protected byte[] receive(int count, int expectedBaudrate, long timeout)
+            throws InterruptedException, SerialTransportTimeoutException {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (lock) {
+            while (deviceInput.size() < count) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SerialTransportTimeoutException("Device timed out waiting for " + count + " bytes");
+                }
+                lock.wait(remaining);
+            }
+            byte[] data = new byte[count];
+            for (int i = 0; i < count; i++) {
+                long value = deviceInput.poll();
+                int receivedBaudrate = (int) (value >>> 8);
+                data[i] = (byte) value;
+                if (Math.abs(receivedBaudrate - expectedBaudrate) > expectedBaudrate / BAUDRATE_TOLERANCE_DIVIDER) {
+                    framingErrors++;
+                    data[i] ^= 0xff;
+                }
+            }
+            return data;
+        }
+    }
+
+    //Device side delays (i.e. flash programming) are scaled as the line is
+    protected void pause(long millis) throws InterruptedException {
+        Thread.sleep((long) (millis / timeScale));
+    }
+
+    public int getFramingErrors() {
+        synchronized (lock) {
+            return framingErrors;
+        }
+    }
+
+    public Exception getDeviceFailure() {
+        synchronized (lock) {
+            return deviceFailure;
+        }
+    }
+
+    public void awaitDevice(long timeout) throws InterruptedException {
+        deviceThread.join(timeout);
+    }
+
+    //Host side
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (open) {
+            throw new IOException("Port " + name + " already opened");
+        }
+        open = true;
+        lineThread = new Thread(this::runLine, name + " line");
+        lineThread.setDaemon(true);
+        lineThread.start();
+        deviceThread = new Thread(this::runDeviceThread, name + " device");
+        deviceThread.setDaemon(true);
+        deviceThread.start();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        if (open) {
+            open = false;
+            lineThread.interrupt();
+            deviceThread.interrupt();
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void setParams(int baudrate, int dataBits, int stopBits, int parity) {
+        this.baudrate = baudrate;
+    }
+
+    @Override
+    public void setDTR(boolean enabled) {
+    }
+
+    @Override
+    public void setRTS(boolean enabled) {
+    }
+
+    @Override
+    public void write(byte[] data) throws IOException {
+        write(data, 0, data.length);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        synchronized (lock) {
+            for (int i = offset; i < offset + length; i++) {
+                while (outputQueue.size() >= OUTPUT_BUFFER_SIZE) {
+                    waitOnLock(Long.MAX_VALUE);
+                }
+                outputQueue.add(data[i]);
+            }
+        }
+    }
+
+    @Override
+    public byte[] read(int count, int timeout) throws IOException {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (lock) {
+            while (hostInput.size() < count) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new SerialTransportTimeoutException("Timed out reading " + count + " bytes");
+                }
+                waitOnLock(deadline);
+            }
+            byte[] data = new byte[count];
+            for (int i = 0; i < count; i++) {
+                data[i] = hostInput.poll();
+            }
+            return data;
+        }
+    }
+
+    @Override
+    public byte[] read(int count) throws IOException {
+        return read(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int getInputQueueSize() {
+        synchronized (lock) {
+            return hostInput.size();
+        }
+    }
+
+    @Override
+    public int getOutputQueueSize() {
+        synchronized (lock) {
+            return outputQueue.size();
+        }
+    }
+
+    @Override
+    public void purge() {
+        synchronized (lock) {
+            outputQueue.clear();
+            hostInput.clear();
+        }
+    }
+}
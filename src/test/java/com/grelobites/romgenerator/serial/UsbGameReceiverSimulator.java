@@ -0,0 +1,43 @@
+package com.grelobites.romgenerator.serial;
+
+import com.grelobites.romgenerator.util.SerialPortConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Device side of the serial game upload: requests each block in turn and
+ * waits for the expected number of bytes at 115200 bauds. Each request after
+ * the first one comes responseDelay milliseconds after the previous block.
+ */
+public class UsbGameReceiverSimulator extends SimulatedSerialDevice {
+    private static final int BLOCK_REQUEST = 0x00;
+    private static final long BLOCK_TIMEOUT = 10000;
+
+    private final long responseDelay;
+    private final int[] blockSizes;
+    private final List<byte[]> receivedBlocks = Collections.synchronizedList(new ArrayList<>());
+
+    public UsbGameReceiverSimulator(double timeScale, long responseDelay, int... blockSizes) {
+        super("USB game receiver simulator", timeScale);
+        this.responseDelay = responseDelay;
+        this.blockSizes = blockSizes;
+    }
+
+    @Override
+    protected void runDevice() throws Exception {
+        for (int i = 0; i < blockSizes.length; i++) {
+            if (i > 0) {
+                pause(responseDelay);
+            }
+            send(BLOCK_REQUEST);
+            receivedBlocks.add(receive(blockSizes[i], SerialPortConfiguration.MODE_115200.baudrate,
+                    BLOCK_TIMEOUT));
+        }
+    }
+
+    public List<byte[]> getReceivedBlocks() {
+        return receivedBlocks;
+    }
+}
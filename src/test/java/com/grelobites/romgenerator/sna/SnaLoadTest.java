@@ -7,7 +7,12 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 public class SnaLoadTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(SnaLoadTest.class);
@@ -18,4 +23,17 @@ public class SnaLoadTest {
 
         LOGGER.debug("Image is {}", image);
     }
+
+    @Test
+    public void testMappedLoadMatchesStreamLoad() throws IOException, URISyntaxException {
+        for (String name : new String[] {"/sna/antiriad.sna", "/sna/1942-6128.sna"}) {
+            SnaImage streamed = SnaFactory.fromInputStream(
+                    SnaLoadTest.class.getResourceAsStream(name));
+            SnaImage mapped = SnaFactory.fromFile(
+                    new File(SnaLoadTest.class.getResource(name).toURI()));
+            assertEquals(streamed.getPC(), mapped.getPC());
+            assertArrayEquals(streamed.getMemoryDump(), mapped.getMemoryDump());
+            assertEquals(streamed.getSnaChunks().keySet(), mapped.getSnaChunks().keySet());
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.grelobites.romgenerator.task;
+
+import com.grelobites.romgenerator.util.task.TaskGraph;
+import com.grelobites.romgenerator.util.task.TaskType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskGraphTests {
+    private final AtomicInteger maxPendingTasks = new AtomicInteger();
+    private final TaskGraph taskGraph = new TaskGraph(1, 1,
+            count -> maxPendingTasks.accumulateAndGet(count, Math::max));
+
+    @After
+    public void shutdown() {
+        taskGraph.shutdown();
+    }
+
+    //Completion listeners may still be running when get() returns
+    private int awaitPendingTasks() throws InterruptedException {
+        for (int i = 0; i < 100 && taskGraph.getPendingTasks() > 0; i++) {
+            Thread.sleep(10);
+        }
+        return taskGraph.getPendingTasks();
+    }
+
+    @Test
+    public void dependentStepsDoNotBlockPoolThreads() throws Exception {
+        //A single CPU thread would deadlock if any step waited on another
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = taskGraph.submit(TaskType.CPU, () -> {
+            release.await();
+            return 1;
+        });
+        CompletableFuture<Integer> second = taskGraph.submit(TaskType.CPU, () -> 2);
+        CompletableFuture<Integer> sum = taskGraph.then(
+                taskGraph.allOf(Arrays.asList(first, second)), TaskType.CPU,
+                values -> values.get(0) + values.get(1));
+        assertEquals(3, taskGraph.getPendingTasks());
+        release.countDown();
+        CompletableFuture<Integer> nested = taskGraph.submit(TaskType.CPU, () -> 3)
+                .thenCompose(v -> taskGraph.submit(TaskType.CPU, () -> v * 2));
+
+        assertEquals(Integer.valueOf(3), sum.get(5, TimeUnit.SECONDS));
+        assertEquals(Integer.valueOf(6), nested.get(5, TimeUnit.SECONDS));
+        assertTrue(maxPendingTasks.get() >= 3);
+        assertEquals(0, awaitPendingTasks());
+    }
+
+    @Test
+    public void cancellationReachesRunningAndDependentSteps() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Integer> emulation = taskGraph.submit(TaskType.EMULATION, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return 0;
+        });
+        CompletableFuture<Integer> dependent = taskGraph.then(emulation, TaskType.CPU, v -> v + 1);
+        CompletableFuture<Integer> last = taskGraph.then(dependent, TaskType.CPU, v -> v + 1);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        dependent.cancel(true);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(emulation.isCancelled());
+        assertTrue(last.isCancelled());
+
+        //The emulation pool is usable again after the interruption
+        List<Integer> values = taskGraph.allOf(Arrays.asList(
+                taskGraph.submit(TaskType.EMULATION, () -> 1),
+                taskGraph.submit(TaskType.IO, () -> 2))).get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(1, 2), values);
+        assertEquals(0, awaitPendingTasks());
+    }
+}
@@ -0,0 +1,54 @@
+package com.grelobites.romgenerator.winape;
+
+import com.grelobites.romgenerator.util.Util;
+import com.grelobites.romgenerator.util.winape.PokInputStream;
+import com.grelobites.romgenerator.util.winape.model.WinApeGame;
+import com.grelobites.romgenerator.util.winape.model.WinApePokeDatabase;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class WinApePokeDatabaseTests {
+    private static final String DATABASE_RESOURCE = "/winape.pok";
+
+    private static byte[] databaseData() throws IOException {
+        return Util.fromInputStream(WinApePokeDatabaseTests.class.getResourceAsStream(DATABASE_RESOURCE));
+    }
+
+    @Test
+    public void lazyTrainersMatchFullDecoding() throws IOException {
+        byte[] data = databaseData();
+        PokInputStream pis = new PokInputStream(new ByteArrayInputStream(data));
+        pis.getHeader();
+        int numGames = pis.nextNumber();
+        TreeMap<String, WinApeGame> expected = new TreeMap<>();
+        for (int i = 0; i < numGames; i++) {
+            WinApeGame game = WinApeGame.fromPokInputStream(pis);
+            expected.put(game.getName().toUpperCase(), game);
+        }
+
+        WinApePokeDatabase database = WinApePokeDatabase.fromInputStream(new ByteArrayInputStream(data));
+        assertEquals(expected.size(), database.games().size());
+        Iterator<WinApeGame> games = database.games().iterator();
+        for (WinApeGame game : expected.values()) {
+            assertEquals(game.toString(), games.next().toString());
+        }
+    }
+
+    @Test
+    public void searchToleratesMessyNames() throws IOException {
+        WinApePokeDatabase database = WinApePokeDatabase.fromInputStream(
+                new ByteArrayInputStream(databaseData()));
+        assertEquals("Arkanoid", database.search("ARKANOID").getName());
+        assertEquals("A Team, The", database.search("The A-Team").getName());
+        assertEquals("Army Moves (Part 2)", database.search("Army Moves 2").getName());
+        assertEquals("Auf Weidersehen Monty",
+                database.search("Auf Wiedersehen Monty (1987)(Gremlin)[a].dsk").getName());
+        assertEquals("Arkanoid - Revenge of Doh", database.search("arkanoid revenge doh").getName());
+    }
+}